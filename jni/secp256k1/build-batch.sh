@@ -0,0 +1,12 @@
+#!/bin/bash
+
+# Builds the batch verification entry point as a companion library for an existing (Linux) libsecp256k1 build.
+#  The companion library is loaded after libsecp256k1 and resolves the libsecp256k1 functions from the already-loaded library.
+
+if [[ -z "${JAVA_HOME}" ]]; then
+    echo "JAVA_HOME is not set."
+    exit 1
+fi
+
+gcc -O2 -fPIC -Wall -DSECP256K1_BATCH_STANDALONE -I"$JAVA_HOME/include" -I"$JAVA_HOME/include/linux" -shared -o libsecp256k1batch.so src/java/org_bitcoin_NativeSecp256k1_batch.c -ldl
+mv libsecp256k1batch.so ../../src/main/resources/lib/.
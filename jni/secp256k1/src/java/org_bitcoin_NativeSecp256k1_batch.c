@@ -0,0 +1,153 @@
+/*
+ * Batch signature verification for org.bitcoin.NativeSecp256k1.
+ *
+ * This file is compiled into libsecp256k1's JNI library alongside src/java/org_bitcoin_NativeSecp256k1.c.
+ *  Copy it into the libsecp256k1 source tree (src/java/) and append it to the JNI_LIB sources in Makefile.am
+ *  before running the build (see ../../README).
+ *
+ * Alternatively, it may be compiled on its own (with SECP256K1_BATCH_STANDALONE defined) into a companion library that is
+ *  loaded after an existing libsecp256k1 build; the libsecp256k1 functions are then resolved from the already-loaded library
+ *  (see ../../build-batch.sh).
+ *
+ * Record layout (RECORD_BYTE_COUNT bytes per signature, packed contiguously within the record buffer):
+ *      [0..32)     message hash
+ *      [32..96)    compact signature: r (32 bytes, big-endian) followed by s (32 bytes, big-endian)
+ *      [96]        public key byte count (0 marks the record as invalid)
+ *      [97..162)   public key (compressed or uncompressed), zero-padded to 65 bytes
+ *
+ * The result buffer is a bitmap of ((recordCount + 7) / 8) bytes; bit (i % 8) of byte (i / 8) is set when record i is valid.
+ *  Returns the number of valid records, or -1 if the library is unable to verify the batch (e.g. the buffers are not direct).
+ */
+
+#ifdef SECP256K1_BATCH_STANDALONE
+#define _GNU_SOURCE
+#endif
+
+#include <stdint.h>
+#include <string.h>
+
+#ifdef SECP256K1_BATCH_STANDALONE
+
+#include <dlfcn.h>
+#include <link.h>
+#include <jni.h>
+
+#define SECP256K1_API JNIEXPORT
+
+typedef struct secp256k1_context_struct secp256k1_context;
+typedef struct { unsigned char data[64]; } secp256k1_pubkey;
+typedef struct { unsigned char data[64]; } secp256k1_ecdsa_signature;
+
+typedef int (*secp256k1_ecdsa_signature_parse_compact_function)(const secp256k1_context*, secp256k1_ecdsa_signature*, const unsigned char*);
+typedef int (*secp256k1_ecdsa_signature_normalize_function)(const secp256k1_context*, secp256k1_ecdsa_signature*, const secp256k1_ecdsa_signature*);
+typedef int (*secp256k1_ec_pubkey_parse_function)(const secp256k1_context*, secp256k1_pubkey*, const unsigned char*, size_t);
+typedef int (*secp256k1_ecdsa_verify_function)(const secp256k1_context*, const secp256k1_ecdsa_signature*, const unsigned char*, const secp256k1_pubkey*);
+
+static secp256k1_ecdsa_signature_parse_compact_function secp256k1_ecdsa_signature_parse_compact = NULL;
+static secp256k1_ecdsa_signature_normalize_function secp256k1_ecdsa_signature_normalize = NULL;
+static secp256k1_ec_pubkey_parse_function secp256k1_ec_pubkey_parse = NULL;
+static secp256k1_ecdsa_verify_function secp256k1_ecdsa_verify = NULL;
+
+/*
+ * NOTE: The JVM loads each library with local symbol visibility, so the functions cannot be linked by name.
+ *  Instead, each loaded object is searched for the libsecp256k1 that created the context.
+ */
+static int _resolve_secp256k1_functions(struct dl_phdr_info* info, size_t size, void* data) {
+    void* library;
+
+    (void) size;
+    (void) data;
+
+    if ( (info->dlpi_name == NULL) || (info->dlpi_name[0] == '\0') ) { return 0; }
+
+    library = dlopen(info->dlpi_name, (RTLD_LAZY | RTLD_NOLOAD));
+    if (library == NULL) { return 0; }
+
+    secp256k1_ecdsa_signature_parse_compact = (secp256k1_ecdsa_signature_parse_compact_function) dlsym(library, "secp256k1_ecdsa_signature_parse_compact");
+    secp256k1_ecdsa_signature_normalize = (secp256k1_ecdsa_signature_normalize_function) dlsym(library, "secp256k1_ecdsa_signature_normalize");
+    secp256k1_ec_pubkey_parse = (secp256k1_ec_pubkey_parse_function) dlsym(library, "secp256k1_ec_pubkey_parse");
+    secp256k1_ecdsa_verify = (secp256k1_ecdsa_verify_function) dlsym(library, "secp256k1_ecdsa_verify");
+
+    if ( (secp256k1_ecdsa_signature_parse_compact != NULL) && (secp256k1_ecdsa_signature_normalize != NULL) && (secp256k1_ec_pubkey_parse != NULL) && (secp256k1_ecdsa_verify != NULL) ) {
+        return 1; // NOTE: The handle is intentionally retained for the lifetime of the process...
+    }
+
+    dlclose(library);
+    return 0;
+}
+
+static int _is_initialized(void) {
+    if (secp256k1_ecdsa_verify != NULL) { return 1; }
+    return dl_iterate_phdr(_resolve_secp256k1_functions, NULL);
+}
+
+#else
+
+#include "org_bitcoin_NativeSecp256k1.h"
+#include "include/secp256k1.h"
+
+static int _is_initialized(void) {
+    return 1;
+}
+
+#endif
+
+#define MESSAGE_BYTE_COUNT 32
+#define COMPACT_SIGNATURE_BYTE_COUNT 64
+#define MAX_PUBLIC_KEY_BYTE_COUNT 65
+#define RECORD_BYTE_COUNT (MESSAGE_BYTE_COUNT + COMPACT_SIGNATURE_BYTE_COUNT + 1 + MAX_PUBLIC_KEY_BYTE_COUNT)
+
+SECP256K1_API jint JNICALL Java_org_bitcoin_NativeSecp256k1_secp256k1_1ecdsa_1verify_1batch
+  (JNIEnv* env, jclass classObject, jobject recordBufferObject, jobject resultBufferObject, jlong ctx_l, jint recordCount)
+{
+    secp256k1_context* ctx = (secp256k1_context*) (uintptr_t) ctx_l;
+    const unsigned char* records;
+    unsigned char* results;
+    jint validCount = 0;
+    jint i;
+
+    (void) classObject;
+
+    if (! _is_initialized()) { return -1; }
+    if (recordCount <= 0) { return 0; }
+
+    records = (const unsigned char*) (*env)->GetDirectBufferAddress(env, recordBufferObject);
+    results = (unsigned char*) (*env)->GetDirectBufferAddress(env, resultBufferObject);
+    if ( (records == NULL) || (results == NULL) ) { return -1; }
+
+    if ( (*env)->GetDirectBufferCapacity(env, recordBufferObject) < ((jlong) recordCount * RECORD_BYTE_COUNT) ) { return -1; }
+    if ( (*env)->GetDirectBufferCapacity(env, resultBufferObject) < ((jlong) (recordCount + 7) / 8) ) { return -1; }
+
+    memset(results, 0, (size_t) ((recordCount + 7) / 8));
+
+    for (i = 0; i < recordCount; ++i) {
+        const unsigned char* record = (records + ((size_t) i * RECORD_BYTE_COUNT));
+        const unsigned char* message = record;
+        const unsigned char* compactSignature = (record + MESSAGE_BYTE_COUNT);
+        const size_t publicKeyByteCount = (size_t) record[MESSAGE_BYTE_COUNT + COMPACT_SIGNATURE_BYTE_COUNT];
+        const unsigned char* publicKeyData = (record + MESSAGE_BYTE_COUNT + COMPACT_SIGNATURE_BYTE_COUNT + 1);
+
+        secp256k1_ecdsa_signature signature;
+        secp256k1_pubkey publicKey;
+        int isValid;
+
+        if ( (publicKeyByteCount == 0) || (publicKeyByteCount > MAX_PUBLIC_KEY_BYTE_COUNT) ) { continue; }
+
+        isValid = secp256k1_ecdsa_signature_parse_compact(ctx, &signature, compactSignature);
+        if (isValid) {
+            // NOTE: Equivalent to Signature::asCanonical; secp256k1_ecdsa_verify only accepts low-S signatures...
+            secp256k1_ecdsa_signature_normalize(ctx, &signature, &signature);
+            isValid = secp256k1_ec_pubkey_parse(ctx, &publicKey, publicKeyData, publicKeyByteCount);
+        }
+        if (isValid) {
+            isValid = secp256k1_ecdsa_verify(ctx, &signature, message, &publicKey);
+        }
+
+        if (isValid) {
+            results[i / 8] |= (unsigned char) (1 << (i % 8));
+            validCount += 1;
+        }
+    }
+
+    return validCount;
+}
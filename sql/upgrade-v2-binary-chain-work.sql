@@ -0,0 +1,18 @@
+-- Upgrades a version 1 database to version 2.
+--  blocks.chain_work is converted from a 64-character hex string to a fixed-width, big-endian BINARY(32) value.
+--  Since BINARY values are compared byte-wise, ORDER BY chain_work remains equivalent to ordering by the amount of work.
+
+ALTER TABLE blocks ADD COLUMN chain_work_binary BINARY(32) NULL AFTER chain_work;
+UPDATE blocks SET chain_work_binary = UNHEX(chain_work);
+
+ALTER TABLE blocks
+    DROP INDEX blocks_work_ix,
+    DROP INDEX blocks_work_ix2,
+    DROP COLUMN chain_work;
+
+ALTER TABLE blocks
+    CHANGE COLUMN chain_work_binary chain_work BINARY(32) NOT NULL,
+    ADD INDEX blocks_work_ix (chain_work) USING BTREE,
+    ADD INDEX blocks_work_ix2 (blockchain_segment_id, chain_work) USING BTREE;
+
+INSERT INTO metadata (version, timestamp) VALUES (2, UNIX_TIMESTAMP());
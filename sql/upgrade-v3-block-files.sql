@@ -0,0 +1,13 @@
+-- Upgrades a version 2 database to version 3.
+--  Adds the location of each Block (and of each of its Transactions) within the flat-file block store.
+--  Blocks stored before the upgrade have no location and continue to be inflated from the normalized tables.
+
+ALTER TABLE blocks
+    ADD COLUMN block_file_index INT UNSIGNED NULL AFTER byte_count,
+    ADD COLUMN block_file_byte_offset INT UNSIGNED NULL AFTER block_file_index;
+
+ALTER TABLE block_transactions
+    ADD COLUMN byte_offset INT UNSIGNED NULL AFTER sort_order,
+    ADD COLUMN byte_count INT UNSIGNED NULL AFTER byte_offset;
+
+INSERT INTO metadata (version, timestamp) VALUES (3, UNIX_TIMESTAMP());
@@ -0,0 +1,11 @@
+-- Upgrades a version 3 database to version 4.
+--  PendingBlock data is moved out of the database and into the file-backed pending block spool; pending_block_data only records its size.
+--  Previously downloaded PendingBlocks are discarded (their pending_blocks rows remain) and are downloaded again.
+
+DELETE FROM pending_block_data;
+
+ALTER TABLE pending_block_data
+    DROP COLUMN data,
+    ADD COLUMN byte_count INT UNSIGNED NOT NULL AFTER pending_block_id;
+
+INSERT INTO metadata (version, timestamp) VALUES (4, UNIX_TIMESTAMP());
@@ -0,0 +1,11 @@
+-- Upgrades a version 4 database to version 5.
+--  Downloaded Transactions (and the Transactions they depend upon) are now held within the in-memory PendingTransactionQueue;
+--  pending_transactions only tracks announced Transactions that have not yet been downloaded.
+--  Previously downloaded, unprocessed Transactions are discarded.
+
+DELETE pending_transactions FROM pending_transactions INNER JOIN pending_transaction_data ON pending_transaction_data.pending_transaction_id = pending_transactions.id;
+
+DROP TABLE pending_transactions_dependent_transactions;
+DROP TABLE pending_transaction_data;
+
+INSERT INTO metadata (version, timestamp) VALUES (5, UNIX_TIMESTAMP());
@@ -0,0 +1,107 @@
+-- Upgrades a version 5 database to version 6.
+--  Every hash column (blocks.hash, blocks.merkle_root, transactions.hash, unspent_transaction_outputs.transaction_hash,
+--  pending_blocks.hash, pending_blocks.previous_block_hash, and pending_transactions.hash) is converted from a 64-character
+--  hex string to a BINARY(32) value, halving the size of the columns and of their indexes.
+--  Since Sha256Hash::toString is the hex encoding of Sha256Hash::getBytes, UNHEX(hash) is the column's new value.
+--
+--  The conversion is resumable: each column is copied into a "*_binary" column in batches (each batch is committed),
+--  and every schema change is only applied if it has not been applied already.  If the upgrade is interrupted (or fails),
+--  running this script again continues where it stopped.  The node must not be running during the upgrade.
+
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS UPGRADE_V6_CONVERT_HASH_COLUMN$$
+
+CREATE
+    PROCEDURE `UPGRADE_V6_CONVERT_HASH_COLUMN`(
+        converted_table_name VARCHAR(64),
+        converted_column_name VARCHAR(64),
+        converted_column_is_nullable ENUM('Y', 'N'),
+        converted_index_name VARCHAR(64),
+        converted_index_definition VARCHAR(255))
+
+    LANGUAGE SQL
+    NOT DETERMINISTIC
+    MODIFIES SQL DATA
+
+    BEGIN
+        DECLARE BINARY_COLUMN_NAME_VAR VARCHAR(64);
+        DECLARE COLUMN_TYPE_VAR VARCHAR(64);
+        DECLARE HAS_BINARY_COLUMN_VAR INT;
+        DECLARE HAS_INDEX_VAR INT;
+
+        SET BINARY_COLUMN_NAME_VAR = CONCAT(converted_column_name, '_binary');
+
+        SELECT `DATA_TYPE` INTO COLUMN_TYPE_VAR FROM information_schema.COLUMNS
+            WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = converted_table_name AND `COLUMN_NAME` = converted_column_name;
+
+        SELECT COUNT(*) INTO HAS_BINARY_COLUMN_VAR FROM information_schema.COLUMNS
+            WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = converted_table_name AND `COLUMN_NAME` = BINARY_COLUMN_NAME_VAR;
+
+        -- Add the binary column, unless the column has already been converted (or the binary column was added by a previous run)...
+        IF ( (COLUMN_TYPE_VAR = 'char') AND (HAS_BINARY_COLUMN_VAR = 0) ) THEN
+            SET @sql = CONCAT('ALTER TABLE `', converted_table_name, '` ADD COLUMN `', BINARY_COLUMN_NAME_VAR, '` BINARY(32) NULL AFTER `', converted_column_name, '`');
+            PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+            SET HAS_BINARY_COLUMN_VAR = 1;
+        END IF;
+
+        IF (HAS_BINARY_COLUMN_VAR > 0) THEN
+            -- Copy the hashes in batches of primary-key ranges; rows copied by a previous run are skipped...
+            IF (COLUMN_TYPE_VAR = 'char') THEN
+                SET @sql = CONCAT('SELECT COALESCE(MAX(id), 0) INTO @max_id FROM `', converted_table_name, '`');
+                PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+                SET @sql = CONCAT('UPDATE `', converted_table_name, '` SET `', BINARY_COLUMN_NAME_VAR, '` = UNHEX(`', converted_column_name, '`) WHERE id > ? AND id <= ? AND `', BINARY_COLUMN_NAME_VAR, '` IS NULL');
+                PREPARE stmt FROM @sql;
+                SET @batch_start_id = 0;
+                WHILE (@batch_start_id < @max_id) DO
+                    SET @batch_end_id = (@batch_start_id + 100000);
+                    EXECUTE stmt USING @batch_start_id, @batch_end_id;
+                    COMMIT;
+                    SET @batch_start_id = @batch_end_id;
+                END WHILE;
+                DEALLOCATE PREPARE stmt;
+            END IF;
+
+            SELECT COUNT(*) INTO HAS_INDEX_VAR FROM information_schema.STATISTICS
+                WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = converted_table_name AND `INDEX_NAME` = converted_index_name;
+
+            IF (HAS_INDEX_VAR > 0) THEN
+                SET @sql = CONCAT('ALTER TABLE `', converted_table_name, '` DROP INDEX `', converted_index_name, '`');
+                PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+            END IF;
+
+            IF (COLUMN_TYPE_VAR = 'char') THEN
+                SET @sql = CONCAT('ALTER TABLE `', converted_table_name, '` DROP COLUMN `', converted_column_name, '`');
+                PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+            END IF;
+
+            SET @sql = CONCAT('ALTER TABLE `', converted_table_name, '` CHANGE COLUMN `', BINARY_COLUMN_NAME_VAR, '` `', converted_column_name, '` BINARY(32) ', IF(converted_column_is_nullable = 'Y', 'NULL', 'NOT NULL'));
+            PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+        END IF;
+
+        -- Restore the column's index, unless it was already restored by a previous run...
+        IF (converted_index_name IS NOT NULL) THEN
+            SELECT COUNT(*) INTO HAS_INDEX_VAR FROM information_schema.STATISTICS
+                WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = converted_table_name AND `INDEX_NAME` = converted_index_name;
+
+            IF (HAS_INDEX_VAR = 0) THEN
+                SET @sql = CONCAT('ALTER TABLE `', converted_table_name, '` ADD ', converted_index_definition);
+                PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+            END IF;
+        END IF;
+    END$$
+
+DELIMITER ;
+
+CALL UPGRADE_V6_CONVERT_HASH_COLUMN('pending_blocks', 'hash', 'N', 'pending_blocks_uq', 'UNIQUE KEY pending_blocks_uq (hash)');
+CALL UPGRADE_V6_CONVERT_HASH_COLUMN('pending_blocks', 'previous_block_hash', 'Y', 'pending_blocks_ix3', 'INDEX pending_blocks_ix3 (previous_block_hash) USING BTREE');
+CALL UPGRADE_V6_CONVERT_HASH_COLUMN('pending_transactions', 'hash', 'N', 'pending_transactions_uq', 'UNIQUE KEY pending_transactions_uq (hash)');
+CALL UPGRADE_V6_CONVERT_HASH_COLUMN('blocks', 'hash', 'N', 'block_hash_uq', 'UNIQUE KEY block_hash_uq (hash)');
+CALL UPGRADE_V6_CONVERT_HASH_COLUMN('blocks', 'merkle_root', 'N', NULL, NULL);
+CALL UPGRADE_V6_CONVERT_HASH_COLUMN('transactions', 'hash', 'N', 'transaction_hash_uq', 'UNIQUE KEY transaction_hash_uq (hash)');
+CALL UPGRADE_V6_CONVERT_HASH_COLUMN('unspent_transaction_outputs', 'transaction_hash', 'N', 'transaction_outputs_spent_tx_id_ix', 'INDEX transaction_outputs_spent_tx_id_ix (transaction_hash, `index`) USING BTREE');
+
+DROP PROCEDURE UPGRADE_V6_CONVERT_HASH_COLUMN;
+
+INSERT INTO metadata (version, timestamp) VALUES (6, UNIX_TIMESTAMP());
@@ -0,0 +1,16 @@
+-- Upgrades a version 6 database to version 7.
+--  Changes to unspent_transaction_outputs may now be buffered in memory and flushed in batches; committed_unspent_transaction_outputs
+--  records the highest Block height whose changes have been flushed, so that the changes lost by an unclean shutdown can be replayed.
+--  Every Block stored before the upgrade has already been written to unspent_transaction_outputs.
+
+CREATE TABLE committed_unspent_transaction_outputs (
+    id INT UNSIGNED NOT NULL,
+    block_height INT UNSIGNED NULL,
+    timestamp BIGINT UNSIGNED NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
+
+INSERT INTO committed_unspent_transaction_outputs (id, block_height, timestamp)
+    SELECT 1, MAX(blocks.block_height), UNIX_TIMESTAMP() FROM blocks WHERE EXISTS (SELECT 1 FROM block_transactions WHERE block_transactions.block_id = blocks.id);
+
+INSERT INTO metadata (version, timestamp) VALUES (7, UNIX_TIMESTAMP());
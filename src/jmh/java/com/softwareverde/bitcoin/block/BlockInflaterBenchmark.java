@@ -0,0 +1,66 @@
+package com.softwareverde.bitcoin.block;
+
+import com.softwareverde.bitcoin.test.BenchmarkData;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionDeflater;
+import com.softwareverde.bitcoin.transaction.TransactionInflater;
+import com.softwareverde.constable.bytearray.ByteArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockInflaterBenchmark {
+    protected final BlockInflater _blockInflater = new BlockInflater();
+    protected final BlockDeflater _blockDeflater = new BlockDeflater();
+    protected final TransactionInflater _transactionInflater = new TransactionInflater();
+    protected final TransactionDeflater _transactionDeflater = new TransactionDeflater();
+
+    protected byte[] _blockBytes;
+    protected Block _block;
+    protected byte[] _transactionBytes;
+    protected Transaction _transaction;
+
+    @Setup
+    public void setup() {
+        _blockBytes = BenchmarkData.loadBlockBytes(BenchmarkData.LARGE_BLOCK_HASH);
+        _block = _blockInflater.fromBytes(_blockBytes);
+
+        _transaction = _block.getTransactions().get(1);
+        _transactionBytes = _transactionDeflater.toBytes(_transaction).getBytes();
+    }
+
+    @Benchmark
+    public Block inflateBlock() {
+        return _blockInflater.fromBytes(_blockBytes);
+    }
+
+    @Benchmark
+    public ByteArray deflateBlock() {
+        return _blockDeflater.toBytes(_block);
+    }
+
+    @Benchmark
+    public Transaction inflateTransaction() {
+        return _transactionInflater.fromBytes(_transactionBytes);
+    }
+
+    @Benchmark
+    public ByteArray deflateTransaction() {
+        return _transactionDeflater.toBytes(_transaction);
+    }
+}
@@ -0,0 +1,70 @@
+package com.softwareverde.bitcoin.block.merkleroot;
+
+import com.softwareverde.bitcoin.merkleroot.MerkleRoot;
+import com.softwareverde.bitcoin.test.BenchmarkData;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.constable.list.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates the merkle root of the large benchmark Block from scratch with each MerkleTree implementation.
+ *  Transaction hashes are cached by the Transactions themselves, so only the tree is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MerkleTreeBenchmark {
+    protected List<Transaction> _transactions;
+
+    @Setup
+    public void setup() {
+        _transactions = BenchmarkData.loadBlock(BenchmarkData.LARGE_BLOCK_HASH).getTransactions();
+        for (final Transaction transaction : _transactions) {
+            transaction.getHash();
+        }
+    }
+
+    @Benchmark
+    public MerkleRoot merkleTreeNode() {
+        final MerkleTreeNode<Transaction> merkleTree = new MerkleTreeNode<Transaction>();
+        for (final Transaction transaction : _transactions) {
+            merkleTree.addItem(transaction);
+        }
+        return merkleTree.getMerkleRoot();
+    }
+
+    @Benchmark
+    public MerkleRoot flatMerkleTree() {
+        final FlatMerkleTree<Transaction> merkleTree = new FlatMerkleTree<Transaction>(_transactions);
+        return merkleTree.getMerkleRoot();
+    }
+
+    @Benchmark
+    public List<?> merkleTreeNodeCoinbaseBranch() {
+        final MerkleTreeNode<Transaction> merkleTree = new MerkleTreeNode<Transaction>();
+        for (final Transaction transaction : _transactions) {
+            merkleTree.addItem(transaction);
+        }
+        return merkleTree.getPartialTree(0);
+    }
+
+    @Benchmark
+    public List<?> flatMerkleTreeCoinbaseBranch() {
+        final FlatMerkleTree<Transaction> merkleTree = new FlatMerkleTree<Transaction>(_transactions);
+        return merkleTree.getPartialTree(0);
+    }
+}
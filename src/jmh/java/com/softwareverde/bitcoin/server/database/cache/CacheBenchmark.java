@@ -0,0 +1,112 @@
+package com.softwareverde.bitcoin.server.database.cache;
+
+import com.softwareverde.bitcoin.hash.sha256.ImmutableSha256Hash;
+import com.softwareverde.bitcoin.server.database.cache.utxo.JvmUnspentTransactionOutputCache;
+import com.softwareverde.bitcoin.test.BenchmarkData;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionId;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutputId;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.constable.list.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-item cost of the HashMapCache (as used for the TransactionId cache) and of the JVM UTXO cache.
+ *  Keys are the Transaction hashes and TransactionOutputs of the large benchmark Block, so key hashing and equality
+ *  reflect production; each benchmark invocation performs one operation, cycling through the keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+    protected final ArrayList<ImmutableSha256Hash> _transactionHashes = new ArrayList<ImmutableSha256Hash>();
+    protected final ArrayList<TransactionOutputIdentifier> _transactionOutputIdentifiers = new ArrayList<TransactionOutputIdentifier>();
+
+    protected HashMapCache<ImmutableSha256Hash, TransactionId> _transactionIdCache;
+    protected HashMapCache<ImmutableSha256Hash, TransactionId> _smallTransactionIdCache;
+    protected JvmUnspentTransactionOutputCache _unspentTransactionOutputCache;
+
+    protected int _transactionIndex = 0;
+    protected int _transactionOutputIndex = 0;
+
+    protected ImmutableSha256Hash _nextTransactionHash() {
+        _transactionIndex = ((_transactionIndex + 1) % _transactionHashes.size());
+        return _transactionHashes.get(_transactionIndex);
+    }
+
+    protected TransactionOutputIdentifier _nextTransactionOutputIdentifier() {
+        _transactionOutputIndex = ((_transactionOutputIndex + 1) % _transactionOutputIdentifiers.size());
+        return _transactionOutputIdentifiers.get(_transactionOutputIndex);
+    }
+
+    @Setup
+    public void setup() {
+        final List<Transaction> transactions = BenchmarkData.loadBlock(BenchmarkData.LARGE_BLOCK_HASH).getTransactions();
+        for (final Transaction transaction : transactions) {
+            final ImmutableSha256Hash transactionHash = transaction.getHash().asConst();
+            _transactionHashes.add(transactionHash);
+
+            for (final TransactionOutput transactionOutput : transaction.getTransactionOutputs()) {
+                _transactionOutputIdentifiers.add(new TransactionOutputIdentifier(transactionHash, transactionOutput.getIndex()));
+            }
+        }
+
+        _transactionIdCache = new HashMapCache<ImmutableSha256Hash, TransactionId>("TransactionIdCache", HashMapCache.DEFAULT_CACHE_SIZE);
+        _smallTransactionIdCache = new HashMapCache<ImmutableSha256Hash, TransactionId>("SmallTransactionIdCache", (_transactionHashes.size() / 4)); // Forces ejection...
+        _unspentTransactionOutputCache = new JvmUnspentTransactionOutputCache();
+
+        for (int i = 0; i < _transactionHashes.size(); ++i) {
+            _transactionIdCache.cacheItem(_transactionHashes.get(i), TransactionId.wrap((long) i));
+        }
+
+        for (int i = 0; i < _transactionOutputIdentifiers.size(); ++i) {
+            final TransactionOutputIdentifier transactionOutputIdentifier = _transactionOutputIdentifiers.get(i);
+            _unspentTransactionOutputCache.cacheUnspentTransactionOutputId(transactionOutputIdentifier.getTransactionHash(), transactionOutputIdentifier.getOutputIndex(), TransactionOutputId.wrap((long) i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        _unspentTransactionOutputCache.close();
+    }
+
+    @Benchmark
+    public TransactionId hashMapCacheHit() {
+        return _transactionIdCache.getCachedItem(_nextTransactionHash());
+    }
+
+    @Benchmark
+    public void hashMapCacheInsertWithEjection() {
+        _smallTransactionIdCache.cacheItem(_nextTransactionHash(), TransactionId.wrap((long) _transactionIndex));
+    }
+
+    @Benchmark
+    public TransactionOutputId unspentTransactionOutputCacheHit() {
+        final TransactionOutputIdentifier transactionOutputIdentifier = _nextTransactionOutputIdentifier();
+        return _unspentTransactionOutputCache.getCachedUnspentTransactionOutputId(transactionOutputIdentifier.getTransactionHash(), transactionOutputIdentifier.getOutputIndex());
+    }
+
+    @Benchmark
+    public void unspentTransactionOutputCacheSpendAndRecache() {
+        final TransactionOutputIdentifier transactionOutputIdentifier = _nextTransactionOutputIdentifier();
+        _unspentTransactionOutputCache.invalidateUnspentTransactionOutputId(transactionOutputIdentifier);
+        _unspentTransactionOutputCache.cacheUnspentTransactionOutputId(transactionOutputIdentifier.getTransactionHash(), transactionOutputIdentifier.getOutputIndex(), TransactionOutputId.wrap((long) _transactionOutputIndex));
+    }
+}
@@ -0,0 +1,51 @@
+package com.softwareverde.bitcoin.test;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionInflater;
+import com.softwareverde.util.HexUtil;
+import com.softwareverde.util.IoUtil;
+
+/**
+ * Fixtures shared by the JMH benchmarks.
+ *  Blocks are loaded from the test resources (/blocks/<hash>), which are on the benchmark classpath.
+ */
+public class BenchmarkData {
+    /**
+     * A ~1MB mainnet block (mined 2017-08-01) containing 1,496 Transactions of mostly standard script types.
+     */
+    public static final String LARGE_BLOCK_HASH = "00000000000000000051CFB8C9B8191EC4EF14F8F44F3E2290D67A8A0A29DD05";
+
+    /**
+     * A small early block, used where the Transaction count should not dominate the measurement.
+     */
+    public static final String SMALL_BLOCK_HASH = "00000000AFE94C578B4DC327AA64E1203283C5FD5F152CE886341766298CF523";
+
+    /**
+     * A Transaction spending TRANSACTION_BEING_SPENT's first output via pay-to-public-key-hash.
+     */
+    public static final String PAY_TO_PUBLIC_KEY_HASH_TRANSACTION = "0100000001BF9705FAE2004CC9072D7C6D73BC8F38A0A7C67DACEED5FC42E0D20AC8D898C0000000006B483045022100CB0093D91F09644065AC05424DE3DE709C90A9BC963945EE149EAA1CF7B13DA802200EFE508E68A5E2F9C3CBD851B66EB597803ACCDC2F45F07BFD5488DA476727FE0121039500311F6688A8C16A570853AC22230F4B1E0A551D8846550FE4AE56F9799E80FFFFFFFF0200E1F505000000001976A914C23E891A29D290DDB454EBF3456EEAEC56412AB988AC36F3C57E000000001976A914DB89750F929FBD94A8018767A49EF6FC6AC7E46888AC00000000";
+    public static final String TRANSACTION_BEING_SPENT = "01000000015AEFC06AF14A9216350A1F549971E0C8381D69B00B492CA20663CAEB5F191825010000006B4830450220210947BCC472D558BED1A36A573BC3C5E11914BE685E868639A46B330AE1879B022100964512E526759EE915A3178F43520CF53D2C38E18A229062EEAB8E2D544A91990121021B36AF5FEDC577DFBF74D75060B20305F1D9127A3C7A7373EF91BF684F6A0491FFFFFFFF0246FBBB84000000001976A914F6A9D96485D1D45D28E38662F617BA39A6B151BB88AC00093D00000000001976A914D948D7A14685B7B5B528034137AA4C590F84F62988AC00000000";
+
+    public static byte[] loadBlockBytes(final String blockHash) {
+        return HexUtil.hexStringToByteArray(IoUtil.getResource("/blocks/" + blockHash));
+    }
+
+    public static Block loadBlock(final String blockHash) {
+        final BlockInflater blockInflater = new BlockInflater();
+        return blockInflater.fromBytes(BenchmarkData.loadBlockBytes(blockHash));
+    }
+
+    public static Block loadGenesisBlock() {
+        final BlockInflater blockInflater = new BlockInflater();
+        return blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.GENESIS_BLOCK));
+    }
+
+    public static Transaction inflateTransaction(final String transactionHexString) {
+        final TransactionInflater transactionInflater = new TransactionInflater();
+        return transactionInflater.fromBytes(HexUtil.hexStringToByteArray(transactionHexString));
+    }
+
+    protected BenchmarkData() { }
+}
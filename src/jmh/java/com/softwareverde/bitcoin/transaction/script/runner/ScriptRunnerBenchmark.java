@@ -0,0 +1,92 @@
+package com.softwareverde.bitcoin.transaction.script.runner;
+
+import com.softwareverde.bitcoin.secp256k1.SignatureCache;
+import com.softwareverde.bitcoin.test.BenchmarkData;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.script.ScriptType;
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.bitcoin.transaction.script.runner.context.MutableContext;
+import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies a pay-to-public-key-hash input via ScriptRunner's template-specialized path and via the generic interpreter.
+ *  Verified signatures are remembered by the process-wide SignatureCache; the "Uncached" benchmarks clear it before every
+ *  invocation so that the ECDSA verification is included, while the others measure the script plumbing alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptRunnerBenchmark {
+    @State(Scope.Thread)
+    public static class EmptySignatureCache {
+        @Setup(Level.Invocation)
+        public void clearSignatureCache() {
+            SignatureCache.getInstance().clear();
+        }
+    }
+
+    protected final ScriptRunner _scriptRunner = new ScriptRunner();
+    protected final MutableContext _context = new MutableContext();
+    protected LockingScript _lockingScript;
+    protected UnlockingScript _unlockingScript;
+
+    @Setup
+    public void setup() {
+        final Transaction transactionBeingSpent = BenchmarkData.inflateTransaction(BenchmarkData.TRANSACTION_BEING_SPENT);
+        final Transaction transaction = BenchmarkData.inflateTransaction(BenchmarkData.PAY_TO_PUBLIC_KEY_HASH_TRANSACTION);
+
+        final TransactionInput transactionInput = transaction.getTransactionInputs().get(0);
+        final TransactionOutput transactionOutputBeingSpent = transactionBeingSpent.getTransactionOutputs().get(0);
+
+        _context.setTransaction(transaction);
+        _context.setTransactionInputIndex(0);
+        _context.setTransactionInput(transactionInput);
+        _context.setTransactionOutputBeingSpent(transactionOutputBeingSpent);
+        _context.setBlockHeight(0L);
+
+        _lockingScript = transactionOutputBeingSpent.getLockingScript();
+        _unlockingScript = transactionInput.getUnlockingScript();
+
+        if (! _scriptRunner.runScript(_lockingScript, _unlockingScript, _context)) {
+            throw new IllegalStateException("Benchmark fixture does not verify.");
+        }
+    }
+
+    @Benchmark
+    public Boolean payToPublicKeyHash() {
+        return _scriptRunner.runScript(_lockingScript, _unlockingScript, _context);
+    }
+
+    @Benchmark
+    public Boolean payToPublicKeyHashInterpreted() {
+        return _scriptRunner._runScript(_lockingScript, ScriptType.PAY_TO_PUBLIC_KEY_HASH, _unlockingScript, _context);
+    }
+
+    @Benchmark
+    public Boolean payToPublicKeyHashUncached(final EmptySignatureCache emptySignatureCache) {
+        return _scriptRunner.runScript(_lockingScript, _unlockingScript, _context);
+    }
+
+    @Benchmark
+    public Boolean payToPublicKeyHashInterpretedUncached(final EmptySignatureCache emptySignatureCache) {
+        return _scriptRunner._runScript(_lockingScript, ScriptType.PAY_TO_PUBLIC_KEY_HASH, _unlockingScript, _context);
+    }
+}
@@ -0,0 +1,58 @@
+package com.softwareverde.bitcoin.transaction.signer;
+
+import com.softwareverde.bitcoin.test.BenchmarkData;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.script.signature.hashtype.HashType;
+import com.softwareverde.bitcoin.transaction.script.signature.hashtype.Mode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates the signature-hash (sighash) of a single-input Transaction with the legacy and the Bitcoin Cash (BIP143) algorithms.
+ *  A new SignatureContext is created per invocation, so the BIP143 Transaction-wide hashes are not shared between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionSignerBenchmark {
+    protected final TransactionSigner _transactionSigner = new TransactionSigner();
+    protected Transaction _transaction;
+    protected TransactionOutput _transactionOutputBeingSpent;
+
+    protected SignatureContext _createSignatureContext(final Boolean useBitcoinCashSigningAlgorithm) {
+        final SignatureContext signatureContext = new SignatureContext(_transaction, new HashType(Mode.SIGNATURE_HASH_ALL, true, useBitcoinCashSigningAlgorithm), Long.MAX_VALUE);
+        signatureContext.setShouldSignInputScript(0, true, _transactionOutputBeingSpent);
+        signatureContext.setInputIndexBeingSigned(0);
+        return signatureContext;
+    }
+
+    @Setup
+    public void setup() {
+        final Transaction transactionBeingSpent = BenchmarkData.inflateTransaction(BenchmarkData.TRANSACTION_BEING_SPENT);
+        _transaction = BenchmarkData.inflateTransaction(BenchmarkData.PAY_TO_PUBLIC_KEY_HASH_TRANSACTION);
+        _transactionOutputBeingSpent = transactionBeingSpent.getTransactionOutputs().get(0);
+    }
+
+    @Benchmark
+    public byte[] legacySignatureHash() {
+        return _transactionSigner.getBytesForSigning(_createSignatureContext(false));
+    }
+
+    @Benchmark
+    public byte[] bitcoinCashSignatureHash() {
+        return _transactionSigner.getBytesForSigning(_createSignatureContext(true));
+    }
+}
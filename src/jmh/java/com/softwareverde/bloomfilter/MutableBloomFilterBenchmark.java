@@ -0,0 +1,60 @@
+package com.softwareverde.bloomfilter;
+
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.test.BenchmarkData;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds and queries the Transaction hashes of the large benchmark Block, with a filter sized for 100,000 items at a 0.01% false-positive rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutableBloomFilterBenchmark {
+    protected final ArrayList<Sha256Hash> _transactionHashes = new ArrayList<Sha256Hash>();
+    protected MutableBloomFilter _bloomFilter;
+    protected int _itemIndex = 0;
+
+    protected Sha256Hash _nextTransactionHash() {
+        _itemIndex = ((_itemIndex + 1) % _transactionHashes.size());
+        return _transactionHashes.get(_itemIndex);
+    }
+
+    @Setup
+    public void setup() {
+        for (final Transaction transaction : BenchmarkData.loadBlock(BenchmarkData.LARGE_BLOCK_HASH).getTransactions()) {
+            _transactionHashes.add(transaction.getHash().asConst());
+        }
+
+        _bloomFilter = MutableBloomFilter.newInstance(100000L, 0.0001D, 0L);
+        for (final Sha256Hash transactionHash : _transactionHashes) {
+            _bloomFilter.addItem(transactionHash);
+        }
+    }
+
+    @Benchmark
+    public void addItem() {
+        _bloomFilter.addItem(_nextTransactionHash());
+    }
+
+    @Benchmark
+    public Boolean containsItem() {
+        return _bloomFilter.containsItem(_nextTransactionHash());
+    }
+}
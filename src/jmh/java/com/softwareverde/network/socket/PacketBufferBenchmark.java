@@ -0,0 +1,70 @@
+package com.softwareverde.network.socket;
+
+import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessage;
+import com.softwareverde.bitcoin.server.message.type.query.response.block.BlockMessage;
+import com.softwareverde.bitcoin.test.BenchmarkData;
+import com.softwareverde.network.p2p.message.ProtocolMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds a serialized "block" message into a PacketBuffer in socket-read-sized chunks, as BinarySocket does, and then
+ *  either reassembles the packet's bytes (framing only) or pops the inflated ProtocolMessage (framing, checksum, and inflation).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketBufferBenchmark {
+    @Param({ "1024", "65536" })
+    public int bufferSize;
+
+    protected PacketBuffer _packetBuffer;
+    protected byte[] _messageBytes;
+
+    protected void _appendMessageBytes() {
+        int byteIndex = 0;
+        while (byteIndex < _messageBytes.length) {
+            final byte[] buffer = _packetBuffer.getRecycledBuffer();
+            final int byteCount = Math.min(buffer.length, (_messageBytes.length - byteIndex));
+            System.arraycopy(_messageBytes, byteIndex, buffer, 0, byteCount);
+            _packetBuffer.appendBytes(buffer, byteCount);
+            byteIndex += byteCount;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        final BlockMessage blockMessage = new BlockMessage();
+        blockMessage.setBlock(BenchmarkData.loadBlock(BenchmarkData.LARGE_BLOCK_HASH));
+        _messageBytes = blockMessage.getBytes().getBytes();
+
+        _packetBuffer = new PacketBuffer(BitcoinProtocolMessage.BINARY_PACKET_FORMAT);
+        _packetBuffer.setBufferSize(bufferSize);
+    }
+
+    @Benchmark
+    public byte[] reassemblePacket() {
+        _appendMessageBytes();
+        return _packetBuffer.readBytes(_messageBytes.length);
+    }
+
+    @Benchmark
+    public ProtocolMessage popMessage() {
+        _appendMessageBytes();
+        return _packetBuffer.popMessage();
+    }
+}
@@ -1,5 +1,6 @@
 package com.softwareverde.bitcoin.address;
 
+import com.softwareverde.bitcoin.hash.Sha256Util;
 import com.softwareverde.bitcoin.util.BitcoinUtil;
 import com.softwareverde.constable.bytearray.ImmutableByteArray;
 import com.softwareverde.util.ByteUtil;
@@ -17,7 +18,7 @@ public class Address extends ImmutableByteArray {
         byteArrayBuilder.appendBytes(bytes);
         final byte[] versionPayload = byteArrayBuilder.build();
 
-        final byte[] fullChecksum = BitcoinUtil.sha256(BitcoinUtil.sha256(versionPayload));
+        final byte[] fullChecksum = Sha256Util.doubleSha256(versionPayload);
         return ByteUtil.copyBytes(fullChecksum, 0, CHECKSUM_BYTE_COUNT);
     }
 
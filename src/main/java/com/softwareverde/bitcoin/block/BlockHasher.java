@@ -2,22 +2,33 @@ package com.softwareverde.bitcoin.block;
 
 import com.softwareverde.bitcoin.block.header.BlockHeader;
 import com.softwareverde.bitcoin.block.header.BlockHeaderDeflater;
+import com.softwareverde.bitcoin.hash.DoubleSha256Stream;
+import com.softwareverde.bitcoin.hash.Sha256Util;
 import com.softwareverde.bitcoin.hash.sha256.MutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
-import com.softwareverde.bitcoin.util.BitcoinUtil;
-import com.softwareverde.bitcoin.util.ByteUtil;
-import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.util.bytearray.Endian;
 
 public class BlockHasher {
     protected final BlockHeaderDeflater _blockHeaderDeflater = new BlockHeaderDeflater();
 
     protected Sha256Hash _calculateDoubleHash(final byte[] bytes) {
-        return MutableSha256Hash.wrap(ByteUtil.reverseEndian(BitcoinUtil.sha256(BitcoinUtil.sha256(bytes))));
+        return MutableSha256Hash.wrap(Sha256Util.doubleSha256ReversedEndian(bytes, 0, bytes.length));
     }
 
+    /**
+     * Returns the hash of the BlockHeader, whose fields are hashed as they are serialized rather than first being deflated into a byte[].
+     */
     public Sha256Hash calculateBlockHash(final BlockHeader blockHeader) {
-        final ByteArray serializedByteData = _blockHeaderDeflater.toBytes(blockHeader);
-        return _calculateDoubleHash(serializedByteData.getBytes());
+        final BlockHeaderDeflater.BlockHeaderByteData blockHeaderByteData = _blockHeaderDeflater.toByteData(blockHeader);
+
+        final DoubleSha256Stream doubleSha256Stream = new DoubleSha256Stream();
+        doubleSha256Stream.update(blockHeaderByteData.version, Endian.LITTLE);
+        doubleSha256Stream.update(blockHeaderByteData.previousBlockHash, Endian.LITTLE);
+        doubleSha256Stream.update(blockHeaderByteData.merkleRoot, Endian.LITTLE);
+        doubleSha256Stream.update(blockHeaderByteData.timestamp, Endian.LITTLE);
+        doubleSha256Stream.update(blockHeaderByteData.difficulty, Endian.LITTLE);
+        doubleSha256Stream.update(blockHeaderByteData.nonce, Endian.LITTLE);
+        return MutableSha256Hash.wrap(doubleSha256Stream.digestReversedEndian());
     }
 
     public Sha256Hash calculateBlockHash(final byte[] blockHeaderBytes) {
@@ -2,8 +2,8 @@ package com.softwareverde.bitcoin.block;
 
 import com.softwareverde.bitcoin.block.header.BlockHeader;
 import com.softwareverde.bitcoin.block.header.ImmutableBlockHeader;
+import com.softwareverde.bitcoin.block.merkleroot.FlatMerkleTree;
 import com.softwareverde.bitcoin.block.merkleroot.MerkleTree;
-import com.softwareverde.bitcoin.block.merkleroot.MerkleTreeNode;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.merkleroot.MerkleRoot;
 import com.softwareverde.bitcoin.transaction.Transaction;
@@ -19,10 +19,7 @@ public class ImmutableBlock extends ImmutableBlockHeader implements Block, Const
     protected MerkleTree<Transaction> _merkleTree = null;
 
     protected void _buildMerkleTree() {
-        _merkleTree = new MerkleTreeNode<Transaction>();
-        for (final Transaction transaction : _transactions) {
-            _merkleTree.addItem(transaction);
-        }
+        _merkleTree = new FlatMerkleTree<Transaction>(_transactions);
     }
 
     public ImmutableBlock(final BlockHeader blockHeader, final List<Transaction> transactions) {
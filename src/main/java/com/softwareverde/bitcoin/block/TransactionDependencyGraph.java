@@ -0,0 +1,232 @@
+package com.softwareverde.bitcoin.block;
+
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * The spending relationships between the Transactions of a single Block.
+ *  A Transaction's parents are the Transactions within the same Block whose outputs it spends.
+ *  Transactions that are (transitively) linked by spending relationships form a connected component;
+ *  Transactions in different components are entirely independent of one another.
+ *  Since Transaction hashes commit to their inputs, the graph cannot contain cycles.
+ */
+public class TransactionDependencyGraph {
+    protected final List<Transaction> _transactions;
+    protected final int[][] _parentIndices;
+    protected final int[][] _childIndices;
+    protected final int[] _componentIds;
+    protected final int _componentCount;
+
+    protected static int _findRoot(final int[] parents, final int index) {
+        int root = index;
+        while (parents[root] != root) {
+            parents[root] = parents[parents[root]]; // Path halving...
+            root = parents[root];
+        }
+        return root;
+    }
+
+    public TransactionDependencyGraph(final List<Transaction> transactions) {
+        final int transactionCount = transactions.getSize();
+        _transactions = transactions;
+
+        final HashMap<Sha256Hash, Integer> transactionIndices = new HashMap<Sha256Hash, Integer>(transactionCount);
+        for (int i = 0; i < transactionCount; ++i) {
+            final Transaction transaction = transactions.get(i);
+            transactionIndices.put(transaction.getHash(), i);
+        }
+
+        final int[] unionFindParents = new int[transactionCount];
+        for (int i = 0; i < transactionCount; ++i) {
+            unionFindParents[i] = i;
+        }
+
+        final ArrayList<ArrayList<Integer>> childIndices = new ArrayList<ArrayList<Integer>>(transactionCount);
+        for (int i = 0; i < transactionCount; ++i) {
+            childIndices.add(null);
+        }
+
+        _parentIndices = new int[transactionCount][];
+        for (int i = 0; i < transactionCount; ++i) {
+            final Transaction transaction = transactions.get(i);
+            final List<TransactionInput> transactionInputs = transaction.getTransactionInputs();
+
+            final int[] parentIndices = new int[transactionInputs.getSize()];
+            int parentCount = 0;
+            for (final TransactionInput transactionInput : transactionInputs) {
+                final Integer parentIndex = transactionIndices.get(transactionInput.getPreviousOutputTransactionHash());
+                if ( (parentIndex == null) || (parentIndex == i) ) { continue; }
+
+                boolean isDuplicate = false; // A Transaction may spend multiple outputs of the same parent...
+                for (int j = 0; j < parentCount; ++j) {
+                    if (parentIndices[j] == parentIndex) {
+                        isDuplicate = true;
+                        break;
+                    }
+                }
+                if (isDuplicate) { continue; }
+
+                parentIndices[parentCount] = parentIndex;
+                parentCount += 1;
+
+                if (childIndices.get(parentIndex) == null) {
+                    childIndices.set(parentIndex, new ArrayList<Integer>(1));
+                }
+                childIndices.get(parentIndex).add(i);
+
+                final int rootA = _findRoot(unionFindParents, i);
+                final int rootB = _findRoot(unionFindParents, parentIndex);
+                if (rootA != rootB) {
+                    unionFindParents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+                }
+            }
+
+            _parentIndices[i] = Arrays.copyOf(parentIndices, parentCount);
+        }
+
+        _childIndices = new int[transactionCount][];
+        for (int i = 0; i < transactionCount; ++i) {
+            final ArrayList<Integer> children = childIndices.get(i);
+            final int childCount = (children != null ? children.size() : 0);
+            final int[] childIndexArray = new int[childCount];
+            for (int j = 0; j < childCount; ++j) {
+                childIndexArray[j] = children.get(j);
+            }
+            _childIndices[i] = childIndexArray;
+        }
+
+        { // Assign each component a sequential id, in order of its first Transaction within the Block...
+            _componentIds = new int[transactionCount];
+            final HashMap<Integer, Integer> rootComponentIds = new HashMap<Integer, Integer>();
+            for (int i = 0; i < transactionCount; ++i) {
+                final int root = _findRoot(unionFindParents, i);
+                Integer componentId = rootComponentIds.get(root);
+                if (componentId == null) {
+                    componentId = rootComponentIds.size();
+                    rootComponentIds.put(root, componentId);
+                }
+                _componentIds[i] = componentId;
+            }
+            _componentCount = rootComponentIds.size();
+        }
+    }
+
+    public Integer getTransactionCount() {
+        return _transactions.getSize();
+    }
+
+    /**
+     * Returns the indices of the Transactions within the Block whose outputs are spent by the Transaction at transactionIndex.
+     */
+    public List<Integer> getParentIndices(final Integer transactionIndex) {
+        final int[] parentIndices = _parentIndices[transactionIndex];
+        final ImmutableListBuilder<Integer> listBuilder = new ImmutableListBuilder<Integer>(parentIndices.length);
+        for (final int parentIndex : parentIndices) {
+            listBuilder.add(parentIndex);
+        }
+        return listBuilder.build();
+    }
+
+    public Boolean hasInBlockParents(final Integer transactionIndex) {
+        return (_parentIndices[transactionIndex].length > 0);
+    }
+
+    public Integer getComponentId(final Integer transactionIndex) {
+        return _componentIds[transactionIndex];
+    }
+
+    public Integer getComponentCount() {
+        return _componentCount;
+    }
+
+    protected int[] _getTopologicalIndices() {
+        final int transactionCount = _transactions.getSize();
+        final int[] remainingParentCounts = new int[transactionCount];
+        final PriorityQueue<Integer> readyIndices = new PriorityQueue<Integer>(Math.max(1, transactionCount));
+        for (int i = 0; i < transactionCount; ++i) {
+            remainingParentCounts[i] = _parentIndices[i].length;
+            if (remainingParentCounts[i] == 0) {
+                readyIndices.add(i);
+            }
+        }
+
+        final int[] topologicalIndices = new int[transactionCount];
+        int orderedCount = 0;
+        while (! readyIndices.isEmpty()) {
+            final int index = readyIndices.poll();
+            topologicalIndices[orderedCount] = index;
+            orderedCount += 1;
+
+            for (final int childIndex : _childIndices[index]) {
+                remainingParentCounts[childIndex] -= 1;
+                if (remainingParentCounts[childIndex] == 0) {
+                    readyIndices.add(childIndex);
+                }
+            }
+        }
+
+        return topologicalIndices;
+    }
+
+    /**
+     * Returns the Block's Transactions ordered such that every Transaction appears after all of its in-Block parents.
+     *  Otherwise, Transactions retain their relative Block order.
+     */
+    public List<Transaction> getTopologicalOrder() {
+        final int[] topologicalIndices = _getTopologicalIndices();
+
+        final ImmutableListBuilder<Transaction> listBuilder = new ImmutableListBuilder<Transaction>(topologicalIndices.length);
+        for (final int index : topologicalIndices) {
+            listBuilder.add(_transactions.get(index));
+        }
+        return listBuilder.build();
+    }
+
+    /**
+     * Returns the connected components, each as a list of Transactions in topological order.
+     *  Components are ordered largest first, so that long chains of dependent Transactions are scheduled before
+     *  the (typically numerous) independent Transactions; ties retain their Block order.
+     */
+    public List<List<Transaction>> getComponents() {
+        final ArrayList<ImmutableListBuilder<Transaction>> componentBuilders = new ArrayList<ImmutableListBuilder<Transaction>>(_componentCount);
+        final int[] componentSizes = new int[_componentCount];
+        for (int i = 0; i < _componentCount; ++i) {
+            componentBuilders.add(new ImmutableListBuilder<Transaction>());
+        }
+
+        for (final int index : _getTopologicalIndices()) {
+            final int componentId = _componentIds[index];
+            componentBuilders.get(componentId).add(_transactions.get(index));
+            componentSizes[componentId] += 1;
+        }
+
+        final ArrayList<Integer> componentIds = new ArrayList<Integer>(_componentCount);
+        for (int i = 0; i < _componentCount; ++i) {
+            componentIds.add(i);
+        }
+        Collections.sort(componentIds, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer componentIdA, final Integer componentIdB) {
+                final int sizeComparison = Integer.compare(componentSizes[componentIdB], componentSizes[componentIdA]);
+                if (sizeComparison != 0) { return sizeComparison; }
+                return Integer.compare(componentIdA, componentIdB);
+            }
+        });
+
+        final ImmutableListBuilder<List<Transaction>> listBuilder = new ImmutableListBuilder<List<Transaction>>(_componentCount);
+        for (final Integer componentId : componentIds) {
+            listBuilder.add(componentBuilders.get(componentId).build());
+        }
+        return listBuilder.build();
+    }
+}
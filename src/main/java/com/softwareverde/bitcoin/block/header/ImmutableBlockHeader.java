@@ -18,6 +18,7 @@ public class ImmutableBlockHeader implements BlockHeader, Const {
     protected final Long _nonce;
 
     protected Integer _cachedHashCode = null;
+    protected Boolean _cachedIsValid = null;
 
     public ImmutableBlockHeader(final BlockHeader blockHeader) {
         _hash = blockHeader.getHash();
@@ -66,11 +67,15 @@ public class ImmutableBlockHeader implements BlockHeader, Const {
 
     @Override
     public Boolean isValid() {
+        final Boolean cachedIsValid = _cachedIsValid;
+        if (cachedIsValid != null) { return cachedIsValid; }
+
         final BlockHasher blockHasher = new BlockHasher();
         final Sha256Hash calculatedHash = blockHasher.calculateBlockHash(this);
-        if (! _hash.equals(calculatedHash)) { return false; }
+        final Boolean isValid = (_hash.equals(calculatedHash) && _difficulty.isSatisfiedBy(calculatedHash));
 
-        return (_difficulty.isSatisfiedBy(calculatedHash));
+        _cachedIsValid = isValid; // NOTE: The header is immutable, so its proof-of-work only needs to be checked once...
+        return isValid;
     }
 
     @Override
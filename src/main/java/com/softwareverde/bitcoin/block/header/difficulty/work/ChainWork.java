@@ -29,6 +29,19 @@ public interface ChainWork extends Work {
         return ChainWork.wrap(HexUtil.hexStringToByteArray(hexString));
     }
 
+    /**
+     * Compares the two (unsigned, big-endian) amounts of work.
+     *  Returns a negative number if work0 is less than work1, zero if they are equal, or a positive number if work0 is greater than work1.
+     */
+    static int compare(final Work work0, final Work work1) {
+        for (int i = 0; i < 32; ++i) {
+            final int byte0 = (work0.getByte(i) & 0xFF);
+            final int byte1 = (work1.getByte(i) & 0xFF);
+            if (byte0 != byte1) { return (byte0 - byte1); }
+        }
+        return 0;
+    }
+
     static MutableChainWork add(final Work work0, final Work work1) {
         final MutableChainWork mutableChainWork = new MutableChainWork(work0);
         mutableChainWork.add(work1);
@@ -0,0 +1,328 @@
+package com.softwareverde.bitcoin.block.merkleroot;
+
+import com.softwareverde.bitcoin.hash.Sha256Util;
+import com.softwareverde.bitcoin.hash.sha256.MutableSha256Hash;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.merkleroot.MerkleRoot;
+import com.softwareverde.bitcoin.merkleroot.MutableMerkleRoot;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.constable.list.mutable.MutableList;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A MerkleTree whose node hashes are stored within contiguous byte arrays instead of a tree of node objects.
+ *  Item hashes are stored once, in internal (little-endian) byte order, within _itemHashes; every intermediary level
+ *  is stored consecutively within _levelHashes.  Since hashing happens entirely in internal byte order, no hash is
+ *  reversed or allocated while the tree is calculated; only the merkle root and partial-tree hashes are reversed.
+ *  Levels with at least PARALLEL_NODE_COUNT_THRESHOLD nodes are hashed in chunks across a shared thread pool.
+ *  Replacing an item of a calculated tree only rehashes the nodes between that item and the root.
+ *  FlatMerkleTree is not thread-safe.
+ */
+public class FlatMerkleTree<T extends Hashable> implements MerkleTree<T> {
+    protected static final int HASH_BYTE_COUNT = Sha256Hash.BYTE_COUNT;
+    protected static final Integer INITIAL_CAPACITY = 16;
+    protected static final Integer PARALLEL_NODE_COUNT_THRESHOLD = 4096;
+
+    protected static final Integer THREAD_POOL_SIZE = Math.max(1, Runtime.getRuntime().availableProcessors());
+    protected static final ExecutorService THREAD_POOL = Executors.newFixedThreadPool(THREAD_POOL_SIZE, new ThreadFactory() {
+        protected final AtomicInteger _nextThreadId = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable);
+            thread.setName("FlatMerkleTree - " + _nextThreadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    protected static int _getParentNodeCount(final int nodeCount) {
+        return ((nodeCount + 1) / 2);
+    }
+
+    /**
+     * Calculates the parent of the nodes at (2 * parentIndex) and (2 * parentIndex + 1) of the input level.
+     *  Sibling nodes are adjacent, so their pair is hashed in-place; the final node of a level with an odd number of nodes is paired with itself.
+     */
+    protected static void _hashNode(final byte[] inputHashes, final int inputOffset, final int inputNodeCount, final byte[] outputHashes, final int outputOffset, final int parentIndex) {
+        final int leftIndex = (parentIndex * 2);
+        final int outputNodeOffset = (outputOffset + (parentIndex * HASH_BYTE_COUNT));
+        final int leftOffset = (inputOffset + (leftIndex * HASH_BYTE_COUNT));
+
+        if ((leftIndex + 1) < inputNodeCount) {
+            Sha256Util.doubleSha256(inputHashes, leftOffset, (2 * HASH_BYTE_COUNT), outputHashes, outputNodeOffset);
+            return;
+        }
+
+        final byte[] pair = new byte[2 * HASH_BYTE_COUNT];
+        System.arraycopy(inputHashes, leftOffset, pair, 0, HASH_BYTE_COUNT);
+        System.arraycopy(inputHashes, leftOffset, pair, HASH_BYTE_COUNT, HASH_BYTE_COUNT);
+        Sha256Util.doubleSha256(pair, 0, pair.length, outputHashes, outputNodeOffset);
+    }
+
+    protected static void _hashNodes(final byte[] inputHashes, final int inputOffset, final int inputNodeCount, final byte[] outputHashes, final int outputOffset, final int startIndex, final int endIndex) {
+        for (int parentIndex = startIndex; parentIndex < endIndex; ++parentIndex) {
+            _hashNode(inputHashes, inputOffset, inputNodeCount, outputHashes, outputOffset, parentIndex);
+        }
+    }
+
+    /**
+     * Calculates every parent node of the input level.
+     *  Large levels are split into one chunk per thread; the calling thread hashes the first chunk itself.
+     */
+    protected static void _hashLevel(final byte[] inputHashes, final int inputOffset, final int inputNodeCount, final byte[] outputHashes, final int outputOffset) {
+        final int outputNodeCount = _getParentNodeCount(inputNodeCount);
+
+        if ( (THREAD_POOL_SIZE < 2) || (outputNodeCount < PARALLEL_NODE_COUNT_THRESHOLD) ) {
+            _hashNodes(inputHashes, inputOffset, inputNodeCount, outputHashes, outputOffset, 0, outputNodeCount);
+            return;
+        }
+
+        final int chunkSize = (((outputNodeCount + THREAD_POOL_SIZE) - 1) / THREAD_POOL_SIZE);
+        final ArrayList<Future<?>> futures = new ArrayList<Future<?>>(THREAD_POOL_SIZE);
+        for (int startIndex = chunkSize; startIndex < outputNodeCount; startIndex += chunkSize) {
+            final int chunkStartIndex = startIndex;
+            final int chunkEndIndex = Math.min((startIndex + chunkSize), outputNodeCount);
+            futures.add(THREAD_POOL.submit(new Runnable() {
+                @Override
+                public void run() {
+                    _hashNodes(inputHashes, inputOffset, inputNodeCount, outputHashes, outputOffset, chunkStartIndex, chunkEndIndex);
+                }
+            }));
+        }
+
+        _hashNodes(inputHashes, inputOffset, inputNodeCount, outputHashes, outputOffset, 0, Math.min(chunkSize, outputNodeCount));
+
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            }
+            catch (final InterruptedException exception) {
+                // The remaining chunks cannot be awaited; hash the level again on this thread so the result is still complete...
+                Thread.currentThread().interrupt();
+                _hashNodes(inputHashes, inputOffset, inputNodeCount, outputHashes, outputOffset, 0, outputNodeCount);
+                return;
+            }
+            catch (final ExecutionException exception) {
+                throw new RuntimeException(exception.getCause());
+            }
+        }
+    }
+
+    protected static Sha256Hash _toSha256Hash(final byte[] hashes, final int offset) {
+        final byte[] bytes = new byte[HASH_BYTE_COUNT];
+        for (int i = 0; i < HASH_BYTE_COUNT; ++i) {
+            bytes[i] = hashes[(offset + HASH_BYTE_COUNT - 1) - i];
+        }
+        return MutableSha256Hash.wrap(bytes);
+    }
+
+    protected final MutableList<T> _items;
+    protected byte[] _itemHashes;
+    protected byte[] _levelHashes = new byte[0];
+
+    protected Boolean _levelHashesAreValid = false;
+    protected final MutableMerkleRoot _merkleRoot = new MutableMerkleRoot();
+
+    protected void _setItemHash(final int index, final T item) {
+        final Sha256Hash hash = item.getHash();
+
+        final int offset = (index * HASH_BYTE_COUNT);
+        for (int i = 0; i < HASH_BYTE_COUNT; ++i) {
+            _itemHashes[offset + i] = hash.getByte((HASH_BYTE_COUNT - 1) - i);
+        }
+    }
+
+    protected void _ensureItemCapacity(final int itemCount) {
+        final int requiredByteCount = (itemCount * HASH_BYTE_COUNT);
+        if (_itemHashes.length >= requiredByteCount) { return; }
+
+        final byte[] itemHashes = new byte[Math.max(requiredByteCount, (_itemHashes.length * 2))];
+        System.arraycopy(_itemHashes, 0, itemHashes, 0, _itemHashes.length);
+        _itemHashes = itemHashes;
+    }
+
+    protected int _calculateLevelHashesByteCount(final int itemCount) {
+        int byteCount = 0;
+        for (int nodeCount = itemCount; nodeCount > 1; nodeCount = _getParentNodeCount(nodeCount)) {
+            byteCount += (_getParentNodeCount(nodeCount) * HASH_BYTE_COUNT);
+        }
+        return byteCount;
+    }
+
+    protected void _setMerkleRoot(final byte[] hashes, final int offset) {
+        for (int i = 0; i < HASH_BYTE_COUNT; ++i) {
+            _merkleRoot.set(i, hashes[(offset + HASH_BYTE_COUNT - 1) - i]);
+        }
+    }
+
+    protected void _calculateLevelHashes() {
+        final int itemCount = _items.getSize();
+
+        if (itemCount == 0) { // Matches MerkleTreeNode, which hashes an empty node as two empty hashes...
+            final byte[] emptyHash = new byte[HASH_BYTE_COUNT];
+            _hashNodes(emptyHash, 0, 1, emptyHash, 0, 0, 1);
+            _setMerkleRoot(emptyHash, 0);
+            _levelHashesAreValid = true;
+            return;
+        }
+
+        final int levelHashesByteCount = _calculateLevelHashesByteCount(itemCount);
+        if (_levelHashes.length < levelHashesByteCount) {
+            _levelHashes = new byte[levelHashesByteCount];
+        }
+
+        byte[] inputHashes = _itemHashes;
+        int inputOffset = 0;
+        int outputOffset = 0;
+        for (int nodeCount = itemCount; nodeCount > 1; nodeCount = _getParentNodeCount(nodeCount)) {
+            _hashLevel(inputHashes, inputOffset, nodeCount, _levelHashes, outputOffset);
+
+            inputHashes = _levelHashes;
+            inputOffset = outputOffset;
+            outputOffset += (_getParentNodeCount(nodeCount) * HASH_BYTE_COUNT);
+        }
+
+        _setMerkleRoot(inputHashes, inputOffset);
+        _levelHashesAreValid = true;
+    }
+
+    /**
+     * Rehashes only the nodes between the item at itemIndex and the root.  Requires the level hashes to be valid.
+     */
+    protected void _recalculatePath(final int itemIndex) {
+        final int itemCount = _items.getSize();
+        if (itemCount == 1) {
+            _setMerkleRoot(_itemHashes, 0);
+            return;
+        }
+
+        byte[] inputHashes = _itemHashes;
+        int inputOffset = 0;
+        int outputOffset = 0;
+        int nodeIndex = itemIndex;
+        for (int nodeCount = itemCount; nodeCount > 1; nodeCount = _getParentNodeCount(nodeCount)) {
+            final int parentIndex = (nodeIndex / 2);
+            _hashNode(inputHashes, inputOffset, nodeCount, _levelHashes, outputOffset, parentIndex);
+
+            inputHashes = _levelHashes;
+            inputOffset = outputOffset;
+            outputOffset += (_getParentNodeCount(nodeCount) * HASH_BYTE_COUNT);
+            nodeIndex = parentIndex;
+        }
+
+        _setMerkleRoot(inputHashes, inputOffset);
+    }
+
+    public FlatMerkleTree() {
+        _items = new MutableList<T>(INITIAL_CAPACITY);
+        _itemHashes = new byte[INITIAL_CAPACITY * HASH_BYTE_COUNT];
+    }
+
+    public FlatMerkleTree(final List<T> items) {
+        final int itemCount = items.getSize();
+        _items = new MutableList<T>(itemCount);
+        _itemHashes = new byte[Math.max(1, itemCount) * HASH_BYTE_COUNT];
+
+        for (final T item : items) {
+            _setItemHash(_items.getSize(), item);
+            _items.add(item);
+        }
+    }
+
+    public void clear() {
+        _items.clear();
+        _levelHashesAreValid = false;
+    }
+
+    @Override
+    public void addItem(final T item) {
+        final int index = _items.getSize();
+        _ensureItemCapacity(index + 1);
+        _setItemHash(index, item);
+        _items.add(item);
+        _levelHashesAreValid = false;
+    }
+
+    @Override
+    public T getItem(final int index) {
+        return _items.get(index);
+    }
+
+    @Override
+    public List<T> getItems() {
+        final ImmutableListBuilder<T> immutableListBuilder = new ImmutableListBuilder<T>(_items.getSize());
+        for (final T item : _items) {
+            immutableListBuilder.add(item);
+        }
+        return immutableListBuilder.build();
+    }
+
+    @Override
+    public void replaceItem(final int index, final T item) {
+        _items.set(index, item);
+        _setItemHash(index, item);
+
+        if (_levelHashesAreValid) {
+            _recalculatePath(index);
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return _items.getSize();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _items.isEmpty();
+    }
+
+    @Override
+    public MerkleRoot getMerkleRoot() {
+        if (! _levelHashesAreValid) {
+            _calculateLevelHashes();
+        }
+
+        return MutableMerkleRoot.copyOf(_merkleRoot.getBytes());
+    }
+
+    /**
+     * Returns the merkle branch of the item at transactionIndex: the sibling of each node along the path from the item to the root, ordered
+     *  from the bottom of the tree to the top.  When a node is the unpaired final node of its level, its sibling is itself.
+     *  For transactionIndex 0 (e.g. a stratum coinbase branch), this is identical to MerkleTreeNode::getPartialTree.
+     */
+    @Override
+    public List<Sha256Hash> getPartialTree(final int transactionIndex) {
+        if (! _levelHashesAreValid) {
+            _calculateLevelHashes();
+        }
+
+        final ImmutableListBuilder<Sha256Hash> partialTreeBuilder = new ImmutableListBuilder<Sha256Hash>();
+
+        byte[] hashes = _itemHashes;
+        int offset = 0;
+        int nextLevelOffset = 0;
+        int nodeIndex = transactionIndex;
+        for (int nodeCount = _items.getSize(); nodeCount > 1; nodeCount = _getParentNodeCount(nodeCount)) {
+            final int siblingIndex = (nodeIndex ^ 1);
+            final int hashIndex = ((siblingIndex < nodeCount) ? siblingIndex : nodeIndex);
+            partialTreeBuilder.add(_toSha256Hash(hashes, (offset + (hashIndex * HASH_BYTE_COUNT))));
+
+            hashes = _levelHashes;
+            offset = nextLevelOffset;
+            nextLevelOffset += (_getParentNodeCount(nodeCount) * HASH_BYTE_COUNT);
+            nodeIndex = (nodeIndex / 2);
+        }
+
+        return partialTreeBuilder.build();
+    }
+}
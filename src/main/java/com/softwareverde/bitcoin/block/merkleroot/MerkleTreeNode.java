@@ -1,5 +1,6 @@
 package com.softwareverde.bitcoin.block.merkleroot;
 
+import com.softwareverde.bitcoin.hash.Sha256Util;
 import com.softwareverde.bitcoin.hash.sha256.ImmutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.MutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
@@ -24,7 +25,7 @@ public class MerkleTreeNode<T extends Hashable> implements MerkleTree<T> {
         ByteUtil.setBytes(scratchSpace, hash0.toReversedEndian().getBytes());
         ByteUtil.setBytes(scratchSpace, hash1.toReversedEndian().getBytes(), Sha256Hash.BYTE_COUNT);
 
-        return ByteUtil.reverseEndian(BitcoinUtil.sha256(BitcoinUtil.sha256(scratchSpace)));
+        return Sha256Util.doubleSha256ReversedEndian(scratchSpace, 0, scratchSpace.length);
     }
 
     protected Boolean _hashIsValid = false;
@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.block.header.BlockHeader;
 import com.softwareverde.bitcoin.block.header.difficulty.Difficulty;
 import com.softwareverde.bitcoin.block.validator.difficulty.DifficultyCalculator;
+import com.softwareverde.bitcoin.block.validator.difficulty.RecentBlockHeaders;
 import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
 import com.softwareverde.bitcoin.chain.time.MedianBlockTimeWithBlocks;
 import com.softwareverde.bitcoin.server.database.BlockHeaderDatabaseManager;
@@ -21,6 +22,7 @@ public class BlockHeaderValidator {
     protected final MedianBlockTimeWithBlocks _medianBlockTime;
     protected final MysqlDatabaseConnection _databaseConnection;
     protected final DatabaseManagerCache _databaseManagerCache;
+    protected final RecentBlockHeaders _recentBlockHeaders;
 
     protected Boolean _validateBlockTimeForAlternateChain(final BlockHeader blockHeader) {
         try {
@@ -83,7 +85,7 @@ public class BlockHeaderValidator {
         }
 
         { // Validate block (calculated) difficulty...
-            final DifficultyCalculator difficultyCalculator = new DifficultyCalculator(_databaseConnection, _databaseManagerCache);
+            final DifficultyCalculator difficultyCalculator = new DifficultyCalculator(_databaseConnection, _databaseManagerCache, _recentBlockHeaders);
             final Difficulty calculatedRequiredDifficulty = difficultyCalculator.calculateRequiredDifficulty(blockHeader);
             if (calculatedRequiredDifficulty == null) {
                 Logger.log("Unable to calculate required difficulty for block: " + blockHeader.getHash());
@@ -104,10 +106,19 @@ public class BlockHeaderValidator {
     }
 
     public BlockHeaderValidator(final MysqlDatabaseConnection databaseConnection, final DatabaseManagerCache databaseManagerCache, final NetworkTime networkTime, final MedianBlockTimeWithBlocks medianBlockTime) {
+        this(databaseConnection, databaseManagerCache, networkTime, medianBlockTime, null);
+    }
+
+    /**
+     * Creates a BlockHeaderValidator whose difficulty calculations resolve recent ancestors from recentBlockHeaders before querying the database.
+     *  recentBlockHeaders may be null.
+     */
+    public BlockHeaderValidator(final MysqlDatabaseConnection databaseConnection, final DatabaseManagerCache databaseManagerCache, final NetworkTime networkTime, final MedianBlockTimeWithBlocks medianBlockTime, final RecentBlockHeaders recentBlockHeaders) {
         _databaseConnection = databaseConnection;
         _databaseManagerCache = databaseManagerCache;
         _networkTime = networkTime;
         _medianBlockTime = medianBlockTime;
+        _recentBlockHeaders = recentBlockHeaders;
     }
 
     public Boolean validateBlockHeader(final BlockHeader blockHeader) {
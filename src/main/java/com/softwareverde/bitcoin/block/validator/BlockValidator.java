@@ -1,26 +1,36 @@
 package com.softwareverde.bitcoin.block.validator;
 
 import com.softwareverde.bitcoin.bip.Bip34;
+import com.softwareverde.bitcoin.bip.Bip68;
 import com.softwareverde.bitcoin.block.Block;
 import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.TransactionDependencyGraph;
 import com.softwareverde.bitcoin.block.header.BlockHeader;
 import com.softwareverde.bitcoin.block.validator.thread.*;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
 import com.softwareverde.bitcoin.chain.time.MedianBlockTimeWithBlocks;
 import com.softwareverde.bitcoin.hash.sha256.ImmutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.server.database.BlockDatabaseManager;
 import com.softwareverde.bitcoin.server.database.BlockHeaderDatabaseManager;
+import com.softwareverde.bitcoin.server.database.BlockRelationship;
+import com.softwareverde.bitcoin.server.database.TransactionDatabaseManager;
+import com.softwareverde.bitcoin.server.database.TransactionInputDatabaseManager;
+import com.softwareverde.bitcoin.server.database.TransactionOutputDatabaseManager;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.coinbase.CoinbaseTransaction;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
-import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
-import com.softwareverde.bitcoin.transaction.script.opcode.PushOperation;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutputId;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutputSet;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.transaction.script.ScriptReader;
 import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.constable.list.mutable.MutableList;
 import com.softwareverde.database.DatabaseException;
 import com.softwareverde.database.mysql.MysqlDatabaseConnection;
 import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
@@ -31,6 +41,7 @@ import com.softwareverde.util.timer.NanoTimer;
 import com.softwareverde.util.type.time.SystemTime;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 public class BlockValidator {
@@ -46,38 +57,294 @@ public class BlockValidator {
     protected Integer _maxThreadCount = 4;
     protected Long _trustedBlockHeight = 0L;
 
-    protected Boolean _validateTransactions(final Block block, final BlockchainSegmentId blockchainSegmentId, final Long blockHeight) {
+    protected static String _formatUtilization(final Double utilization) {
+        if (utilization == null) { return "?"; }
+        return (((int) (utilization * 100D)) + "%");
+    }
+
+    /**
+     * Resolves the block (on this chain) that mined each Transaction spent by an input with a relative lock-time (BIP68),
+     *  and records its height and preceding MedianBlockTime within the TransactionOutputSet.
+     *  Transactions mined by the block being validated are confirmed by blockId.
+     */
+    protected void _loadTransactionConfirmations(final TransactionOutputSet.Builder transactionOutputSetBuilder, final BlockId blockId, final BlockchainSegmentId blockchainSegmentId, final List<Transaction> transactions, final Map<Sha256Hash, Transaction> queuedTransactionOutputs, final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, _databaseManagerCache);
+        final TransactionDatabaseManager transactionDatabaseManager = new TransactionDatabaseManager(databaseConnection, _databaseManagerCache);
+
+        final HashSet<Sha256Hash> uniqueTransactionHashes = new HashSet<Sha256Hash>();
+        final MutableList<Sha256Hash> externalTransactionHashes = new MutableList<Sha256Hash>();
+        final HashSet<BlockId> confirmingBlockIds = new HashSet<BlockId>();
+        final HashMap<Sha256Hash, BlockId> transactionBlockIds = new HashMap<Sha256Hash, BlockId>();
+        for (final Transaction transaction : transactions) {
+            if (transaction.getVersion() < 2L) { continue; }
+
+            for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                if (transactionInput.getSequenceNumber().isDisabled()) { continue; }
+
+                final Sha256Hash transactionHash = transactionInput.getPreviousOutputTransactionHash();
+                if (! uniqueTransactionHashes.add(transactionHash)) { continue; }
+
+                if (queuedTransactionOutputs.containsKey(transactionHash)) {
+                    transactionBlockIds.put(transactionHash, blockId);
+                    confirmingBlockIds.add(blockId);
+                }
+                else {
+                    externalTransactionHashes.add(transactionHash);
+                }
+            }
+        }
+
+        if (uniqueTransactionHashes.isEmpty()) { return; }
+
+        final Map<Sha256Hash, List<BlockId>> minedBlockIds = transactionDatabaseManager.getBlockIds(externalTransactionHashes);
+        for (final Sha256Hash transactionHash : externalTransactionHashes) {
+            final List<BlockId> blockIds = minedBlockIds.get(transactionHash);
+            if (blockIds == null) { continue; }
+
+            for (final BlockId minedBlockId : blockIds) {
+                final Boolean isConnected = blockHeaderDatabaseManager.isBlockConnectedToChain(minedBlockId, blockchainSegmentId, BlockRelationship.ANCESTOR);
+                if (isConnected) {
+                    transactionBlockIds.put(transactionHash, minedBlockId);
+                    confirmingBlockIds.add(minedBlockId);
+                    break;
+                }
+            }
+        }
+
+        final HashMap<BlockId, Long> blockHeights = new HashMap<BlockId, Long>(confirmingBlockIds.size());
+        final HashMap<BlockId, MedianBlockTime> medianBlockTimes = new HashMap<BlockId, MedianBlockTime>(confirmingBlockIds.size());
+        for (final BlockId confirmingBlockId : confirmingBlockIds) {
+            final Long blockHeight = blockHeaderDatabaseManager.getBlockHeight(confirmingBlockId);
+            final MedianBlockTime medianBlockTime = blockHeaderDatabaseManager.calculateMedianBlockTime(confirmingBlockId);
+            if ( (blockHeight == null) || (medianBlockTime == null) ) { continue; }
+
+            blockHeights.put(confirmingBlockId, blockHeight);
+            medianBlockTimes.put(confirmingBlockId, medianBlockTime);
+        }
+
+        for (final Sha256Hash transactionHash : transactionBlockIds.keySet()) {
+            final BlockId confirmingBlockId = transactionBlockIds.get(transactionHash);
+            final Long blockHeight = blockHeights.get(confirmingBlockId);
+            if (blockHeight == null) { continue; } // The TransactionValidator will resolve the confirmation itself...
+
+            transactionOutputSetBuilder.setConfirmation(transactionHash, blockHeight, medianBlockTimes.get(confirmingBlockId));
+        }
+    }
+
+    /**
+     * Resolves, with set-based queries, how many times each Transaction being spent was mined on this chain
+     *  and how many times each TransactionOutput being spent was already spent on this chain, and records them within the TransactionOutputSet.
+     *  As with TransactionValidator::_getOutputSpendCount, spends within blocks at blockHeight (i.e. this block and its siblings) are not counted.
+     */
+    protected void _loadTransactionOutputSpendStatuses(final TransactionOutputSet.Builder transactionOutputSetBuilder, final BlockchainSegmentId blockchainSegmentId, final Long blockHeight, final List<TransactionOutputIdentifier> transactionOutputIdentifiers, final Map<TransactionOutputIdentifier, TransactionOutputId> transactionOutputIds, final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, _databaseManagerCache);
+        final TransactionDatabaseManager transactionDatabaseManager = new TransactionDatabaseManager(databaseConnection, _databaseManagerCache);
+        final TransactionInputDatabaseManager transactionInputDatabaseManager = new TransactionInputDatabaseManager(databaseConnection, _databaseManagerCache);
+
+        final HashMap<BlockId, Boolean> connectedBlockIds = new HashMap<BlockId, Boolean>();
+
+        final MutableList<Sha256Hash> transactionHashes = new MutableList<Sha256Hash>();
+        final MutableList<TransactionOutputId> spentTransactionOutputIds = new MutableList<TransactionOutputId>(transactionOutputIds.size());
+        { // Collect the (unique) Transactions and the stored TransactionOutputs being spent...
+            final HashSet<Sha256Hash> uniqueTransactionHashes = new HashSet<Sha256Hash>();
+            for (final TransactionOutputIdentifier transactionOutputIdentifier : transactionOutputIdentifiers) {
+                final Sha256Hash transactionHash = transactionOutputIdentifier.getTransactionHash();
+                if (uniqueTransactionHashes.add(transactionHash)) {
+                    transactionHashes.add(transactionHash);
+                }
+
+                final TransactionOutputId transactionOutputId = transactionOutputIds.get(transactionOutputIdentifier);
+                if (transactionOutputId != null) {
+                    spentTransactionOutputIds.add(transactionOutputId);
+                }
+            }
+        }
+
+        { // Resolve how many times each Transaction was mined on this chain...
+            final Map<Sha256Hash, List<BlockId>> minedBlockIds = transactionDatabaseManager.getBlockIds(transactionHashes);
+            for (final Sha256Hash transactionHash : transactionHashes) {
+                int minedCount = 0;
+                final List<BlockId> blockIds = minedBlockIds.get(transactionHash);
+                if (blockIds != null) {
+                    for (final BlockId blockId : blockIds) {
+                        Boolean isConnected = connectedBlockIds.get(blockId);
+                        if (isConnected == null) {
+                            isConnected = blockHeaderDatabaseManager.isBlockConnectedToChain(blockId, blockchainSegmentId, BlockRelationship.ANCESTOR);
+                            connectedBlockIds.put(blockId, isConnected);
+                        }
+
+                        if (isConnected) {
+                            minedCount += 1;
+                        }
+                    }
+                }
+                transactionOutputSetBuilder.setMinedCount(transactionHash, minedCount);
+            }
+        }
+
+        { // Resolve how many times each TransactionOutput was already spent on this chain...
+            final Map<TransactionOutputId, List<BlockId>> spendingBlockIds = transactionInputDatabaseManager.getSpendingBlockIds(spentTransactionOutputIds);
+            for (final TransactionOutputIdentifier transactionOutputIdentifier : transactionOutputIdentifiers) {
+                final TransactionOutputId transactionOutputId = transactionOutputIds.get(transactionOutputIdentifier);
+                if (transactionOutputId == null) { continue; } // The TransactionValidator will reject the input as not found...
+
+                int spendCount = 0;
+                final List<BlockId> blockIds = spendingBlockIds.get(transactionOutputId);
+                if (blockIds != null) {
+                    for (final BlockId blockId : blockIds) {
+                        final Long spendingBlockHeight = blockHeaderDatabaseManager.getBlockHeight(blockId);
+                        if (Util.areEqual(blockHeight, spendingBlockHeight)) { continue; }
+
+                        Boolean isConnected = connectedBlockIds.get(blockId);
+                        if (isConnected == null) {
+                            isConnected = blockHeaderDatabaseManager.isBlockConnectedToChain(blockId, blockchainSegmentId, BlockRelationship.ANCESTOR);
+                            connectedBlockIds.put(blockId, isConnected);
+                        }
+
+                        if (isConnected) {
+                            spendCount += 1;
+                        }
+                    }
+                }
+                transactionOutputSetBuilder.setSpendCount(transactionOutputIdentifier, spendCount);
+            }
+        }
+    }
+
+    /**
+     * Resolves every TransactionOutput spent by the provided transactions in bulk.
+     *  TransactionOutputs created within the Block are read from queuedTransactionOutputs;
+     *  all others are loaded with set-based queries, along with whether each has been mined and spent on this chain.
+     *  Returns null if a database error occurs.
+     */
+    protected TransactionOutputSet _loadTransactionOutputSet(final BlockId blockId, final BlockchainSegmentId blockchainSegmentId, final Long blockHeight, final List<Transaction> transactions, final Map<Sha256Hash, Transaction> queuedTransactionOutputs) {
+        final MutableList<TransactionOutputIdentifier> transactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>();
+        { // Collect the (unique) TransactionOutputs being spent...
+            final HashSet<TransactionOutputIdentifier> uniqueTransactionOutputIdentifiers = new HashSet<TransactionOutputIdentifier>();
+            for (final Transaction transaction : transactions) {
+                for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                    final TransactionOutputIdentifier transactionOutputIdentifier = TransactionOutputIdentifier.fromTransactionInput(transactionInput);
+                    if (uniqueTransactionOutputIdentifiers.add(transactionOutputIdentifier)) {
+                        transactionOutputIdentifiers.add(transactionOutputIdentifier);
+                    }
+                }
+            }
+        }
+
+        try (final MysqlDatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection()) {
+            final TransactionOutputDatabaseManager transactionOutputDatabaseManager = new TransactionOutputDatabaseManager(databaseConnection, _databaseManagerCache);
+
+            final Map<TransactionOutputIdentifier, TransactionOutputId> transactionOutputIds = transactionOutputDatabaseManager.findTransactionOutputs(transactionOutputIdentifiers);
+
+            final TransactionOutputSet.Builder transactionOutputSetBuilder = new TransactionOutputSet.Builder(transactionOutputIdentifiers.getSize());
+            final MutableList<TransactionOutputId> unloadedTransactionOutputIds = new MutableList<TransactionOutputId>();
+            final Map<TransactionOutputId, TransactionOutputIdentifier> unloadedTransactionOutputIdentifiers = new HashMap<TransactionOutputId, TransactionOutputIdentifier>();
+            for (final TransactionOutputIdentifier transactionOutputIdentifier : transactionOutputIdentifiers) {
+                final TransactionOutputId transactionOutputId = transactionOutputIds.get(transactionOutputIdentifier);
+
+                { // Use the TransactionOutput from within this Block, if it exists, to avoid loading it from the database...
+                    final Transaction transactionContainingOutput = queuedTransactionOutputs.get(transactionOutputIdentifier.getTransactionHash());
+                    if (transactionContainingOutput != null) {
+                        final List<TransactionOutput> transactionOutputs = transactionContainingOutput.getTransactionOutputs();
+                        final Integer transactionOutputIndex = transactionOutputIdentifier.getOutputIndex();
+                        if ( (transactionOutputIndex >= 0) && (transactionOutputIndex < transactionOutputs.getSize()) ) {
+                            transactionOutputSetBuilder.add(transactionOutputIdentifier, transactionOutputId, transactionOutputs.get(transactionOutputIndex));
+                            continue;
+                        }
+                    }
+                }
+
+                if (transactionOutputId != null) {
+                    unloadedTransactionOutputIds.add(transactionOutputId);
+                    unloadedTransactionOutputIdentifiers.put(transactionOutputId, transactionOutputIdentifier);
+                }
+            }
+
+            final Map<TransactionOutputId, TransactionOutput> transactionOutputs = transactionOutputDatabaseManager.getTransactionOutputs(unloadedTransactionOutputIds);
+            for (final TransactionOutputId transactionOutputId : unloadedTransactionOutputIds) {
+                final TransactionOutput transactionOutput = transactionOutputs.get(transactionOutputId);
+                if (transactionOutput == null) { continue; }
+
+                final TransactionOutputIdentifier transactionOutputIdentifier = unloadedTransactionOutputIdentifiers.get(transactionOutputId);
+                transactionOutputSetBuilder.add(transactionOutputIdentifier, transactionOutputId, transactionOutput);
+            }
+
+            _loadTransactionOutputSpendStatuses(transactionOutputSetBuilder, blockchainSegmentId, blockHeight, transactionOutputIdentifiers, transactionOutputIds, databaseConnection);
+
+            if (Bip68.isEnabled(blockHeight)) {
+                _loadTransactionConfirmations(transactionOutputSetBuilder, blockId, blockchainSegmentId, transactions, queuedTransactionOutputs, databaseConnection);
+            }
+
+            return transactionOutputSetBuilder.build();
+        }
+        catch (final DatabaseException exception) {
+            Logger.log(exception);
+            return null;
+        }
+    }
+
+    protected Boolean _validateTransactions(final BlockId blockId, final Block block, final BlockchainSegmentId blockchainSegmentId, final Long blockHeight) {
         final Thread currentThread = Thread.currentThread();
 
         final List<Transaction> transactions;
         final Map<Sha256Hash, Transaction> queuedTransactionOutputs = new HashMap<Sha256Hash, Transaction>();
         { // Remove the coinbase transaction and create a lookup map for transaction outputs...
             final List<Transaction> fullTransactionList = block.getTransactions();
-            final ImmutableListBuilder<Transaction> listBuilder = new ImmutableListBuilder<Transaction>(fullTransactionList.getSize());
-            int transactionIndex = 0;
             for (final Transaction transaction : fullTransactionList) {
-                if (transactionIndex > 0) {
+                final Sha256Hash transactionHash = transaction.getHash();
+                final Transaction duplicateTransaction = queuedTransactionOutputs.put(transactionHash, transaction);
+                if (duplicateTransaction != null) { // A Block may not contain the same Transaction twice (i.e. CVE-2012-2459)...
+                    Logger.log("NOTICE: Block contains duplicate Transaction: " + transactionHash + " " + block.getHash());
+                    return false;
+                }
+            }
+
+            // NOTE: Transactions are scheduled by connected component (largest first), each in topological order,
+            //  so that long chains of in-block dependencies are started first instead of becoming the final straggler...
+            final Transaction coinbaseTransaction = (fullTransactionList.isEmpty() ? null : fullTransactionList.get(0));
+            final TransactionDependencyGraph transactionDependencyGraph = new TransactionDependencyGraph(fullTransactionList);
+            final ImmutableListBuilder<Transaction> listBuilder = new ImmutableListBuilder<Transaction>(fullTransactionList.getSize());
+            for (final List<Transaction> component : transactionDependencyGraph.getComponents()) {
+                for (final Transaction transaction : component) {
+                    if (transaction == coinbaseTransaction) { continue; }
                     listBuilder.add(transaction);
                 }
+            }
+            transactions = listBuilder.build();
 
-                queuedTransactionOutputs.put(transaction.getHash(), transaction);
+            if ( (_shouldLogValidBlocks) && (transactionDependencyGraph.getComponentCount() < fullTransactionList.getSize()) ) {
+                Logger.log("Block contains " + (fullTransactionList.getSize() - transactionDependencyGraph.getComponentCount()) + " in-block dependencies across " + transactionDependencyGraph.getComponentCount() + " components. " + block.getHash());
+            }
+        }
+
+        final TransactionOutputSet transactionOutputSet;
+        { // Resolve every TransactionOutput being spent once, so that expenditure and script validation share a single lookup...
+            final NanoTimer loadTransactionOutputsTimer = new NanoTimer();
+            loadTransactionOutputsTimer.start();
+            transactionOutputSet = _loadTransactionOutputSet(blockId, blockchainSegmentId, blockHeight, transactions, queuedTransactionOutputs);
+            loadTransactionOutputsTimer.stop();
 
-                transactionIndex += 1;
+            if (transactionOutputSet == null) {
+                Logger.log("NOTICE: Unable to load TransactionOutputs for Block: " + block.getHash());
+                return false;
+            }
+
+            if (_shouldLogValidBlocks) {
+                Logger.log("Loaded " + transactionOutputSet.getSize() + " TransactionOutputs in " + loadTransactionOutputsTimer.getMillisecondsElapsed() + "ms. " + block.getHash());
             }
-            transactions = listBuilder.build();
         }
 
         final TaskHandlerFactory<Transaction, Long> totalExpenditureTaskHandlerFactory = new TaskHandlerFactory<Transaction, Long>() {
             @Override
             public TaskHandler<Transaction, Long> newInstance() {
-                return new TotalExpenditureTaskHandler(queuedTransactionOutputs);
+                return new TotalExpenditureTaskHandler(transactionOutputSet);
             }
         };
 
         final TaskHandlerFactory<Transaction, Boolean> transactionValidationTaskHandlerFactory = new TaskHandlerFactory<Transaction, Boolean>() {
             @Override
             public TaskHandler<Transaction, Boolean> newInstance() {
-                return new TransactionValidationTaskHandler(blockchainSegmentId, blockHeight, _networkTime, _medianBlockTime);
+                return new TransactionValidationTaskHandler(blockchainSegmentId, blockHeight, _networkTime, _medianBlockTime, transactionOutputSet);
             }
         };
 
@@ -105,7 +372,7 @@ public class BlockValidator {
 
         // TODO: Validate block size...
         // TODO: Validate max operations per block... (https://bitcoin.stackexchange.com/questions/35691/if-block-sizes-go-up-wont-sigop-limits-have-to-change-too)
-        // TODO: Validate transaction does not appear twice within the same Block and Blockchain... (https://github.com/bitcoin/bips/blob/master/bip-0030.mediawiki) (https://github.com/bitcoin/bitcoin/commit/ab91bf39b7c11e9c86bb2043c24f0f377f1cf514)
+        // TODO: Validate transaction does not appear twice within the same Blockchain... (Duplicates within the same Block are rejected above.) (https://github.com/bitcoin/bips/blob/master/bip-0030.mediawiki) (https://github.com/bitcoin/bitcoin/commit/ab91bf39b7c11e9c86bb2043c24f0f377f1cf514)
         // TODO: Create test for PreviousTransactionOutput being EmptyHash/-1 when not coinbase.
 
         { // Validate coinbase contains block height...
@@ -121,16 +388,14 @@ public class BlockValidator {
                 final CoinbaseTransaction coinbaseTransaction = block.getCoinbaseTransaction();
                 final UnlockingScript unlockingScript = coinbaseTransaction.getCoinbaseScript();
 
-                final List<Operation> operations = unlockingScript.getOperations();
-                final Operation operation = operations.get(0);
-                if (operation.getType() != Operation.Type.OP_PUSH) {
+                final ScriptReader scriptReader = new ScriptReader(unlockingScript); // Only the first Operation is needed, so the coinbase script is not inflated...
+                if ( (! scriptReader.next()) || (! scriptReader.isPushOperation()) ) {
                     Logger.log("Block coinbase does not contain block height.");
                     totalExpenditureValidationTaskSpawner.abort();
                     transactionValidationTaskSpawner.abort();
                     return false;
                 }
-                final PushOperation pushOperation = (PushOperation) operation;
-                final Long coinbaseBlockHeight = pushOperation.getValue().asLong();
+                final Long coinbaseBlockHeight = scriptReader.getPushedValue().asLong();
                 if (blockHeight.longValue() != coinbaseBlockHeight.longValue()) {
                     Logger.log("Invalid block height within coinbase.");
                     totalExpenditureValidationTaskSpawner.abort();
@@ -178,6 +443,12 @@ public class BlockValidator {
         final List<Boolean> unlockedInputsResults = transactionValidationTaskSpawner.waitForResults();
         if (currentThread.isInterrupted()) { return false; } // Bail out if an abort occurred...
 
+        if (_shouldLogValidBlocks) {
+            final Double expenditureUtilization = totalExpenditureValidationTaskSpawner.getUtilization();
+            final Double transactionValidationUtilization = transactionValidationTaskSpawner.getUtilization();
+            Logger.log("Validator core utilization: Expenditures " + _formatUtilization(expenditureUtilization) + " (" + totalExpenditureValidationTaskSpawner.getWorkerCount() + " threads), Scripts " + _formatUtilization(transactionValidationUtilization) + " (" + transactionValidationTaskSpawner.getWorkerCount() + " threads). " + block.getHash());
+        }
+
         if (expenditureResults == null) {
             Logger.log("NOTICE: Expenditure validator returned null...");
             return false;
@@ -233,7 +504,7 @@ public class BlockValidator {
         return true;
     }
 
-    protected Boolean _validateBlock(final BlockchainSegmentId blockchainSegmentId, final Block block, final Long blockHeight) {
+    protected Boolean _validateBlock(final BlockchainSegmentId blockchainSegmentId, final BlockId blockId, final Block block, final Long blockHeight) {
         if (! block.isValid()) {
             Logger.log("Block header is invalid.");
             return false;
@@ -244,7 +515,7 @@ public class BlockValidator {
             final NanoTimer validateBlockTimer = new NanoTimer();
             validateBlockTimer.start();
 
-            final Boolean transactionsAreValid = _validateTransactions(block, blockchainSegmentId, blockHeight);
+            final Boolean transactionsAreValid = _validateTransactions(blockId, block, blockchainSegmentId, blockHeight);
             if (! transactionsAreValid) { return false; }
 
             validateBlockTimer.stop();
@@ -268,7 +539,9 @@ public class BlockValidator {
     }
 
     /**
-     *  Sets the total number of threads that will be spawned for each call to BlockValidator::Validate.  NOTE: This number should be divisible by 2.
+     *  Sets the total number of validation workers used for each call to BlockValidator::Validate.
+     *  The total-expenditure and transaction validators each receive max(maxThreadCount / 2, 1) workers, so an odd count leaves one worker unused.
+     *  Each worker holds its own database connection, so the connection pool should provide at least maxThreadCount connections.
      */
     public void setMaxThreadCount(final Integer maxThreadCount) {
         _maxThreadCount = maxThreadCount;
@@ -322,7 +595,7 @@ public class BlockValidator {
             return false;
         }
 
-        return _validateBlock(blockchainSegmentId, block, blockHeight);
+        return _validateBlock(blockchainSegmentId, blockId, block, blockHeight);
     }
 
     public Boolean validateBlockTransactions(final BlockId blockId, final Block nullableBlock) {
@@ -361,7 +634,7 @@ public class BlockValidator {
             return false;
         }
 
-        return _validateBlock(blockchainSegmentId, block, blockHeight);
+        return _validateBlock(blockchainSegmentId, blockId, block, blockHeight);
     }
 
     public void setShouldLogValidBlocks(final Boolean shouldLogValidBlocks) {
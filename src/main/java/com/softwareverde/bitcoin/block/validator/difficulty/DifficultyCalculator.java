@@ -9,6 +9,7 @@ import com.softwareverde.bitcoin.block.header.difficulty.ImmutableDifficulty;
 import com.softwareverde.bitcoin.block.header.difficulty.work.ChainWork;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.server.database.BlockHeaderDatabaseManager;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.database.DatabaseException;
@@ -28,29 +29,57 @@ public class DifficultyCalculator {
     protected static final BigInteger TWO_RAISED_TO_256 = BigInteger.valueOf(2L).pow(256);
 
     protected final BlockHeaderDatabaseManager _blockHeaderDatabaseManager;
+    protected final RecentBlockHeaders _recentBlockHeaders;
 
     public DifficultyCalculator(final MysqlDatabaseConnection databaseConnection, final DatabaseManagerCache databaseManagerCache) {
+        this(databaseConnection, databaseManagerCache, null);
+    }
+
+    /**
+     * Creates a DifficultyCalculator that resolves ancestor BlockHeaders from recentBlockHeaders before querying the database.
+     *  recentBlockHeaders may be null.
+     */
+    public DifficultyCalculator(final MysqlDatabaseConnection databaseConnection, final DatabaseManagerCache databaseManagerCache, final RecentBlockHeaders recentBlockHeaders) {
         _blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, databaseManagerCache);
+        _recentBlockHeaders = recentBlockHeaders;
+    }
+
+    protected BlockId _getBlockHeaderId(final Sha256Hash blockHash) throws DatabaseException {
+        if (_recentBlockHeaders != null) {
+            final BlockId blockId = _recentBlockHeaders.getBlockId(blockHash);
+            if (blockId != null) { return blockId; }
+        }
+
+        return _blockHeaderDatabaseManager.getBlockHeaderId(blockHash);
+    }
+
+    protected BlockHeader _getBlockHeader(final BlockId blockId) throws DatabaseException {
+        if (_recentBlockHeaders != null) {
+            final BlockHeader blockHeader = _recentBlockHeaders.getBlockHeader(blockId);
+            if (blockHeader != null) { return blockHeader; }
+        }
+
+        return _blockHeaderDatabaseManager.getBlockHeader(blockId);
     }
 
     protected Difficulty _calculateNewBitcoinCoreTarget(final Long blockHeight, final BlockHeader blockHeader) throws DatabaseException {
         //  Calculate the new difficulty. https://bitcoin.stackexchange.com/questions/5838/how-is-difficulty-calculated
 
-        final BlockId blockId = _blockHeaderDatabaseManager.getBlockHeaderId(blockHeader.getHash());
+        final BlockId blockId = _getBlockHeaderId(blockHeader.getHash());
         final BlockchainSegmentId blockchainSegmentId = _blockHeaderDatabaseManager.getBlockchainSegmentId(blockId);
 
         //  1. Get the block that is 2016 blocks behind the head block of this chain.
         final long previousBlockHeight = (blockHeight - BLOCK_COUNT_PER_DIFFICULTY_ADJUSTMENT); // NOTE: This is 2015 blocks worth of time (not 2016) because of a bug in Satoshi's implementation and is now part of the protocol definition.
         final BlockId lastAdjustedBlockId = _blockHeaderDatabaseManager.getBlockIdAtHeight(blockchainSegmentId, previousBlockHeight);
-        final BlockHeader lastAdjustedBlockHeader = _blockHeaderDatabaseManager.getBlockHeader(lastAdjustedBlockId);
+        final BlockHeader lastAdjustedBlockHeader = _getBlockHeader(lastAdjustedBlockId);
         if (lastAdjustedBlockHeader == null) { return null; }
 
         //  2. Get the current block timestamp.
         final BlockHeader previousBlock;
         final Long blockTimestamp;
         {
-            final BlockId lastAdjustedPreviousBlockId = _blockHeaderDatabaseManager.getBlockHeaderId(blockHeader.getPreviousBlockHash());
-            previousBlock = _blockHeaderDatabaseManager.getBlockHeader(lastAdjustedPreviousBlockId);
+            final BlockId lastAdjustedPreviousBlockId = _getBlockHeaderId(blockHeader.getPreviousBlockHash());
+            previousBlock = _getBlockHeader(lastAdjustedPreviousBlockId);
             blockTimestamp = previousBlock.getTimestamp();
         }
         final Long previousBlockTimestamp = lastAdjustedBlockHeader.getTimestamp();
@@ -91,10 +120,10 @@ public class DifficultyCalculator {
     }
 
     protected Difficulty _calculateBitcoinCashEmergencyDifficultyAdjustment(final BlockId blockId, final Long blockHeight, final BlockHeader blockHeader) throws DatabaseException {
-        final BlockId previousBlockBlockId = _blockHeaderDatabaseManager.getBlockHeaderId(blockHeader.getPreviousBlockHash());
+        final BlockId previousBlockBlockId = _getBlockHeaderId(blockHeader.getPreviousBlockHash());
         if (previousBlockBlockId == null) { return null; }
 
-        final BlockHeader previousBlockHeader = _blockHeaderDatabaseManager.getBlockHeader(previousBlockBlockId);
+        final BlockHeader previousBlockHeader = _getBlockHeader(previousBlockBlockId);
 
         final MedianBlockTime medianBlockTime = _blockHeaderDatabaseManager.calculateMedianBlockTime(blockId);
         final BlockId sixthParentBlockId = _blockHeaderDatabaseManager.getAncestorBlockId(blockId, 6);
@@ -131,7 +160,7 @@ public class DifficultyCalculator {
 
         for (int i = 0; i < lastBlockHeaders.length; ++i) {
             final BlockId ancestorBlockId = _blockHeaderDatabaseManager.getAncestorBlockId(blockId, (i + 1));
-            final BlockHeader blockHeader = _blockHeaderDatabaseManager.getBlockHeader(ancestorBlockId);
+            final BlockHeader blockHeader = _getBlockHeader(ancestorBlockId);
             if (blockHeader == null) { return null; }
 
             lastBlockHeaders[i] = blockHeader;
@@ -142,7 +171,7 @@ public class DifficultyCalculator {
             final BlockId blockHeaderId = _blockHeaderDatabaseManager.getBlockIdAtHeight(blockchainSegmentId, (parentBlockHeight - 144L - i));
             if (blockHeaderId == null) { return null; }
 
-            final BlockHeader blockHeader = _blockHeaderDatabaseManager.getBlockHeader(blockHeaderId);
+            final BlockHeader blockHeader = _getBlockHeader(blockHeaderId);
             firstBlockHeaders[i] = blockHeader;
         }
 
@@ -176,8 +205,8 @@ public class DifficultyCalculator {
             }
         }
 
-        final BlockId firstBlockId = _blockHeaderDatabaseManager.getBlockHeaderId(firstBlockHeader.getHash());
-        final BlockId lastBlockId = _blockHeaderDatabaseManager.getBlockHeaderId(lastBlockHeader.getHash());
+        final BlockId firstBlockId = _getBlockHeaderId(firstBlockHeader.getHash());
+        final BlockId lastBlockId = _getBlockHeaderId(lastBlockHeader.getHash());
         final ChainWork firstChainWork = _blockHeaderDatabaseManager.getChainWork(firstBlockId);
         final ChainWork lastChainWork = _blockHeaderDatabaseManager.getChainWork(lastBlockId);
 
@@ -214,7 +243,7 @@ public class DifficultyCalculator {
 
     public Difficulty calculateRequiredDifficulty(final BlockHeader blockHeader) {
         try {
-            final BlockId blockId = _blockHeaderDatabaseManager.getBlockHeaderId(blockHeader.getHash());
+            final BlockId blockId = _getBlockHeaderId(blockHeader.getHash());
             if (blockId == null) {
                 Logger.log("Unable to find BlockId from Hash: "+ blockHeader.getHash());
                 return null;
@@ -242,10 +271,10 @@ public class DifficultyCalculator {
                 return _calculateBitcoinCashEmergencyDifficultyAdjustment(blockId, blockHeight, blockHeader);
             }
 
-            final BlockId previousBlockBlockId = _blockHeaderDatabaseManager.getBlockHeaderId(blockHeader.getPreviousBlockHash());
+            final BlockId previousBlockBlockId = _getBlockHeaderId(blockHeader.getPreviousBlockHash());
             if (previousBlockBlockId == null) { return null; }
 
-            final BlockHeader previousBlockHeader = _blockHeaderDatabaseManager.getBlockHeader(previousBlockBlockId);
+            final BlockHeader previousBlockHeader = _getBlockHeader(previousBlockBlockId);
             return previousBlockHeader.getDifficulty();
         }
         catch (final DatabaseException exception) { Logger.log(exception); }
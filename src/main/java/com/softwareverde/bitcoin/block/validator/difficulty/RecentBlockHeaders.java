@@ -0,0 +1,64 @@
+package com.softwareverde.bitcoin.block.validator.difficulty;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+
+/**
+ * A bounded, in-memory window of the most recently stored BlockHeaders.
+ *  The DifficultyCalculator consults the window before inflating ancestors from the database, so that a contiguous run
+ *  of headers may be validated without re-reading the previous ~150 headers for every new header.
+ *  The window is not synchronized; callers are expected to hold the BlockHeaderDatabaseManager.MUTEX.
+ *  The window must be cleared if a database transaction that stored any of its headers is rolled back.
+ */
+public class RecentBlockHeaders {
+    public static final Integer DEFAULT_MAX_BLOCK_HEADER_COUNT = 256; // Covers the 147-block span of the 20171113 difficulty adjustment algorithm...
+
+    protected final Integer _maxBlockHeaderCount;
+    protected final LinkedList<BlockId> _blockIds = new LinkedList<BlockId>();
+    protected final HashMap<BlockId, BlockHeader> _blockHeaders = new HashMap<BlockId, BlockHeader>();
+    protected final HashMap<Sha256Hash, BlockId> _blockIdsByHash = new HashMap<Sha256Hash, BlockId>();
+
+    public RecentBlockHeaders() {
+        this(DEFAULT_MAX_BLOCK_HEADER_COUNT);
+    }
+
+    public RecentBlockHeaders(final Integer maxBlockHeaderCount) {
+        _maxBlockHeaderCount = maxBlockHeaderCount;
+    }
+
+    public void addBlockHeader(final BlockId blockId, final BlockHeader blockHeader) {
+        if (_blockHeaders.containsKey(blockId)) { return; }
+
+        _blockIds.addLast(blockId);
+        _blockHeaders.put(blockId, blockHeader);
+        _blockIdsByHash.put(blockHeader.getHash(), blockId);
+
+        while (_blockIds.size() > _maxBlockHeaderCount) {
+            final BlockId evictedBlockId = _blockIds.removeFirst();
+            final BlockHeader evictedBlockHeader = _blockHeaders.remove(evictedBlockId);
+            _blockIdsByHash.remove(evictedBlockHeader.getHash());
+        }
+    }
+
+    public BlockHeader getBlockHeader(final BlockId blockId) {
+        return _blockHeaders.get(blockId);
+    }
+
+    public BlockId getBlockId(final Sha256Hash blockHash) {
+        return _blockIdsByHash.get(blockHash);
+    }
+
+    public Integer getBlockHeaderCount() {
+        return _blockIds.size();
+    }
+
+    public void clear() {
+        _blockIds.clear();
+        _blockHeaders.clear();
+        _blockIdsByHash.clear();
+    }
+}
@@ -3,36 +3,88 @@ package com.softwareverde.bitcoin.block.validator.thread;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
-import com.softwareverde.database.DatabaseException;
-import com.softwareverde.database.mysql.MysqlDatabaseConnection;
 import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
-import com.softwareverde.io.Logger;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes a TaskHandler across a list of items using the shared validation thread pool.
+ *  The pool creates threads on demand (and retires them once idle), so each invocation receives exactly the requested number
+ *  of workers; since each worker holds a database connection and mostly waits on I/O, the count is not capped at the processor count.
+ *  Rather than assigning each thread a fixed slice of the list, each worker repeatedly claims the next batch of
+ *  unprocessed items from a shared cursor.  Batches shrink as the list is consumed (guided scheduling), so a worker
+ *  that happens to receive expensive items does not leave the other workers idle at the end of the list.
+ *  If any worker's TaskHandler becomes invalid, all remaining items are abandoned.
+ */
 public class ParallelledTaskSpawner<T, S> {
-    protected static final ExecutorService THREAD_POOL = Executors.newCachedThreadPool();
-
-    protected static void _closeConnection(final MysqlDatabaseConnection databaseConnection) {
-        try {
-            if (databaseConnection != null) {
-                databaseConnection.close();
-            }
+    protected static final ExecutorService THREAD_POOL = Executors.newCachedThreadPool(new ThreadFactory() {
+        protected final AtomicInteger _nextThreadId = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable);
+            thread.setName("ParallelledTaskSpawner - " + _nextThreadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
         }
-        catch (DatabaseException exception) { }
-    }
+    });
 
-    protected static void _closeConnections(final MysqlDatabaseConnection[] databaseConnections) {
-        for (final MysqlDatabaseConnection databaseConnection : databaseConnections) {
-            _closeConnection(databaseConnection);
-        }
-    }
+    protected static final Integer BATCHES_PER_WORKER = 4;
 
     protected final MysqlDatabaseConnectionFactory _databaseConnectionFactory;
     protected final DatabaseManagerCache _databaseManagerCache;
+    protected final AtomicInteger _nextItemIndex = new AtomicInteger(0);
+    protected final AtomicBoolean _shouldAbort = new AtomicBoolean(false);
+    protected List<T> _items = null;
     protected List<ValidationTask<T, S>> _validationTasks = null;
     protected TaskHandlerFactory<T, S> _taskHandlerFactory;
+    protected Long _startTime = null;
+    protected Long _endTime = null;
+
+    /**
+     * Claims the next batch of items and returns its start index, or null if no items remain.
+     *  The batch size is stored within batchSizeContainer[0].
+     */
+    Integer claimNextBatch(final int workerCount, final int[] batchSizeContainer) {
+        final int totalItemCount = _items.getSize();
+
+        while (true) {
+            if (_shouldAbort.get()) { return null; }
+
+            final int startIndex = _nextItemIndex.get();
+            final int remainingItemCount = (totalItemCount - startIndex);
+            if (remainingItemCount <= 0) { return null; }
+
+            final int batchSize = Math.max(1, (remainingItemCount / (workerCount * BATCHES_PER_WORKER)));
+            if (_nextItemIndex.compareAndSet(startIndex, (startIndex + batchSize))) {
+                batchSizeContainer[0] = batchSize;
+                return startIndex;
+            }
+        }
+    }
+
+    protected void _abort() {
+        _shouldAbort.set(true);
+    }
+
+    /**
+     * Returns true once the remaining items have been abandoned.
+     */
+    Boolean isAborted() {
+        return _shouldAbort.get();
+    }
+
+    /**
+     * Abandons the remaining items for all workers.
+     *  Unlike ParallelledTaskSpawner::abort, the workers' results are still reported; invoked by a worker whose TaskHandler became invalid.
+     */
+    void abandonRemainingItems() {
+        _abort();
+    }
 
     public void setTaskHandlerFactory(final TaskHandlerFactory<T, S> taskHandlerFactory) {
         _taskHandlerFactory = taskHandlerFactory;
@@ -41,37 +93,18 @@ public class ParallelledTaskSpawner<T, S> {
     public ParallelledTaskSpawner(final MysqlDatabaseConnectionFactory databaseConnectionFactory, final DatabaseManagerCache databaseManagerCache) {
         _databaseConnectionFactory = databaseConnectionFactory;
         _databaseManagerCache = databaseManagerCache;
-
     }
 
     public void executeTasks(final List<T> items, final int maxThreadCount) {
         final int totalItemCount = items.getSize();
-        final int threadCount = Math.min(maxThreadCount, Math.max(1, (totalItemCount / maxThreadCount)));
-        final int itemsPerThread = (totalItemCount / threadCount);
+        final int workerCount = Math.max(1, Math.min(maxThreadCount, totalItemCount));
 
-        final MysqlDatabaseConnection[] mysqlDatabaseConnections = new MysqlDatabaseConnection[threadCount];
-        for (int i=0; i<threadCount; ++i) {
-            try {
-                mysqlDatabaseConnections[i] = _databaseConnectionFactory.newConnection();
-            }
-            catch (final DatabaseException exception) {
-                Logger.log(exception);
-                _closeConnections(mysqlDatabaseConnections);
-                return;
-            }
-        }
-
-        final ImmutableListBuilder<ValidationTask<T, S>> listBuilder = new ImmutableListBuilder<ValidationTask<T, S>>(threadCount);
+        _items = items;
+        _startTime = System.nanoTime();
 
-        for (int i = 0; i < threadCount; ++i) {
-            final int startIndex = i * itemsPerThread;
-            final int remainingItems = (items.getSize() - startIndex);
-            final int itemCount = ( (i < (threadCount - 1)) ? Math.min(itemsPerThread, remainingItems) : remainingItems);
-
-            final MysqlDatabaseConnection databaseConnection = mysqlDatabaseConnections[i];
-            final ValidationTask<T, S> validationTask = new ValidationTask<T, S>(databaseConnection, _databaseManagerCache, items, _taskHandlerFactory.newInstance());
-            validationTask.setStartIndex(startIndex);
-            validationTask.setItemCount(itemCount);
+        final ImmutableListBuilder<ValidationTask<T, S>> listBuilder = new ImmutableListBuilder<ValidationTask<T, S>>(workerCount);
+        for (int i = 0; i < workerCount; ++i) {
+            final ValidationTask<T, S> validationTask = new ValidationTask<T, S>(this, workerCount, _databaseConnectionFactory, _databaseManagerCache, _items, _taskHandlerFactory.newInstance());
             validationTask.enqueueTo(THREAD_POOL);
             listBuilder.add(validationTask);
         }
@@ -79,25 +112,67 @@ public class ParallelledTaskSpawner<T, S> {
         _validationTasks = listBuilder.build();
     }
 
+    /**
+     * Blocks until all workers have completed and returns each worker's result.
+     *  Returns null if any worker encountered an error, or if the tasks were aborted.
+     */
     public List<S> waitForResults() {
         final ImmutableListBuilder<S> listBuilder = new ImmutableListBuilder<S>();
 
+        boolean resultsAreValid = true;
         for (int i = 0; i < _validationTasks.getSize(); ++i) {
             final ValidationTask<T, S> validationTask = _validationTasks.get(i);
             final S result = validationTask.getResult();
             if (result == null) {
-                return null;
+                resultsAreValid = false;
+                continue; // Continue waiting for the remaining workers so their timings are complete...
             }
 
             listBuilder.add(result);
         }
+
+        if (_endTime == null) {
+            _endTime = System.nanoTime();
+        }
+
+        if (! resultsAreValid) { return null; }
         return listBuilder.build();
     }
 
     public void abort() {
+        _abort();
+
+        if (_validationTasks == null) { return; }
         for (int i = 0; i < _validationTasks.getSize(); ++i) {
             final ValidationTask<T, S> validationTask = _validationTasks.get(i);
             validationTask.abort();
         }
     }
+
+    public Integer getWorkerCount() {
+        if (_validationTasks == null) { return 0; }
+        return _validationTasks.getSize();
+    }
+
+    /**
+     * Returns the ratio of time the workers spent executing tasks to the wall-clock time the workers were available,
+     *  from 0.0 (idle) to 1.0 (every worker busy for the entire duration).
+     *  Time spent waiting for the pool, acquiring a database connection, or claiming a batch is not counted as busy.
+     *  Returns null if ParallelledTaskSpawner::waitForResults has not completed.
+     */
+    public Double getUtilization() {
+        if ( (_startTime == null) || (_endTime == null) ) { return null; }
+
+        final int workerCount = _validationTasks.getSize();
+        final long elapsedNanoseconds = (_endTime - _startTime);
+        if ( (workerCount == 0) || (elapsedNanoseconds <= 0L) ) { return 0D; }
+
+        long busyNanoseconds = 0L;
+        for (int i = 0; i < workerCount; ++i) {
+            final ValidationTask<T, S> validationTask = _validationTasks.get(i);
+            busyNanoseconds += validationTask.getBusyNanoseconds();
+        }
+
+        return Math.min(1D, (busyNanoseconds / ((double) elapsedNanoseconds * workerCount)));
+    }
 }
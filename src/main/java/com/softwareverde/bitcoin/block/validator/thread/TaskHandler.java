@@ -13,5 +13,18 @@ public interface TaskHandler<T, S> {
      *  invoked only a single time (once all tasks have been executed).
      */
     void executeTask(T item);
+
+    /**
+     * Invoked once after each batch of items claimed by the worker has been sent to executeTask.
+     *  Allows work deferred by executeTask to be completed in bulk; isValid is consulted afterwards.
+     */
+    void completeTasks();
+
+    /**
+     * Returns false once an executed item has invalidated the TaskHandler's result.
+     *  Once any TaskHandler becomes invalid, the ParallelledTaskSpawner stops dispatching items to all of its TaskHandlers.
+     */
+    Boolean isValid();
+
     S getResult();
 }
@@ -2,23 +2,30 @@ package com.softwareverde.bitcoin.block.validator.thread;
 
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
+import com.softwareverde.bitcoin.secp256k1.SignatureBatch;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutputSet;
 import com.softwareverde.bitcoin.transaction.validator.TransactionValidator;
 import com.softwareverde.database.mysql.MysqlDatabaseConnection;
 import com.softwareverde.io.Logger;
 import com.softwareverde.network.time.NetworkTime;
 
 public class TransactionValidationTaskHandler implements TaskHandler<Transaction, Boolean> {
+    protected static final Integer MAX_SIGNATURE_BATCH_SIZE = 1024;
+
     private final BlockchainSegmentId _blockchainSegmentId;
     private final Long _blockHeight;
     private final NetworkTime _networkTime;
     private final MedianBlockTime _medianBlockTime;
+    private final TransactionOutputSet _transactionOutputSet;
+    private final SignatureBatch _signatureBatch = new SignatureBatch();
     private TransactionValidator _transactionValidator;
     private boolean _allInputsAreUnlocked = true;
 
-    public TransactionValidationTaskHandler(final BlockchainSegmentId blockchainSegmentId, final Long blockHeight, final NetworkTime networkTime, final MedianBlockTime medianBlockTime) {
+    public TransactionValidationTaskHandler(final BlockchainSegmentId blockchainSegmentId, final Long blockHeight, final NetworkTime networkTime, final MedianBlockTime medianBlockTime, final TransactionOutputSet transactionOutputSet) {
         _blockchainSegmentId = blockchainSegmentId;
+        _transactionOutputSet = transactionOutputSet;
         _blockHeight = blockHeight;
         _networkTime = networkTime.asConst(); // NOTE: This freezes the networkTime...
         _medianBlockTime = medianBlockTime.asConst(); // NOTE: This freezes the medianBlockTime... (but shouldn't matter)
@@ -27,6 +34,23 @@ public class TransactionValidationTaskHandler implements TaskHandler<Transaction
     @Override
     public void init(final MysqlDatabaseConnection databaseConnection, final DatabaseManagerCache databaseManagerCache) {
         _transactionValidator = new TransactionValidator(databaseConnection, databaseManagerCache, _networkTime, _medianBlockTime);
+        _transactionValidator.setTransactionOutputSet(_transactionOutputSet);
+        _transactionValidator.setSignatureBatch(_signatureBatch);
+    }
+
+    protected void _verifySignatureBatch() {
+        if (_signatureBatch.isEmpty()) { return; }
+
+        if (! _allInputsAreUnlocked) {
+            _signatureBatch.clear();
+            return;
+        }
+
+        final Boolean signaturesAreValid = _signatureBatch.verify();
+        if (! signaturesAreValid) {
+            Logger.log("NOTICE: Deferred signature verification failed.");
+            _allInputsAreUnlocked = false;
+        }
     }
 
     @Override
@@ -46,6 +70,23 @@ public class TransactionValidationTaskHandler implements TaskHandler<Transaction
         if (! transactionInputsAreUnlocked) {
             _allInputsAreUnlocked = false;
         }
+
+        if (_signatureBatch.getSize() >= MAX_SIGNATURE_BATCH_SIZE) {
+            _verifySignatureBatch();
+        }
+    }
+
+    /**
+     * Verifies the P2PKH signatures deferred by executeTask's TransactionValidator as a single batch.
+     */
+    @Override
+    public void completeTasks() {
+        _verifySignatureBatch();
+    }
+
+    @Override
+    public Boolean isValid() {
+        return _allInputsAreUnlocked;
     }
 
     @Override
@@ -3,65 +3,91 @@ package com.softwareverde.bitcoin.block.validator.thread;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
 import com.softwareverde.io.Logger;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 class ValidationTask<T, S> implements Runnable {
-    private final MysqlDatabaseConnection _databaseConnection;
+    private final ParallelledTaskSpawner<T, S> _taskSpawner;
+    private final int _workerCount;
+    private final MysqlDatabaseConnectionFactory _databaseConnectionFactory;
     private final DatabaseManagerCache _databaseManagerCache;
     private final TaskHandler<T, S> _taskHandler;
     private final List<T> _list;
-    private int _startIndex;
-    private int _itemCount;
     private Future _future;
-    private boolean _didEncounterError = false;
+    private volatile long _busyNanoseconds = 0L;
+    private volatile boolean _didEncounterError = false;
     private volatile boolean _shouldAbort = false;
 
-    public ValidationTask(final MysqlDatabaseConnection databaseConnection, final DatabaseManagerCache databaseManagerCache, final List<T> list, final TaskHandler<T, S> taskHandler) {
-        _databaseConnection = databaseConnection;
+    public ValidationTask(final ParallelledTaskSpawner<T, S> taskSpawner, final int workerCount, final MysqlDatabaseConnectionFactory databaseConnectionFactory, final DatabaseManagerCache databaseManagerCache, final List<T> list, final TaskHandler<T, S> taskHandler) {
+        _taskSpawner = taskSpawner;
+        _workerCount = workerCount;
+        _databaseConnectionFactory = databaseConnectionFactory;
         _databaseManagerCache = databaseManagerCache;
         _list = list;
         _taskHandler = taskHandler;
     }
 
-    public void setStartIndex(final int startIndex) {
-        _startIndex = startIndex;
-    }
-
-    public void setItemCount(final int itemCount) {
-        _itemCount = itemCount;
-    }
-
     public void enqueueTo(final ExecutorService executorService) {
         _future = executorService.submit(this);
     }
 
     @Override
     public void run() {
-        try {
-            _taskHandler.init(_databaseConnection, _databaseManagerCache);
-
-            for (int j = 0; j < _itemCount; ++j) {
-                if (_shouldAbort) { return; }
-
-                final T item = _list.get(_startIndex + j);
-                _taskHandler.executeTask(item);
+        if (_shouldAbort) { return; }
+
+        long busyNanoseconds = 0L;
+        final int[] batchSizeContainer = new int[1];
+
+        // NOTE: The connection is acquired by the worker thread so that queued-but-aborted workers never hold a connection...
+        try (final MysqlDatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection()) {
+            _taskHandler.init(databaseConnection, _databaseManagerCache);
+
+            while (! _shouldAbort) {
+                final Integer startIndex = _taskSpawner.claimNextBatch(_workerCount, batchSizeContainer);
+                if (startIndex == null) { break; }
+
+                final int batchSize = batchSizeContainer[0];
+
+                // NOTE: Only the batch's execution is measured; acquiring the connection and claiming the batch are not...
+                final long batchStartTime = System.nanoTime();
+                try {
+                    for (int i = 0; i < batchSize; ++i) {
+                        if ( (_shouldAbort) || (_taskSpawner.isAborted()) ) { return; }
+
+                        final T item = _list.get(startIndex + i);
+                        _taskHandler.executeTask(item);
+
+                        if (! _taskHandler.isValid()) {
+                            _taskSpawner.abandonRemainingItems(); // NOTE: This worker's result is still reported by getResult...
+                            return;
+                        }
+                    }
+
+                    _taskHandler.completeTasks();
+                    if (! _taskHandler.isValid()) {
+                        _taskSpawner.abandonRemainingItems();
+                        return;
+                    }
+                }
+                finally {
+                    busyNanoseconds += (System.nanoTime() - batchStartTime);
+                }
             }
         }
         catch (final Exception exception) {
             Logger.log(exception);
             _didEncounterError = true;
+            _taskSpawner.abandonRemainingItems();
         }
         finally {
-            try { _databaseConnection.close(); } catch (final Exception exception) { }
+            _busyNanoseconds = busyNanoseconds;
         }
     }
 
     public S getResult() {
-        if (_didEncounterError) { return null; }
-
         if (_future != null) {
             try {
                 _future.get();
@@ -76,11 +102,17 @@ class ValidationTask<T, S> implements Runnable {
             }
         }
 
+        if (_didEncounterError) { return null; }
+        if (_shouldAbort) { return null; }
+
         return _taskHandler.getResult();
     }
 
+    public long getBusyNanoseconds() {
+        return _busyNanoseconds;
+    }
+
     public void abort() {
         _shouldAbort = true;
-        _didEncounterError = true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.softwareverde.bitcoin.chain.index;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.header.difficulty.work.ChainWork;
+import com.softwareverde.bitcoin.block.header.difficulty.work.MutableChainWork;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+
+/**
+ * Tracks the tip of the best (most-work) chain in memory, so that the head does not need to be found by sorting the blocks table.
+ *  Two tips are tracked: the head BlockHeader (any stored header), and the head Block (a header whose transactions have also been stored).
+ *  Each tip is advanced incrementally as headers and blocks are connected; a candidate replaces the current tip only if it has strictly
+ *  more chain work, so the first-seen tip is retained when work is equal.
+ *  Candidates are only offered once their database transaction has been committed (while holding BlockHeaderDatabaseManager.MUTEX),
+ *  so the tips never reference a header or block that other connections cannot see.
+ */
+public class BestChainTracker {
+    protected static class ChainTip {
+        public final BlockId blockId;
+        public final Sha256Hash blockHash;
+        public final ChainWork chainWork;
+
+        public ChainTip(final BlockId blockId, final Sha256Hash blockHash, final ChainWork chainWork) {
+            this.blockId = blockId;
+            this.blockHash = blockHash;
+            this.chainWork = chainWork;
+        }
+    }
+
+    protected static ChainTip _selectBestChainTip(final ChainTip currentChainTip, final BlockId blockId, final Sha256Hash blockHash, final ChainWork chainWork) {
+        if ( (currentChainTip != null) && (ChainWork.compare(chainWork, currentChainTip.chainWork) <= 0) ) { return currentChainTip; }
+        return new ChainTip(blockId, blockHash.asConst(), new MutableChainWork(chainWork));
+    }
+
+    protected volatile ChainTip _headBlockHeader = null;
+    protected volatile ChainTip _headBlock = null;
+
+    public synchronized void onBlockHeaderConnected(final BlockId blockId, final Sha256Hash blockHash, final ChainWork chainWork) {
+        _headBlockHeader = _selectBestChainTip(_headBlockHeader, blockId, blockHash, chainWork);
+    }
+
+    public synchronized void onBlockConnected(final BlockId blockId, final Sha256Hash blockHash, final ChainWork chainWork) {
+        _headBlock = _selectBestChainTip(_headBlock, blockId, blockHash, chainWork);
+    }
+
+    /**
+     * Replaces the head BlockHeader, regardless of its chain work.  If blockId is null, the head is cleared.
+     */
+    public synchronized void setHeadBlockHeader(final BlockId blockId, final Sha256Hash blockHash, final ChainWork chainWork) {
+        _headBlockHeader = ((blockId != null) ? new ChainTip(blockId, blockHash.asConst(), new MutableChainWork(chainWork)) : null);
+    }
+
+    /**
+     * Replaces the head Block, regardless of its chain work.  If blockId is null, the head is cleared.
+     */
+    public synchronized void setHeadBlock(final BlockId blockId, final Sha256Hash blockHash, final ChainWork chainWork) {
+        _headBlock = ((blockId != null) ? new ChainTip(blockId, blockHash.asConst(), new MutableChainWork(chainWork)) : null);
+    }
+
+    public BlockId getHeadBlockHeaderId() {
+        final ChainTip chainTip = _headBlockHeader;
+        return (chainTip != null ? chainTip.blockId : null);
+    }
+
+    public Sha256Hash getHeadBlockHeaderHash() {
+        final ChainTip chainTip = _headBlockHeader;
+        return (chainTip != null ? chainTip.blockHash : null);
+    }
+
+    public BlockId getHeadBlockId() {
+        final ChainTip chainTip = _headBlock;
+        return (chainTip != null ? chainTip.blockId : null);
+    }
+
+    public Sha256Hash getHeadBlockHash() {
+        final ChainTip chainTip = _headBlock;
+        return (chainTip != null ? chainTip.blockHash : null);
+    }
+}
@@ -0,0 +1,572 @@
+package com.softwareverde.bitcoin.chain.index;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.header.difficulty.work.ChainWork;
+import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.chain.time.ImmutableMedianBlockTime;
+import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
+import com.softwareverde.bitcoin.server.database.BlockRelationship;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory tree of every stored BlockHeader, used to answer ancestry and chain-membership queries without the database.
+ *  Headers are stored within parallel primitive arrays indexed by their BlockId, which the database assigns sequentially.
+ *  Every entry also contains a skip-pointer to a (deterministically chosen) distant ancestor, so that finding the ancestor
+ *  at any height requires O(log n) steps instead of walking every parent.
+ *
+ *  The per-block properties (height, parent, timestamp, chain work, median-time-past) never change once a header has been stored.
+ *  BlockchainSegments are represented only by their first and last (tip) BlockIds; since each segment is a linear run of
+ *  blocks whose children segments branch from its tip, membership between segments (and blocks) reduces to ancestry checks.
+ *
+ *  Methods return null when the index does not contain the requested block or segment; the caller is expected to
+ *  fall back to the database in that case.
+ */
+public class BlockHeaderIndex {
+    protected static final int NONE = 0; // BlockIds and BlockchainSegmentIds are auto-incremented starting from 1...
+    protected static final int CHAIN_WORK_BYTE_COUNT = 32;
+    protected static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Returns n with its lowest set bit cleared.
+     */
+    protected static int _invertLowestOne(final int n) {
+        return (n & (n - 1));
+    }
+
+    /**
+     * Returns the height of the skip-pointer's target for a block at the provided height.
+     *  The heights are chosen such that any ancestor is reachable within O(log n) steps by combining skip-pointers and parent links.
+     */
+    protected static int _getSkipHeight(final int blockHeight) {
+        if (blockHeight < 2) { return 0; }
+
+        // Determine which height to jump back to; any number strictly lower than blockHeight is acceptable,
+        //  but the following expression performs well in simulations (max 110 steps to go back up to 2^18 blocks)...
+        return (((blockHeight & 1) != 0) ? (_invertLowestOne(_invertLowestOne(blockHeight - 1)) + 1) : _invertLowestOne(blockHeight));
+    }
+
+    protected static int _toIndex(final BlockId blockId) {
+        if (blockId == null) { return NONE; }
+        final long value = blockId.longValue();
+        if ( (value <= 0L) || (value > Integer.MAX_VALUE) ) { return NONE; }
+        return (int) value;
+    }
+
+    protected static int _toIndex(final BlockchainSegmentId blockchainSegmentId) {
+        if (blockchainSegmentId == null) { return NONE; }
+        final long value = blockchainSegmentId.longValue();
+        if ( (value <= 0L) || (value > Integer.MAX_VALUE) ) { return NONE; }
+        return (int) value;
+    }
+
+    protected static BlockId _toBlockId(final int index) {
+        if (index == NONE) { return null; }
+        return BlockId.wrap((long) index);
+    }
+
+    protected final ReentrantReadWriteLock.ReadLock _readLock;
+    protected final ReentrantReadWriteLock.WriteLock _writeLock;
+
+    protected int[] _blockHeights;
+    protected int[] _previousBlockIndices;
+    protected int[] _skipBlockIndices;
+    protected long[] _timestamps;
+    protected long[] _medianBlockTimesInMilliseconds;
+    protected byte[] _chainWorks;
+
+    protected int[] _segmentFirstBlockIndices;
+    protected int[] _segmentTipBlockIndices;
+
+    protected int _blockCount = 0;
+
+    protected void _ensureBlockCapacity(final int index) {
+        if (index < _blockHeights.length) { return; }
+
+        int newCapacity = _blockHeights.length;
+        while (newCapacity <= index) {
+            newCapacity *= 2;
+        }
+
+        final int originalCapacity = _blockHeights.length;
+        _blockHeights = Arrays.copyOf(_blockHeights, newCapacity);
+        Arrays.fill(_blockHeights, originalCapacity, newCapacity, -1);
+        _previousBlockIndices = Arrays.copyOf(_previousBlockIndices, newCapacity);
+        _skipBlockIndices = Arrays.copyOf(_skipBlockIndices, newCapacity);
+        _timestamps = Arrays.copyOf(_timestamps, newCapacity);
+        _medianBlockTimesInMilliseconds = Arrays.copyOf(_medianBlockTimesInMilliseconds, newCapacity);
+        _chainWorks = Arrays.copyOf(_chainWorks, (newCapacity * CHAIN_WORK_BYTE_COUNT));
+    }
+
+    protected void _ensureSegmentCapacity(final int index) {
+        if (index < _segmentTipBlockIndices.length) { return; }
+
+        int newCapacity = _segmentTipBlockIndices.length;
+        while (newCapacity <= index) {
+            newCapacity *= 2;
+        }
+
+        _segmentFirstBlockIndices = Arrays.copyOf(_segmentFirstBlockIndices, newCapacity);
+        _segmentTipBlockIndices = Arrays.copyOf(_segmentTipBlockIndices, newCapacity);
+    }
+
+    protected boolean _containsBlock(final int index) {
+        if ( (index == NONE) || (index >= _blockHeights.length) ) { return false; }
+        return (_blockHeights[index] >= 0);
+    }
+
+    protected int _getSegmentFirstBlockIndex(final int segmentIndex) {
+        if ( (segmentIndex == NONE) || (segmentIndex >= _segmentFirstBlockIndices.length) ) { return NONE; }
+        return _segmentFirstBlockIndices[segmentIndex];
+    }
+
+    protected int _getSegmentTipBlockIndex(final int segmentIndex) {
+        if ( (segmentIndex == NONE) || (segmentIndex >= _segmentTipBlockIndices.length) ) { return NONE; }
+        return _segmentTipBlockIndices[segmentIndex];
+    }
+
+    /**
+     * Returns the index of the ancestor of blockIndex at the provided height, or NONE if no such ancestor is indexed.
+     *  blockIndex must be contained within the index.
+     */
+    protected int _getAncestorIndex(final int blockIndex, final int blockHeight) {
+        int walkIndex = blockIndex;
+        int walkHeight = _blockHeights[walkIndex];
+        if ( (blockHeight < 0) || (blockHeight > walkHeight) ) { return NONE; }
+
+        while (walkHeight > blockHeight) {
+            final int skipHeight = _getSkipHeight(walkHeight);
+            final int previousSkipHeight = _getSkipHeight(walkHeight - 1);
+            final int skipIndex = _skipBlockIndices[walkIndex];
+
+            // Only follow the skip-pointer if the parent's skip-pointer is not a better option...
+            final boolean shouldSkip = ( (skipIndex != NONE) && ( (skipHeight == blockHeight) || ( (skipHeight > blockHeight) && (! ( (previousSkipHeight < (skipHeight - 2)) && (previousSkipHeight >= blockHeight) )) ) ) );
+            if (shouldSkip) {
+                walkIndex = skipIndex;
+                walkHeight = skipHeight;
+            }
+            else {
+                walkIndex = _previousBlockIndices[walkIndex];
+                if (walkIndex == NONE) { return NONE; }
+                walkHeight -= 1;
+            }
+        }
+
+        return walkIndex;
+    }
+
+    /**
+     * Returns the median timestamp of blockIndex and its (MedianBlockTime.BLOCK_COUNT - 1) ancestors, in milliseconds.
+     *  Matches MutableMedianBlockTime, including its use of the GENESIS_BLOCK_TIMESTAMP when fewer blocks exist.
+     *  blockIndex must be contained within the index.
+     */
+    protected long _calculateMedianBlockTimeInMilliseconds(final int blockIndex) {
+        final long[] timestamps = new long[MedianBlockTime.BLOCK_COUNT];
+
+        int timestampCount = 0;
+        int walkIndex = blockIndex;
+        while ( (walkIndex != NONE) && (timestampCount < timestamps.length) ) {
+            timestamps[timestampCount] = _timestamps[walkIndex];
+            timestampCount += 1;
+            walkIndex = _previousBlockIndices[walkIndex];
+        }
+
+        if (timestampCount < timestamps.length) {
+            return MedianBlockTime.GENESIS_BLOCK_TIMESTAMP;
+        }
+
+        Arrays.sort(timestamps);
+        return (timestamps[timestamps.length / 2] * 1000L);
+    }
+
+    /**
+     * Returns true if ancestorIndex is ancestorOrSelf of descendantIndex.
+     *  Both indices must be contained within the index.
+     */
+    protected boolean _isAncestorOrSelf(final int ancestorIndex, final int descendantIndex) {
+        final int ancestorHeight = _blockHeights[ancestorIndex];
+        if (ancestorHeight > _blockHeights[descendantIndex]) { return false; }
+        return (_getAncestorIndex(descendantIndex, ancestorHeight) == ancestorIndex);
+    }
+
+    public BlockHeaderIndex() {
+        final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+        _readLock = readWriteLock.readLock();
+        _writeLock = readWriteLock.writeLock();
+
+        _blockHeights = new int[INITIAL_CAPACITY];
+        Arrays.fill(_blockHeights, -1);
+        _previousBlockIndices = new int[INITIAL_CAPACITY];
+        _skipBlockIndices = new int[INITIAL_CAPACITY];
+        _timestamps = new long[INITIAL_CAPACITY];
+        _medianBlockTimesInMilliseconds = new long[INITIAL_CAPACITY];
+        _chainWorks = new byte[INITIAL_CAPACITY * CHAIN_WORK_BYTE_COUNT];
+
+        _segmentFirstBlockIndices = new int[INITIAL_CAPACITY];
+        _segmentTipBlockIndices = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds the BlockHeader identified by blockId to the index.
+     *  previousBlockId must already be indexed, unless it is null (i.e. the genesis block).
+     *  Returns false if the header could not be indexed.
+     */
+    public Boolean addBlockHeader(final BlockId blockId, final BlockId previousBlockId, final Long blockHeight, final Long timestamp, final ChainWork chainWork) {
+        final int index = _toIndex(blockId);
+        if (index == NONE) { return false; }
+        if ( (blockHeight == null) || (blockHeight < 0L) || (blockHeight > Integer.MAX_VALUE) ) { return false; }
+        if ( (chainWork == null) || (chainWork.getByteCount() != CHAIN_WORK_BYTE_COUNT) ) { return false; }
+
+        _writeLock.lock();
+        try {
+            final int previousIndex = _toIndex(previousBlockId);
+            if (previousIndex == NONE) {
+                if (blockHeight != 0L) { return false; }
+            }
+            else {
+                if (! _containsBlock(previousIndex)) { return false; }
+                if (_blockHeights[previousIndex] != (blockHeight - 1L)) { return false; }
+            }
+
+            _ensureBlockCapacity(index);
+
+            final int height = blockHeight.intValue();
+            final boolean isNewBlock = (_blockHeights[index] < 0);
+            _blockHeights[index] = height;
+            _previousBlockIndices[index] = previousIndex;
+            _skipBlockIndices[index] = ((previousIndex != NONE) ? _getAncestorIndex(previousIndex, _getSkipHeight(height)) : NONE);
+            _timestamps[index] = (timestamp != null ? timestamp : 0L);
+            _medianBlockTimesInMilliseconds[index] = _calculateMedianBlockTimeInMilliseconds(index);
+
+            final int chainWorkOffset = (index * CHAIN_WORK_BYTE_COUNT);
+            for (int i = 0; i < CHAIN_WORK_BYTE_COUNT; ++i) {
+                _chainWorks[chainWorkOffset + i] = chainWork.getByte(i);
+            }
+
+            if (isNewBlock) {
+                _blockCount += 1;
+            }
+            return true;
+        }
+        finally {
+            _writeLock.unlock();
+        }
+    }
+
+    public Boolean containsBlock(final BlockId blockId) {
+        final int index = _toIndex(blockId);
+
+        _readLock.lock();
+        try {
+            return _containsBlock(index);
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    public Integer getBlockCount() {
+        _readLock.lock();
+        try {
+            return _blockCount;
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    public Long getBlockHeight(final BlockId blockId) {
+        final int index = _toIndex(blockId);
+
+        _readLock.lock();
+        try {
+            if (! _containsBlock(index)) { return null; }
+            return (long) _blockHeights[index];
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    public Long getBlockTimestamp(final BlockId blockId) {
+        final int index = _toIndex(blockId);
+
+        _readLock.lock();
+        try {
+            if (! _containsBlock(index)) { return null; }
+            return _timestamps[index];
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the MedianBlockTime of blockId and its preceding (MedianBlockTime.BLOCK_COUNT - 1) blocks, or null if blockId is not indexed.
+     *  NOTE: This value is inclusive of blockId; it is equivalent to BlockHeaderDatabaseManager::calculateMedianBlockTimeStartingWithBlock.
+     */
+    public MedianBlockTime getMedianBlockTime(final BlockId blockId) {
+        final int index = _toIndex(blockId);
+
+        _readLock.lock();
+        try {
+            if (! _containsBlock(index)) { return null; }
+            return new ImmutableMedianBlockTime(_medianBlockTimesInMilliseconds[index]);
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    public ChainWork getChainWork(final BlockId blockId) {
+        final int index = _toIndex(blockId);
+
+        _readLock.lock();
+        try {
+            if (! _containsBlock(index)) { return null; }
+
+            final int chainWorkOffset = (index * CHAIN_WORK_BYTE_COUNT);
+            return ChainWork.wrap(Arrays.copyOfRange(_chainWorks, chainWorkOffset, (chainWorkOffset + CHAIN_WORK_BYTE_COUNT)));
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the parent of blockId, or null if blockId is the genesis block or is not indexed.
+     *  Use ::containsBlock to distinguish between the two.
+     */
+    public BlockId getPreviousBlockId(final BlockId blockId) {
+        final int index = _toIndex(blockId);
+
+        _readLock.lock();
+        try {
+            if (! _containsBlock(index)) { return null; }
+            return _toBlockId(_previousBlockIndices[index]);
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the BlockId of blockId's ancestor (or blockId itself) at the provided blockHeight.
+     *  Returns null if blockId is not indexed or if blockHeight is greater than blockId's height.
+     */
+    public BlockId getAncestorBlockId(final BlockId blockId, final Long blockHeight) {
+        final int index = _toIndex(blockId);
+        if ( (blockHeight == null) || (blockHeight < 0L) || (blockHeight > Integer.MAX_VALUE) ) { return null; }
+
+        _readLock.lock();
+        try {
+            if (! _containsBlock(index)) { return null; }
+            return _toBlockId(_getAncestorIndex(index, blockHeight.intValue()));
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns true if ancestorBlockId is descendantBlockId or one of its ancestors.
+     *  Returns null if either block is not indexed.
+     */
+    public Boolean isAncestorOrSelf(final BlockId ancestorBlockId, final BlockId descendantBlockId) {
+        final int ancestorIndex = _toIndex(ancestorBlockId);
+        final int descendantIndex = _toIndex(descendantBlockId);
+
+        _readLock.lock();
+        try {
+            if ( (! _containsBlock(ancestorIndex)) || (! _containsBlock(descendantIndex)) ) { return null; }
+            return _isAncestorOrSelf(ancestorIndex, descendantIndex);
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    /**
+     * Records that blockId has been appended to the BlockchainSegment.
+     *  If the segment is new, blockId becomes both its first block and its tip.
+     */
+    public void appendToBlockchainSegment(final BlockchainSegmentId blockchainSegmentId, final BlockId blockId) {
+        final int segmentIndex = _toIndex(blockchainSegmentId);
+        final int blockIndex = _toIndex(blockId);
+        if (segmentIndex == NONE) { return; }
+
+        _writeLock.lock();
+        try {
+            _ensureSegmentCapacity(segmentIndex);
+            if (_segmentFirstBlockIndices[segmentIndex] == NONE) {
+                _segmentFirstBlockIndices[segmentIndex] = blockIndex;
+            }
+            _segmentTipBlockIndices[segmentIndex] = blockIndex;
+        }
+        finally {
+            _writeLock.unlock();
+        }
+    }
+
+    /**
+     * Records that the blocks of blockchainSegmentId at or above blockHeight have been moved to newBlockchainSegmentId.
+     *  If the split segment's blocks are not indexed, both segments are forgotten so that their queries fall back to the database.
+     */
+    public void splitBlockchainSegment(final BlockchainSegmentId blockchainSegmentId, final BlockchainSegmentId newBlockchainSegmentId, final Long blockHeight) {
+        final int segmentIndex = _toIndex(blockchainSegmentId);
+        final int newSegmentIndex = _toIndex(newBlockchainSegmentId);
+        if ( (segmentIndex == NONE) || (newSegmentIndex == NONE) ) { return; }
+
+        _writeLock.lock();
+        try {
+            _ensureSegmentCapacity(Math.max(segmentIndex, newSegmentIndex));
+
+            final int tipIndex = _segmentTipBlockIndices[segmentIndex];
+            final int splitIndex = (_containsBlock(tipIndex) ? _getAncestorIndex(tipIndex, blockHeight.intValue()) : NONE);
+            final int newTipIndex = ((splitIndex != NONE) ? _previousBlockIndices[splitIndex] : NONE);
+
+            if ( (splitIndex == NONE) || (newTipIndex == NONE) ) {
+                _segmentFirstBlockIndices[segmentIndex] = NONE;
+                _segmentTipBlockIndices[segmentIndex] = NONE;
+                _segmentFirstBlockIndices[newSegmentIndex] = NONE;
+                _segmentTipBlockIndices[newSegmentIndex] = NONE;
+                return;
+            }
+
+            _segmentFirstBlockIndices[newSegmentIndex] = splitIndex;
+            _segmentTipBlockIndices[newSegmentIndex] = tipIndex;
+            _segmentTipBlockIndices[segmentIndex] = newTipIndex;
+        }
+        finally {
+            _writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the first and last blocks of the BlockchainSegment, replacing any previously recorded values.
+     */
+    public void setBlockchainSegmentBlockIds(final BlockchainSegmentId blockchainSegmentId, final BlockId firstBlockId, final BlockId tipBlockId) {
+        final int segmentIndex = _toIndex(blockchainSegmentId);
+        if (segmentIndex == NONE) { return; }
+
+        _writeLock.lock();
+        try {
+            _ensureSegmentCapacity(segmentIndex);
+            _segmentFirstBlockIndices[segmentIndex] = _toIndex(firstBlockId);
+            _segmentTipBlockIndices[segmentIndex] = _toIndex(tipBlockId);
+        }
+        finally {
+            _writeLock.unlock();
+        }
+    }
+
+    /**
+     * Forgets all BlockchainSegments; the per-block properties are retained.
+     */
+    public void clearBlockchainSegments() {
+        _writeLock.lock();
+        try {
+            Arrays.fill(_segmentFirstBlockIndices, NONE);
+            Arrays.fill(_segmentTipBlockIndices, NONE);
+        }
+        finally {
+            _writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the tip of the BlockchainSegment, or null if the segment is not indexed.
+     */
+    public BlockId getBlockchainSegmentTipBlockId(final BlockchainSegmentId blockchainSegmentId) {
+        final int segmentIndex = _toIndex(blockchainSegmentId);
+
+        _readLock.lock();
+        try {
+            return _toBlockId(_getSegmentTipBlockIndex(segmentIndex));
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    /**
+     * Equivalent to BlockchainDatabaseManager::areBlockchainSegmentsConnected.
+     *  Returns null if either segment is not indexed.
+     */
+    public Boolean areBlockchainSegmentsConnected(final BlockchainSegmentId blockchainSegmentId0, final BlockchainSegmentId blockchainSegmentId1, final BlockRelationship blockRelationship) {
+        final int segmentIndex0 = _toIndex(blockchainSegmentId0);
+        final int segmentIndex1 = _toIndex(blockchainSegmentId1);
+
+        _readLock.lock();
+        try {
+            final int firstIndex0 = _getSegmentFirstBlockIndex(segmentIndex0);
+            final int tipIndex0 = _getSegmentTipBlockIndex(segmentIndex0);
+            final int firstIndex1 = _getSegmentFirstBlockIndex(segmentIndex1);
+            final int tipIndex1 = _getSegmentTipBlockIndex(segmentIndex1);
+            if ( (! _containsBlock(firstIndex0)) || (! _containsBlock(tipIndex0)) || (! _containsBlock(firstIndex1)) || (! _containsBlock(tipIndex1)) ) { return null; }
+
+            // Segment #0 is an ancestor of (or is) Segment #1 if Segment #1's tip descends from Segment #0's first block...
+            final boolean isAncestor = _isAncestorOrSelf(firstIndex0, tipIndex1);
+            final boolean isDescendant = _isAncestorOrSelf(firstIndex1, tipIndex0);
+
+            switch (blockRelationship) {
+                case ANCESTOR: { return isAncestor; }
+                case DESCENDANT: { return isDescendant; }
+                default: { return (isAncestor || isDescendant); }
+            }
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    /**
+     * Equivalent to BlockHeaderDatabaseManager::isBlockConnectedToChain.
+     *  Returns null if the block or the segment is not indexed.
+     */
+    public Boolean isBlockConnectedToChain(final BlockId blockId, final BlockchainSegmentId blockchainSegmentId, final BlockRelationship blockRelationship) {
+        final int blockIndex = _toIndex(blockId);
+        final int segmentIndex = _toIndex(blockchainSegmentId);
+
+        _readLock.lock();
+        try {
+            final int firstIndex = _getSegmentFirstBlockIndex(segmentIndex);
+            final int tipIndex = _getSegmentTipBlockIndex(segmentIndex);
+            if ( (! _containsBlock(blockIndex)) || (! _containsBlock(firstIndex)) || (! _containsBlock(tipIndex)) ) { return null; }
+
+            // The block's segment is an ancestor of (or is) the segment if the block is an ancestor of the segment's tip...
+            final boolean isAncestor = _isAncestorOrSelf(blockIndex, tipIndex);
+            final boolean isDescendant = _isAncestorOrSelf(firstIndex, blockIndex);
+
+            switch (blockRelationship) {
+                case ANCESTOR: { return isAncestor; }
+                case DESCENDANT: { return isDescendant; }
+                default: { return (isAncestor || isDescendant); }
+            }
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the BlockId at blockHeight that is an ancestor of (or within) the BlockchainSegment.
+     *  Returns null if the segment is not indexed or if blockHeight is above the segment's tip, in which case
+     *  the block (if any) resides within a descendant segment and must be resolved by the database.
+     */
+    public BlockId getBlockIdAtHeight(final BlockchainSegmentId blockchainSegmentId, final Long blockHeight) {
+        final int segmentIndex = _toIndex(blockchainSegmentId);
+        if ( (blockHeight == null) || (blockHeight < 0L) || (blockHeight > Integer.MAX_VALUE) ) { return null; }
+
+        _readLock.lock();
+        try {
+            final int tipIndex = _getSegmentTipBlockIndex(segmentIndex);
+            if (! _containsBlock(tipIndex)) { return null; }
+            return _toBlockId(_getAncestorIndex(tipIndex, blockHeight.intValue()));
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+}
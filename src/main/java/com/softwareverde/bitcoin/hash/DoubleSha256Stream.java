@@ -0,0 +1,101 @@
+package com.softwareverde.bitcoin.hash;
+
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.util.bytearray.Endian;
+
+import java.security.MessageDigest;
+
+/**
+ * Incrementally calculates a double-SHA256 hash, so that data may be hashed while it is serialized rather than first being
+ *  collected into a single byte[].  The update methods mirror ByteArrayBuilder::appendBytes, including Endian.LITTLE
+ *  reversing the provided bytes.
+ *  Calling digest resets the stream, after which it may be reused.  DoubleSha256Stream is not thread-safe.
+ */
+public class DoubleSha256Stream {
+    protected final MessageDigest _messageDigest;
+    protected final byte[] _intermediateHash = new byte[Sha256Util.HASH_BYTE_COUNT];
+    protected final byte[] _buffer = new byte[256];
+
+    public DoubleSha256Stream() {
+        _messageDigest = Sha256Util.newMessageDigest();
+    }
+
+    public void update(final byte b) {
+        _messageDigest.update(b);
+    }
+
+    public void update(final byte[] bytes) {
+        _messageDigest.update(bytes, 0, bytes.length);
+    }
+
+    public void update(final byte[] bytes, final int offset, final int byteCount) {
+        _messageDigest.update(bytes, offset, byteCount);
+    }
+
+    public void update(final byte[] bytes, final Endian endian) {
+        if (endian == Endian.LITTLE) {
+            int remainingByteCount = bytes.length;
+            while (remainingByteCount > 0) {
+                final int chunkByteCount = Math.min(remainingByteCount, _buffer.length);
+                for (int i = 0; i < chunkByteCount; ++i) {
+                    _buffer[i] = bytes[(remainingByteCount - 1) - i];
+                }
+                _messageDigest.update(_buffer, 0, chunkByteCount);
+                remainingByteCount -= chunkByteCount;
+            }
+        }
+        else {
+            _messageDigest.update(bytes, 0, bytes.length);
+        }
+    }
+
+    public void update(final ByteArray byteArray) {
+        update(byteArray, Endian.BIG);
+    }
+
+    /**
+     * Streams byteArray through a small reusable buffer, so that ByteArray::getBytes does not copy it first.
+     */
+    public void update(final ByteArray byteArray, final Endian endian) {
+        final int byteCount = byteArray.getByteCount();
+
+        int streamedByteCount = 0;
+        while (streamedByteCount < byteCount) {
+            final int chunkByteCount = Math.min((byteCount - streamedByteCount), _buffer.length);
+            for (int i = 0; i < chunkByteCount; ++i) {
+                final int index = (streamedByteCount + i);
+                _buffer[i] = byteArray.getByte((endian == Endian.LITTLE) ? ((byteCount - 1) - index) : index);
+            }
+            _messageDigest.update(_buffer, 0, chunkByteCount);
+            streamedByteCount += chunkByteCount;
+        }
+    }
+
+    /**
+     * Writes the double-SHA256 hash of the data streamed since the last digest into output[outputOffset, outputOffset + 32).
+     */
+    public void digest(final byte[] output, final int outputOffset) {
+        Sha256Util._digest(_messageDigest, _intermediateHash, 0);
+        _messageDigest.update(_intermediateHash, 0, _intermediateHash.length);
+        Sha256Util._digest(_messageDigest, output, outputOffset);
+    }
+
+    public byte[] digest() {
+        final byte[] hash = new byte[Sha256Util.HASH_BYTE_COUNT];
+        digest(hash, 0);
+        return hash;
+    }
+
+    /**
+     * Returns the double-SHA256 hash in reversed (display) byte order, as is used for Block and Transaction hashes.
+     */
+    public byte[] digestReversedEndian() {
+        final byte[] hash = digest();
+        for (int i = 0; i < (Sha256Util.HASH_BYTE_COUNT / 2); ++i) {
+            final byte b = hash[i];
+            hash[i] = hash[(Sha256Util.HASH_BYTE_COUNT - 1) - i];
+            hash[(Sha256Util.HASH_BYTE_COUNT - 1) - i] = b;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,121 @@
+package com.softwareverde.bitcoin.hash;
+
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 and double-SHA256 hashing without a provider lookup per invocation.
+ *  Each thread lazily acquires a single MessageDigest, which is reset by every call; since no call invokes foreign code
+ *  while the digest is in use, the thread-local digest cannot be observed mid-hash.
+ *  Hashes are written in the digest's natural byte order; callers that require Bitcoin's display order must reverse them.
+ *  For incremental hashing, see DoubleSha256Stream.
+ */
+public class Sha256Util {
+    public static final int HASH_BYTE_COUNT = Sha256Hash.BYTE_COUNT;
+
+    protected static final ThreadLocal<MessageDigest> _threadLocalMessageDigest = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            return _newMessageDigest();
+        }
+    };
+
+    protected static final ThreadLocal<byte[]> _threadLocalScratchSpace = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[HASH_BYTE_COUNT];
+        }
+    };
+
+    protected static MessageDigest _newMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (final NoSuchAlgorithmException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    protected static void _digest(final MessageDigest messageDigest, final byte[] output, final int outputOffset) {
+        try {
+            messageDigest.digest(output, outputOffset, HASH_BYTE_COUNT);
+        }
+        catch (final DigestException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * Returns a new, unshared SHA-256 MessageDigest.
+     *  The thread's digest is cloned when the provider supports it, which avoids the provider lookup.
+     */
+    public static MessageDigest newMessageDigest() {
+        try {
+            return (MessageDigest) _threadLocalMessageDigest.get().clone();
+        }
+        catch (final CloneNotSupportedException exception) {
+            return _newMessageDigest();
+        }
+    }
+
+    public static byte[] sha256(final byte[] bytes) {
+        return sha256(bytes, 0, bytes.length);
+    }
+
+    public static byte[] sha256(final byte[] bytes, final int offset, final int byteCount) {
+        final byte[] hash = new byte[HASH_BYTE_COUNT];
+        sha256(bytes, offset, byteCount, hash, 0);
+        return hash;
+    }
+
+    /**
+     * Writes the SHA-256 hash of bytes[offset, offset + byteCount) into output[outputOffset, outputOffset + 32).
+     */
+    public static void sha256(final byte[] bytes, final int offset, final int byteCount, final byte[] output, final int outputOffset) {
+        final MessageDigest messageDigest = _threadLocalMessageDigest.get();
+        messageDigest.update(bytes, offset, byteCount);
+        _digest(messageDigest, output, outputOffset);
+    }
+
+    public static byte[] doubleSha256(final byte[] bytes) {
+        return doubleSha256(bytes, 0, bytes.length);
+    }
+
+    public static byte[] doubleSha256(final byte[] bytes, final int offset, final int byteCount) {
+        final byte[] hash = new byte[HASH_BYTE_COUNT];
+        doubleSha256(bytes, offset, byteCount, hash, 0);
+        return hash;
+    }
+
+    /**
+     * Writes SHA-256(SHA-256(bytes[offset, offset + byteCount))) into output[outputOffset, outputOffset + 32).
+     *  The intermediate hash is held within a thread-local buffer, so output may overlap the input.
+     */
+    public static void doubleSha256(final byte[] bytes, final int offset, final int byteCount, final byte[] output, final int outputOffset) {
+        final MessageDigest messageDigest = _threadLocalMessageDigest.get();
+        final byte[] scratchSpace = _threadLocalScratchSpace.get();
+
+        messageDigest.update(bytes, offset, byteCount);
+        _digest(messageDigest, scratchSpace, 0);
+        messageDigest.update(scratchSpace, 0, HASH_BYTE_COUNT);
+        _digest(messageDigest, output, outputOffset);
+    }
+
+    /**
+     * Returns the double-SHA256 hash of bytes, in reversed (display) byte order, as is used for Block and Transaction hashes.
+     */
+    public static byte[] doubleSha256ReversedEndian(final byte[] bytes, final int offset, final int byteCount) {
+        final byte[] hash = doubleSha256(bytes, offset, byteCount);
+        for (int i = 0; i < (HASH_BYTE_COUNT / 2); ++i) {
+            final byte b = hash[i];
+            hash[i] = hash[(HASH_BYTE_COUNT - 1) - i];
+            hash[(HASH_BYTE_COUNT - 1) - i] = b;
+        }
+        return hash;
+    }
+
+    protected Sha256Util() { }
+}
@@ -36,6 +36,7 @@ public interface Sha256Hash extends Hash, Comparable<Sha256Hash> {
     }
 
     static Sha256Hash copyOf(final byte[] bytes) {
+        if (bytes == null) { return null; }
         return new ImmutableSha256Hash(bytes);
     }
 
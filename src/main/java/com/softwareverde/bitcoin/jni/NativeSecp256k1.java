@@ -30,6 +30,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.bitcoin.NativeSecp256k1.secp256k1_destroy_context;
 import static org.bitcoin.NativeSecp256k1.secp256k1_ecdsa_verify;
+import static org.bitcoin.NativeSecp256k1.secp256k1_ecdsa_verify_batch;
 import static org.bitcoin.Secp256k1Context.secp256k1_init_context;
 
 // NOTE: The last time this message was updated, the included secp256k1 library was built from git hash: 452d8e4
@@ -47,7 +48,13 @@ import static org.bitcoin.Secp256k1Context.secp256k1_init_context;
  * </p>
  */
 public class NativeSecp256k1 {
+    public static final int MESSAGE_BYTE_COUNT = 32;
+    public static final int COMPACT_SIGNATURE_BYTE_COUNT = 64;
+    public static final int MAX_PUBLIC_KEY_BYTE_COUNT = 65;
+    public static final int BATCH_RECORD_BYTE_COUNT = (MESSAGE_BYTE_COUNT + COMPACT_SIGNATURE_BYTE_COUNT + 1 + MAX_PUBLIC_KEY_BYTE_COUNT);
+
     private static final boolean _libraryLoadedCorrectly;
+    private static final boolean _batchVerificationIsSupported;
     private static final long _context;
     private static final ReentrantReadWriteLock _reentrantReadWriteLock = new ReentrantReadWriteLock();
     private static final Lock _readLock = _reentrantReadWriteLock.readLock();
@@ -80,6 +87,27 @@ public class NativeSecp256k1 {
         }
         _libraryLoadedCorrectly = isEnabled;
         _context = contextRef;
+
+        boolean batchIsSupported = false;
+        if (isEnabled) {
+            // NOTE: The batch entry point is not part of upstream libsecp256k1; on Linux it is provided by a companion library (see jni/secp256k1/README).
+            //  Libraries built without it fail to link the symbol upon first use...
+            try {
+                if ( (! SystemUtil.isWindowsOperatingSystem()) && (! SystemUtil.isMacOperatingSystem()) ) {
+                    NativeUtil.loadLibraryFromJar("/lib/libsecp256k1batch.so");
+                }
+
+                final ByteBuffer emptyBuffer = ByteBuffer.allocateDirect(1);
+                batchIsSupported = (secp256k1_ecdsa_verify_batch(emptyBuffer, emptyBuffer, contextRef, 0) >= 0);
+            }
+            catch (final Exception exception) { }
+            catch (final UnsatisfiedLinkError error) { }
+
+            if (! batchIsSupported) {
+                Logger.log("NOTICE: libsecp256k1 does not support batch verification.");
+            }
+        }
+        _batchVerificationIsSupported = batchIsSupported;
     }
 
     protected static ByteBuffer _getByteBuffer() {
@@ -92,10 +120,86 @@ public class NativeSecp256k1 {
         return byteBuff;
     }
 
+    /**
+     * Writes value into a fixed-width, big-endian field of byteCount bytes, dropping leading zeroes.
+     *  Returns false if the value does not fit within byteCount bytes.
+     */
+    protected static boolean _putLeftPadded(final ByteBuffer byteBuff, final byte[] value, final int byteCount) {
+        int firstNonZeroIndex = 0;
+        while ( (firstNonZeroIndex < value.length) && (value[firstNonZeroIndex] == 0x00) ) {
+            firstNonZeroIndex += 1;
+        }
+
+        final int significantByteCount = (value.length - firstNonZeroIndex);
+        if (significantByteCount > byteCount) { return false; }
+
+        for (int i = significantByteCount; i < byteCount; ++i) {
+            byteBuff.put((byte) 0x00);
+        }
+        byteBuff.put(value, firstNonZeroIndex, significantByteCount);
+        return true;
+    }
+
+    /**
+     * Returns the size of the record buffer required to verify recordCount signatures via NativeSecp256k1::verifyBatch.
+     */
+    public static int getBatchRecordBufferByteCount(final int recordCount) {
+        return (recordCount * BATCH_RECORD_BYTE_COUNT);
+    }
+
+    /**
+     * Returns the size of the result bitmap required to verify recordCount signatures via NativeSecp256k1::verifyBatch.
+     */
+    public static int getBatchResultBufferByteCount(final int recordCount) {
+        return ((recordCount + 7) / 8);
+    }
+
+    /**
+     * Packs the signature at recordIndex of the (direct) recordBuffer.
+     *  The signature is provided as its (unencoded) r and s components, which avoids DER-encoding each signature.
+     *  If the signature or public key cannot be represented, the record is marked invalid and false is returned.
+     */
+    public static boolean putBatchRecord(final ByteBuffer recordBuffer, final int recordIndex, final byte[] message, final byte[] signatureR, final byte[] signatureS, final byte[] publicKey) {
+        if (message.length != MESSAGE_BYTE_COUNT) { throw new RuntimeException("Invalid data length. Required 32 bytes; found "+ message.length + " bytes."); }
+
+        final int recordStartPosition = (recordIndex * BATCH_RECORD_BYTE_COUNT);
+        recordBuffer.position(recordStartPosition);
+        recordBuffer.put(message);
+
+        final boolean signatureFits = ( _putLeftPadded(recordBuffer, signatureR, (COMPACT_SIGNATURE_BYTE_COUNT / 2)) && _putLeftPadded(recordBuffer, signatureS, (COMPACT_SIGNATURE_BYTE_COUNT / 2)) );
+        final boolean publicKeyFits = ( (publicKey.length > 0) && (publicKey.length <= MAX_PUBLIC_KEY_BYTE_COUNT) );
+
+        // NOTE: A zero-length public key marks the record as invalid...
+        recordBuffer.position(recordStartPosition + MESSAGE_BYTE_COUNT + COMPACT_SIGNATURE_BYTE_COUNT);
+        if ( (! signatureFits) || (! publicKeyFits) ) {
+            recordBuffer.put((byte) 0x00);
+            return false;
+        }
+
+        recordBuffer.put((byte) publicKey.length);
+        recordBuffer.put(publicKey);
+        return true;
+    }
+
+    /**
+     * Returns true if the result bitmap written by NativeSecp256k1::verifyBatch marks the record at recordIndex as valid.
+     */
+    public static boolean isBatchRecordValid(final ByteBuffer resultBuffer, final int recordIndex) {
+        final byte resultByte = resultBuffer.get(recordIndex / 8);
+        return (((resultByte >> (recordIndex % 8)) & 0x01) == 0x01);
+    }
+
     public static boolean isEnabled() {
         return _libraryLoadedCorrectly;
     }
 
+    /**
+     * Returns true if the loaded library provides NativeSecp256k1::verifyBatch.
+     */
+    public static boolean isBatchEnabled() {
+        return _batchVerificationIsSupported;
+    }
+
     public static long getContext() {
         return _context;
     }
@@ -127,6 +231,37 @@ public class NativeSecp256k1 {
         }
     }
 
+    /**
+     * Verifies the first recordCount signatures packed within recordBuffer (see NativeSecp256k1::putBatchRecord) with a single native call.
+     *  Both buffers must be direct; high-S signatures are normalized before verification.
+     *  Bit (i % 8) of byte (i / 8) of resultBuffer is set if record i is valid (see NativeSecp256k1::isBatchRecordValid).
+     *  Returns the number of valid signatures.
+     *
+     * @param recordBuffer The packed records, at least NativeSecp256k1::getBatchRecordBufferByteCount bytes
+     * @param resultBuffer The result bitmap, at least NativeSecp256k1::getBatchResultBufferByteCount bytes
+     * @param recordCount The number of records to verify
+     */
+    public static int verifyBatch(final ByteBuffer recordBuffer, final ByteBuffer resultBuffer, final int recordCount) {
+        if (! _libraryLoadedCorrectly) { throw new RuntimeException("Cannot run NativeSecp256k1. Library failed to load."); }
+        if (! _batchVerificationIsSupported) { throw new RuntimeException("Cannot run NativeSecp256k1 batch. Library does not support batch verification."); }
+
+        if ( (! recordBuffer.isDirect()) || (! resultBuffer.isDirect()) ) { throw new RuntimeException("Batch buffers must be direct."); }
+        if (recordBuffer.capacity() < getBatchRecordBufferByteCount(recordCount)) { throw new RuntimeException("Insufficient record buffer capacity."); }
+        if (resultBuffer.capacity() < getBatchResultBufferByteCount(recordCount)) { throw new RuntimeException("Insufficient result buffer capacity."); }
+
+        if (recordCount == 0) { return 0; }
+
+        _readLock.lock();
+        try {
+            final int validCount = secp256k1_ecdsa_verify_batch(recordBuffer, resultBuffer, _context, recordCount);
+            if (validCount < 0) { throw new RuntimeException("Unable to access batch buffers."); }
+            return validCount;
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
     /**
      * libsecp256k1 Cleanup - This destroys the secp256k1 context object.
      * This should be called at the end of the program for proper cleanup of the context.
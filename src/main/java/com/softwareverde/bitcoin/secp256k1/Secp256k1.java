@@ -5,6 +5,8 @@ import com.softwareverde.bitcoin.secp256k1.key.PublicKey;
 import com.softwareverde.bitcoin.secp256k1.signature.Signature;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
 import com.softwareverde.io.Logger;
 import com.softwareverde.util.HexUtil;
 import org.bouncycastle.crypto.params.ECDomainParameters;
@@ -18,6 +20,7 @@ import org.bouncycastle.math.ec.ECCurve;
 import org.bouncycastle.math.ec.ECPoint;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.Security;
 
 public class Secp256k1 {
@@ -27,6 +30,9 @@ public class Secp256k1 {
     protected static final ECPoint CURVE_POINT_G;
     public static final ECDomainParameters CURVE_DOMAIN;
 
+    protected static final ThreadLocal<ByteBuffer> _batchRecordBuffer = new ThreadLocal<ByteBuffer>();
+    protected static final ThreadLocal<ByteBuffer> _batchResultBuffer = new ThreadLocal<ByteBuffer>();
+
     static {
         Security.addProvider(new BouncyCastleProvider());
 
@@ -89,6 +95,73 @@ public class Secp256k1 {
         return _verifySignatureViaBouncyCastle(signature, publicKey, message);
     }
 
+    protected static ByteBuffer _getBatchBuffer(final ThreadLocal<ByteBuffer> threadLocal, final int requiredByteCount) {
+        ByteBuffer byteBuffer = threadLocal.get();
+        if ( (byteBuffer == null) || (byteBuffer.capacity() < requiredByteCount) ) {
+            byteBuffer = ByteBuffer.allocateDirect(requiredByteCount);
+            threadLocal.set(byteBuffer);
+        }
+        return byteBuffer;
+    }
+
+    protected static List<Boolean> _verifySignaturesIndividually(final List<Signature> signatures, final List<PublicKey> publicKeys, final List<byte[]> messages) {
+        final int signatureCount = signatures.getSize();
+        final ImmutableListBuilder<Boolean> listBuilder = new ImmutableListBuilder<Boolean>(signatureCount);
+        for (int i = 0; i < signatureCount; ++i) {
+            listBuilder.add(Secp256k1.verifySignature(signatures.get(i), publicKeys.get(i), messages.get(i)));
+        }
+        return listBuilder.build();
+    }
+
+    /**
+     * Packs the signatures into a thread-local direct buffer and verifies them with a single call to NativeSecp256k1::verifyBatch.
+     *  If the native call fails, the signatures are verified individually instead.
+     */
+    protected static List<Boolean> _verifySignaturesViaJni(final List<Signature> signatures, final List<PublicKey> publicKeys, final List<byte[]> messages) {
+        final int signatureCount = signatures.getSize();
+
+        final ByteBuffer recordBuffer = _getBatchBuffer(_batchRecordBuffer, NativeSecp256k1.getBatchRecordBufferByteCount(signatureCount));
+        final ByteBuffer resultBuffer = _getBatchBuffer(_batchResultBuffer, NativeSecp256k1.getBatchResultBufferByteCount(signatureCount));
+
+        try {
+            for (int i = 0; i < signatureCount; ++i) {
+                final Signature signature = signatures.get(i);
+                NativeSecp256k1.putBatchRecord(recordBuffer, i, messages.get(i), signature.getR().getBytes(), signature.getS().getBytes(), publicKeys.get(i).getBytes());
+            }
+
+            NativeSecp256k1.verifyBatch(recordBuffer, resultBuffer, signatureCount);
+        }
+        catch (final Exception exception) {
+            Logger.log(exception);
+            return _verifySignaturesIndividually(signatures, publicKeys, messages);
+        }
+
+        final ImmutableListBuilder<Boolean> listBuilder = new ImmutableListBuilder<Boolean>(signatureCount);
+        for (int i = 0; i < signatureCount; ++i) {
+            listBuilder.add(NativeSecp256k1.isBatchRecordValid(resultBuffer, i));
+        }
+        return listBuilder.build();
+    }
+
+    /**
+     * Verifies each signature against its corresponding publicKey and message.
+     *  When the loaded libsecp256k1 supports batching, all signatures are verified with a single native call;
+     *  otherwise (or if the native call fails) each signature is verified individually via Secp256k1::verifySignature.
+     *  The returned list contains one result per signature, in the same order as the provided signatures.
+     */
+    public static List<Boolean> verifySignatures(final List<Signature> signatures, final List<PublicKey> publicKeys, final List<byte[]> messages) {
+        final int signatureCount = signatures.getSize();
+        if ( (publicKeys.getSize() != signatureCount) || (messages.getSize() != signatureCount) ) {
+            throw new IllegalArgumentException("Mismatched signature, public key, and message counts.");
+        }
+
+        if (NativeSecp256k1.isBatchEnabled()) {
+            return _verifySignaturesViaJni(signatures, publicKeys, messages);
+        }
+
+        return _verifySignaturesIndividually(signatures, publicKeys, messages);
+    }
+
     public static Signature sign(final byte[] privateKey, final byte[] message) {
         final ECPrivateKeyParameters privateKeyParameters;
         {
@@ -0,0 +1,47 @@
+package com.softwareverde.bitcoin.secp256k1;
+
+import com.softwareverde.bitcoin.secp256k1.key.PublicKey;
+import com.softwareverde.bitcoin.secp256k1.signature.Signature;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+
+/**
+ * Collects the signatures whose verification was deferred by script execution (see ScriptRunner::setSignatureBatch),
+ *  so that they may be verified together via SignatureCache::verifySignatures.
+ *  SignatureBatch is not thread-safe.
+ */
+public class SignatureBatch {
+    protected final MutableList<SignatureCache.Triplet> _triplets = new MutableList<SignatureCache.Triplet>();
+
+    public void add(final Signature signature, final PublicKey publicKey, final byte[] message) {
+        _triplets.add(new SignatureCache.Triplet(signature, publicKey, message));
+    }
+
+    public Integer getSize() {
+        return _triplets.getSize();
+    }
+
+    public Boolean isEmpty() {
+        return _triplets.isEmpty();
+    }
+
+    /**
+     * Verifies every signature within the batch, and then clears the batch.
+     *  Returns true if all of the signatures are valid.
+     */
+    public Boolean verify() {
+        if (_triplets.isEmpty()) { return true; }
+
+        final List<Boolean> results = SignatureCache.getInstance().verifySignatures(_triplets);
+        _triplets.clear();
+
+        for (final Boolean signatureIsValid : results) {
+            if (! signatureIsValid) { return false; }
+        }
+        return true;
+    }
+
+    public void clear() {
+        _triplets.clear();
+    }
+}
@@ -0,0 +1,193 @@
+package com.softwareverde.bitcoin.secp256k1;
+
+import com.softwareverde.bitcoin.hash.sha256.ImmutableSha256Hash;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.secp256k1.key.PublicKey;
+import com.softwareverde.bitcoin.secp256k1.signature.Signature;
+import com.softwareverde.bitcoin.util.BitcoinUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.util.bytearray.ByteArrayBuilder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread-safe set of (message, public key, signature) triplets that have already been verified as valid.
+ *  Transactions are typically verified when they enter the memory pool and again when they are mined; the cache
+ *  allows the second verification to skip the (expensive) elliptic-curve operation.
+ *  Only valid signatures are cached.  Entries are evicted in insertion order once the cache is full.
+ *  Entries are stored as the sha256 of the triplet, so each entry has a fixed size regardless of the signature/key encoding.
+ */
+public class SignatureCache {
+    /**
+     * A (message, public key, signature) triplet to be verified via SignatureCache::verifySignatures.
+     */
+    public static class Triplet {
+        public final Signature signature;
+        public final PublicKey publicKey;
+        public final byte[] message;
+
+        public Triplet(final Signature signature, final PublicKey publicKey, final byte[] message) {
+            this.signature = signature;
+            this.publicKey = publicKey;
+            this.message = message;
+        }
+    }
+
+    public static final Integer DEFAULT_MAX_ITEM_COUNT = (1024 * 1024);
+
+    protected static final SignatureCache INSTANCE = new SignatureCache(DEFAULT_MAX_ITEM_COUNT);
+
+    /**
+     * Returns the SignatureCache shared by memory-pool acceptance and block validation.
+     */
+    public static SignatureCache getInstance() {
+        return INSTANCE;
+    }
+
+    protected static void _appendSizedBytes(final ByteArrayBuilder byteArrayBuilder, final ByteArray bytes) {
+        // NOTE: Each component is length-prefixed so that different (r, s, publicKey) splits cannot produce the same preimage...
+        final int byteCount = bytes.getByteCount();
+        byteArrayBuilder.appendByte((byte) ((byteCount >>> 8) & 0xFF));
+        byteArrayBuilder.appendByte((byte) (byteCount & 0xFF));
+        byteArrayBuilder.appendBytes(bytes);
+    }
+
+    protected static Sha256Hash _calculateKey(final Signature signature, final PublicKey publicKey, final byte[] message) {
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        byteArrayBuilder.appendBytes(message);
+        _appendSizedBytes(byteArrayBuilder, publicKey);
+        _appendSizedBytes(byteArrayBuilder, signature.getR());
+        _appendSizedBytes(byteArrayBuilder, signature.getS());
+        return new ImmutableSha256Hash(BitcoinUtil.sha256(byteArrayBuilder.build()));
+    }
+
+    protected final Integer _maxItemCount;
+    protected final ConcurrentHashMap<Sha256Hash, Boolean> _validSignatures;
+    protected final ConcurrentLinkedQueue<Sha256Hash> _insertionOrder = new ConcurrentLinkedQueue<Sha256Hash>();
+    protected final AtomicInteger _itemCount = new AtomicInteger(0);
+
+    protected final AtomicLong _hitCount = new AtomicLong(0L);
+    protected final AtomicLong _missCount = new AtomicLong(0L);
+
+    protected void _addValidSignature(final Sha256Hash key) {
+        if (_maxItemCount < 1) { return; }
+
+        final Boolean previousValue = _validSignatures.putIfAbsent(key, true);
+        if (previousValue != null) { return; }
+
+        _insertionOrder.add(key);
+        final int itemCount = _itemCount.incrementAndGet();
+        if (itemCount > _maxItemCount) {
+            final Sha256Hash oldestKey = _insertionOrder.poll();
+            if (oldestKey != null) {
+                _validSignatures.remove(oldestKey);
+                _itemCount.decrementAndGet();
+            }
+        }
+    }
+
+    public SignatureCache(final Integer maxItemCount) {
+        _maxItemCount = maxItemCount;
+        _validSignatures = new ConcurrentHashMap<Sha256Hash, Boolean>(Math.min(maxItemCount, DEFAULT_MAX_ITEM_COUNT));
+    }
+
+    /**
+     * Returns true if the signature is valid for the publicKey and message.
+     *  If the signature has been previously verified then the cached result is returned; otherwise the signature is
+     *  verified via Secp256k1::verifySignature and cached if it is valid.
+     */
+    public Boolean verifySignature(final Signature signature, final PublicKey publicKey, final byte[] message) {
+        final Sha256Hash key = _calculateKey(signature, publicKey, message);
+        if (_validSignatures.containsKey(key)) {
+            _hitCount.incrementAndGet();
+            return true;
+        }
+
+        _missCount.incrementAndGet();
+
+        final Boolean signatureIsValid = Secp256k1.verifySignature(signature, publicKey, message);
+        if (signatureIsValid) {
+            _addValidSignature(key);
+        }
+
+        return signatureIsValid;
+    }
+
+    /**
+     * Returns whether each triplet's signature is valid, in the same order as the provided triplets.
+     *  Triplets that have been previously verified are returned from the cache; the others are verified with a single call to
+     *  Secp256k1::verifySignatures, and those that are valid are cached.
+     */
+    public List<Boolean> verifySignatures(final List<Triplet> triplets) {
+        final int tripletCount = triplets.getSize();
+        final Boolean[] results = new Boolean[tripletCount];
+
+        final ImmutableListBuilder<Integer> uncachedIndexes = new ImmutableListBuilder<Integer>(tripletCount);
+        final ImmutableListBuilder<Sha256Hash> uncachedKeys = new ImmutableListBuilder<Sha256Hash>(tripletCount);
+        final ImmutableListBuilder<Signature> signatures = new ImmutableListBuilder<Signature>(tripletCount);
+        final ImmutableListBuilder<PublicKey> publicKeys = new ImmutableListBuilder<PublicKey>(tripletCount);
+        final ImmutableListBuilder<byte[]> messages = new ImmutableListBuilder<byte[]>(tripletCount);
+        for (int i = 0; i < tripletCount; ++i) {
+            final Triplet triplet = triplets.get(i);
+            final Sha256Hash key = _calculateKey(triplet.signature, triplet.publicKey, triplet.message);
+            if (_validSignatures.containsKey(key)) {
+                _hitCount.incrementAndGet();
+                results[i] = true;
+                continue;
+            }
+
+            _missCount.incrementAndGet();
+            uncachedIndexes.add(i);
+            uncachedKeys.add(key);
+            signatures.add(triplet.signature);
+            publicKeys.add(triplet.publicKey);
+            messages.add(triplet.message);
+        }
+
+        final List<Integer> indexes = uncachedIndexes.build();
+        if (! indexes.isEmpty()) {
+            final List<Sha256Hash> keys = uncachedKeys.build();
+            final List<Boolean> signatureResults = Secp256k1.verifySignatures(signatures.build(), publicKeys.build(), messages.build());
+            for (int i = 0; i < indexes.getSize(); ++i) {
+                final Boolean signatureIsValid = signatureResults.get(i);
+                if (signatureIsValid) {
+                    _addValidSignature(keys.get(i));
+                }
+                results[indexes.get(i)] = signatureIsValid;
+            }
+        }
+
+        final ImmutableListBuilder<Boolean> listBuilder = new ImmutableListBuilder<Boolean>(tripletCount);
+        for (final Boolean result : results) {
+            listBuilder.add(result);
+        }
+        return listBuilder.build();
+    }
+
+    public void clear() {
+        _validSignatures.clear();
+        _insertionOrder.clear();
+        _itemCount.set(0);
+    }
+
+    public Long getHitCount() {
+        return _hitCount.get();
+    }
+
+    public Long getMissCount() {
+        return _missCount.get();
+    }
+
+    public Integer getItemCount() {
+        return _itemCount.get();
+    }
+
+    public Integer getMaxItemCount() {
+        return _maxItemCount;
+    }
+}
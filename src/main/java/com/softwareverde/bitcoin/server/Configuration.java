@@ -47,10 +47,15 @@ public class Configuration {
         private Integer _maxPeerCount;
         private Integer _maxThreadCount;
         private Long _trustedBlockHeight;
+        private Long _bulkLoadBlockHeight;
         private Boolean _shouldSkipNetworking;
         private Long _maxUtxoCacheByteCount;
+        private Long _maxUtxoWriteBackByteCount;
         private Boolean _useTransactionBloomFilter;
         private Boolean _shouldTrimBlocks;
+        private Boolean _useBlockStore;
+        private String _blockStoreDirectory;
+        private String _pendingBlockDirectory;
         private Integer _maxMessagesPerSecond;
 
         public Integer getBitcoinPort() { return _bitcoinPort; }
@@ -60,10 +65,15 @@ public class Configuration {
         public Integer getMaxPeerCount() { return _maxPeerCount; }
         public Integer getMaxThreadCount() { return _maxThreadCount; }
         public Long getTrustedBlockHeight() { return _trustedBlockHeight; }
+        public Long getBulkLoadBlockHeight() { return _bulkLoadBlockHeight; }
         public Boolean skipNetworking() { return _shouldSkipNetworking; }
         public Long getMaxUtxoCacheByteCount() { return _maxUtxoCacheByteCount; }
+        public Long getMaxUtxoWriteBackByteCount() { return _maxUtxoWriteBackByteCount; }
         public Boolean shouldUseTransactionBloomFilter() { return _useTransactionBloomFilter; }
         public Boolean shouldTrimBlocks() { return _shouldTrimBlocks; }
+        public Boolean shouldUseBlockStore() { return _useBlockStore; }
+        public String getBlockStoreDirectory() { return _blockStoreDirectory; }
+        public String getPendingBlockDirectory() { return _pendingBlockDirectory; }
         public Integer getMaxMessagesPerSecond() { return _maxMessagesPerSecond; }
     }
 
@@ -144,10 +154,15 @@ public class Configuration {
         _serverProperties._maxPeerCount = Util.parseInt(_properties.getProperty("bitcoin.maxPeerCount", "24"));
         _serverProperties._maxThreadCount = Util.parseInt(_properties.getProperty("bitcoin.maxThreadCount", "4"));
         _serverProperties._trustedBlockHeight = Util.parseLong(_properties.getProperty("bitcoin.trustedBlockHeight", "0"));
+        _serverProperties._bulkLoadBlockHeight = Util.parseLong(_properties.getProperty("bitcoin.bulkLoadBlockHeight", "0"));
         _serverProperties._shouldSkipNetworking = Util.parseBool(_properties.getProperty("bitcoin.skipNetworking", "0"));
         _serverProperties._maxUtxoCacheByteCount = Util.parseLong(_properties.getProperty("bitcoin.maxUtxoCacheByteCount", String.valueOf(512L * ByteUtil.Unit.MEGABYTES)));
+        _serverProperties._maxUtxoWriteBackByteCount = Util.parseLong(_properties.getProperty("bitcoin.maxUtxoWriteBackByteCount", "0"));
         _serverProperties._useTransactionBloomFilter = Util.parseBool(_properties.getProperty("bitcoin.useTransactionBloomFilter", "1"));
         _serverProperties._shouldTrimBlocks = Util.parseBool(_properties.getProperty("bitcoin.trimBlocks", "0"));
+        _serverProperties._useBlockStore = Util.parseBool(_properties.getProperty("bitcoin.useBlockStore", "1"));
+        _serverProperties._blockStoreDirectory = _properties.getProperty("bitcoin.blockStoreDirectory", "blocks");
+        _serverProperties._pendingBlockDirectory = _properties.getProperty("bitcoin.pendingBlockDirectory", "pending-blocks");
         _serverProperties._maxMessagesPerSecond = Util.parseInt(_properties.getProperty("bitcoin.maxMessagesPerSecondPerNode", "250"));
     }
 
@@ -79,6 +79,17 @@ public class Main {
         _printError("\t----------------");
         _printError("");
 
+        _printError("\tModule: REPLAY");
+        _printError("\tArguments: <Configuration File> <Block Directory>");
+        _printError("\tDescription: Processes a directory of serialized blocks against a new embedded database, without networking, and reports the throughput and per-phase timings.");
+        _printError("\t\tThe server and database settings (ex: bitcoin.maxThreadCount, bitcoin.maxUtxoCacheByteCount) are taken from the configuration file, but a new temporary data directory is always used.");
+        _printError("\tArgument Description: <Configuration File>");
+        _printError("\t\tThe path and filename of the configuration file for running the node.  Ex: conf/server.conf");
+        _printError("\tArgument Description: <Block Directory>");
+        _printError("\t\tThe directory containing one block per file (raw bytes or hex), processed in filename order starting with the genesis block.  Ex: blocks/");
+        _printError("\t----------------");
+        _printError("");
+
         _printError("\tModule: ADDRESS");
         _printError("\tArguments:");
         _printError("\tDescription: Generates a private key and its associated public key and Base58Check Bitcoin address.");
@@ -189,6 +200,18 @@ public class Main {
                 DatabaseModule.execute(configurationFile);
             } break;
 
+            case "REPLAY": {
+                if (_arguments.length != 3) {
+                    _printUsage();
+                    BitcoinUtil.exitFailure();
+                    break;
+                }
+
+                final String configurationFile = _arguments[1];
+                final String blockDirectory = _arguments[2];
+                BlockReplayModule.execute(configurationFile, blockDirectory);
+            } break;
+
             case "ADDRESS": {
                 AddressModule.execute();
             } break;
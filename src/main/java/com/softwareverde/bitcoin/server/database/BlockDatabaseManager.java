@@ -2,12 +2,21 @@ package com.softwareverde.bitcoin.server.database;
 
 import com.softwareverde.bitcoin.block.Block;
 import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.BlockInflater;
 import com.softwareverde.bitcoin.block.MutableBlock;
 import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.block.header.BlockHeaderInflater;
+import com.softwareverde.bitcoin.block.header.difficulty.work.ChainWork;
+import com.softwareverde.bitcoin.chain.index.BestChainTracker;
+import com.softwareverde.bitcoin.hash.Sha256Util;
+import com.softwareverde.bitcoin.hash.sha256.MutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.server.database.blockstore.BlockFileLocation;
+import com.softwareverde.bitcoin.server.database.blockstore.FlatFileBlockStore;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionId;
+import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
 import com.softwareverde.database.DatabaseException;
@@ -23,11 +32,92 @@ import java.util.Set;
 import java.util.TreeSet;
 
 public class BlockDatabaseManager {
+    // The BLOCK_STORE holds a serialized copy of each stored Block so that Blocks (and their Transactions) may be served without being reassembled from their rows...
+    //  When null (e.g. during tests), Blocks are only stored within the database.
+    protected static FlatFileBlockStore BLOCK_STORE = null;
+
+    /**
+     * Sets the process-wide FlatFileBlockStore; Blocks stored afterwards are also appended to the store.
+     */
+    public static void initializeBlockStore(final FlatFileBlockStore blockStore) {
+        BLOCK_STORE = blockStore;
+    }
+
     protected final MysqlDatabaseConnection _databaseConnection;
     protected final DatabaseManagerCache _databaseManagerCache;
 
+    /**
+     * Appends the Block to the BLOCK_STORE and returns the location of each of its Transactions, after recording the Block's location.
+     *  Returns null if there is no BLOCK_STORE or if the Block could not be written to it.
+     */
+    protected List<BlockFileLocation> _appendToBlockStore(final BlockId blockId, final Block block) throws DatabaseException {
+        final FlatFileBlockStore blockStore = BLOCK_STORE;
+        if (blockStore == null) { return null; }
+
+        final FlatFileBlockStore.StoredBlock storedBlock = blockStore.storeBlock(block);
+        if (storedBlock == null) {
+            Logger.log("NOTICE: Unable to append Block to the block store: " + block.getHash());
+            return null;
+        }
+
+        final BlockFileLocation blockLocation = storedBlock.blockLocation;
+        _databaseConnection.executeSql(
+            new Query("UPDATE blocks SET block_file_index = ?, block_file_byte_offset = ?, byte_count = ? WHERE id = ?")
+                .setParameter(blockLocation.getFileIndex())
+                .setParameter(blockLocation.getByteOffset())
+                .setParameter(blockLocation.getByteCount())
+                .setParameter(blockId)
+        );
+
+        return storedBlock.transactionLocations;
+    }
+
+    protected BlockFileLocation _getBlockFileLocation(final BlockId blockId) throws DatabaseException {
+        final java.util.List<Row> rows = _databaseConnection.query(
+            new Query("SELECT id, block_file_index, block_file_byte_offset, byte_count FROM blocks WHERE id = ?")
+                .setParameter(blockId)
+        );
+        if (rows.isEmpty()) { return null; }
+
+        final Row row = rows.get(0);
+        final Integer fileIndex = row.getInteger("block_file_index");
+        final Long byteOffset = row.getLong("block_file_byte_offset");
+        final Integer byteCount = row.getInteger("byte_count");
+        if ( (fileIndex == null) || (byteOffset == null) || (byteCount == null) ) { return null; }
+
+        return new BlockFileLocation(fileIndex, byteOffset, byteCount);
+    }
+
+    protected ByteArray _getBlockBytes(final BlockId blockId) throws DatabaseException {
+        final FlatFileBlockStore blockStore = BLOCK_STORE;
+        if (blockStore == null) { return null; }
+
+        final BlockFileLocation blockFileLocation = _getBlockFileLocation(blockId);
+        if (blockFileLocation == null) { return null; }
+
+        return blockStore.readBytes(blockFileLocation);
+    }
+
+    /**
+     * Inflates the Block from the BLOCK_STORE, verifying its hash against the expected hash.
+     *  Returns null if the Block is not within the store or if the stored bytes are invalid.
+     */
+    protected MutableBlock _getBlockFromBlockStore(final BlockId blockId, final Sha256Hash expectedBlockHash) throws DatabaseException {
+        final ByteArray blockBytes = _getBlockBytes(blockId);
+        if (blockBytes == null) { return null; }
+
+        final BlockInflater blockInflater = new BlockInflater();
+        final MutableBlock block = blockInflater.fromBytes(blockBytes);
+        if ( (block == null) || (! Util.areEqual(expectedBlockHash, block.getHash())) ) {
+            Logger.log("NOTICE: Invalid Block within the block store: " + expectedBlockHash);
+            return null;
+        }
+
+        return block;
+    }
 
-    protected void _storeBlockTransactions(final BlockId blockId, final List<Transaction> transactions) throws DatabaseException {
+    protected void _storeBlockTransactions(final BlockId blockId, final Block block) throws DatabaseException {
+        final List<Transaction> transactions = block.getTransactions();
         final MilliTimer storeBlockTimer = new MilliTimer();
         final MilliTimer associateTransactionsTimer = new MilliTimer();
 
@@ -38,8 +128,10 @@ public class BlockDatabaseManager {
             final List<TransactionId> transactionIds = transactionDatabaseManager.storeTransactions(transactions);
             if (transactionIds == null) { throw new DatabaseException("Unable to store block transactions."); }
 
+            final List<BlockFileLocation> transactionLocations = _appendToBlockStore(blockId, block);
+
             associateTransactionsTimer.start();
-            transactionDatabaseManager.associateTransactionsToBlock(transactionIds, blockId);
+            transactionDatabaseManager.associateTransactionsToBlock(transactionIds, blockId, transactionLocations);
             associateTransactionsTimer.stop();
             Logger.log("AssociateTransactions: " + associateTransactionsTimer.getMillisecondsElapsed() + "ms");
         }
@@ -76,6 +168,11 @@ public class BlockDatabaseManager {
     }
 
     protected BlockId _getHeadBlockId() throws DatabaseException {
+        final BestChainTracker bestChainTracker = BlockHeaderDatabaseManager.BEST_CHAIN_TRACKER;
+        if (bestChainTracker != null) {
+            return bestChainTracker.getHeadBlockId();
+        }
+
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT blocks.id, blocks.hash FROM blocks INNER JOIN block_transactions ON block_transactions.block_id = blocks.id ORDER BY blocks.chain_work DESC LIMIT 1")
         );
@@ -86,17 +183,29 @@ public class BlockDatabaseManager {
     }
 
     protected Sha256Hash _getHeadBlockHash() throws DatabaseException {
+        final BestChainTracker bestChainTracker = BlockHeaderDatabaseManager.BEST_CHAIN_TRACKER;
+        if (bestChainTracker != null) {
+            return bestChainTracker.getHeadBlockHash();
+        }
+
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT blocks.id, blocks.hash FROM blocks INNER JOIN block_transactions ON block_transactions.block_id = blocks.id ORDER BY blocks.chain_work DESC LIMIT 1")
         );
         if (rows.isEmpty()) { return null; }
 
         final Row row = rows.get(0);
-        return Sha256Hash.fromHexString(row.getString("hash"));
+        return Sha256Hash.copyOf(row.getBytes("hash"));
     }
 
     protected MutableBlock _getBlock(final BlockId blockId, final Boolean shouldUpdateUnspentOutputCache) throws DatabaseException {
         final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(_databaseConnection, _databaseManagerCache);
+
+        if ( (BLOCK_STORE != null) && (! shouldUpdateUnspentOutputCache) ) { // NOTE: Updating the UnspentOutputCache requires the TransactionOutputIds, which are only available from the database...
+            final Sha256Hash blockHash = blockHeaderDatabaseManager.getBlockHash(blockId);
+            final MutableBlock block = _getBlockFromBlockStore(blockId, blockHash);
+            if (block != null) { return block; }
+        }
+
         final BlockHeader blockHeader = blockHeaderDatabaseManager.getBlockHeader(blockId);
 
         if (blockHeader == null) {
@@ -134,6 +243,30 @@ public class BlockDatabaseManager {
         return _getBlock(blockId, shouldUpdateUnspentOutputCache);
     }
 
+    /**
+     * Returns the serialized Block from the block store, without inflating it.
+     *  Returns null if the block store is disabled, the Block was stored before it was enabled, or the stored BlockHeader does not match.
+     *  The stored bytes are synced to disk before their location is committed (see FlatFileBlockStore.storeBlock), so only the BlockHeader's
+     *  hash is verified, which guards against a location that references the wrong Block.
+     */
+    public ByteArray getBlockBytes(final BlockId blockId) throws DatabaseException {
+        final ByteArray blockBytes = _getBlockBytes(blockId);
+        if (blockBytes == null) { return null; }
+        if (blockBytes.getByteCount() < BlockHeaderInflater.BLOCK_HEADER_BYTE_COUNT) { return null; }
+
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(_databaseConnection, _databaseManagerCache);
+        final Sha256Hash blockHash = blockHeaderDatabaseManager.getBlockHash(blockId);
+
+        final byte[] blockHeaderBytes = blockBytes.getBytes(0, BlockHeaderInflater.BLOCK_HEADER_BYTE_COUNT);
+        final Sha256Hash storedBlockHash = MutableSha256Hash.wrap(Sha256Util.doubleSha256ReversedEndian(blockHeaderBytes, 0, blockHeaderBytes.length));
+        if (! Util.areEqual(blockHash, storedBlockHash)) {
+            Logger.log("NOTICE: Invalid Block within the block store: " + blockHash);
+            return null;
+        }
+
+        return blockBytes;
+    }
+
     /**
      * Inserts the Block (and BlockHeader if it does not exist) (including its transactions) into the database.
      *  If the BlockHeader has already been stored, this will update the existing BlockHeader.
@@ -158,7 +291,7 @@ public class BlockDatabaseManager {
             blockId = existingBlockId;
         }
 
-        _storeBlockTransactions(blockId, block.getTransactions());
+        _storeBlockTransactions(blockId, block);
 
         return blockId;
     }
@@ -173,7 +306,7 @@ public class BlockDatabaseManager {
             return false;
         }
 
-        _storeBlockTransactions(blockId, block.getTransactions());
+        _storeBlockTransactions(blockId, block);
 
         return true;
     }
@@ -194,10 +327,27 @@ public class BlockDatabaseManager {
         final BlockchainDatabaseManager blockchainDatabaseManager = new BlockchainDatabaseManager(_databaseConnection, _databaseManagerCache);
         blockchainDatabaseManager.updateBlockchainsForNewBlock(blockId);
 
-        _storeBlockTransactions(blockId, block.getTransactions());
+        _storeBlockTransactions(blockId, block);
         return blockId;
     }
 
+    /**
+     * Offers the Block to the BestChainTracker as a candidate for the head Block.
+     *  Must be invoked after the database transaction that stored the Block's transactions has been committed, while holding
+     *  BlockHeaderDatabaseManager.MUTEX, so that the head is never a Block that other connections cannot yet see.
+     */
+    public void onBlockCommitted(final BlockId blockId) throws DatabaseException {
+        if (! Thread.holdsLock(BlockHeaderDatabaseManager.MUTEX)) { throw new RuntimeException("Attempting to onBlockCommitted without obtaining lock."); }
+
+        final BestChainTracker bestChainTracker = BlockHeaderDatabaseManager.BEST_CHAIN_TRACKER;
+        if (bestChainTracker == null) { return; }
+
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(_databaseConnection, _databaseManagerCache);
+        final Sha256Hash blockHash = blockHeaderDatabaseManager.getBlockHash(blockId);
+        final ChainWork chainWork = blockHeaderDatabaseManager.getChainWork(blockId);
+        bestChainTracker.onBlockConnected(blockId, blockHash, chainWork);
+    }
+
     /**
      * Returns the Sha256Hash of the block that has the tallest block-height that has been fully downloaded (i.e. has transactions).
      */
@@ -218,7 +368,7 @@ public class BlockDatabaseManager {
     public Boolean blockHeaderHasTransactions(final Sha256Hash blockHash) throws DatabaseException {
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT blocks.id, blocks.hash FROM blocks INNER JOIN block_transactions ON block_transactions.block_id = blocks.id WHERE blocks.hash = ? GROUP BY blocks.id")
-                .setParameter(blockHash)
+                .setParameter(blockHash.getBytes())
         );
         return (! rows.isEmpty());
     }
@@ -260,6 +410,17 @@ public class BlockDatabaseManager {
 
         blockHeaderDatabaseManager.updateBlockHeader(blockId, block);
 
+        { // The serialized Block within the block store no longer reflects the repaired Block...
+            _databaseConnection.executeSql(
+                new Query("UPDATE blocks SET block_file_index = NULL, block_file_byte_offset = NULL WHERE id = ?")
+                    .setParameter(blockId)
+            );
+            _databaseConnection.executeSql(
+                new Query("UPDATE block_transactions SET byte_offset = NULL, byte_count = NULL WHERE block_id = ?")
+                    .setParameter(blockId)
+            );
+        }
+
         final Set<Sha256Hash> updatedTransactions = new TreeSet<Sha256Hash>();
         { // Remove transactions that do not exist in the updated block, and update ones that do not exist...
             final HashMap<Sha256Hash, Transaction> existingTransactionHashes = new HashMap<Sha256Hash, Transaction>(block.getTransactionCount());
@@ -8,6 +8,8 @@ import com.softwareverde.bitcoin.block.header.difficulty.ImmutableDifficulty;
 import com.softwareverde.bitcoin.block.header.difficulty.work.BlockWork;
 import com.softwareverde.bitcoin.block.header.difficulty.work.ChainWork;
 import com.softwareverde.bitcoin.block.header.difficulty.work.MutableChainWork;
+import com.softwareverde.bitcoin.chain.index.BestChainTracker;
+import com.softwareverde.bitcoin.chain.index.BlockHeaderIndex;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
 import com.softwareverde.bitcoin.chain.time.MutableMedianBlockTime;
@@ -16,17 +18,162 @@ import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.merkleroot.MerkleRoot;
 import com.softwareverde.bitcoin.merkleroot.MutableMerkleRoot;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.constable.list.mutable.MutableList;
 import com.softwareverde.database.DatabaseException;
 import com.softwareverde.database.Query;
 import com.softwareverde.database.Row;
+import com.softwareverde.database.mysql.BatchedInsertQuery;
 import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.util.DatabaseUtil;
 import com.softwareverde.io.Logger;
 import com.softwareverde.util.HexUtil;
 import com.softwareverde.util.Util;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class BlockHeaderDatabaseManager {
     public static final Object MUTEX = new Object();
 
+    // The BLOCK_HEADER_INDEX mirrors the stored BlockHeaders in memory so that heights, ancestors, and chain-membership may be resolved without a query...
+    //  When the index is not initialized (or does not contain a block), the database is queried instead.
+    protected static final Integer BLOCK_HEADER_INDEX_BATCH_SIZE = 4096;
+    protected static BlockHeaderIndex BLOCK_HEADER_INDEX = null;
+
+    // The BEST_CHAIN_TRACKER holds the head BlockHeader and head Block so that neither requires sorting the blocks table by chain_work...
+    //  When the tracker is not initialized, the database is queried instead.
+    protected static BestChainTracker BEST_CHAIN_TRACKER = null;
+
+    /**
+     * A change to the BLOCK_HEADER_INDEX that is deferred until the database transaction that made it has been committed.
+     */
+    protected interface BlockHeaderIndexUpdate {
+        void applyTo(BlockHeaderIndex blockHeaderIndex);
+    }
+
+    // Changes to the BLOCK_HEADER_INDEX made within a database transaction are staged per connection, so that other threads never observe
+    //  BlockHeaders (or BlockchainSegments) that have not been committed.  The staged changes are applied by onBlockHeaderCommitted,
+    //  and discarded by onBlockHeaderRolledBack...
+    protected static final ConcurrentHashMap<MysqlDatabaseConnection, MutableList<BlockHeaderIndexUpdate>> STAGED_BLOCK_HEADER_INDEX_UPDATES = new ConcurrentHashMap<MysqlDatabaseConnection, MutableList<BlockHeaderIndexUpdate>>();
+
+    protected static void _stageBlockHeaderIndexUpdate(final MysqlDatabaseConnection databaseConnection, final BlockHeaderIndexUpdate blockHeaderIndexUpdate) {
+        if (! Thread.holdsLock(MUTEX)) { throw new RuntimeException("Attempting to _stageBlockHeaderIndexUpdate without obtaining lock."); }
+        if (BLOCK_HEADER_INDEX == null) { return; }
+
+        MutableList<BlockHeaderIndexUpdate> blockHeaderIndexUpdates = STAGED_BLOCK_HEADER_INDEX_UPDATES.get(databaseConnection);
+        if (blockHeaderIndexUpdates == null) {
+            blockHeaderIndexUpdates = new MutableList<BlockHeaderIndexUpdate>();
+            STAGED_BLOCK_HEADER_INDEX_UPDATES.put(databaseConnection, blockHeaderIndexUpdates);
+        }
+        blockHeaderIndexUpdates.add(blockHeaderIndexUpdate);
+    }
+
+    /**
+     * Returns the BLOCK_HEADER_INDEX for resolving BlockchainSegments, or null if the connection's open transaction has staged changes,
+     *  in which case the index's BlockchainSegments do not reflect what the connection sees and the database must be queried instead.
+     *  Per-block properties are unaffected, since staged BlockHeaders are simply absent from the index.
+     */
+    protected static BlockHeaderIndex _getBlockchainSegmentIndex(final MysqlDatabaseConnection databaseConnection) {
+        if (STAGED_BLOCK_HEADER_INDEX_UPDATES.containsKey(databaseConnection)) { return null; }
+        return BLOCK_HEADER_INDEX;
+    }
+
+    protected static void _loadBlockchainSegments(final BlockHeaderIndex blockHeaderIndex, final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        blockHeaderIndex.clearBlockchainSegments();
+
+        // NOTE: chain_work strictly increases along a BlockchainSegment, and is indexed alongside blockchain_segment_id...
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT segments.blockchain_segment_id, first_blocks.id AS first_block_id, tip_blocks.id AS tip_block_id FROM (SELECT blockchain_segment_id, MIN(chain_work) AS first_chain_work, MAX(chain_work) AS tip_chain_work FROM blocks WHERE blockchain_segment_id IS NOT NULL GROUP BY blockchain_segment_id) AS segments INNER JOIN blocks AS first_blocks ON (first_blocks.blockchain_segment_id = segments.blockchain_segment_id AND first_blocks.chain_work = segments.first_chain_work) INNER JOIN blocks AS tip_blocks ON (tip_blocks.blockchain_segment_id = segments.blockchain_segment_id AND tip_blocks.chain_work = segments.tip_chain_work)")
+        );
+
+        for (final Row row : rows) {
+            final BlockchainSegmentId blockchainSegmentId = BlockchainSegmentId.wrap(row.getLong("blockchain_segment_id"));
+            final BlockId firstBlockId = BlockId.wrap(row.getLong("first_block_id"));
+            final BlockId tipBlockId = BlockId.wrap(row.getLong("tip_block_id"));
+            blockHeaderIndex.setBlockchainSegmentBlockIds(blockchainSegmentId, firstBlockId, tipBlockId);
+        }
+    }
+
+    protected static void _loadBestChainTips(final BestChainTracker bestChainTracker, final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        { // Load the head BlockHeader...
+            final java.util.List<Row> rows = databaseConnection.query(
+                new Query("SELECT id, hash, chain_work FROM blocks ORDER BY chain_work DESC LIMIT 1")
+            );
+            if (rows.isEmpty()) {
+                bestChainTracker.setHeadBlockHeader(null, null, null);
+            }
+            else {
+                final Row row = rows.get(0);
+                bestChainTracker.setHeadBlockHeader(BlockId.wrap(row.getLong("id")), Sha256Hash.copyOf(row.getBytes("hash")), ChainWork.wrap(row.getBytes("chain_work")));
+            }
+        }
+
+        { // Load the head Block (i.e. the best header that also has its transactions stored)...
+            final java.util.List<Row> rows = databaseConnection.query(
+                new Query("SELECT blocks.id, blocks.hash, blocks.chain_work FROM blocks WHERE EXISTS (SELECT 1 FROM block_transactions WHERE block_transactions.block_id = blocks.id) ORDER BY blocks.chain_work DESC LIMIT 1")
+            );
+            if (rows.isEmpty()) {
+                bestChainTracker.setHeadBlock(null, null, null);
+            }
+            else {
+                final Row row = rows.get(0);
+                bestChainTracker.setHeadBlock(BlockId.wrap(row.getLong("id")), Sha256Hash.copyOf(row.getBytes("hash")), ChainWork.wrap(row.getBytes("chain_work")));
+            }
+        }
+    }
+
+    /**
+     * Loads the head BlockHeader and head Block into the process-wide BestChainTracker.
+     *  Afterwards, the tracker is advanced as headers and blocks are committed (see onBlockHeaderCommitted and BlockDatabaseManager.onBlockCommitted).
+     */
+    public static void initializeBestChainTracker(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        synchronized (MUTEX) {
+            final BestChainTracker bestChainTracker = new BestChainTracker();
+            _loadBestChainTips(bestChainTracker, databaseConnection);
+
+            BEST_CHAIN_TRACKER = bestChainTracker;
+            Logger.log("Head BlockHeader: " + bestChainTracker.getHeadBlockHeaderHash() + " Head Block: " + bestChainTracker.getHeadBlockHash());
+        }
+    }
+
+    /**
+     * Loads every stored BlockHeader into the process-wide BlockHeaderIndex.
+     *  Headers stored afterwards are added to the index once their database transaction is committed (see onBlockHeaderCommitted).
+     */
+    public static void initializeBlockHeaderIndex(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        synchronized (MUTEX) {
+            final BlockHeaderIndex blockHeaderIndex = new BlockHeaderIndex();
+
+            long lastBlockId = 0L;
+            while (true) {
+                final java.util.List<Row> rows = databaseConnection.query(
+                    new Query("SELECT id, previous_block_id, block_height, timestamp, chain_work FROM blocks WHERE id > ? ORDER BY id ASC LIMIT " + BLOCK_HEADER_INDEX_BATCH_SIZE)
+                        .setParameter(lastBlockId)
+                );
+                if (rows.isEmpty()) { break; }
+
+                for (final Row row : rows) {
+                    final BlockId blockId = BlockId.wrap(row.getLong("id"));
+                    final BlockId previousBlockId = BlockId.wrap(row.getLong("previous_block_id"));
+                    final Long blockHeight = row.getLong("block_height");
+                    final Long timestamp = row.getLong("timestamp");
+                    final ChainWork chainWork = ChainWork.wrap(row.getBytes("chain_work"));
+
+                    blockHeaderIndex.addBlockHeader(blockId, previousBlockId, blockHeight, timestamp, chainWork);
+                    lastBlockId = blockId.longValue();
+                }
+            }
+
+            _loadBlockchainSegments(blockHeaderIndex, databaseConnection);
+
+            BLOCK_HEADER_INDEX = blockHeaderIndex;
+            Logger.log("Indexed " + blockHeaderIndex.getBlockCount() + " BlockHeaders.");
+        }
+    }
+
     /**
      * Initializes a MedianBlockTime from the database.
      *  NOTE: The headBlockHash is included within the MedianBlockTime.
@@ -69,6 +216,12 @@ public class BlockHeaderDatabaseManager {
         final Long cachedBlockHeight = _databaseManagerCache.getCachedBlockHeight(blockId);
         if (cachedBlockHeight != null) { return cachedBlockHeight; }
 
+        final BlockHeaderIndex blockHeaderIndex = BLOCK_HEADER_INDEX;
+        if (blockHeaderIndex != null) {
+            final Long blockHeight = blockHeaderIndex.getBlockHeight(blockId);
+            if (blockHeight != null) { return blockHeight; }
+        }
+
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id, block_height FROM blocks WHERE id = ?")
                 .setParameter(blockId)
@@ -83,6 +236,12 @@ public class BlockHeaderDatabaseManager {
     }
 
     protected Long _getBlockTimestamp(final BlockId blockId) throws DatabaseException {
+        final BlockHeaderIndex blockHeaderIndex = BLOCK_HEADER_INDEX;
+        if (blockHeaderIndex != null) {
+            final Long timestamp = blockHeaderIndex.getBlockTimestamp(blockId);
+            if (timestamp != null) { return timestamp; }
+        }
+
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id, timestamp FROM blocks WHERE id = ?")
                 .setParameter(blockId)
@@ -97,7 +256,7 @@ public class BlockHeaderDatabaseManager {
     protected BlockId _getBlockHeaderId(final Sha256Hash blockHash) throws DatabaseException {
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id FROM blocks WHERE hash = ?")
-                .setParameter(blockHash)
+                .setParameter(blockHash.getBytes())
         );
 
         if (rows.isEmpty()) { return null; }
@@ -119,8 +278,7 @@ public class BlockHeaderDatabaseManager {
         }
         else {
             final Row previousBlockRow = rows.get(0);
-            final String hashString = previousBlockRow.getString("hash");
-            return Sha256Hash.fromHexString(hashString);
+            return Sha256Hash.copyOf(previousBlockRow.getBytes("hash"));
         }
     }
 
@@ -141,7 +299,7 @@ public class BlockHeaderDatabaseManager {
             previousBlockHash = _getBlockHash(previousBlockId);
         }
 
-        final MerkleRoot merkleRoot = MutableMerkleRoot.fromHexString(row.getString("merkle_root"));
+        final MerkleRoot merkleRoot = MutableMerkleRoot.copyOf(row.getBytes("merkle_root"));
         final Long timestamp = row.getLong("timestamp");
         final Difficulty difficulty = ImmutableDifficulty.decode(HexUtil.hexStringToByteArray(row.getString("difficulty")));
         final Long nonce = row.getLong("nonce");
@@ -156,7 +314,7 @@ public class BlockHeaderDatabaseManager {
         blockHeader.setNonce(nonce);
 
         { // Assert that the hashes match after inflation...
-            final Sha256Hash expectedHash = Sha256Hash.fromHexString(row.getString("hash"));
+            final Sha256Hash expectedHash = Sha256Hash.copyOf(row.getBytes("hash"));
             final Sha256Hash actualHash = blockHeader.getHash();
             if (! Util.areEqual(expectedHash, actualHash)) {
                 Logger.log("ERROR: Unable to inflate block: " + blockHeader.getHash());
@@ -174,10 +332,10 @@ public class BlockHeaderDatabaseManager {
 
         _databaseConnection.executeSql(
             new Query("UPDATE blocks SET hash = ?, previous_block_id = ?, block_height = ?, merkle_root = ?, version = ?, timestamp = ?, difficulty = ?, nonce = ? WHERE id = ?")
-                .setParameter(blockHeader.getHash())
+                .setParameter(blockHeader.getHash().getBytes())
                 .setParameter(previousBlockId)
                 .setParameter(blockHeight)
-                .setParameter(blockHeader.getMerkleRoot())
+                .setParameter(blockHeader.getMerkleRoot().getBytes())
                 .setParameter(blockHeader.getVersion())
                 .setParameter(blockHeader.getTimestamp())
                 .setParameter(blockHeader.getDifficulty().encode())
@@ -187,6 +345,12 @@ public class BlockHeaderDatabaseManager {
     }
 
     protected ChainWork _getChainWork(final BlockId blockId) throws DatabaseException {
+        final BlockHeaderIndex blockHeaderIndex = BLOCK_HEADER_INDEX;
+        if (blockHeaderIndex != null) {
+            final ChainWork chainWork = blockHeaderIndex.getChainWork(blockId);
+            if (chainWork != null) { return chainWork; }
+        }
+
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id, chain_work FROM blocks WHERE id = ?")
                 .setParameter(blockId)
@@ -195,7 +359,7 @@ public class BlockHeaderDatabaseManager {
         if (rows.isEmpty()) { return null; }
 
         final Row row = rows.get(0);
-        return ChainWork.fromHexString(row.getString("chain_work"));
+        return ChainWork.wrap(row.getBytes("chain_work"));
     }
 
     protected BlockId _insertBlockHeader(final BlockHeader blockHeader) throws DatabaseException {
@@ -208,18 +372,107 @@ public class BlockHeaderDatabaseManager {
         final ChainWork previousChainWork = (previousBlockId == null ? new MutableChainWork() : _getChainWork(previousBlockId));
         final ChainWork chainWork = ChainWork.add(previousChainWork, blockWork);
 
-        return BlockId.wrap(_databaseConnection.executeSql(
+        final BlockId blockId = BlockId.wrap(_databaseConnection.executeSql(
             new Query("INSERT INTO blocks (hash, previous_block_id, block_height, merkle_root, version, timestamp, difficulty, nonce, chain_work) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")
-                .setParameter(blockHeader.getHash())
+                .setParameter(blockHeader.getHash().getBytes())
                 .setParameter(previousBlockId)
                 .setParameter(blockHeight)
-                .setParameter(blockHeader.getMerkleRoot())
+                .setParameter(blockHeader.getMerkleRoot().getBytes())
                 .setParameter(blockHeader.getVersion())
                 .setParameter(blockHeader.getTimestamp())
                 .setParameter(difficulty.encode())
                 .setParameter(blockHeader.getNonce())
-                .setParameter(chainWork)
+                .setParameter(chainWork.getBytes())
         ));
+
+        final Long timestamp = blockHeader.getTimestamp();
+        _stageBlockHeaderIndexUpdate(_databaseConnection, (final BlockHeaderIndex blockHeaderIndex) -> {
+            blockHeaderIndex.addBlockHeader(blockId, previousBlockId, blockHeight, timestamp, chainWork);
+        });
+
+        return blockId;
+    }
+
+    /**
+     * Inserts a contiguous run of BlockHeaders with a single statement.
+     *  The parent of the first BlockHeader must already be stored; each subsequent BlockHeader must be the child of the one before it.
+     *  The height and chain work of each header are derived from its predecessor in memory rather than queried per header.
+     *  Returns null if the headers are not contiguous or the parent of the first header is unknown.
+     */
+    protected List<BlockId> _insertBlockHeaders(final List<BlockHeader> blockHeaders) throws DatabaseException {
+        final int blockHeaderCount = blockHeaders.getSize();
+        if (blockHeaderCount == 0) { return new MutableList<BlockId>(0); }
+
+        final BlockHeader firstBlockHeader = blockHeaders.get(0);
+        final BlockId firstPreviousBlockId = _getBlockHeaderId(firstBlockHeader.getPreviousBlockHash());
+        if (firstPreviousBlockId == null) { return null; }
+
+        final Long[] blockHeights = new Long[blockHeaderCount];
+        final ChainWork[] chainWorks = new ChainWork[blockHeaderCount];
+
+        final Query batchedInsertQuery = new BatchedInsertQuery("INSERT INTO blocks (hash, previous_block_id, block_height, merkle_root, version, timestamp, difficulty, nonce, chain_work) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        {
+            Sha256Hash previousBlockHash = firstBlockHeader.getPreviousBlockHash();
+            Long previousBlockHeight = _getBlockHeight(firstPreviousBlockId);
+            ChainWork previousChainWork = _getChainWork(firstPreviousBlockId);
+            if ( (previousBlockHeight == null) || (previousChainWork == null) ) { return null; }
+
+            for (int i = 0; i < blockHeaderCount; ++i) {
+                final BlockHeader blockHeader = blockHeaders.get(i);
+                final Sha256Hash blockHash = blockHeader.getHash();
+                if (! Util.areEqual(previousBlockHash, blockHeader.getPreviousBlockHash())) { return null; }
+
+                final Difficulty difficulty = blockHeader.getDifficulty();
+                final Long blockHeight = (previousBlockHeight + 1L);
+                final ChainWork chainWork = ChainWork.add(previousChainWork, difficulty.calculateWork());
+
+                // NOTE: The previous_block_id of all but the first header is set once the BlockIds are known...
+                batchedInsertQuery.setParameter(blockHash.getBytes());
+                batchedInsertQuery.setParameter((i == 0) ? firstPreviousBlockId : null);
+                batchedInsertQuery.setParameter(blockHeight);
+                batchedInsertQuery.setParameter(blockHeader.getMerkleRoot().getBytes());
+                batchedInsertQuery.setParameter(blockHeader.getVersion());
+                batchedInsertQuery.setParameter(blockHeader.getTimestamp());
+                batchedInsertQuery.setParameter(difficulty.encode());
+                batchedInsertQuery.setParameter(blockHeader.getNonce());
+                batchedInsertQuery.setParameter(chainWork.getBytes());
+
+                blockHeights[i] = blockHeight;
+                chainWorks[i] = chainWork;
+
+                previousBlockHash = blockHash;
+                previousBlockHeight = blockHeight;
+                previousChainWork = chainWork;
+            }
+        }
+
+        final Long firstBlockId = _databaseConnection.executeSql(batchedInsertQuery);
+        if (firstBlockId == null) { return null; }
+
+        final ImmutableListBuilder<BlockId> blockIds = new ImmutableListBuilder<BlockId>(blockHeaderCount);
+        for (int i = 0; i < blockHeaderCount; ++i) {
+            blockIds.add(BlockId.wrap(firstBlockId + i));
+        }
+
+        if (blockHeaderCount > 1) { // Link each header to its predecessor; ids within the batch are consecutive, so each previous_block_id is its own id minus one...
+            _databaseConnection.executeSql(
+                new Query("UPDATE blocks SET previous_block_id = (id - 1) WHERE id > ? AND id < ?")
+                    .setParameter(firstBlockId)
+                    .setParameter(firstBlockId + blockHeaderCount)
+            );
+        }
+
+        _stageBlockHeaderIndexUpdate(_databaseConnection, (final BlockHeaderIndex blockHeaderIndex) -> {
+            BlockId previousBlockId = firstPreviousBlockId;
+            for (int i = 0; i < blockHeaderCount; ++i) {
+                final BlockHeader blockHeader = blockHeaders.get(i);
+                final BlockId blockId = BlockId.wrap(firstBlockId + i);
+                blockHeaderIndex.addBlockHeader(blockId, previousBlockId, blockHeights[i], blockHeader.getTimestamp(), chainWorks[i]);
+                previousBlockId = blockId;
+            }
+        });
+
+        return blockIds.build();
     }
 
     protected void _setBlockchainSegmentId(final BlockId blockId, final BlockchainSegmentId blockchainSegmentId) throws DatabaseException {
@@ -266,6 +519,12 @@ public class BlockHeaderDatabaseManager {
     }
 
     protected Boolean _isBlockConnectedToChain(final BlockId blockId, final BlockchainSegmentId blockchainSegmentId, final BlockRelationship blockRelationship) throws DatabaseException {
+        final BlockHeaderIndex blockHeaderIndex = _getBlockchainSegmentIndex(_databaseConnection);
+        if (blockHeaderIndex != null) {
+            final Boolean isConnected = blockHeaderIndex.isBlockConnectedToChain(blockId, blockchainSegmentId, blockRelationship);
+            if (isConnected != null) { return isConnected; }
+        }
+
         final BlockchainDatabaseManager blockchainDatabaseManager = new BlockchainDatabaseManager(_databaseConnection, _databaseManagerCache);
         final BlockchainSegmentId blockchainSegmentId1 = _getBlockchainSegmentId(blockId);
         return blockchainDatabaseManager.areBlockchainSegmentsConnected(blockchainSegmentId1, blockchainSegmentId, blockRelationship);
@@ -307,16 +566,26 @@ public class BlockHeaderDatabaseManager {
     }
 
     protected Sha256Hash _getHeadBlockHeaderHash() throws DatabaseException {
+        final BestChainTracker bestChainTracker = BEST_CHAIN_TRACKER;
+        if (bestChainTracker != null) {
+            return bestChainTracker.getHeadBlockHeaderHash();
+        }
+
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id, hash FROM blocks ORDER BY chain_work DESC LIMIT 1")
         );
         if (rows.isEmpty()) { return null; }
 
         final Row row = rows.get(0);
-        return Sha256Hash.fromHexString(row.getString("hash"));
+        return Sha256Hash.copyOf(row.getBytes("hash"));
     }
 
     protected BlockId _getHeadBlockHeaderId() throws DatabaseException {
+        final BestChainTracker bestChainTracker = BEST_CHAIN_TRACKER;
+        if (bestChainTracker != null) {
+            return bestChainTracker.getHeadBlockHeaderId();
+        }
+
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id, hash FROM blocks ORDER BY chain_work DESC LIMIT 1")
         );
@@ -336,6 +605,11 @@ public class BlockHeaderDatabaseManager {
     }
 
     protected BlockId _getPreviousBlockId(final BlockId blockId) throws DatabaseException {
+        final BlockHeaderIndex blockHeaderIndex = BLOCK_HEADER_INDEX;
+        if ( (blockHeaderIndex != null) && blockHeaderIndex.containsBlock(blockId) ) {
+            return blockHeaderIndex.getPreviousBlockId(blockId);
+        }
+
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id, previous_block_id FROM blocks WHERE id = ?")
                 .setParameter(blockId)
@@ -357,6 +631,24 @@ public class BlockHeaderDatabaseManager {
         return blockId;
     }
 
+    /**
+     * Inserts a contiguous run of new BlockHeaders and assigns their BlockchainSegments.
+     *  The parent of the first BlockHeader must already be stored, and each subsequent BlockHeader must be the child of the one before it.
+     *  Returns the BlockIds in the same order as the BlockHeaders, or null if the headers could not be inserted as a batch,
+     *  in which case nothing was inserted and the caller should fall back to BlockHeaderDatabaseManager::storeBlockHeader.
+     */
+    public List<BlockId> insertBlockHeaders(final List<BlockHeader> blockHeaders) throws DatabaseException {
+        if (! Thread.holdsLock(MUTEX)) { throw new RuntimeException("Attempting to insertBlockHeaders without obtaining lock."); }
+
+        final List<BlockId> blockIds = _insertBlockHeaders(blockHeaders);
+        if (blockIds == null) { return null; }
+
+        final BlockchainDatabaseManager blockchainDatabaseManager = new BlockchainDatabaseManager(_databaseConnection, _databaseManagerCache);
+        blockchainDatabaseManager.updateBlockchainsForNewBlocks(blockIds);
+
+        return blockIds;
+    }
+
     public void updateBlockHeader(final BlockId blockId, final BlockHeader blockHeader) throws DatabaseException {
         _updateBlockHeader(blockId, blockHeader);
     }
@@ -378,6 +670,42 @@ public class BlockHeaderDatabaseManager {
         return blockId;
     }
 
+    /**
+     * Discards the BlockHeaderIndex changes staged by this connection's database transaction.
+     *  Must be invoked after rolling back a database transaction that stored a BlockHeader, while holding the MUTEX.
+     */
+    public void onBlockHeaderRolledBack() {
+        if (! Thread.holdsLock(MUTEX)) { throw new RuntimeException("Attempting to onBlockHeaderRolledBack without obtaining lock."); }
+
+        STAGED_BLOCK_HEADER_INDEX_UPDATES.remove(_databaseConnection);
+    }
+
+    /**
+     * Applies the BlockHeaderIndex changes staged by this connection's database transaction, and offers the BlockHeader to the
+     *  BestChainTracker as a candidate for the head BlockHeader.
+     *  Must be invoked after the database transaction that stored the BlockHeader has been committed, while holding the MUTEX, so that
+     *  neither the index nor the head ever contain a BlockHeader that other connections cannot yet see.
+     *  When a contiguous run of BlockHeaders is committed, only the last BlockHeader needs to be offered since it has the most work.
+     */
+    public void onBlockHeaderCommitted(final BlockId blockId) throws DatabaseException {
+        if (! Thread.holdsLock(MUTEX)) { throw new RuntimeException("Attempting to onBlockHeaderCommitted without obtaining lock."); }
+
+        final MutableList<BlockHeaderIndexUpdate> blockHeaderIndexUpdates = STAGED_BLOCK_HEADER_INDEX_UPDATES.remove(_databaseConnection);
+        final BlockHeaderIndex blockHeaderIndex = BLOCK_HEADER_INDEX;
+        if ( (blockHeaderIndexUpdates != null) && (blockHeaderIndex != null) ) {
+            for (final BlockHeaderIndexUpdate blockHeaderIndexUpdate : blockHeaderIndexUpdates) {
+                blockHeaderIndexUpdate.applyTo(blockHeaderIndex);
+            }
+        }
+
+        final BestChainTracker bestChainTracker = BEST_CHAIN_TRACKER;
+        if (bestChainTracker == null) { return; }
+
+        final Sha256Hash blockHash = _getBlockHash(blockId);
+        final ChainWork chainWork = _getChainWork(blockId);
+        bestChainTracker.onBlockHeaderConnected(blockId, blockHash, chainWork);
+    }
+
     public void setBlockByteCount(final BlockId blockId, final Integer byteCount) throws DatabaseException {
         _databaseConnection.executeSql(
             new Query("UPDATE blocks SET byte_count = ? WHERE id = ?")
@@ -415,6 +743,34 @@ public class BlockHeaderDatabaseManager {
         return _getBlockHeaderId(blockHash);
     }
 
+    /**
+     * Returns the BlockIds of the stored BlockHeaders within blockHashes.
+     *  Hashes that have not been stored are excluded from the returned map.
+     */
+    public Map<Sha256Hash, BlockId> getBlockHeaderIds(final List<Sha256Hash> blockHashes) throws DatabaseException {
+        final HashMap<Sha256Hash, BlockId> blockIds = new HashMap<Sha256Hash, BlockId>(blockHashes.getSize());
+
+        final int blockHashCount = blockHashes.getSize();
+        for (int batchStartIndex = 0; batchStartIndex < blockHashCount; batchStartIndex += TransactionOutputDatabaseManager.MAX_IN_CLAUSE_ITEM_COUNT) {
+            final int batchEndIndex = Math.min(blockHashCount, (batchStartIndex + TransactionOutputDatabaseManager.MAX_IN_CLAUSE_ITEM_COUNT));
+            final MutableList<Sha256Hash> blockHashBatch = new MutableList<Sha256Hash>(batchEndIndex - batchStartIndex);
+            for (int i = batchStartIndex; i < batchEndIndex; ++i) {
+                blockHashBatch.add(blockHashes.get(i));
+            }
+
+            final java.util.List<Row> rows = _databaseConnection.query(
+                new Query("SELECT id, hash FROM blocks WHERE hash IN (" + DatabaseUtil.createBinaryInClause(blockHashBatch) + ")")
+            );
+            for (final Row row : rows) {
+                final Sha256Hash blockHash = Sha256Hash.copyOf(row.getBytes("hash"));
+                final BlockId blockId = BlockId.wrap(row.getLong("id"));
+                blockIds.put(blockHash, blockId);
+            }
+        }
+
+        return blockIds;
+    }
+
     public BlockHeader getBlockHeader(final BlockId blockId) throws DatabaseException {
         return _inflateBlockHeader(blockId);
     }
@@ -487,6 +843,14 @@ public class BlockHeaderDatabaseManager {
             return _getPreviousBlockId(blockId);
         }
 
+        final BlockHeaderIndex blockHeaderIndex = BLOCK_HEADER_INDEX;
+        if ( (blockHeaderIndex != null) && blockHeaderIndex.containsBlock(blockId) ) {
+            final Long blockHeight = blockHeaderIndex.getBlockHeight(blockId);
+            final Long ancestorBlockHeight = (blockHeight - parentCount);
+            if (ancestorBlockHeight < 0L) { return null; }
+            return blockHeaderIndex.getAncestorBlockId(blockId, ancestorBlockHeight);
+        }
+
         BlockId nextBlockId = blockId;
         for (int i = 0; i < parentCount; ++i) {
             final BlockHeader blockHeader = _inflateBlockHeader(nextBlockId);
@@ -517,12 +881,27 @@ public class BlockHeaderDatabaseManager {
         return _newInitializedMedianBlockTime(this, blockHash);
     }
 
+    /**
+     * Initializes a Mutable MedianBlockTime whose most recent block is the provided headBlockHash (inclusive).
+     *  Blocks may be appended to the returned MedianBlockTime as their descendants are processed.
+     */
+    public MutableMedianBlockTime initializeMedianBlockTime(final Sha256Hash headBlockHash) throws DatabaseException {
+        return _newInitializedMedianBlockTime(this, headBlockHash);
+    }
+
     /**
      * Calculates the MedianBlockTime of the provided blockId.
      * NOTE: startingBlockId is exclusive. The MedianBlockTime does NOT include the provided startingBlockId; instead,
      *  it includes the MedianBlockTime.BLOCK_COUNT (11) number of blocks before the startingBlockId.
      */
     public MedianBlockTime calculateMedianBlockTime(final BlockId blockId) throws DatabaseException {
+        final BlockHeaderIndex blockHeaderIndex = BLOCK_HEADER_INDEX;
+        if ( (blockHeaderIndex != null) && blockHeaderIndex.containsBlock(blockId) ) {
+            final BlockId previousBlockId = blockHeaderIndex.getPreviousBlockId(blockId);
+            if (previousBlockId == null) { return null; }
+            return blockHeaderIndex.getMedianBlockTime(previousBlockId);
+        }
+
         final BlockId previousBlockId = _getPreviousBlockId(blockId);
         if (previousBlockId == null) { return null; }
         final Sha256Hash blockHash = _getBlockHash(previousBlockId);
@@ -534,6 +913,12 @@ public class BlockHeaderDatabaseManager {
      * NOTE: This method is identical to BlockHeaderDatabaseManager::calculateMedianBlockTime except that blockId is inclusive.
      */
     public MedianBlockTime calculateMedianBlockTimeStartingWithBlock(final BlockId blockId) throws DatabaseException {
+        final BlockHeaderIndex blockHeaderIndex = BLOCK_HEADER_INDEX;
+        if (blockHeaderIndex != null) {
+            final MedianBlockTime medianBlockTime = blockHeaderIndex.getMedianBlockTime(blockId);
+            if (medianBlockTime != null) { return medianBlockTime; }
+        }
+
         final Sha256Hash blockHash = _getBlockHash(blockId);
         return _newInitializedMedianBlockTime(this, blockHash);
     }
@@ -543,6 +928,12 @@ public class BlockHeaderDatabaseManager {
     }
 
     public BlockId getBlockIdAtHeight(final BlockchainSegmentId blockchainSegmentId, final Long blockHeight) throws DatabaseException {
+        final BlockHeaderIndex blockHeaderIndex = _getBlockchainSegmentIndex(_databaseConnection);
+        if (blockHeaderIndex != null) {
+            final BlockId blockId = blockHeaderIndex.getBlockIdAtHeight(blockchainSegmentId, blockHeight);
+            if (blockId != null) { return blockId; }
+        }
+
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id FROM blocks WHERE block_height = ?")
                 .setParameter(blockHeight)
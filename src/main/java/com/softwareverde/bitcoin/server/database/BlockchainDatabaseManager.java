@@ -2,6 +2,8 @@ package com.softwareverde.bitcoin.server.database;
 
 import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.chain.index.BestChainTracker;
+import com.softwareverde.bitcoin.chain.index.BlockHeaderIndex;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
@@ -11,6 +13,7 @@ import com.softwareverde.database.DatabaseException;
 import com.softwareverde.database.Query;
 import com.softwareverde.database.Row;
 import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.util.DatabaseUtil;
 import com.softwareverde.util.Util;
 
 public class BlockchainDatabaseManager {
@@ -93,6 +96,10 @@ public class BlockchainDatabaseManager {
                 .setParameter(newBlockchainSegmentId)
         );
 
+        BlockHeaderDatabaseManager._stageBlockHeaderIndexUpdate(_databaseConnection, (final BlockHeaderIndex blockHeaderIndex) -> {
+            blockHeaderIndex.splitBlockchainSegment(blockchainSegmentId, newBlockchainSegmentId, blockHeight);
+        });
+
         return newBlockchainSegmentId;
     }
 
@@ -174,6 +181,12 @@ public class BlockchainDatabaseManager {
     }
 
     protected Boolean _areBlockchainSegmentsConnected(final BlockchainSegmentId blockchainSegmentId0, final BlockchainSegmentId blockchainSegmentId1, final BlockRelationship blockRelationship) throws DatabaseException {
+        final BlockHeaderIndex blockHeaderIndex = BlockHeaderDatabaseManager._getBlockchainSegmentIndex(_databaseConnection);
+        if (blockHeaderIndex != null) {
+            final Boolean areConnected = blockHeaderIndex.areBlockchainSegmentsConnected(blockchainSegmentId0, blockchainSegmentId1, blockRelationship);
+            if (areConnected != null) { return areConnected; }
+        }
+
         final Query query;
         switch (blockRelationship) {
             case ANCESTOR: {
@@ -223,10 +236,71 @@ public class BlockchainDatabaseManager {
 
         blockHeaderDatabaseManager.setBlockchainSegmentId(blockId, blockchainSegmentId);
 
+        BlockHeaderDatabaseManager._stageBlockHeaderIndexUpdate(_databaseConnection, (final BlockHeaderIndex blockHeaderIndex) -> {
+            blockHeaderIndex.appendToBlockchainSegment(blockchainSegmentId, blockId);
+        });
+
         _renumberBlockchainSegments();
     }
 
+    /**
+     * Assigns BlockchainSegments to a contiguous run of newly inserted blocks.
+     *  Each block within blockIds must be the parent of the block that follows it, and none of the blocks may have other children.
+     *  Only the first block may fork (or extend) an existing BlockchainSegment; the remaining blocks are its only descendants,
+     *  so they are assigned to the same segment with a single update and without renumbering the segments again.
+     */
+    public void updateBlockchainsForNewBlocks(final List<BlockId> blockIds) throws DatabaseException {
+        if (! Thread.holdsLock(BlockHeaderDatabaseManager.MUTEX)) { throw new RuntimeException("Attempting to updateBlockchainsForNewBlocks without obtaining lock."); }
+        if (blockIds.isEmpty()) { return; }
+
+        final BlockId firstBlockId = blockIds.get(0);
+        updateBlockchainsForNewBlock(firstBlockId);
+
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(_databaseConnection, _databaseManagerCache);
+        final BlockchainSegmentId blockchainSegmentId = blockHeaderDatabaseManager.getBlockchainSegmentId(firstBlockId);
+
+        final int blockCount = blockIds.getSize();
+        for (int batchStartIndex = 1; batchStartIndex < blockCount; batchStartIndex += TransactionOutputDatabaseManager.MAX_IN_CLAUSE_ITEM_COUNT) {
+            final int batchEndIndex = Math.min(blockCount, (batchStartIndex + TransactionOutputDatabaseManager.MAX_IN_CLAUSE_ITEM_COUNT));
+
+            final ImmutableListBuilder<BlockId> blockIdBatch = new ImmutableListBuilder<BlockId>(batchEndIndex - batchStartIndex);
+            for (int i = batchStartIndex; i < batchEndIndex; ++i) {
+                final BlockId blockId = blockIds.get(i);
+                blockIdBatch.add(blockId);
+                _databaseManagerCache.cacheBlockchainSegmentId(blockId, blockchainSegmentId);
+            }
+
+            _databaseConnection.executeSql(
+                new Query("UPDATE blocks SET blockchain_segment_id = ? WHERE id IN (" + DatabaseUtil.createInClause(blockIdBatch.build()) + ")")
+                    .setParameter(blockchainSegmentId)
+            );
+        }
+
+        BlockHeaderDatabaseManager._stageBlockHeaderIndexUpdate(_databaseConnection, (final BlockHeaderIndex blockHeaderIndex) -> {
+            for (int i = 1; i < blockCount; ++i) {
+                blockHeaderIndex.appendToBlockchainSegment(blockchainSegmentId, blockIds.get(i));
+            }
+        });
+    }
+
     public BlockchainSegmentId getHeadBlockchainSegmentId() throws DatabaseException {
+        final BestChainTracker bestChainTracker = BlockHeaderDatabaseManager.BEST_CHAIN_TRACKER;
+        if (bestChainTracker != null) {
+            final BlockId headBlockId = bestChainTracker.getHeadBlockHeaderId();
+            if (headBlockId != null) {
+                // NOTE: The segment is read directly (rather than cached) since splitting a BlockchainSegment may move the head block to a new segment...
+                final java.util.List<Row> rows = _databaseConnection.query(
+                    new Query("SELECT id, blockchain_segment_id FROM blocks WHERE id = ?")
+                        .setParameter(headBlockId)
+                );
+                if (! rows.isEmpty()) {
+                    final Row row = rows.get(0);
+                    return BlockchainSegmentId.wrap(row.getLong("blockchain_segment_id"));
+                }
+            }
+            // NOTE: The head may not be visible to this connection if its transaction began before the head was committed; fall back to the committed head...
+        }
+
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id, blockchain_segment_id FROM blocks ORDER BY chain_work DESC LIMIT 1")
         );
@@ -0,0 +1,152 @@
+package com.softwareverde.bitcoin.server.database;
+
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.Query;
+import com.softwareverde.database.Row;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.io.Logger;
+import com.softwareverde.util.timer.MilliTimer;
+
+/**
+ * Manages the schema and session state used while bulk-loading Blocks during the initial sync.
+ *  While bulk-loading, the Block's rows are inserted without foreign-key checks, and the secondary indexes that are only read
+ *  outside of (trusted) Block processing are dropped so that they are not maintained per-row; they are rebuilt once the bulk-load completes.
+ *  No bulk-load state is persisted other than the schema itself: the foreign-key checks are disabled per-connection, and whether the
+ *  deferred indexes exist is read from information_schema, so an interrupted bulk-load (or rebuild) is resumed by calling
+ *  dropDeferredIndexes or rebuildDeferredIndexes again.
+ *  NOTE: The deferred indexes are used to detect double-spends, so bulk-loading must not continue beyond the trusted Block height.
+ */
+public class BulkLoadDatabaseManager {
+    protected static class DeferredIndex {
+        public final String tableName;
+        public final String indexName;
+        public final String columnName;
+        public final String referencedTableName;
+        public final Boolean setsNullOnDelete;
+
+        public DeferredIndex(final String tableName, final String indexName, final String columnName, final String referencedTableName, final Boolean setsNullOnDelete) {
+            this.tableName = tableName;
+            this.indexName = indexName;
+            this.columnName = columnName;
+            this.referencedTableName = referencedTableName;
+            this.setsNullOnDelete = setsNullOnDelete;
+        }
+
+        public String getForeignKeyDefinition() {
+            return ("REFERENCES " + this.referencedTableName + " (id)" + (this.setsNullOnDelete ? " ON DELETE SET NULL" : ""));
+        }
+    }
+
+    // NOTE: Must match the definitions within init.sql...
+    protected static final DeferredIndex[] DEFERRED_INDEXES = new DeferredIndex[] {
+        new DeferredIndex("transaction_inputs", "transaction_inputs_tx_out_fk", "previous_transaction_output_id", "transaction_outputs", true),
+        new DeferredIndex("locking_scripts", "locking_scripts_address_id_fk", "address_id", "addresses", false)
+    };
+
+    protected final MysqlDatabaseConnection _databaseConnection;
+
+    protected Boolean _indexExists(final DeferredIndex deferredIndex) throws DatabaseException {
+        final java.util.List<Row> rows = _databaseConnection.query(
+            new Query("SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ? LIMIT 1")
+                .setParameter(deferredIndex.tableName)
+                .setParameter(deferredIndex.indexName)
+        );
+        return (! rows.isEmpty());
+    }
+
+    /**
+     * Returns the name of the foreign-key constraint on the deferredIndex's column, or null if the constraint does not exist.
+     *  The constraint is looked up by its column since its name is chosen by the database when it is not explicitly named.
+     */
+    protected String _getForeignKeyName(final DeferredIndex deferredIndex) throws DatabaseException {
+        final java.util.List<Row> rows = _databaseConnection.query(
+            new Query("SELECT CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ? AND REFERENCED_TABLE_NAME IS NOT NULL LIMIT 1")
+                .setParameter(deferredIndex.tableName)
+                .setParameter(deferredIndex.columnName)
+        );
+        if (rows.isEmpty()) { return null; }
+
+        final Row row = rows.get(0);
+        return row.getString("CONSTRAINT_NAME");
+    }
+
+    /**
+     * Sets the deferredIndex's column to NULL for each row whose referenced row was deleted while the foreign-key constraint was dropped,
+     *  i.e. applies the ON DELETE SET NULL that the constraint would have applied.
+     */
+    protected void _nullOrphanedReferences(final DeferredIndex deferredIndex) throws DatabaseException {
+        _databaseConnection.executeSql("UPDATE " + deferredIndex.tableName + " LEFT OUTER JOIN " + deferredIndex.referencedTableName + " ON " + deferredIndex.referencedTableName + ".id = " + deferredIndex.tableName + "." + deferredIndex.columnName + " SET " + deferredIndex.tableName + "." + deferredIndex.columnName + " = NULL WHERE " + deferredIndex.tableName + "." + deferredIndex.columnName + " IS NOT NULL AND " + deferredIndex.referencedTableName + ".id IS NULL", null);
+    }
+
+    public BulkLoadDatabaseManager(final MysqlDatabaseConnection databaseConnection) {
+        _databaseConnection = databaseConnection;
+    }
+
+    /**
+     * Disables foreign-key checks for the rest of this connection's session (or until enableConstraintChecks is called).
+     */
+    public void disableConstraintChecks() throws DatabaseException {
+        _databaseConnection.executeSql("SET foreign_key_checks = 0", null);
+    }
+
+    public void enableConstraintChecks() throws DatabaseException {
+        _databaseConnection.executeSql("SET foreign_key_checks = 1", null);
+    }
+
+    /**
+     * Returns true if any of the deferred indexes do not exist, i.e. a bulk-load has started but its indexes have not been rebuilt.
+     */
+    public Boolean hasDroppedIndexes() throws DatabaseException {
+        for (final DeferredIndex deferredIndex : DEFERRED_INDEXES) {
+            if (! _indexExists(deferredIndex)) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the deferred indexes (and their foreign-key constraints) that have not already been dropped.
+     */
+    public void dropDeferredIndexes() throws DatabaseException {
+        for (final DeferredIndex deferredIndex : DEFERRED_INDEXES) {
+            final String foreignKeyName = _getForeignKeyName(deferredIndex);
+            if (foreignKeyName != null) {
+                _databaseConnection.executeSql("ALTER TABLE " + deferredIndex.tableName + " DROP FOREIGN KEY " + foreignKeyName, null);
+            }
+
+            if (_indexExists(deferredIndex)) {
+                Logger.log("NOTICE: Deferring index until the bulk-load completes: " + deferredIndex.tableName + "." + deferredIndex.indexName);
+                _databaseConnection.executeSql("ALTER TABLE " + deferredIndex.tableName + " DROP INDEX " + deferredIndex.indexName, null);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the deferred indexes (and their foreign-key constraints) that do not exist.
+     *  The rows inserted during the bulk-load are not re-checked against the foreign-key constraints, which allows each index to be built in-place.
+     *  Before an ON DELETE SET NULL constraint is restored, the references to rows deleted while it was dropped are set to NULL.
+     */
+    public void rebuildDeferredIndexes() throws DatabaseException {
+        for (final DeferredIndex deferredIndex : DEFERRED_INDEXES) {
+            if (_indexExists(deferredIndex)) { continue; }
+
+            final MilliTimer rebuildTimer = new MilliTimer();
+            Logger.log("NOTICE: Rebuilding deferred index: " + deferredIndex.tableName + "." + deferredIndex.indexName);
+            rebuildTimer.start();
+
+            if (deferredIndex.setsNullOnDelete) {
+                _nullOrphanedReferences(deferredIndex);
+            }
+
+            _databaseConnection.executeSql("SET foreign_key_checks = 0", null);
+            try {
+                _databaseConnection.executeSql("ALTER TABLE " + deferredIndex.tableName + " ADD FOREIGN KEY " + deferredIndex.indexName + " (" + deferredIndex.columnName + ") " + deferredIndex.getForeignKeyDefinition(), null);
+            }
+            finally {
+                _databaseConnection.executeSql("SET foreign_key_checks = 1", null);
+            }
+
+            rebuildTimer.stop();
+            Logger.log("NOTICE: Rebuilt deferred index " + deferredIndex.tableName + "." + deferredIndex.indexName + " in " + rebuildTimer.getMillisecondsElapsed() + "ms.");
+        }
+    }
+}
@@ -4,11 +4,11 @@ import com.softwareverde.bitcoin.block.Block;
 import com.softwareverde.bitcoin.block.BlockDeflater;
 import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.server.database.blockstore.PendingBlockStore;
 import com.softwareverde.bitcoin.server.database.cache.DisabledDatabaseManagerCache;
 import com.softwareverde.bitcoin.server.module.node.sync.block.pending.PendingBlock;
 import com.softwareverde.bitcoin.server.module.node.sync.block.pending.PendingBlockId;
 import com.softwareverde.constable.bytearray.ByteArray;
-import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
 import com.softwareverde.constable.list.mutable.MutableList;
@@ -39,13 +39,21 @@ public class PendingBlockDatabaseManager {
         WRITE_LOCK = new DisabledWriteLock(readWriteLock); // readWriteLock.writeLock();
     }
 
+    // The PENDING_BLOCK_STORE holds the data of each downloaded PendingBlock; pending_block_data only records that the data has been spooled...
+    //  The PENDING_BLOCK_STORE is process-wide and must be initialized before any PendingBlock data is stored.
+    protected static PendingBlockStore PENDING_BLOCK_STORE = null;
+
+    public static void initializePendingBlockStore(final PendingBlockStore pendingBlockStore) {
+        PENDING_BLOCK_STORE = pendingBlockStore;
+    }
+
     protected final SystemTime _systemTime = new SystemTime();
     protected final MysqlDatabaseConnection _databaseConnection;
 
     protected PendingBlockId _getPendingBlockId(final Sha256Hash blockHash) throws DatabaseException {
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id FROM pending_blocks WHERE hash = ?")
-                .setParameter(blockHash)
+                .setParameter(blockHash.getBytes())
         );
         if (rows.isEmpty()) { return null; }
 
@@ -56,7 +64,7 @@ public class PendingBlockDatabaseManager {
     protected List<PendingBlockId> _getPendingBlockIdsWithPreviousBlockHash(final Sha256Hash blockHash) throws DatabaseException {
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id FROM pending_blocks WHERE previous_block_hash = ?")
-                .setParameter(blockHash)
+                .setParameter(blockHash.getBytes())
         );
         if (rows.isEmpty()) { return new MutableList<PendingBlockId>(); }
 
@@ -84,8 +92,8 @@ public class PendingBlockDatabaseManager {
 
         final Long pendingBlockId = _databaseConnection.executeSql(
             new Query("INSERT IGNORE INTO pending_blocks (hash, previous_block_hash, timestamp, priority) VALUES (?, ?, ?, ?)")
-                .setParameter(blockHash)
-                .setParameter(previousBlockHash)
+                .setParameter(blockHash.getBytes())
+                .setParameter(previousBlockHash != null ? previousBlockHash.getBytes() : null)
                 .setParameter(currentTimestamp)
                 .setParameter(priority)
         );
@@ -107,33 +115,73 @@ public class PendingBlockDatabaseManager {
 
         _databaseConnection.executeSql(
             new Query("UPDATE pending_blocks SET previous_block_hash = ?, timestamp = ? WHERE id = ?")
-                .setParameter(previousBlockHash)
+                .setParameter(previousBlockHash.getBytes())
                 .setParameter(currentTimestamp)
                 .setParameter(pendingBlockId)
         );
     }
 
-    protected void _insertPendingBlockData(final PendingBlockId pendingBlockId, final ByteArray blockData) throws DatabaseException {
+    /**
+     * Spools the blockData and records that the PendingBlock has been downloaded.
+     *  The data is written before the pending_block_data row is inserted so that a recorded PendingBlock always has its data,
+     *  except when its file was lost (e.g. the spool directory was removed), in which case the PendingBlock is treated as corrupted.
+     */
+    protected void _insertPendingBlockData(final PendingBlockId pendingBlockId, final Sha256Hash blockHash, final ByteArray blockData) throws DatabaseException {
+        final PendingBlockStore pendingBlockStore = PENDING_BLOCK_STORE;
+        if (pendingBlockStore == null) {
+            throw new DatabaseException("PendingBlockStore has not been initialized.");
+        }
+
+        if (! pendingBlockStore.storeBlockData(blockHash, blockData)) {
+            Logger.log("NOTICE: Unable to spool pending block: " + blockHash);
+            return;
+        }
+
         _databaseConnection.executeSql(
-            new Query("INSERT IGNORE INTO pending_block_data (pending_block_id, data) VALUES (?, ?)")
+            new Query("INSERT IGNORE INTO pending_block_data (pending_block_id, byte_count) VALUES (?, ?)")
                 .setParameter(pendingBlockId)
-                .setParameter(blockData.getBytes())
+                .setParameter(blockData.getByteCount())
         );
     }
 
-    protected void _deletePendingBlock(final PendingBlockId pendingBlockId) throws DatabaseException {
-        _databaseConnection.executeSql(
-            new Query("DELETE FROM pending_blocks WHERE id = ?")
-                .setParameter(pendingBlockId)
+    protected void _removeBlockData(final List<Sha256Hash> blockHashes) {
+        final PendingBlockStore pendingBlockStore = PENDING_BLOCK_STORE;
+        if (pendingBlockStore == null) { return; }
+
+        for (final Sha256Hash blockHash : blockHashes) {
+            pendingBlockStore.removeBlockData(blockHash);
+        }
+    }
+
+    protected List<Sha256Hash> _getPendingBlockHashes(final List<PendingBlockId> pendingBlockIds) throws DatabaseException {
+        final java.util.List<Row> rows = _databaseConnection.query(
+            new Query("SELECT id, hash FROM pending_blocks WHERE id IN (" + DatabaseUtil.createInClause(pendingBlockIds) + ")")
         );
+
+        final ImmutableListBuilder<Sha256Hash> listBuilder = new ImmutableListBuilder<Sha256Hash>(rows.size());
+        for (final Row row : rows) {
+            final Sha256Hash blockHash = Sha256Hash.copyOf(row.getBytes("hash"));
+            listBuilder.add(blockHash);
+        }
+        return listBuilder.build();
+    }
+
+    protected void _deletePendingBlock(final PendingBlockId pendingBlockId) throws DatabaseException {
+        final MutableList<PendingBlockId> pendingBlockIds = new MutableList<PendingBlockId>(1);
+        pendingBlockIds.add(pendingBlockId);
+        _deletePendingBlocks(pendingBlockIds);
     }
 
     protected void _deletePendingBlocks(final List<PendingBlockId> pendingBlockIds) throws DatabaseException {
         if (pendingBlockIds.isEmpty()) { return; }
 
+        final List<Sha256Hash> blockHashes = _getPendingBlockHashes(pendingBlockIds);
+
         _databaseConnection.executeSql(
             new Query("DELETE FROM pending_blocks WHERE id IN (" + DatabaseUtil.createInClause(pendingBlockIds) + ")")
         );
+
+        _removeBlockData(blockHashes); // NOTE: If the deletion is rolled back, the PendingBlock remains without its data and is treated as corrupted...
     }
 
     protected Boolean _hasBlockData(final PendingBlockId pendingBlockId) throws DatabaseException {
@@ -144,15 +192,11 @@ public class PendingBlockDatabaseManager {
         return (rows.size() > 0);
     }
 
-    protected ByteArray _getBlockData(final PendingBlockId pendingBlockId) throws DatabaseException {
-        final java.util.List<Row> rows = _databaseConnection.query(
-            new Query("SELECT id, data FROM pending_block_data WHERE pending_block_id = ?")
-                .setParameter(pendingBlockId)
-        );
-        if (rows.isEmpty()) { return null; }
+    protected ByteArray _getBlockData(final Sha256Hash blockHash) {
+        final PendingBlockStore pendingBlockStore = PENDING_BLOCK_STORE;
+        if (pendingBlockStore == null) { return null; }
 
-        final Row row = rows.get(0);
-        return MutableByteArray.wrap(row.getBytes("data"));
+        return pendingBlockStore.getBlockData(blockHash);
     }
 
     protected PendingBlock _getPendingBlock(final PendingBlockId pendingBlockId, final Boolean includeDataIfAvailable) throws DatabaseException {
@@ -163,12 +207,12 @@ public class PendingBlockDatabaseManager {
         if (rows.isEmpty()) { return null; }
 
         final Row row = rows.get(0);
-        final Sha256Hash blockHash = Sha256Hash.fromHexString(row.getString("hash"));
-        final Sha256Hash previousBlockHash = Sha256Hash.fromHexString(row.getString("previous_block_hash"));
+        final Sha256Hash blockHash = Sha256Hash.copyOf(row.getBytes("hash"));
+        final Sha256Hash previousBlockHash = Sha256Hash.copyOf(row.getBytes("previous_block_hash"));
         final ByteArray blockData;
         {
             if (includeDataIfAvailable) {
-                blockData = _getBlockData(pendingBlockId);
+                blockData = _getBlockData(blockHash);
             }
             else {
                 blockData = null;
@@ -310,7 +354,7 @@ public class PendingBlockDatabaseManager {
             }
 
             final BlockDeflater blockDeflater = new BlockDeflater();
-            _insertPendingBlockData(pendingBlockId, blockDeflater.toBytes(block));
+            _insertPendingBlockData(pendingBlockId, blockHash, blockDeflater.toBytes(block));
             return pendingBlockId;
 
         }
@@ -333,7 +377,7 @@ public class PendingBlockDatabaseManager {
             Long tupleStartingBlockHeight = null; // The blockHeight of blockHashStartEnd.first...
             for (final Row row : rows) {
                 final Long blockHeight = row.getLong("block_height");
-                final Sha256Hash blockHash = Sha256Hash.fromHexString(row.getString("hash"));
+                final Sha256Hash blockHash = Sha256Hash.copyOf(row.getBytes("hash"));
 
                 boolean addTupleToDownloadPlan = false;
                 boolean createNewTuple = false;
@@ -398,7 +442,7 @@ public class PendingBlockDatabaseManager {
 
             final java.util.List<Row> rows = _databaseConnection.query(
                 new Query("SELECT pending_blocks.id FROM pending_blocks INNER JOIN node_blocks_inventory ON node_blocks_inventory.pending_block_id = pending_blocks.id WHERE (pending_blocks.hash = ?) AND (node_blocks_inventory.node_id IN (" + DatabaseUtil.createInClause(connectedNodeIds) + ")) LIMIT 1")
-                    .setParameter(blockHash)
+                    .setParameter(blockHash.getBytes())
             );
 
             return (! rows.isEmpty());
@@ -465,7 +509,7 @@ public class PendingBlockDatabaseManager {
             if (rows.isEmpty()) { return null; }
 
             final Row row = rows.get(0);
-            return Sha256Hash.fromHexString(row.getString("hash"));
+            return Sha256Hash.copyOf(row.getBytes("hash"));
 
         }
         finally {
@@ -607,10 +651,18 @@ public class PendingBlockDatabaseManager {
         try {
             WRITE_LOCK.lock();
 
-            _databaseConnection.executeSql(
-                new Query("DELETE FROM pending_blocks WHERE EXISTS (SELECT * FROM blocks INNER JOIN block_transactions ON blocks.id = block_transactions.block_id WHERE pending_blocks.hash = blocks.hash)")
+            final java.util.List<Row> rows = _databaseConnection.query(
+                new Query("SELECT pending_blocks.id FROM pending_blocks WHERE EXISTS (SELECT * FROM blocks INNER JOIN block_transactions ON blocks.id = block_transactions.block_id WHERE pending_blocks.hash = blocks.hash)")
             );
 
+            final MutableList<PendingBlockId> pendingBlockIds = new MutableList<PendingBlockId>(rows.size());
+            for (final Row row : rows) {
+                final PendingBlockId pendingBlockId = PendingBlockId.wrap(row.getLong("id"));
+                pendingBlockIds.add(pendingBlockId);
+            }
+
+            _deletePendingBlocks(pendingBlockIds);
+
         }
         finally {
             WRITE_LOCK.unlock();
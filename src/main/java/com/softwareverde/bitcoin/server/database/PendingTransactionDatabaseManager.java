@@ -1,14 +1,7 @@
 package com.softwareverde.bitcoin.server.database;
 
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
-import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransaction;
 import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionId;
-import com.softwareverde.bitcoin.transaction.Transaction;
-import com.softwareverde.bitcoin.transaction.TransactionDeflater;
-import com.softwareverde.bitcoin.transaction.TransactionInflater;
-import com.softwareverde.bitcoin.transaction.input.TransactionInput;
-import com.softwareverde.constable.bytearray.ByteArray;
-import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
 import com.softwareverde.constable.list.mutable.MutableList;
@@ -23,7 +16,6 @@ import com.softwareverde.network.p2p.node.NodeId;
 import com.softwareverde.util.type.time.SystemTime;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -44,7 +36,7 @@ public class PendingTransactionDatabaseManager {
     protected PendingTransactionId _getPendingTransactionId(final Sha256Hash transactionHash) throws DatabaseException {
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id FROM pending_transactions WHERE hash = ?")
-                .setParameter(transactionHash)
+                .setParameter(transactionHash.getBytes())
         );
         if (rows.isEmpty()) { return null; }
 
@@ -57,7 +49,7 @@ public class PendingTransactionDatabaseManager {
         final Long priority = currentTimestamp;
         final Long pendingTransactionId = _databaseConnection.executeSql(
             new Query("INSERT IGNORE INTO pending_transactions (hash, timestamp, priority) VALUES (?, ?, ?)")
-                .setParameter(transactionHash)
+                .setParameter(transactionHash.getBytes())
                 .setParameter(currentTimestamp)
                 .setParameter(priority)
         );
@@ -70,14 +62,6 @@ public class PendingTransactionDatabaseManager {
         return PendingTransactionId.wrap(pendingTransactionId);
     }
 
-    protected void _insertPendingTransactionData(final PendingTransactionId pendingTransactionId, final ByteArray transactionData) throws DatabaseException {
-        _databaseConnection.executeSql(
-                new Query("INSERT IGNORE INTO pending_transaction_data (pending_transaction_id, data) VALUES (?, ?)")
-                        .setParameter(pendingTransactionId)
-                        .setParameter(transactionData.getBytes())
-        );
-    }
-
     protected void _deletePendingTransaction(final PendingTransactionId pendingTransactionId) throws DatabaseException {
         _databaseConnection.executeSql(
             new Query("DELETE FROM pending_transactions WHERE id = ?")
@@ -93,67 +77,6 @@ public class PendingTransactionDatabaseManager {
         );
     }
 
-    protected Boolean _hasTransactionData(final PendingTransactionId pendingTransactionId) throws DatabaseException {
-        final java.util.List<Row> rows = _databaseConnection.query(
-            new Query("SELECT id FROM pending_transaction_data WHERE pending_transaction_id = ?")
-                .setParameter(pendingTransactionId)
-        );
-        return (rows.size() > 0);
-    }
-
-    protected ByteArray _getTransactionData(final PendingTransactionId pendingTransactionId) throws DatabaseException {
-        final java.util.List<Row> rows = _databaseConnection.query(
-            new Query("SELECT id, data FROM pending_transaction_data WHERE pending_transaction_id = ?")
-                .setParameter(pendingTransactionId)
-        );
-        if (rows.isEmpty()) { return null; }
-
-        final Row row = rows.get(0);
-        return MutableByteArray.wrap(row.getBytes("data"));
-    }
-
-    protected PendingTransaction _getPendingTransaction(final PendingTransactionId pendingTransactionId, final Boolean includeDataIfAvailable) throws DatabaseException {
-        final java.util.List<Row> rows = _databaseConnection.query(
-            new Query("SELECT id, hash FROM pending_transactions WHERE id = ?")
-                .setParameter(pendingTransactionId)
-        );
-        if (rows.isEmpty()) { return null; }
-
-        final Row row = rows.get(0);
-        final Sha256Hash transactionHash = Sha256Hash.fromHexString(row.getString("hash"));
-        final ByteArray transactionData;
-        {
-            if (includeDataIfAvailable) {
-                transactionData = _getTransactionData(pendingTransactionId);
-            }
-            else {
-                transactionData = null;
-            }
-        }
-
-        return new PendingTransaction(transactionHash, transactionData);
-    }
-
-    protected void _updateTransactionDependencies(final Transaction transaction) throws DatabaseException {
-        final PendingTransactionId pendingTransactionId = _getPendingTransactionId(transaction.getHash());
-        if (pendingTransactionId == null) { return; }
-
-        final List<TransactionInput> transactionInputs = transaction.getTransactionInputs();
-        final HashSet<Sha256Hash> requiredTransactionHashes = new HashSet<Sha256Hash>(transactionInputs.getSize());
-        for (final TransactionInput transactionInput : transactionInputs) {
-            final Sha256Hash transactionHash = transactionInput.getPreviousOutputTransactionHash();
-            requiredTransactionHashes.add(transactionHash);
-        }
-        if (requiredTransactionHashes.isEmpty()) { return; }
-
-        final BatchedInsertQuery batchedInsertQuery = new BatchedInsertQuery("INSERT IGNORE INTO pending_transactions_dependent_transactions (pending_transaction_id, hash) VALUES (?, ?)");
-        for (final Sha256Hash transactionHash : requiredTransactionHashes) {
-            batchedInsertQuery.setParameter(pendingTransactionId);
-            batchedInsertQuery.setParameter(transactionHash);
-        }
-        _databaseConnection.executeSql(batchedInsertQuery);
-    }
-
     public PendingTransactionDatabaseManager(final MysqlDatabaseConnection databaseConnection) {
         _databaseConnection = databaseConnection;
     }
@@ -170,18 +93,6 @@ public class PendingTransactionDatabaseManager {
         }
     }
 
-    public Boolean hasTransactionData(final PendingTransactionId pendingTransactionId) throws DatabaseException {
-        try {
-            READ_LOCK.lock();
-
-            return _hasTransactionData(pendingTransactionId);
-
-        }
-        finally {
-            READ_LOCK.unlock();
-        }
-    }
-
     public Boolean pendingTransactionExists(final Sha256Hash transactionHash) throws DatabaseException {
         try {
             READ_LOCK.lock();
@@ -234,7 +145,7 @@ public class PendingTransactionDatabaseManager {
             final Long priority = currentTimestamp;
             final BatchedInsertQuery batchedInsertQuery = new BatchedInsertQuery("INSERT IGNORE INTO pending_transactions (hash, timestamp, priority) VALUES (?, ?, ?)");
             for (final Sha256Hash transactionHash : transactionHashes) {
-                batchedInsertQuery.setParameter(transactionHash);
+                batchedInsertQuery.setParameter(transactionHash.getBytes());
                 batchedInsertQuery.setParameter(currentTimestamp);
                 batchedInsertQuery.setParameter(priority);
             }
@@ -255,36 +166,6 @@ public class PendingTransactionDatabaseManager {
         }
     }
 
-    public PendingTransactionId storeTransaction(final Transaction transaction) throws DatabaseException {
-        try {
-            WRITE_LOCK.lock();
-
-            final Sha256Hash transactionHash = transaction.getHash();
-
-            final PendingTransactionId pendingTransactionId;
-            {
-                final PendingTransactionId existingPendingTransactionId = _getPendingTransactionId(transactionHash);
-                if (existingPendingTransactionId != null) {
-                    pendingTransactionId = existingPendingTransactionId;
-                }
-                else {
-                    pendingTransactionId = _storePendingTransaction(transactionHash);
-                }
-            }
-
-            final TransactionDeflater transactionDeflater = new TransactionDeflater();
-            _insertPendingTransactionData(pendingTransactionId, transactionDeflater.toBytes(transaction));
-
-            _updateTransactionDependencies(transaction);
-
-            return pendingTransactionId;
-
-        }
-        finally {
-            WRITE_LOCK.unlock();
-        }
-    }
-
     public Map<NodeId, ? extends List<PendingTransactionId>> selectIncompletePendingTransactions(final List<NodeId> connectedNodeIds) throws DatabaseException {
         try {
             READ_LOCK.lock();
@@ -292,7 +173,7 @@ public class PendingTransactionDatabaseManager {
             final Long minSecondsBetweenDownloadAttempts = 5L;
             final Long currentTimestamp = _systemTime.getCurrentTimeInSeconds();
             final java.util.List<Row> rows = _databaseConnection.query(
-                new Query("SELECT node_transactions_inventory.node_id, pending_transactions.id AS pending_transaction_id FROM pending_transactions LEFT OUTER JOIN pending_transaction_data ON pending_transactions.id = pending_transaction_data.pending_transaction_id INNER JOIN node_transactions_inventory ON node_transactions_inventory.pending_transaction_id = pending_transactions.id WHERE (pending_transaction_data.id IS NULL) AND ( (? - COALESCE(last_download_attempt_timestamp, 0)) > ? ) AND node_transactions_inventory.node_id IN (" + DatabaseUtil.createInClause(connectedNodeIds) + ") ORDER BY pending_transactions.priority ASC, pending_transactions.id ASC LIMIT 1024")
+                new Query("SELECT node_transactions_inventory.node_id, pending_transactions.id AS pending_transaction_id FROM pending_transactions INNER JOIN node_transactions_inventory ON node_transactions_inventory.pending_transaction_id = pending_transactions.id WHERE ( (? - COALESCE(last_download_attempt_timestamp, 0)) > ? ) AND node_transactions_inventory.node_id IN (" + DatabaseUtil.createInClause(connectedNodeIds) + ") ORDER BY pending_transactions.priority ASC, pending_transactions.id ASC LIMIT 1024")
                     .setParameter(currentTimestamp)
                     .setParameter(minSecondsBetweenDownloadAttempts)
             );
@@ -316,56 +197,6 @@ public class PendingTransactionDatabaseManager {
         }
     }
 
-    public List<PendingTransactionId> selectCandidatePendingTransactionIds() throws DatabaseException {
-        try {
-            READ_LOCK.lock();
-
-            final java.util.List<Row> rows = _databaseConnection.query(
-                new Query("SELECT pending_transactions.id, pending_transactions.hash FROM pending_transactions INNER JOIN pending_transaction_data ON pending_transaction_data.pending_transaction_id = pending_transactions.id WHERE NOT EXISTS (SELECT * FROM pending_transactions_dependent_transactions LEFT OUTER JOIN transactions ON transactions.hash = pending_transactions_dependent_transactions.hash WHERE (transactions.id IS NULL) AND (pending_transactions_dependent_transactions.pending_transaction_id = pending_transactions.id))")
-            );
-
-            final ImmutableListBuilder<PendingTransactionId> pendingTransactionIds = new ImmutableListBuilder<PendingTransactionId>(rows.size());
-            for (final Row row : rows) {
-                final PendingTransactionId pendingTransactionId = PendingTransactionId.wrap(row.getLong("id"));
-                pendingTransactionIds.add(pendingTransactionId);
-            }
-            return pendingTransactionIds.build();
-
-        }
-        finally {
-            READ_LOCK.unlock();
-        }
-    }
-
-    public Transaction getPendingTransaction(final PendingTransactionId pendingTransactionId) throws DatabaseException {
-        try {
-            READ_LOCK.lock();
-
-            final java.util.List<Row> rows = _databaseConnection.query(
-                new Query("SELECT pending_transactions.id, pending_transactions.hash, pending_transaction_data.data FROM pending_transactions INNER JOIN pending_transaction_data ON pending_transactions.id = pending_transaction_data.pending_transaction_id WHERE pending_transactions.id = ?")
-                    .setParameter(pendingTransactionId)
-            );
-            if (rows.isEmpty()) { return null; }
-
-            final Row row = rows.get(0);
-            final Sha256Hash transactionHash = Sha256Hash.fromHexString(row.getString("hash"));
-            final ByteArray transactionData = MutableByteArray.wrap(row.getBytes("data"));
-
-            final TransactionInflater transactionInflater = new TransactionInflater();
-            final Transaction transaction = transactionInflater.fromBytes(transactionData);
-            if (transaction == null) {
-                _deletePendingTransaction(pendingTransactionId);
-                Logger.log("NOTICE: Error inflating pending transaction: " + transactionHash + " " + transactionData);
-            }
-
-            return transaction;
-
-        }
-        finally {
-            READ_LOCK.unlock();
-        }
-    }
-
     public Sha256Hash getPendingTransactionHash(final PendingTransactionId pendingTransactionId) throws DatabaseException {
         try {
             READ_LOCK.lock();
@@ -377,7 +208,7 @@ public class PendingTransactionDatabaseManager {
             if (rows.isEmpty()) { return null; }
 
             final Row row = rows.get(0);
-            return Sha256Hash.fromHexString(row.getString("hash"));
+            return Sha256Hash.copyOf(row.getBytes("hash"));
 
         }
         finally {
@@ -438,7 +269,7 @@ public class PendingTransactionDatabaseManager {
             WRITE_LOCK.lock();
 
             final java.util.List<Row> rows = _databaseConnection.query(
-                new Query("SELECT pending_transactions.id FROM pending_transactions LEFT OUTER JOIN pending_transaction_data ON (pending_transactions.id = pending_transaction_data.pending_transaction_id) WHERE pending_transactions.failed_download_count > ? AND pending_transaction_data.id IS NULL")
+                new Query("SELECT pending_transactions.id FROM pending_transactions WHERE pending_transactions.failed_download_count > ?")
                     .setParameter(maxFailedDownloadCount)
             );
 
@@ -499,16 +330,4 @@ public class PendingTransactionDatabaseManager {
             WRITE_LOCK.unlock();
         }
     }
-
-    public void updateTransactionDependencies(final Transaction transaction) throws DatabaseException {
-        try {
-            WRITE_LOCK.lock();
-
-            _updateTransactionDependencies(transaction);
-
-        }
-        finally {
-            WRITE_LOCK.unlock();
-        }
-    }
 }
@@ -2,8 +2,12 @@ package com.softwareverde.bitcoin.server.database;
 
 import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.hash.Sha256Util;
 import com.softwareverde.bitcoin.hash.sha256.ImmutableSha256Hash;
+import com.softwareverde.bitcoin.hash.sha256.MutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.server.database.blockstore.BlockFileLocation;
+import com.softwareverde.bitcoin.server.database.blockstore.FlatFileBlockStore;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.bitcoin.transaction.ImmutableTransaction;
 import com.softwareverde.bitcoin.transaction.MutableTransaction;
@@ -97,7 +101,7 @@ public class TransactionDatabaseManager {
                 );
                 if (! rows.isEmpty()) {
                     final Row row = rows.get(0);
-                    final Sha256Hash lastTransactionHash = Sha256Hash.fromHexString(row.getString("hash"));
+                    final Sha256Hash lastTransactionHash = Sha256Hash.copyOf(row.getBytes("hash"));
                     if (Util.areEqual(lastTransactionHash, filterLastTransactionHash)) {
                         Logger.log("Restoring ExistingTransactionFilter. Last TransactionHash: " + lastTransactionHash);
 
@@ -129,7 +133,7 @@ public class TransactionDatabaseManager {
 
                 for (final Row row : rows) {
                     final long transactionId = row.getLong("id");
-                    final Sha256Hash transactionHash = Sha256Hash.fromHexString(row.getString("hash"));
+                    final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("hash"));
                     mutableBloomFilter.addItem(transactionHash);
                     if (transactionId > lastTransactionId) {
                         lastTransactionId = transactionId;
@@ -191,7 +195,7 @@ public class TransactionDatabaseManager {
 
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id FROM transactions WHERE hash = ?")
-                .setParameter(transactionHash)
+                .setParameter(transactionHash.getBytes())
         );
         if (rows.isEmpty()) { return null; }
 
@@ -206,7 +210,7 @@ public class TransactionDatabaseManager {
         final LockTime lockTime = transaction.getLockTime();
         _databaseConnection.executeSql(
             new Query("UPDATE transactions SET hash = ?, version = ?, lock_time = ? WHERE id = ?")
-                .setParameter(transaction.getHash())
+                .setParameter(transaction.getHash().getBytes())
                 .setParameter(transaction.getVersion())
                 .setParameter(lockTime.getValue())
                 .setParameter(transactionId)
@@ -283,7 +287,7 @@ public class TransactionDatabaseManager {
         final LockTime lockTime = transaction.getLockTime();
         final Long transactionIdLong = _databaseConnection.executeSql(
             new Query("INSERT INTO transactions (hash, version, lock_time) VALUES (?, ?, ?)")
-                .setParameter(transactionHash)
+                .setParameter(transactionHash.getBytes())
                 .setParameter(transaction.getVersion())
                 .setParameter(lockTime.getValue())
         );
@@ -315,7 +319,7 @@ public class TransactionDatabaseManager {
             final Sha256Hash transactionHash = transaction.getHash();
             final LockTime lockTime = transaction.getLockTime();
 
-            batchedInsertQuery.setParameter(transactionHash);
+            batchedInsertQuery.setParameter(transactionHash.getBytes());
             batchedInsertQuery.setParameter(transaction.getVersion());
             batchedInsertQuery.setParameter(lockTime.getValue());
 
@@ -350,7 +354,7 @@ public class TransactionDatabaseManager {
         final HashMap<Sha256Hash, TransactionId> transactionHashMap = new HashMap<Sha256Hash, TransactionId>(affectedRowCount);
         for (final Row row : rows) {
             final TransactionId transactionId = TransactionId.wrap(row.getLong("id"));
-            final Sha256Hash transactionHash = Sha256Hash.fromHexString(row.getString("hash"));
+            final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("hash"));
             transactionHashMap.put(transactionHash, transactionId);
 
             _databaseManagerCache.cacheTransactionId(transactionHash.asConst(), transactionId);
@@ -365,6 +369,47 @@ public class TransactionDatabaseManager {
         return transactionHashMap;
     }
 
+    protected Sha256Hash _getTransactionHash(final TransactionId transactionId) throws DatabaseException {
+        final Transaction cachedTransaction = _databaseManagerCache.getCachedTransaction(transactionId);
+        if (cachedTransaction != null) {
+            final Sha256Hash transactionHash = cachedTransaction.getHash();
+            _databaseManagerCache.cacheTransactionId(transactionHash.asConst(), transactionId);
+            return cachedTransaction.getHash();
+        }
+
+        final java.util.List<Row> rows = _databaseConnection.query(
+            new Query("SELECT id, hash FROM transactions WHERE id = ?")
+                .setParameter(transactionId)
+        );
+        if (rows.isEmpty()) { return null; }
+
+        final Row row = rows.get(0);
+        final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("hash"));
+
+        _databaseManagerCache.cacheTransactionId(transactionHash.asConst(), transactionId);
+
+        return transactionHash;
+    }
+
+    protected void _associateTransactionsToBlock(final List<TransactionId> transactionIds, final BlockId blockId, final List<BlockFileLocation> transactionLocations) throws DatabaseException {
+        synchronized (BLOCK_TRANSACTIONS_WRITE_MUTEX) {
+            final BatchedInsertQuery batchedInsertQuery = new BatchedInsertQuery("INSERT INTO block_transactions (block_id, transaction_id, sort_order, byte_offset, byte_count) VALUES (?, ?, ?, ?, ?)");
+            int sortOrder = 0;
+            for (final TransactionId transactionId : transactionIds) {
+                final BlockFileLocation transactionLocation = (transactionLocations != null ? transactionLocations.get(sortOrder) : null);
+
+                batchedInsertQuery.setParameter(blockId);
+                batchedInsertQuery.setParameter(transactionId);
+                batchedInsertQuery.setParameter(sortOrder);
+                batchedInsertQuery.setParameter(transactionLocation != null ? transactionLocation.getByteOffset() : null);
+                batchedInsertQuery.setParameter(transactionLocation != null ? transactionLocation.getByteCount() : null);
+                sortOrder += 1;
+            }
+
+            _databaseConnection.executeSql(batchedInsertQuery);
+        }
+    }
+
     protected Transaction _inflateTransaction(final TransactionId transactionId, final Boolean shouldUpdateUnspentOutputCache) throws DatabaseException {
         final Transaction cachedTransaction = _databaseManagerCache.getCachedTransaction(transactionId);
         if (cachedTransaction != null) { return cachedTransaction; }
@@ -409,7 +454,7 @@ public class TransactionDatabaseManager {
             transactionHash = transaction.getHash();
 
             { // Validate inflated transaction hash...
-                final Sha256Hash expectedTransactionHash = Sha256Hash.fromHexString(row.getString("hash"));
+                final Sha256Hash expectedTransactionHash = Sha256Hash.copyOf(row.getBytes("hash"));
                 if (! Util.areEqual(expectedTransactionHash, transactionHash)) {
                     Logger.log("ERROR: Error inflating transaction: " + expectedTransactionHash);
                     return null;
@@ -500,11 +545,11 @@ public class TransactionDatabaseManager {
             final Integer falsePositiveCount;
             { // Of the "possibly seen" transactions, prove they've actually been seen...
                 final java.util.List<Row> rows = _databaseConnection.query(
-                    new Query("SELECT id, hash FROM transactions WHERE hash IN (" + DatabaseUtil.createInClause(possiblySeenTransactionHashes) + ")")
+                    new Query("SELECT id, hash FROM transactions WHERE hash IN (" + DatabaseUtil.createBinaryInClause(possiblySeenTransactionHashes) + ")")
                 );
                 for (final Row row : rows) {
                     final TransactionId transactionId = TransactionId.wrap(row.getLong("id"));
-                    final Sha256Hash transactionHash = Sha256Hash.fromHexString(row.getString("hash"));
+                    final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("hash"));
 
                     // The existence of the transaction is confirmed, so definitively mark the transaction as seen...
                     existingTransactions.put(transactionHash, transactionId);
@@ -610,44 +655,54 @@ public class TransactionDatabaseManager {
     }
 
     public void associateTransactionsToBlock(final List<TransactionId> transactionIds, final BlockId blockId) throws DatabaseException {
-        synchronized (BLOCK_TRANSACTIONS_WRITE_MUTEX) {
-            final BatchedInsertQuery batchedInsertQuery = new BatchedInsertQuery("INSERT INTO block_transactions (block_id, transaction_id, sort_order) VALUES (?, ?, ?)");
-            int sortOrder = 0;
-            for (final TransactionId transactionId : transactionIds) {
-                batchedInsertQuery.setParameter(blockId);
-                batchedInsertQuery.setParameter(transactionId);
-                batchedInsertQuery.setParameter(sortOrder);
-                sortOrder += 1;
-            }
-
-            _databaseConnection.executeSql(batchedInsertQuery);
-        }
+        _associateTransactionsToBlock(transactionIds, blockId, null);
     }
 
-    public TransactionId getTransactionId(final Sha256Hash transactionHash) throws DatabaseException {
-        return _getTransactionIdFromHash(transactionHash);
+    /**
+     * Associates the Transactions to the Block, recording the location of each Transaction within the block store.
+     *  If transactionLocations is null, the Transactions are associated without a location.
+     */
+    public void associateTransactionsToBlock(final List<TransactionId> transactionIds, final BlockId blockId, final List<BlockFileLocation> transactionLocations) throws DatabaseException {
+        _associateTransactionsToBlock(transactionIds, blockId, transactionLocations);
     }
 
-    public Sha256Hash getTransactionHash(final TransactionId transactionId) throws DatabaseException {
-        final Transaction cachedTransaction = _databaseManagerCache.getCachedTransaction(transactionId);
-        if (cachedTransaction != null) {
-            final Sha256Hash transactionHash = cachedTransaction.getHash();
-            _databaseManagerCache.cacheTransactionId(transactionHash.asConst(), transactionId);
-            return cachedTransaction.getHash();
-        }
+    /**
+     * Returns the serialized Transaction from the block store, without inflating it.
+     *  Returns null if the Transaction is unconfirmed, the block store is disabled, the Transaction was stored before it was enabled,
+     *  or the stored bytes do not hash to the Transaction's hash.
+     */
+    public ByteArray getTransactionBytes(final TransactionId transactionId) throws DatabaseException {
+        final FlatFileBlockStore blockStore = BlockDatabaseManager.BLOCK_STORE;
+        if (blockStore == null) { return null; }
 
         final java.util.List<Row> rows = _databaseConnection.query(
-            new Query("SELECT id, hash FROM transactions WHERE id = ?")
+            new Query("SELECT blocks.block_file_index, block_transactions.byte_offset, block_transactions.byte_count FROM block_transactions INNER JOIN blocks ON blocks.id = block_transactions.block_id WHERE block_transactions.transaction_id = ? AND block_transactions.byte_offset IS NOT NULL AND blocks.block_file_index IS NOT NULL LIMIT 1")
                 .setParameter(transactionId)
         );
         if (rows.isEmpty()) { return null; }
 
         final Row row = rows.get(0);
-        final Sha256Hash transactionHash = Sha256Hash.fromHexString(row.getString("hash"));
+        final BlockFileLocation transactionLocation = new BlockFileLocation(row.getInteger("block_file_index"), row.getLong("byte_offset"), row.getInteger("byte_count"));
+        final ByteArray transactionBytes = blockStore.readBytes(transactionLocation);
+        if (transactionBytes == null) { return null; }
+
+        final Sha256Hash transactionHash = _getTransactionHash(transactionId);
+        final byte[] bytes = transactionBytes.getBytes();
+        final Sha256Hash storedTransactionHash = MutableSha256Hash.wrap(Sha256Util.doubleSha256ReversedEndian(bytes, 0, bytes.length));
+        if (! Util.areEqual(transactionHash, storedTransactionHash)) {
+            Logger.log("NOTICE: Invalid Transaction within the block store: " + transactionHash);
+            return null;
+        }
 
-        _databaseManagerCache.cacheTransactionId(transactionHash.asConst(), transactionId);
+        return transactionBytes;
+    }
 
-        return transactionHash;
+    public TransactionId getTransactionId(final Sha256Hash transactionHash) throws DatabaseException {
+        return _getTransactionIdFromHash(transactionHash);
+    }
+
+    public Sha256Hash getTransactionHash(final TransactionId transactionId) throws DatabaseException {
+        return _getTransactionHash(transactionId);
     }
 
     public Transaction getTransaction(final TransactionId transactionId) throws DatabaseException {
@@ -759,6 +814,41 @@ public class TransactionDatabaseManager {
         return _getBlockIds(transactionId);
     }
 
+    /**
+     * Returns the BlockIds of the blocks containing each Transaction, using set-based queries of at most
+     *  TransactionOutputDatabaseManager.MAX_IN_CLAUSE_ITEM_COUNT hashes each.
+     *  Transactions that are not stored (or not mined) are absent from the returned map.
+     */
+    public Map<Sha256Hash, List<BlockId>> getBlockIds(final List<Sha256Hash> transactionHashes) throws DatabaseException {
+        final HashMap<Sha256Hash, MutableList<BlockId>> blockIds = new HashMap<Sha256Hash, MutableList<BlockId>>(transactionHashes.getSize());
+
+        final int transactionHashCount = transactionHashes.getSize();
+        for (int batchStartIndex = 0; batchStartIndex < transactionHashCount; batchStartIndex += TransactionOutputDatabaseManager.MAX_IN_CLAUSE_ITEM_COUNT) {
+            final int batchEndIndex = Math.min(transactionHashCount, (batchStartIndex + TransactionOutputDatabaseManager.MAX_IN_CLAUSE_ITEM_COUNT));
+            final MutableList<Sha256Hash> transactionHashBatch = new MutableList<Sha256Hash>(batchEndIndex - batchStartIndex);
+            for (int i = batchStartIndex; i < batchEndIndex; ++i) {
+                transactionHashBatch.add(transactionHashes.get(i));
+            }
+
+            final java.util.List<Row> rows = _databaseConnection.query(
+                new Query("SELECT transactions.hash, block_transactions.block_id FROM transactions INNER JOIN block_transactions ON block_transactions.transaction_id = transactions.id WHERE transactions.hash IN (" + DatabaseUtil.createBinaryInClause(transactionHashBatch) + ")")
+            );
+            for (final Row row : rows) {
+                final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("hash"));
+                final BlockId blockId = BlockId.wrap(row.getLong("block_id"));
+
+                MutableList<BlockId> transactionBlockIds = blockIds.get(transactionHash);
+                if (transactionBlockIds == null) {
+                    transactionBlockIds = new MutableList<BlockId>(1);
+                    blockIds.put(transactionHash, transactionBlockIds);
+                }
+                transactionBlockIds.add(blockId);
+            }
+        }
+
+        return new HashMap<Sha256Hash, List<BlockId>>(blockIds);
+    }
+
     public void updateTransaction(final Transaction transaction) throws DatabaseException {
         _databaseManagerCache.invalidateTransactionIdCache();
         _databaseManagerCache.invalidateTransactionCache();
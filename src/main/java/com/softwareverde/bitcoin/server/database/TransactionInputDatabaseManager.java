@@ -1,5 +1,6 @@
 package com.softwareverde.bitcoin.server.database;
 
+import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.hash.sha256.ImmutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
@@ -24,11 +25,13 @@ import com.softwareverde.database.Query;
 import com.softwareverde.database.Row;
 import com.softwareverde.database.mysql.BatchedInsertQuery;
 import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.util.DatabaseUtil;
 import com.softwareverde.io.Logger;
 import com.softwareverde.util.Util;
 import com.softwareverde.util.timer.MilliTimer;
 import com.softwareverde.util.timer.NanoTimer;
 
+import java.util.HashMap;
 import java.util.Map;
 
 public class TransactionInputDatabaseManager {
@@ -309,7 +312,7 @@ public class TransactionInputDatabaseManager {
             }
             else {
                 final Row previousOutputTransactionRow = previousOutputTransactionRows.get(0);
-                previousOutputTransactionHash = Sha256Hash.fromHexString(previousOutputTransactionRow.getString("hash"));
+                previousOutputTransactionHash = Sha256Hash.copyOf(previousOutputTransactionRow.getBytes("hash"));
                 previousOutputIndex = previousOutputTransactionRow.getInteger("index");
             }
         }
@@ -452,4 +455,40 @@ public class TransactionInputDatabaseManager {
         }
         return transactionInputIds;
     }
+
+    /**
+     * Returns the BlockIds of the blocks containing a Transaction that spends each TransactionOutput,
+     *  using set-based queries of at most TransactionOutputDatabaseManager.MAX_IN_CLAUSE_ITEM_COUNT ids each.
+     *  A BlockId is listed once per spending Transaction it contains; unconfirmed spends are not included.
+     *  TransactionOutputs that have not been spent within any block are absent from the returned map.
+     */
+    public Map<TransactionOutputId, List<BlockId>> getSpendingBlockIds(final List<TransactionOutputId> transactionOutputIds) throws DatabaseException {
+        final HashMap<TransactionOutputId, MutableList<BlockId>> blockIds = new HashMap<TransactionOutputId, MutableList<BlockId>>();
+
+        final int transactionOutputCount = transactionOutputIds.getSize();
+        for (int batchStartIndex = 0; batchStartIndex < transactionOutputCount; batchStartIndex += TransactionOutputDatabaseManager.MAX_IN_CLAUSE_ITEM_COUNT) {
+            final int batchEndIndex = Math.min(transactionOutputCount, (batchStartIndex + TransactionOutputDatabaseManager.MAX_IN_CLAUSE_ITEM_COUNT));
+            final MutableList<TransactionOutputId> transactionOutputIdBatch = new MutableList<TransactionOutputId>(batchEndIndex - batchStartIndex);
+            for (int i = batchStartIndex; i < batchEndIndex; ++i) {
+                transactionOutputIdBatch.add(transactionOutputIds.get(i));
+            }
+
+            final java.util.List<Row> rows = _databaseConnection.query(
+                new Query("SELECT transaction_inputs.previous_transaction_output_id, block_transactions.block_id FROM transaction_inputs INNER JOIN block_transactions ON block_transactions.transaction_id = transaction_inputs.transaction_id WHERE transaction_inputs.previous_transaction_output_id IN (" + DatabaseUtil.createInClause(transactionOutputIdBatch) + ")")
+            );
+            for (final Row row : rows) {
+                final TransactionOutputId transactionOutputId = TransactionOutputId.wrap(row.getLong("previous_transaction_output_id"));
+                final BlockId blockId = BlockId.wrap(row.getLong("block_id"));
+
+                MutableList<BlockId> spendingBlockIds = blockIds.get(transactionOutputId);
+                if (spendingBlockIds == null) {
+                    spendingBlockIds = new MutableList<BlockId>(1);
+                    blockIds.put(transactionOutputId, spendingBlockIds);
+                }
+                spendingBlockIds.add(blockId);
+            }
+        }
+
+        return new HashMap<TransactionOutputId, List<BlockId>>(blockIds);
+    }
 }
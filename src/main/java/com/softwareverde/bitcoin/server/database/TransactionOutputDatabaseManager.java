@@ -3,6 +3,7 @@ package com.softwareverde.bitcoin.server.database;
 import com.softwareverde.bitcoin.address.AddressId;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
+import com.softwareverde.bitcoin.server.database.cache.utxo.UnspentTransactionOutputWriteBackCache;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionId;
 import com.softwareverde.bitcoin.transaction.input.TransactionInputId;
@@ -71,6 +72,8 @@ public class TransactionOutputDatabaseManager {
         return transactionOutputId;
     }
 
+    public static final Integer MAX_IN_CLAUSE_ITEM_COUNT = 1024;
+
     public static final AtomicInteger cacheMiss = new AtomicInteger(0);
     public static final AtomicInteger cacheHit = new AtomicInteger(0);
 
@@ -91,7 +94,7 @@ public class TransactionOutputDatabaseManager {
 
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT id, transaction_output_id FROM unspent_transaction_outputs WHERE transaction_hash = ? AND `index` = ?")
-                .setParameter(transactionHash)
+                .setParameter(transactionHash.getBytes())
                 .setParameter(transactionOutputIndex)
         );
 
@@ -119,17 +122,39 @@ public class TransactionOutputDatabaseManager {
             transactionHash = nullableTransactionHash;
         }
 
-        _databaseConnection.executeSql(
-            new Query("INSERT INTO unspent_transaction_outputs (transaction_output_id, transaction_hash, `index`) VALUES (?, ?, ?)")
-                .setParameter(transactionOutputId)
-                .setParameter(transactionHash)
-                .setParameter(transactionOutputIndex)
-        );
+        final UnspentTransactionOutputWriteBackCache unspentTransactionOutputWriteBackCache = _databaseManagerCache.getUnspentTransactionOutputWriteBackCache();
+        if (unspentTransactionOutputWriteBackCache != null) {
+            unspentTransactionOutputWriteBackCache.addUnspentTransactionOutput(transactionHash, transactionOutputIndex, transactionOutputId);
+        }
+        else {
+            _databaseConnection.executeSql(
+                new Query("INSERT INTO unspent_transaction_outputs (transaction_output_id, transaction_hash, `index`) VALUES (?, ?, ?)")
+                    .setParameter(transactionOutputId)
+                    .setParameter(transactionHash.getBytes())
+                    .setParameter(transactionOutputIndex)
+            );
+        }
 
         _databaseManagerCache.cacheUnspentTransactionOutputId(transactionHash, transactionOutputIndex, transactionOutputId);
     }
 
     protected void _insertUnspentTransactionOutputs(final List<TransactionOutputId> transactionOutputIds, final List<UnspentTransactionOutputs> unspentTransactionOutputsList) throws DatabaseException {
+        final UnspentTransactionOutputWriteBackCache unspentTransactionOutputWriteBackCache = _databaseManagerCache.getUnspentTransactionOutputWriteBackCache();
+        if (unspentTransactionOutputWriteBackCache != null) {
+            int transactionOutputIdIndex = 0;
+            for (final UnspentTransactionOutputs unspentTransactionOutputs : unspentTransactionOutputsList) {
+                for (final Integer unspentTransactionOutputIndex : unspentTransactionOutputs.unspentTransactionOutputIndices) {
+                    final TransactionOutputId transactionOutputId = transactionOutputIds.get(transactionOutputIdIndex);
+
+                    unspentTransactionOutputWriteBackCache.addUnspentTransactionOutput(unspentTransactionOutputs.transactionHash, unspentTransactionOutputIndex, transactionOutputId);
+                    _databaseManagerCache.cacheUnspentTransactionOutputId(unspentTransactionOutputs.transactionHash, unspentTransactionOutputIndex, transactionOutputId);
+
+                    transactionOutputIdIndex += 1;
+                }
+            }
+            return;
+        }
+
         final BatchedInsertQuery batchedInsertQuery = new BatchedInsertQuery("INSERT INTO unspent_transaction_outputs (transaction_output_id, transaction_hash, `index`) VALUES (?, ?, ?)");
         int transactionOutputIdIndex = 0;
         for (final UnspentTransactionOutputs unspentTransactionOutputs : unspentTransactionOutputsList) {
@@ -137,7 +162,7 @@ public class TransactionOutputDatabaseManager {
                 final TransactionOutputId transactionOutputId = transactionOutputIds.get(transactionOutputIdIndex);
 
                 batchedInsertQuery.setParameter(transactionOutputId);
-                batchedInsertQuery.setParameter(unspentTransactionOutputs.transactionHash);
+                batchedInsertQuery.setParameter(unspentTransactionOutputs.transactionHash.getBytes());
                 batchedInsertQuery.setParameter(unspentTransactionOutputIndex);
 
                 _databaseManagerCache.cacheUnspentTransactionOutputId(unspentTransactionOutputs.transactionHash, unspentTransactionOutputIndex, transactionOutputId);
@@ -406,13 +431,108 @@ public class TransactionOutputDatabaseManager {
         return _getTransactionOutput(transactionOutputId);
     }
 
+    /**
+     * Resolves the TransactionOutputId of each TransactionOutputIdentifier.
+     *  Identifiers are first resolved via the in-memory UTXO cache; the remainder are resolved with set-based queries
+     *  of at most MAX_IN_CLAUSE_ITEM_COUNT transaction hashes each, instead of one query per identifier.
+     *  Identifiers that could not be resolved are absent from the returned map.
+     */
+    public Map<TransactionOutputIdentifier, TransactionOutputId> findTransactionOutputs(final List<TransactionOutputIdentifier> transactionOutputIdentifiers) throws DatabaseException {
+        final HashMap<TransactionOutputIdentifier, TransactionOutputId> transactionOutputIds = new HashMap<TransactionOutputIdentifier, TransactionOutputId>(transactionOutputIdentifiers.getSize());
+
+        final HashSet<TransactionOutputIdentifier> unresolvedTransactionOutputIdentifiers = new HashSet<TransactionOutputIdentifier>();
+        final HashSet<Sha256Hash> unresolvedTransactionHashes = new HashSet<Sha256Hash>();
+        for (final TransactionOutputIdentifier transactionOutputIdentifier : transactionOutputIdentifiers) {
+            final Sha256Hash transactionHash = transactionOutputIdentifier.getTransactionHash();
+            final Integer transactionOutputIndex = transactionOutputIdentifier.getOutputIndex();
+
+            final TransactionOutputId cachedUnspentTransactionOutputId = _databaseManagerCache.getCachedUnspentTransactionOutputId(transactionHash, transactionOutputIndex);
+            if (cachedUnspentTransactionOutputId != null) {
+                cacheHit.incrementAndGet();
+                transactionOutputIds.put(transactionOutputIdentifier, cachedUnspentTransactionOutputId);
+                continue;
+            }
+
+            unresolvedTransactionOutputIdentifiers.add(transactionOutputIdentifier);
+            unresolvedTransactionHashes.add(transactionHash);
+        }
+
+        if (unresolvedTransactionHashes.isEmpty()) { return transactionOutputIds; }
+        cacheMiss.addAndGet(unresolvedTransactionOutputIdentifiers.size());
+
+        final List<Sha256Hash> transactionHashes = new MutableList<Sha256Hash>(unresolvedTransactionHashes);
+        final int transactionHashCount = transactionHashes.getSize();
+        for (int batchStartIndex = 0; batchStartIndex < transactionHashCount; batchStartIndex += MAX_IN_CLAUSE_ITEM_COUNT) {
+            final int batchEndIndex = Math.min(transactionHashCount, (batchStartIndex + MAX_IN_CLAUSE_ITEM_COUNT));
+            final MutableList<Sha256Hash> transactionHashBatch = new MutableList<Sha256Hash>(batchEndIndex - batchStartIndex);
+            for (int i = batchStartIndex; i < batchEndIndex; ++i) {
+                transactionHashBatch.add(transactionHashes.get(i));
+            }
+
+            final java.util.List<Row> rows = _databaseConnection.query(
+                new Query("SELECT transactions.hash, transaction_outputs.id, transaction_outputs.`index` FROM transactions INNER JOIN transaction_outputs ON transaction_outputs.transaction_id = transactions.id WHERE transactions.hash IN (" + DatabaseUtil.createBinaryInClause(transactionHashBatch) + ")")
+            );
+            for (final Row row : rows) {
+                final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("hash"));
+                final Integer transactionOutputIndex = row.getInteger("index");
+
+                final TransactionOutputIdentifier transactionOutputIdentifier = new TransactionOutputIdentifier(transactionHash, transactionOutputIndex);
+                if (! unresolvedTransactionOutputIdentifiers.contains(transactionOutputIdentifier)) { continue; } // The query returns every output of the Transaction, not just the ones being spent...
+
+                transactionOutputIds.put(transactionOutputIdentifier, TransactionOutputId.wrap(row.getLong("id")));
+            }
+        }
+
+        return transactionOutputIds;
+    }
+
+    /**
+     * Loads the TransactionOutput (including its LockingScript) for each TransactionOutputId,
+     *  using set-based queries of at most MAX_IN_CLAUSE_ITEM_COUNT ids each.
+     *  TransactionOutputIds that could not be loaded are absent from the returned map.
+     */
+    public Map<TransactionOutputId, TransactionOutput> getTransactionOutputs(final List<TransactionOutputId> transactionOutputIds) throws DatabaseException {
+        final int transactionOutputCount = transactionOutputIds.getSize();
+        final HashMap<TransactionOutputId, TransactionOutput> transactionOutputs = new HashMap<TransactionOutputId, TransactionOutput>(transactionOutputCount);
+
+        for (int batchStartIndex = 0; batchStartIndex < transactionOutputCount; batchStartIndex += MAX_IN_CLAUSE_ITEM_COUNT) {
+            final int batchEndIndex = Math.min(transactionOutputCount, (batchStartIndex + MAX_IN_CLAUSE_ITEM_COUNT));
+            final MutableList<TransactionOutputId> transactionOutputIdBatch = new MutableList<TransactionOutputId>(batchEndIndex - batchStartIndex);
+            for (int i = batchStartIndex; i < batchEndIndex; ++i) {
+                transactionOutputIdBatch.add(transactionOutputIds.get(i));
+            }
+
+            final java.util.List<Row> rows = _databaseConnection.query(
+                new Query("SELECT transaction_outputs.id, transaction_outputs.`index`, transaction_outputs.amount, locking_scripts.script FROM transaction_outputs INNER JOIN locking_scripts ON locking_scripts.transaction_output_id = transaction_outputs.id WHERE transaction_outputs.id IN (" + DatabaseUtil.createInClause(transactionOutputIdBatch) + ")")
+            );
+            for (final Row row : rows) {
+                final TransactionOutputId transactionOutputId = TransactionOutputId.wrap(row.getLong("id"));
+                final LockingScript lockingScript = new ImmutableLockingScript(MutableByteArray.wrap(row.getBytes("script")));
+
+                final MutableTransactionOutput mutableTransactionOutput = new MutableTransactionOutput();
+                mutableTransactionOutput.setIndex(row.getInteger("index"));
+                mutableTransactionOutput.setAmount(row.getLong("amount"));
+                mutableTransactionOutput.setLockingScript(lockingScript);
+                transactionOutputs.put(transactionOutputId, mutableTransactionOutput);
+            }
+        }
+
+        return transactionOutputs;
+    }
+
     public void markTransactionOutputAsSpent(final TransactionOutputId transactionOutputId, final TransactionOutputIdentifier transactionOutputIdentifier) throws DatabaseException {
         if (transactionOutputId == null) { return; }
 
-        _databaseConnection.executeSql(
-            new Query("DELETE FROM unspent_transaction_outputs WHERE transaction_output_id = ?")
-                .setParameter(transactionOutputId)
-        );
+        final UnspentTransactionOutputWriteBackCache unspentTransactionOutputWriteBackCache = _databaseManagerCache.getUnspentTransactionOutputWriteBackCache();
+        if (unspentTransactionOutputWriteBackCache != null) {
+            unspentTransactionOutputWriteBackCache.spendTransactionOutput(transactionOutputIdentifier, transactionOutputId);
+        }
+        else {
+            _databaseConnection.executeSql(
+                new Query("DELETE FROM unspent_transaction_outputs WHERE transaction_output_id = ?")
+                    .setParameter(transactionOutputId)
+            );
+        }
 
         _databaseManagerCache.invalidateUnspentTransactionOutputId(transactionOutputIdentifier);
     }
@@ -420,6 +540,18 @@ public class TransactionOutputDatabaseManager {
     public void markTransactionOutputsAsSpent(final List<TransactionOutputId> transactionOutputIds, final List<TransactionOutputIdentifier> transactionOutputIdentifiers) throws DatabaseException {
         if (transactionOutputIds.isEmpty()) { return; }
 
+        final UnspentTransactionOutputWriteBackCache unspentTransactionOutputWriteBackCache = _databaseManagerCache.getUnspentTransactionOutputWriteBackCache();
+        if (unspentTransactionOutputWriteBackCache != null) {
+            for (int i = 0; i < transactionOutputIds.getSize(); ++i) {
+                final TransactionOutputId transactionOutputId = transactionOutputIds.get(i);
+                final TransactionOutputIdentifier transactionOutputIdentifier = transactionOutputIdentifiers.get(i);
+                unspentTransactionOutputWriteBackCache.spendTransactionOutput(transactionOutputIdentifier, transactionOutputId);
+            }
+
+            _databaseManagerCache.invalidateUnspentTransactionOutputIds(transactionOutputIdentifiers);
+            return;
+        }
+
         final Query batchedUpdateQuery = new BatchedUpdateQuery("DELETE FROM unspent_transaction_outputs WHERE transaction_output_id IN (?)");
         for (final TransactionOutputId transactionOutputId : transactionOutputIds) {
             batchedUpdateQuery.setParameter(transactionOutputId);
@@ -0,0 +1,216 @@
+package com.softwareverde.bitcoin.server.database;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.server.database.cache.utxo.UnspentTransactionOutputWriteBackCache;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutputId;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.Query;
+import com.softwareverde.database.Row;
+import com.softwareverde.database.mysql.BatchedInsertQuery;
+import com.softwareverde.database.mysql.BatchedUpdateQuery;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.util.TransactionUtil;
+import com.softwareverde.io.Logger;
+import com.softwareverde.util.timer.MilliTimer;
+import com.softwareverde.util.type.time.SystemTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Writes the changes buffered by the UnspentTransactionOutputWriteBackCache to unspent_transaction_outputs.
+ *  Each flush is written within a single database transaction that also records the highest Block height included by the flush
+ *  within committed_unspent_transaction_outputs.  A NULL height indicates that every stored Block has been written to unspent_transaction_outputs.
+ *  If the node is not shut down cleanly, the changes of the Blocks above the committed height are replayed from the stored Blocks by
+ *  replayUncommittedBlocks.
+ *  NOTE: The changes of a Block processed at (or below) the committed height after the flush (i.e. a fork) are not replayed; since
+ *  unspent_transaction_outputs only accelerates looking up TransactionOutputIds, the omission only affects performance.
+ */
+public class UnspentTransactionOutputDatabaseManager {
+    public static final Integer FLUSH_BATCH_SIZE = 4096;
+
+    protected final SystemTime _systemTime = new SystemTime();
+    protected final MysqlDatabaseConnection _databaseConnection;
+
+    protected void _setCommittedBlockHeight(final Long blockHeight) throws DatabaseException {
+        final Long now = _systemTime.getCurrentTimeInSeconds();
+
+        if (blockHeight == null) {
+            _databaseConnection.executeSql(
+                new Query("UPDATE committed_unspent_transaction_outputs SET block_height = NULL, timestamp = ? WHERE id = 1")
+                    .setParameter(now)
+            );
+            return;
+        }
+
+        _databaseConnection.executeSql(
+            new Query("UPDATE committed_unspent_transaction_outputs SET block_height = ?, timestamp = ? WHERE id = 1")
+                .setParameter(blockHeight)
+                .setParameter(now)
+        );
+    }
+
+    protected void _insertUnspentTransactionOutputs(final ArrayList<TransactionOutputIdentifier> transactionOutputIdentifiers, final Map<TransactionOutputIdentifier, TransactionOutputId> unspentTransactionOutputs) throws DatabaseException {
+        int batchStartIndex = 0;
+        while (batchStartIndex < transactionOutputIdentifiers.size()) {
+            final int batchEndIndex = Math.min((batchStartIndex + FLUSH_BATCH_SIZE), transactionOutputIdentifiers.size());
+
+            // NOTE: The TransactionOutput may have been deleted (e.g. an unconfirmed Transaction) since the UTXO was buffered...
+            final BatchedInsertQuery batchedInsertQuery = new BatchedInsertQuery("INSERT IGNORE INTO unspent_transaction_outputs (transaction_output_id, transaction_hash, `index`) VALUES (?, ?, ?)");
+            for (int i = batchStartIndex; i < batchEndIndex; ++i) {
+                final TransactionOutputIdentifier transactionOutputIdentifier = transactionOutputIdentifiers.get(i);
+                final TransactionOutputId transactionOutputId = unspentTransactionOutputs.get(transactionOutputIdentifier);
+
+                batchedInsertQuery.setParameter(transactionOutputId);
+                batchedInsertQuery.setParameter(transactionOutputIdentifier.getTransactionHash().getBytes());
+                batchedInsertQuery.setParameter(transactionOutputIdentifier.getOutputIndex());
+            }
+            _databaseConnection.executeSql(batchedInsertQuery);
+
+            batchStartIndex = batchEndIndex;
+        }
+    }
+
+    protected void _deleteSpentTransactionOutputs(final ArrayList<TransactionOutputId> transactionOutputIds) throws DatabaseException {
+        int batchStartIndex = 0;
+        while (batchStartIndex < transactionOutputIds.size()) {
+            final int batchEndIndex = Math.min((batchStartIndex + FLUSH_BATCH_SIZE), transactionOutputIds.size());
+
+            final Query batchedUpdateQuery = new BatchedUpdateQuery("DELETE FROM unspent_transaction_outputs WHERE transaction_output_id IN (?)");
+            for (int i = batchStartIndex; i < batchEndIndex; ++i) {
+                batchedUpdateQuery.setParameter(transactionOutputIds.get(i));
+            }
+            _databaseConnection.executeSql(batchedUpdateQuery);
+
+            batchStartIndex = batchEndIndex;
+        }
+    }
+
+    public UnspentTransactionOutputDatabaseManager(final MysqlDatabaseConnection databaseConnection) {
+        _databaseConnection = databaseConnection;
+    }
+
+    /**
+     * Returns the highest Block height whose changes have been flushed, or null if every stored Block's changes have been written.
+     */
+    public Long getCommittedBlockHeight() throws DatabaseException {
+        final java.util.List<Row> rows = _databaseConnection.query(
+            new Query("SELECT block_height FROM committed_unspent_transaction_outputs WHERE id = 1")
+        );
+        if (rows.isEmpty()) { return null; }
+
+        final Row row = rows.get(0);
+        return row.getLong("block_height");
+    }
+
+    /**
+     * Records blockHeight as the height whose changes have been written; if null, every stored Block's changes are considered written.
+     *  Must be called with the head Block's height when the write-back cache is enabled, and with null when it is disabled.
+     */
+    public void setCommittedBlockHeight(final Long blockHeight) throws DatabaseException {
+        _setCommittedBlockHeight(blockHeight);
+    }
+
+    /**
+     * Writes the changes held by the unspentTransactionOutputWriteBackCache within a single database transaction.
+     *  New UTXOs are inserted in (transaction_hash, index) order and spent UTXOs are deleted in transaction_output_id order, so that
+     *  each batch's index updates are sequential.  If the flush fails, the changes are returned to the cache.
+     *  Must not be called while within a database transaction.
+     */
+    public void flushUnspentTransactionOutputs(final UnspentTransactionOutputWriteBackCache unspentTransactionOutputWriteBackCache) throws DatabaseException {
+        final UnspentTransactionOutputWriteBackCache.UnflushedChanges unflushedChanges = unspentTransactionOutputWriteBackCache.takeUnflushedChanges();
+        if (unflushedChanges.blockHeight == null) {
+            unspentTransactionOutputWriteBackCache.restoreUnflushedChanges(unflushedChanges);
+            return;
+        }
+
+        final MilliTimer flushTimer = new MilliTimer();
+        flushTimer.start();
+
+        final ArrayList<TransactionOutputIdentifier> transactionOutputIdentifiers = new ArrayList<TransactionOutputIdentifier>(unflushedChanges.unspentTransactionOutputs.keySet());
+        Collections.sort(transactionOutputIdentifiers, new Comparator<TransactionOutputIdentifier>() {
+            @Override
+            public int compare(final TransactionOutputIdentifier transactionOutputIdentifier0, final TransactionOutputIdentifier transactionOutputIdentifier1) {
+                final int hashCompare = transactionOutputIdentifier0.getTransactionHash().compareTo(transactionOutputIdentifier1.getTransactionHash());
+                if (hashCompare != 0) { return hashCompare; }
+                return transactionOutputIdentifier0.getOutputIndex().compareTo(transactionOutputIdentifier1.getOutputIndex());
+            }
+        });
+
+        final ArrayList<TransactionOutputId> spentTransactionOutputIds = new ArrayList<TransactionOutputId>(unflushedChanges.spentTransactionOutputIds);
+        Collections.sort(spentTransactionOutputIds, new Comparator<TransactionOutputId>() {
+            @Override
+            public int compare(final TransactionOutputId transactionOutputId0, final TransactionOutputId transactionOutputId1) {
+                return Long.compare(transactionOutputId0.longValue(), transactionOutputId1.longValue());
+            }
+        });
+
+        try {
+            TransactionUtil.startTransaction(_databaseConnection);
+            _insertUnspentTransactionOutputs(transactionOutputIdentifiers, unflushedChanges.unspentTransactionOutputs);
+            _deleteSpentTransactionOutputs(spentTransactionOutputIds);
+            _setCommittedBlockHeight(unflushedChanges.blockHeight);
+            TransactionUtil.commitTransaction(_databaseConnection);
+        }
+        catch (final DatabaseException exception) {
+            TransactionUtil.rollbackTransaction(_databaseConnection);
+            unspentTransactionOutputWriteBackCache.restoreUnflushedChanges(unflushedChanges);
+            throw exception;
+        }
+
+        flushTimer.stop();
+        Logger.log("NOTICE: Flushed " + transactionOutputIdentifiers.size() + " new and " + spentTransactionOutputIds.size() + " spent UTXOs through Block height " + unflushedChanges.blockHeight + " in " + flushTimer.getMillisecondsElapsed() + "ms.");
+    }
+
+    /**
+     * Rewrites the UTXO changes of each stored Block above the committed height, in ascending height order.
+     *  The outputs created by the Block are inserted unless they already exist, and the outputs spent by its inputs are deleted.
+     *  Each Block is committed along with its height (or rolled back if it fails), so an interrupted replay is resumed by calling replayUncommittedBlocks again.
+     *  Returns the number of Blocks replayed.  Must not be called while within a database transaction.
+     */
+    public Integer replayUncommittedBlocks() throws DatabaseException {
+        final Long committedBlockHeight = getCommittedBlockHeight();
+        if (committedBlockHeight == null) { return 0; }
+
+        final java.util.List<Row> rows = _databaseConnection.query(
+            new Query("SELECT blocks.id, blocks.block_height FROM blocks WHERE blocks.block_height > ? AND EXISTS (SELECT 1 FROM block_transactions WHERE block_transactions.block_id = blocks.id) ORDER BY blocks.block_height ASC, blocks.id ASC")
+                .setParameter(committedBlockHeight)
+        );
+
+        if (! rows.isEmpty()) {
+            Logger.log("NOTICE: Replaying the UTXOs of " + rows.size() + " Blocks above height " + committedBlockHeight + ".");
+        }
+
+        for (final Row row : rows) {
+            final BlockId blockId = BlockId.wrap(row.getLong("id"));
+            final Long blockHeight = row.getLong("block_height");
+
+            try {
+                TransactionUtil.startTransaction(_databaseConnection);
+
+                _databaseConnection.executeSql(
+                    new Query("INSERT INTO unspent_transaction_outputs (transaction_output_id, transaction_hash, `index`) SELECT transaction_outputs.id, transactions.hash, transaction_outputs.`index` FROM block_transactions INNER JOIN transactions ON transactions.id = block_transactions.transaction_id INNER JOIN transaction_outputs ON transaction_outputs.transaction_id = transactions.id WHERE block_transactions.block_id = ? AND NOT EXISTS (SELECT 1 FROM unspent_transaction_outputs WHERE unspent_transaction_outputs.transaction_output_id = transaction_outputs.id) ORDER BY transactions.hash ASC, transaction_outputs.`index` ASC")
+                        .setParameter(blockId)
+                );
+
+                _databaseConnection.executeSql(
+                    new Query("DELETE unspent_transaction_outputs FROM block_transactions INNER JOIN transaction_inputs ON transaction_inputs.transaction_id = block_transactions.transaction_id INNER JOIN unspent_transaction_outputs ON unspent_transaction_outputs.transaction_output_id = transaction_inputs.previous_transaction_output_id WHERE block_transactions.block_id = ?")
+                        .setParameter(blockId)
+                );
+
+                _setCommittedBlockHeight(blockHeight);
+
+                TransactionUtil.commitTransaction(_databaseConnection);
+            }
+            catch (final DatabaseException exception) {
+                TransactionUtil.rollbackTransaction(_databaseConnection);
+                throw exception;
+            }
+        }
+
+        return rows.size();
+    }
+}
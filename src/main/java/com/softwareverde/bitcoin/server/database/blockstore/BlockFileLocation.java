@@ -0,0 +1,34 @@
+package com.softwareverde.bitcoin.server.database.blockstore;
+
+/**
+ * The position of a serialized Block (or one of its Transactions) within the FlatFileBlockStore.
+ *  The byteOffset is relative to the beginning of the segment file identified by fileIndex.
+ */
+public class BlockFileLocation {
+    protected final Integer _fileIndex;
+    protected final Long _byteOffset;
+    protected final Integer _byteCount;
+
+    public BlockFileLocation(final Integer fileIndex, final Long byteOffset, final Integer byteCount) {
+        _fileIndex = fileIndex;
+        _byteOffset = byteOffset;
+        _byteCount = byteCount;
+    }
+
+    public Integer getFileIndex() {
+        return _fileIndex;
+    }
+
+    public Long getByteOffset() {
+        return _byteOffset;
+    }
+
+    public Integer getByteCount() {
+        return _byteCount;
+    }
+
+    @Override
+    public String toString() {
+        return (_fileIndex + ":" + _byteOffset + "+" + _byteCount);
+    }
+}
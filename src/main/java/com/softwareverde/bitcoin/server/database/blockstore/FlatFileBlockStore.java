@@ -0,0 +1,326 @@
+package com.softwareverde.bitcoin.server.database.blockstore;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.header.BlockHeaderDeflater;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionDeflater;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.io.Logger;
+import com.softwareverde.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An append-only store of serialized Blocks.
+ *  Blocks are appended, in their network serialization, to segment files (blk00000.dat, blk00001.dat, ...) within the store's directory;
+ *  a new segment is started once the current segment would exceed the max segment byte count.  The location of each Block and of each of
+ *  its Transactions is returned to the caller, which is responsible for persisting it (i.e. within the blocks and block_transactions tables).
+ *  Reads are served from read-only memory-mapped windows of each segment, so serving a Block is a single copy of its byte range
+ *  (a range that spans windows is copied from each of them).  At most maxMappedWindowCount windows remain mapped; the least recently
+ *  read window is released first.
+ *  Bytes are never overwritten or removed; a Block whose location was not persisted (e.g. its database transaction was rolled back) only wastes space.
+ *  Each Block is synced to disk before its location is returned, so a location persisted by a committed database transaction never
+ *  references incomplete bytes after a crash.
+ */
+public class FlatFileBlockStore implements AutoCloseable {
+    public static class StoredBlock {
+        public final BlockFileLocation blockLocation;
+        public final List<BlockFileLocation> transactionLocations;
+
+        public StoredBlock(final BlockFileLocation blockLocation, final List<BlockFileLocation> transactionLocations) {
+            this.blockLocation = blockLocation;
+            this.transactionLocations = transactionLocations;
+        }
+    }
+
+    public static final Long DEFAULT_MAX_SEGMENT_BYTE_COUNT = (128L * ByteUtil.Unit.MEGABYTES);
+    public static final Long DEFAULT_MAPPED_WINDOW_BYTE_COUNT = (16L * ByteUtil.Unit.MEGABYTES);
+    public static final Integer DEFAULT_MAX_MAPPED_WINDOW_COUNT = 64;
+
+    protected static class MappedWindowKey {
+        public final Integer fileIndex;
+        public final Long windowIndex;
+
+        public MappedWindowKey(final Integer fileIndex, final Long windowIndex) {
+            this.fileIndex = fileIndex;
+            this.windowIndex = windowIndex;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (! (object instanceof MappedWindowKey)) { return false; }
+            final MappedWindowKey mappedWindowKey = (MappedWindowKey) object;
+
+            if (! Util.areEqual(this.fileIndex, mappedWindowKey.fileIndex)) { return false; }
+            if (! Util.areEqual(this.windowIndex, mappedWindowKey.windowIndex)) { return false; }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return (this.fileIndex.hashCode() + this.windowIndex.hashCode());
+        }
+    }
+
+    protected static String _getSegmentFileName(final Integer fileIndex) {
+        return String.format("blk%05d.dat", fileIndex);
+    }
+
+    protected final File _directory;
+    protected final Long _maxSegmentByteCount;
+    protected final Long _mappedWindowByteCount;
+    protected final Integer _maxMappedWindowCount;
+
+    protected final Object _writeMutex = new Object();
+    protected Integer _segmentIndex = null;
+    protected RandomAccessFile _segmentFile = null;
+    protected Long _segmentByteCount = 0L;
+
+    protected final LinkedHashMap<MappedWindowKey, MappedByteBuffer> _mappedWindows; // Ordered from least to most recently read...
+
+    protected File _getSegmentFile(final Integer fileIndex) {
+        return new File(_directory, _getSegmentFileName(fileIndex));
+    }
+
+    /**
+     * Opens the segment at fileIndex for appending.  Must be called while holding the _writeMutex.
+     */
+    protected void _openSegment(final Integer fileIndex) throws IOException {
+        if (_segmentFile != null) {
+            _segmentFile.getChannel().force(false);
+            _segmentFile.close();
+        }
+
+        final RandomAccessFile segmentFile = new RandomAccessFile(_getSegmentFile(fileIndex), "rw");
+        _segmentIndex = fileIndex;
+        _segmentFile = segmentFile;
+        _segmentByteCount = segmentFile.length();
+    }
+
+    /**
+     * Returns a read-only mapping of the window of the segment at fileIndex that spans at least requiredByteCount bytes of the window.
+     *  Windows are _mappedWindowByteCount bytes, so the most recent segment's last window is the only mapping that is replaced as Blocks
+     *  are appended, and a replacement never maps more than a single window.
+     *  Returns null if the segment does not contain requiredByteCount bytes of the window.
+     */
+    protected MappedByteBuffer _getMappedWindow(final Integer fileIndex, final Long windowIndex, final Long requiredByteCount) throws IOException {
+        final MappedWindowKey mappedWindowKey = new MappedWindowKey(fileIndex, windowIndex);
+        synchronized (_mappedWindows) {
+            final MappedByteBuffer cachedMappedWindow = _mappedWindows.get(mappedWindowKey); // NOTE: Marks the window as the most recently read...
+            if ( (cachedMappedWindow != null) && (cachedMappedWindow.capacity() >= requiredByteCount) ) {
+                return cachedMappedWindow;
+            }
+
+            final File segmentFile = _getSegmentFile(fileIndex);
+            if (! segmentFile.isFile()) { return null; }
+
+            try (final RandomAccessFile randomAccessFile = new RandomAccessFile(segmentFile, "r")) {
+                final long windowByteOffset = (windowIndex * _mappedWindowByteCount);
+                final long windowByteCount = Math.min(_mappedWindowByteCount, (randomAccessFile.length() - windowByteOffset));
+                if (windowByteCount < requiredByteCount) { return null; }
+
+                final MappedByteBuffer mappedWindow = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, windowByteOffset, windowByteCount);
+                _mappedWindows.put(mappedWindowKey, mappedWindow); // NOTE: May release the least recently read window, which is unmapped once it is no longer referenced...
+                return mappedWindow; // NOTE: The mapping remains valid after the file is closed...
+            }
+        }
+    }
+
+    public FlatFileBlockStore(final String directory) {
+        this(directory, DEFAULT_MAX_SEGMENT_BYTE_COUNT);
+    }
+
+    public FlatFileBlockStore(final String directory, final Long maxSegmentByteCount) {
+        this(directory, maxSegmentByteCount, DEFAULT_MAPPED_WINDOW_BYTE_COUNT);
+    }
+
+    public FlatFileBlockStore(final String directory, final Long maxSegmentByteCount, final Long mappedWindowByteCount) {
+        this(directory, maxSegmentByteCount, mappedWindowByteCount, DEFAULT_MAX_MAPPED_WINDOW_COUNT);
+    }
+
+    public FlatFileBlockStore(final String directory, final Long maxSegmentByteCount, final Long mappedWindowByteCount, final Integer maxMappedWindowCount) {
+        _directory = new File(directory);
+        _maxSegmentByteCount = maxSegmentByteCount;
+        _mappedWindowByteCount = mappedWindowByteCount;
+        _maxMappedWindowCount = maxMappedWindowCount;
+        _mappedWindows = new LinkedHashMap<MappedWindowKey, MappedByteBuffer>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<MappedWindowKey, MappedByteBuffer> eldestEntry) {
+                return (this.size() > _maxMappedWindowCount);
+            }
+        };
+    }
+
+    /**
+     * Creates the store's directory (if necessary) and opens the most recent segment for appending.
+     *  Returns false if the store could not be opened.
+     */
+    public Boolean open() {
+        synchronized (_writeMutex) {
+            if ( (! _directory.isDirectory()) && (! _directory.mkdirs()) ) {
+                Logger.log("NOTICE: Unable to create block store directory: " + _directory.getPath());
+                return false;
+            }
+
+            int lastFileIndex = 0;
+            while (_getSegmentFile(lastFileIndex + 1).isFile()) {
+                lastFileIndex += 1;
+            }
+
+            try {
+                _openSegment(lastFileIndex);
+            }
+            catch (final IOException exception) {
+                Logger.log(exception);
+                return false;
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Appends the serialized Block to the store and returns the location of the Block and of each of its Transactions.
+     *  The Block is synced to disk before returning, so that its location may be safely persisted.
+     *  Returns null if the Block could not be written.
+     */
+    public StoredBlock storeBlock(final Block block) {
+        final BlockHeaderDeflater blockHeaderDeflater = new BlockHeaderDeflater();
+        final TransactionDeflater transactionDeflater = new TransactionDeflater();
+
+        final List<Transaction> transactions = block.getTransactions();
+        final int transactionCount = transactions.getSize();
+
+        final byte[] blockHeaderBytes = blockHeaderDeflater.toBytes(block).getBytes();
+        final byte[] transactionCountBytes = ByteUtil.variableLengthIntegerToBytes(transactionCount);
+        final byte[][] transactionBytes = new byte[transactionCount][];
+
+        int blockByteCount = (blockHeaderBytes.length + transactionCountBytes.length);
+        for (int i = 0; i < transactionCount; ++i) {
+            final Transaction transaction = transactions.get(i);
+            transactionBytes[i] = transactionDeflater.toBytes(transaction).getBytes();
+            blockByteCount += transactionBytes[i].length;
+        }
+
+        final byte[] blockBytes = new byte[blockByteCount];
+        final int[] transactionByteOffsets = new int[transactionCount];
+        {
+            int byteOffset = 0;
+            System.arraycopy(blockHeaderBytes, 0, blockBytes, byteOffset, blockHeaderBytes.length);
+            byteOffset += blockHeaderBytes.length;
+            System.arraycopy(transactionCountBytes, 0, blockBytes, byteOffset, transactionCountBytes.length);
+            byteOffset += transactionCountBytes.length;
+
+            for (int i = 0; i < transactionCount; ++i) {
+                transactionByteOffsets[i] = byteOffset;
+                System.arraycopy(transactionBytes[i], 0, blockBytes, byteOffset, transactionBytes[i].length);
+                byteOffset += transactionBytes[i].length;
+            }
+        }
+
+        final Integer fileIndex;
+        final Long blockByteOffset;
+        synchronized (_writeMutex) {
+            if (_segmentFile == null) { return null; }
+
+            try {
+                if ( (_segmentByteCount > 0L) && ((_segmentByteCount + blockByteCount) > _maxSegmentByteCount) ) {
+                    _openSegment(_segmentIndex + 1);
+                }
+
+                fileIndex = _segmentIndex;
+                blockByteOffset = _segmentByteCount;
+
+                final FileChannel fileChannel = _segmentFile.getChannel();
+                final ByteBuffer byteBuffer = ByteBuffer.wrap(blockBytes);
+                long writePosition = blockByteOffset;
+                while (byteBuffer.hasRemaining()) {
+                    writePosition += fileChannel.write(byteBuffer, writePosition);
+                }
+                fileChannel.force(false);
+
+                _segmentByteCount += blockByteCount;
+            }
+            catch (final IOException exception) {
+                Logger.log(exception);
+                return null;
+            }
+        }
+
+        final ImmutableListBuilder<BlockFileLocation> transactionLocations = new ImmutableListBuilder<BlockFileLocation>(transactionCount);
+        for (int i = 0; i < transactionCount; ++i) {
+            transactionLocations.add(new BlockFileLocation(fileIndex, (blockByteOffset + transactionByteOffsets[i]), transactionBytes[i].length));
+        }
+
+        return new StoredBlock(new BlockFileLocation(fileIndex, blockByteOffset, blockByteCount), transactionLocations.build());
+    }
+
+    /**
+     * Returns the bytes at the provided location, or null if the location is not within the store.
+     *  A location that spans more than one window is copied from each of its (mapped) windows in turn.
+     */
+    public ByteArray readBytes(final BlockFileLocation blockFileLocation) {
+        final Integer fileIndex = blockFileLocation.getFileIndex();
+        final Long byteOffset = blockFileLocation.getByteOffset();
+        final Integer byteCount = blockFileLocation.getByteCount();
+
+        try {
+            final byte[] bytes = new byte[byteCount];
+
+            int readByteCount = 0;
+            while (readByteCount < byteCount) {
+                final long readPosition = (byteOffset + readByteCount);
+                final Long windowIndex = (readPosition / _mappedWindowByteCount);
+                final Long windowByteOffset = (readPosition - (windowIndex * _mappedWindowByteCount));
+                final int windowReadByteCount = (int) Math.min((byteCount - readByteCount), (_mappedWindowByteCount - windowByteOffset));
+
+                final MappedByteBuffer mappedWindow = _getMappedWindow(fileIndex, windowIndex, (windowByteOffset + windowReadByteCount));
+                if (mappedWindow == null) { return null; }
+
+                final ByteBuffer byteBuffer = mappedWindow.duplicate(); // NOTE: Duplicated so that concurrent reads do not share a position...
+                byteBuffer.position(windowByteOffset.intValue());
+                byteBuffer.get(bytes, readByteCount, windowReadByteCount);
+
+                readByteCount += windowReadByteCount;
+            }
+
+            return MutableByteArray.wrap(bytes);
+        }
+        catch (final IOException exception) {
+            Logger.log(exception);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (_writeMutex) {
+            if (_segmentFile != null) {
+                try {
+                    _segmentFile.getChannel().force(false);
+                    _segmentFile.close();
+                }
+                catch (final IOException exception) {
+                    Logger.log(exception);
+                }
+                _segmentFile = null;
+            }
+        }
+
+        synchronized (_mappedWindows) {
+            _mappedWindows.clear();
+        }
+    }
+}
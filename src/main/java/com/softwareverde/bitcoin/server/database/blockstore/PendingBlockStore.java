@@ -0,0 +1,122 @@
+package com.softwareverde.bitcoin.server.database.blockstore;
+
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.io.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A spool of downloaded Blocks that have not yet been processed.
+ *  Each Block is written, in its network serialization, to its own file (named by its hash) with a single sequential write;
+ *  the file is written under a temporary name and renamed once complete, so a spooled file is never partially written.
+ *  Reads are served from a read-only memory-mapping of the file.
+ *  The caller is responsible for recording which Blocks have been spooled (i.e. within the pending_block_data table) and for
+ *  removing a Block's file once it has been processed; a recorded Block without a file is treated as not having been downloaded.
+ */
+public class PendingBlockStore {
+    protected static final String DATA_FILE_EXTENSION = ".dat";
+    protected static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+    protected final File _directory;
+
+    protected File _getBlockFile(final Sha256Hash blockHash) {
+        return new File(_directory, (blockHash + DATA_FILE_EXTENSION));
+    }
+
+    public PendingBlockStore(final String directory) {
+        _directory = new File(directory);
+    }
+
+    /**
+     * Creates the spool's directory (if necessary) and removes any files left incomplete by a previous shutdown.
+     *  Returns false if the spool could not be opened.
+     */
+    public Boolean open() {
+        if ( (! _directory.isDirectory()) && (! _directory.mkdirs()) ) {
+            Logger.log("NOTICE: Unable to create pending block directory: " + _directory.getPath());
+            return false;
+        }
+
+        final File[] files = _directory.listFiles();
+        if (files == null) { return false; }
+
+        for (final File file : files) {
+            if (file.getName().endsWith(TEMPORARY_FILE_EXTENSION)) {
+                if (! file.delete()) {
+                    Logger.log("NOTICE: Unable to delete incomplete pending block: " + file.getPath());
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes the serialized Block to the spool, replacing any existing copy.
+     *  Returns false if the Block could not be written.
+     */
+    public Boolean storeBlockData(final Sha256Hash blockHash, final ByteArray blockData) {
+        final File blockFile = _getBlockFile(blockHash);
+        final File temporaryFile = new File(_directory, (blockHash + "-" + Thread.currentThread().getId() + TEMPORARY_FILE_EXTENSION)); // NOTE: Unique per thread, since the same Block may be downloaded concurrently from multiple peers...
+
+        try {
+            try (final RandomAccessFile randomAccessFile = new RandomAccessFile(temporaryFile, "rw")) {
+                final FileChannel fileChannel = randomAccessFile.getChannel();
+                final ByteBuffer byteBuffer = ByteBuffer.wrap(blockData.getBytes());
+                while (byteBuffer.hasRemaining()) {
+                    fileChannel.write(byteBuffer);
+                }
+            }
+
+            Files.move(temporaryFile.toPath(), blockFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        }
+        catch (final IOException exception) {
+            Logger.log(exception);
+            temporaryFile.delete();
+            return false;
+        }
+    }
+
+    public Boolean hasBlockData(final Sha256Hash blockHash) {
+        final File blockFile = _getBlockFile(blockHash);
+        return blockFile.isFile();
+    }
+
+    /**
+     * Returns the serialized Block, or null if the Block is not within the spool.
+     */
+    public ByteArray getBlockData(final Sha256Hash blockHash) {
+        final File blockFile = _getBlockFile(blockHash);
+        if (! blockFile.isFile()) { return null; }
+
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(blockFile, "r")) {
+            final FileChannel fileChannel = randomAccessFile.getChannel();
+            final MappedByteBuffer mappedBlock = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0L, fileChannel.size());
+
+            final byte[] bytes = new byte[mappedBlock.capacity()];
+            mappedBlock.get(bytes);
+            return MutableByteArray.wrap(bytes);
+        }
+        catch (final IOException exception) { // NOTE: The file may have been removed by another thread after it was checked...
+            Logger.log(exception);
+            return null;
+        }
+    }
+
+    public void removeBlockData(final Sha256Hash blockHash) {
+        final File blockFile = _getBlockFile(blockHash);
+        if ( blockFile.exists() && (! blockFile.delete()) ) {
+            Logger.log("NOTICE: Unable to delete pending block: " + blockFile.getPath());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.hash.sha256.ImmutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.server.database.cache.utxo.UnspentTransactionOutputWriteBackCache;
 import com.softwareverde.bitcoin.transaction.ImmutableTransaction;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionId;
@@ -37,6 +38,9 @@ public interface DatabaseManagerCache extends AutoCloseable {
     void invalidateUnspentTransactionOutputId(TransactionOutputIdentifier transactionOutputId);
     void invalidateUnspentTransactionOutputIds(List<TransactionOutputIdentifier> transactionOutputIds);
 
+    // UNSPENT TRANSACTION OUTPUT WRITE-BACK CACHE ---------------------------------------------------------------------
+    UnspentTransactionOutputWriteBackCache getUnspentTransactionOutputWriteBackCache(); // Returns null if changes to unspent_transaction_outputs are to be written directly...
+
     // BLOCK BLOCK CHAIN SEGMENT ID CACHE ------------------------------------------------------------------------------
     void cacheBlockchainSegmentId(BlockId blockId, BlockchainSegmentId blockchainSegmentId);
     BlockchainSegmentId getCachedBlockchainSegmentId(BlockId blockId);
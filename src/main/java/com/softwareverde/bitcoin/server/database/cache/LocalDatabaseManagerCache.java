@@ -8,6 +8,7 @@ import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.server.database.cache.conscientious.DisabledUnspentTransactionOutputCache;
 import com.softwareverde.bitcoin.server.database.cache.utxo.NativeUnspentTransactionOutputCache;
 import com.softwareverde.bitcoin.server.database.cache.utxo.UnspentTransactionOutputCache;
+import com.softwareverde.bitcoin.server.database.cache.utxo.UnspentTransactionOutputWriteBackCache;
 import com.softwareverde.bitcoin.server.database.cache.utxo.UtxoCount;
 import com.softwareverde.bitcoin.transaction.ImmutableTransaction;
 import com.softwareverde.bitcoin.transaction.Transaction;
@@ -25,6 +26,8 @@ public class LocalDatabaseManagerCache implements DatabaseManagerCache {
         else {
             _unspentTransactionOutputCache = new DisabledUnspentTransactionOutputCache(); // MemoryConscientiousCache.wrap(0.95F, new JvmUnspentTransactionOutputCache());
         }
+
+        _unspentTransactionOutputWriteBackCache = null;
     }
 
     public LocalDatabaseManagerCache(final MasterDatabaseManagerCache masterCache) {
@@ -43,6 +46,15 @@ public class LocalDatabaseManagerCache implements DatabaseManagerCache {
         _addressIdCache.setMasterCache(masterCache.getAddressIdCache());
         _blockHeightCache.setMasterCache(masterCache.getBlockHeightCache());
         _unspentTransactionOutputCache.setMasterCache(masterCache.getUnspentTransactionOutputCache());
+
+        final UnspentTransactionOutputWriteBackCache masterUnspentTransactionOutputWriteBackCache = masterCache.getUnspentTransactionOutputWriteBackCache();
+        if (masterUnspentTransactionOutputWriteBackCache != null) {
+            _unspentTransactionOutputWriteBackCache = new UnspentTransactionOutputWriteBackCache(0L);
+            _unspentTransactionOutputWriteBackCache.setMasterCache(masterUnspentTransactionOutputWriteBackCache);
+        }
+        else {
+            _unspentTransactionOutputWriteBackCache = null;
+        }
     }
 
     @Override
@@ -216,7 +228,11 @@ public class LocalDatabaseManagerCache implements DatabaseManagerCache {
 
     @Override
     public TransactionOutputId getCachedUnspentTransactionOutputId(final Sha256Hash transactionHash, final Integer transactionOutputIndex) {
-        return _unspentTransactionOutputCache.getCachedUnspentTransactionOutputId(transactionHash, transactionOutputIndex);
+        final TransactionOutputId transactionOutputId = _unspentTransactionOutputCache.getCachedUnspentTransactionOutputId(transactionHash, transactionOutputIndex);
+        if (transactionOutputId != null) { return transactionOutputId; }
+
+        if (_unspentTransactionOutputWriteBackCache == null) { return null; }
+        return _unspentTransactionOutputWriteBackCache.getUnspentTransactionOutputId(transactionHash, transactionOutputIndex);
     }
 
     @Override
@@ -233,6 +249,15 @@ public class LocalDatabaseManagerCache implements DatabaseManagerCache {
 
     // -----------------------------------------------------------------------------------------------------------------
 
+    // UNSPENT TRANSACTION OUTPUT WRITE-BACK CACHE ---------------------------------------------------------------------
+
+    protected final UnspentTransactionOutputWriteBackCache _unspentTransactionOutputWriteBackCache;
+
+    @Override
+    public UnspentTransactionOutputWriteBackCache getUnspentTransactionOutputWriteBackCache() { return _unspentTransactionOutputWriteBackCache; }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
     @Override
     public void close() {
         _unspentTransactionOutputCache.close();
@@ -8,6 +8,7 @@ import com.softwareverde.bitcoin.server.database.cache.conscientious.DisabledUns
 import com.softwareverde.bitcoin.server.database.cache.conscientious.MemoryConscientiousCache;
 import com.softwareverde.bitcoin.server.database.cache.utxo.NativeUnspentTransactionOutputCache;
 import com.softwareverde.bitcoin.server.database.cache.utxo.UnspentTransactionOutputCache;
+import com.softwareverde.bitcoin.server.database.cache.utxo.UnspentTransactionOutputWriteBackCache;
 import com.softwareverde.bitcoin.server.database.cache.utxo.UtxoCount;
 import com.softwareverde.bitcoin.transaction.ImmutableTransaction;
 import com.softwareverde.bitcoin.transaction.TransactionId;
@@ -32,10 +33,19 @@ public class MasterDatabaseManagerCache implements AutoCloseable {
     protected final MutableCache<String, AddressId> _addressIdCache                                                 = MemoryConscientiousCache.wrap(0.95F, new DisabledCache<String, AddressId>());
     protected final MutableCache<BlockId, Long> _blockHeightCache                                                   = MemoryConscientiousCache.wrap(0.95F, new HashMapCache<BlockId, Long>("BlockHeightCache", 2048));
     protected final UnspentTransactionOutputCache _unspentTransactionOutputCache;
+    protected final UnspentTransactionOutputWriteBackCache _unspentTransactionOutputWriteBackCache;
 
     protected final UtxoCount _maxCachedUtxoCount;
 
     public MasterDatabaseManagerCache(final Long maxUtxoCacheByteCount) {
+        this(maxUtxoCacheByteCount, 0L);
+    }
+
+    /**
+     * When maxUtxoWriteBackByteCount is positive, changes to unspent_transaction_outputs made by committed LocalDatabaseManagerCaches
+     *  are buffered within the UnspentTransactionOutputWriteBackCache and must be flushed by the owner of this cache.
+     */
+    public MasterDatabaseManagerCache(final Long maxUtxoCacheByteCount, final Long maxUtxoWriteBackByteCount) {
         final UtxoCount maxUtxoCount = NativeUnspentTransactionOutputCache.calculateMaxUtxoCountFromMemoryUsage(maxUtxoCacheByteCount);
         _maxCachedUtxoCount = maxUtxoCount;
 
@@ -46,6 +56,14 @@ public class MasterDatabaseManagerCache implements AutoCloseable {
         else {
             _unspentTransactionOutputCache = new DisabledUnspentTransactionOutputCache(); // MemoryConscientiousCache.wrap(0.95F, new JvmUnspentTransactionOutputCache());
         }
+
+        if (maxUtxoWriteBackByteCount > 0L) {
+            Logger.log("UnspentTransactionOutputWriteBackCache max byte count: " + maxUtxoWriteBackByteCount);
+            _unspentTransactionOutputWriteBackCache = new UnspentTransactionOutputWriteBackCache(maxUtxoWriteBackByteCount);
+        }
+        else {
+            _unspentTransactionOutputWriteBackCache = null;
+        }
     }
 
     public Cache<TransactionId, ImmutableTransaction> getTransactionCache() { return _transactionCache; }
@@ -55,6 +73,7 @@ public class MasterDatabaseManagerCache implements AutoCloseable {
     public Cache<String, AddressId> getAddressIdCache() { return _addressIdCache; }
     public Cache<BlockId, Long> getBlockHeightCache() { return _blockHeightCache; }
     public UnspentTransactionOutputCache getUnspentTransactionOutputCache() { return _unspentTransactionOutputCache; }
+    public UnspentTransactionOutputWriteBackCache getUnspentTransactionOutputWriteBackCache() { return _unspentTransactionOutputWriteBackCache; }
 
     public void commitLocalDatabaseManagerCache(final LocalDatabaseManagerCache localDatabaseManagerCache) {
         _commitToCache(localDatabaseManagerCache.getTransactionIdCache(), _transactionIdCache);
@@ -65,6 +84,11 @@ public class MasterDatabaseManagerCache implements AutoCloseable {
         _commitToCache(localDatabaseManagerCache.getBlockHeightCache(), _blockHeightCache);
 
         _unspentTransactionOutputCache.commit(localDatabaseManagerCache.getUnspentTransactionOutputCache());
+
+        final UnspentTransactionOutputWriteBackCache localUnspentTransactionOutputWriteBackCache = localDatabaseManagerCache.getUnspentTransactionOutputWriteBackCache();
+        if ( (_unspentTransactionOutputWriteBackCache != null) && (localUnspentTransactionOutputWriteBackCache != null) ) {
+            _unspentTransactionOutputWriteBackCache.commit(localUnspentTransactionOutputWriteBackCache);
+        }
     }
 
     public void commit() {
@@ -78,5 +102,9 @@ public class MasterDatabaseManagerCache implements AutoCloseable {
     @Override
     public void close() {
         _unspentTransactionOutputCache.close();
+
+        if (_unspentTransactionOutputWriteBackCache != null) {
+            _unspentTransactionOutputWriteBackCache.close();
+        }
     }
 }
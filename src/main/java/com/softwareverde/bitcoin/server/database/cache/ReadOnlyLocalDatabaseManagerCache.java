@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.hash.sha256.ImmutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.server.database.cache.utxo.UnspentTransactionOutputWriteBackCache;
 import com.softwareverde.bitcoin.transaction.ImmutableTransaction;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionId;
@@ -62,7 +63,13 @@ public class ReadOnlyLocalDatabaseManagerCache implements DatabaseManagerCache {
 
     @Override
     public TransactionOutputId getCachedUnspentTransactionOutputId(final Sha256Hash transactionHash, final Integer transactionOutputIndex) {
-        return _masterDatabaseManagerCache.getUnspentTransactionOutputCache().getCachedUnspentTransactionOutputId(transactionHash, transactionOutputIndex);
+        final TransactionOutputId transactionOutputId = _masterDatabaseManagerCache.getUnspentTransactionOutputCache().getCachedUnspentTransactionOutputId(transactionHash, transactionOutputIndex);
+        if (transactionOutputId != null) { return transactionOutputId; }
+
+        final UnspentTransactionOutputWriteBackCache unspentTransactionOutputWriteBackCache = _masterDatabaseManagerCache.getUnspentTransactionOutputWriteBackCache();
+        if (unspentTransactionOutputWriteBackCache == null) { return null; }
+
+        return unspentTransactionOutputWriteBackCache.getUnspentTransactionOutputId(transactionHash, transactionOutputIndex);
     }
 
     @Override
@@ -71,6 +78,9 @@ public class ReadOnlyLocalDatabaseManagerCache implements DatabaseManagerCache {
     @Override
     public void invalidateUnspentTransactionOutputIds(final List<TransactionOutputIdentifier> transactionOutputIds) { }
 
+    @Override
+    public UnspentTransactionOutputWriteBackCache getUnspentTransactionOutputWriteBackCache() { return null; } // NOTE: Read-only changes are written directly, since they are never committed to the master cache...
+
     @Override
     public void cacheBlockchainSegmentId(final BlockId blockId, final BlockchainSegmentId blockchainSegmentId) { }
 
@@ -0,0 +1,195 @@
+package com.softwareverde.bitcoin.server.database.cache.utxo;
+
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutputId;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.util.type.time.SystemTime;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Buffers the changes to the unspent_transaction_outputs table so that they may be written in large batches.
+ *  New UTXOs are held until the next flush; a UTXO that is spent before it is flushed is discarded and never touches the database.
+ *  Spent UTXOs that have already been flushed are recorded by their TransactionOutputId and deleted during the next flush.
+ *
+ *  The master cache is process-wide and only receives the changes of committed Blocks; each Block stages its changes within a
+ *  local cache (see setMasterCache) which is committed to the master cache once the Block's database transaction is committed,
+ *  or discarded if the Block is rolled back.
+ *
+ *  Since unspent_transaction_outputs only accelerates looking up a TransactionOutputId by its TransactionOutputIdentifier (the Block's
+ *  inputs are validated against transaction_inputs), an unflushed change that is lost only degrades the lookup's performance.
+ */
+public class UnspentTransactionOutputWriteBackCache {
+    public static final Long FLUSH_INTERVAL_MS = (10L * 60L * 1000L);
+
+    // NOTE: Estimated heap usage of each buffered change, including its map entry and boxed values...
+    protected static final Long BYTES_PER_UNFLUSHED_OUTPUT = 160L;
+    protected static final Long BYTES_PER_SPENT_OUTPUT = 64L;
+
+    /**
+     * The changes removed from the master cache by takeUnflushedChanges.
+     */
+    public static class UnflushedChanges {
+        public final Map<TransactionOutputIdentifier, TransactionOutputId> unspentTransactionOutputs;
+        public final Set<TransactionOutputId> spentTransactionOutputIds;
+        public final Long blockHeight;
+
+        public UnflushedChanges(final Map<TransactionOutputIdentifier, TransactionOutputId> unspentTransactionOutputs, final Set<TransactionOutputId> spentTransactionOutputIds, final Long blockHeight) {
+            this.unspentTransactionOutputs = unspentTransactionOutputs;
+            this.spentTransactionOutputIds = spentTransactionOutputIds;
+            this.blockHeight = blockHeight;
+        }
+
+        public Boolean isEmpty() {
+            return (unspentTransactionOutputs.isEmpty() && spentTransactionOutputIds.isEmpty());
+        }
+    }
+
+    protected final SystemTime _systemTime = new SystemTime();
+    protected final Long _maxByteCount;
+
+    protected HashMap<TransactionOutputIdentifier, TransactionOutputId> _unflushedTransactionOutputs = new HashMap<TransactionOutputIdentifier, TransactionOutputId>();
+    protected HashSet<TransactionOutputId> _spentTransactionOutputIds = new HashSet<TransactionOutputId>();
+    protected final HashMap<TransactionOutputIdentifier, TransactionOutputId> _stagedSpentTransactionOutputs = new HashMap<TransactionOutputIdentifier, TransactionOutputId>(); // Spends staged by a local cache, applied to the master cache upon commit.
+
+    protected UnspentTransactionOutputWriteBackCache _masterCache = null;
+    protected Long _blockHeight = null;
+    protected Long _lastFlushTime = _systemTime.getCurrentTimeInMilliSeconds();
+
+    protected void _spendTransactionOutput(final TransactionOutputIdentifier transactionOutputIdentifier, final TransactionOutputId transactionOutputId) {
+        final TransactionOutputId unflushedTransactionOutputId = _unflushedTransactionOutputs.remove(transactionOutputIdentifier);
+        if (unflushedTransactionOutputId != null) { return; } // The UTXO was created and spent before being flushed...
+
+        _spentTransactionOutputIds.add(transactionOutputId);
+    }
+
+    protected Long _getByteCount() {
+        return ( (_unflushedTransactionOutputs.size() * BYTES_PER_UNFLUSHED_OUTPUT) + (_spentTransactionOutputIds.size() * BYTES_PER_SPENT_OUTPUT) );
+    }
+
+    public UnspentTransactionOutputWriteBackCache(final Long maxByteCount) {
+        _maxByteCount = maxByteCount;
+    }
+
+    /**
+     * Causes this cache to stage its changes until it is committed to the masterCache.
+     */
+    public void setMasterCache(final UnspentTransactionOutputWriteBackCache masterCache) {
+        _masterCache = masterCache;
+    }
+
+    public synchronized void addUnspentTransactionOutput(final Sha256Hash transactionHash, final Integer transactionOutputIndex, final TransactionOutputId transactionOutputId) {
+        _unflushedTransactionOutputs.put(new TransactionOutputIdentifier(transactionHash, transactionOutputIndex), transactionOutputId);
+    }
+
+    public synchronized void spendTransactionOutput(final TransactionOutputIdentifier transactionOutputIdentifier, final TransactionOutputId transactionOutputId) {
+        if (_masterCache == null) {
+            _spendTransactionOutput(transactionOutputIdentifier, transactionOutputId);
+            return;
+        }
+
+        final TransactionOutputId unflushedTransactionOutputId = _unflushedTransactionOutputs.remove(transactionOutputIdentifier);
+        if (unflushedTransactionOutputId != null) { return; }
+
+        _stagedSpentTransactionOutputs.put(transactionOutputIdentifier, transactionOutputId);
+    }
+
+    /**
+     * Returns the TransactionOutputId of the unflushed UTXO, or null if the UTXO is not held by this cache (or its master cache).
+     */
+    public TransactionOutputId getUnspentTransactionOutputId(final Sha256Hash transactionHash, final Integer transactionOutputIndex) {
+        final TransactionOutputIdentifier transactionOutputIdentifier = new TransactionOutputIdentifier(transactionHash, transactionOutputIndex);
+        synchronized (this) {
+            final TransactionOutputId transactionOutputId = _unflushedTransactionOutputs.get(transactionOutputIdentifier);
+            if (transactionOutputId != null) { return transactionOutputId; }
+
+            if (_masterCache == null) { return null; }
+            if (_stagedSpentTransactionOutputs.containsKey(transactionOutputIdentifier)) { return null; }
+        }
+
+        return _masterCache.getUnspentTransactionOutputId(transactionHash, transactionOutputIndex); // NOTE: Not synchronized on this cache, since commit locks the local cache before the master cache...
+    }
+
+    /**
+     * Applies the changes staged within the localCache to this (master) cache, and clears the localCache.
+     */
+    public void commit(final UnspentTransactionOutputWriteBackCache localCache) {
+        synchronized (localCache) {
+            synchronized (this) {
+                _unflushedTransactionOutputs.putAll(localCache._unflushedTransactionOutputs);
+                for (final TransactionOutputIdentifier transactionOutputIdentifier : localCache._stagedSpentTransactionOutputs.keySet()) {
+                    final TransactionOutputId transactionOutputId = localCache._stagedSpentTransactionOutputs.get(transactionOutputIdentifier);
+                    _spendTransactionOutput(transactionOutputIdentifier, transactionOutputId);
+                }
+            }
+
+            localCache._unflushedTransactionOutputs.clear();
+            localCache._stagedSpentTransactionOutputs.clear();
+        }
+    }
+
+    /**
+     * Records that the changes of the Block at blockHeight have been committed to this cache.
+     *  The highest recorded height is stored alongside the next flush, and is used to recover the changes lost by an unclean shutdown.
+     */
+    public synchronized void setBlockProcessed(final Long blockHeight) {
+        if ( (_blockHeight == null) || (blockHeight > _blockHeight) ) {
+            _blockHeight = blockHeight;
+        }
+    }
+
+    public synchronized Long getByteCount() {
+        return _getByteCount();
+    }
+
+    /**
+     * Returns true if the cache has exceeded its max byte count, or if it has not been flushed within FLUSH_INTERVAL_MS.
+     */
+    public synchronized Boolean shouldFlush() {
+        if (_blockHeight == null) { return false; }
+
+        final Long byteCount = _getByteCount();
+        if (byteCount >= _maxByteCount) { return true; }
+
+        final Long now = _systemTime.getCurrentTimeInMilliSeconds();
+        return ((now - _lastFlushTime) >= FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * Removes and returns the changes to be flushed, along with the highest Block height they include.
+     *  If the flush fails, the changes should be returned to the cache via restoreUnflushedChanges.
+     */
+    public synchronized UnflushedChanges takeUnflushedChanges() {
+        final UnflushedChanges unflushedChanges = new UnflushedChanges(_unflushedTransactionOutputs, _spentTransactionOutputIds, _blockHeight);
+
+        _unflushedTransactionOutputs = new HashMap<TransactionOutputIdentifier, TransactionOutputId>();
+        _spentTransactionOutputIds = new HashSet<TransactionOutputId>();
+        _lastFlushTime = _systemTime.getCurrentTimeInMilliSeconds();
+
+        return unflushedChanges;
+    }
+
+    /**
+     * Returns changes that failed to be flushed to the cache, preserving any changes made since they were taken.
+     */
+    public synchronized void restoreUnflushedChanges(final UnflushedChanges unflushedChanges) {
+        for (final TransactionOutputIdentifier transactionOutputIdentifier : unflushedChanges.unspentTransactionOutputs.keySet()) {
+            final TransactionOutputId transactionOutputId = unflushedChanges.unspentTransactionOutputs.get(transactionOutputIdentifier);
+            final Boolean wasSpentSinceTaken = _spentTransactionOutputIds.remove(transactionOutputId);
+            if (! wasSpentSinceTaken) {
+                _unflushedTransactionOutputs.put(transactionOutputIdentifier, transactionOutputId);
+            }
+        }
+
+        _spentTransactionOutputIds.addAll(unflushedChanges.spentTransactionOutputIds);
+    }
+
+    public synchronized void close() {
+        _unflushedTransactionOutputs.clear();
+        _spentTransactionOutputIds.clear();
+        _stagedSpentTransactionOutputs.clear();
+    }
+}
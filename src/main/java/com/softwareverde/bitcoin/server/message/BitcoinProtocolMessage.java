@@ -1,8 +1,8 @@
 package com.softwareverde.bitcoin.server.message;
 
+import com.softwareverde.bitcoin.hash.DoubleSha256Stream;
 import com.softwareverde.bitcoin.server.message.header.BitcoinProtocolMessageHeaderInflater;
 import com.softwareverde.bitcoin.server.message.type.MessageType;
-import com.softwareverde.bitcoin.util.BitcoinUtil;
 import com.softwareverde.bitcoin.util.ByteUtil;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.bytearray.ImmutableByteArray;
@@ -26,11 +26,16 @@ public abstract class BitcoinProtocolMessage implements ProtocolMessage {
     protected static final Integer CHECKSUM_BYTE_COUNT = 4;
 
     public static ByteArray calculateChecksum(final ByteArray payload) {
-        final ByteArray fullChecksum = BitcoinUtil.sha256(BitcoinUtil.sha256(payload));
+        final byte[] fullChecksum;
+        { // NOTE: The payload is streamed into the digest so that large payloads (i.e. Blocks) are not copied...
+            final DoubleSha256Stream doubleSha256Stream = new DoubleSha256Stream();
+            doubleSha256Stream.update(payload);
+            fullChecksum = doubleSha256Stream.digest();
+        }
         final MutableByteArray checksum = new MutableByteArray(4);
 
         for (int i = 0; i< CHECKSUM_BYTE_COUNT; ++i) {
-            checksum.set(i, fullChecksum.getByte(i));
+            checksum.set(i, fullChecksum[i]);
         }
 
         return checksum;
@@ -2,6 +2,7 @@ package com.softwareverde.bitcoin.server.message.type.query.response.block;
 
 import com.softwareverde.bitcoin.block.Block;
 import com.softwareverde.bitcoin.block.BlockDeflater;
+import com.softwareverde.bitcoin.block.BlockInflater;
 import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessage;
 import com.softwareverde.bitcoin.server.message.type.MessageType;
 import com.softwareverde.constable.bytearray.ByteArray;
@@ -9,21 +10,40 @@ import com.softwareverde.constable.bytearray.ByteArray;
 public class BlockMessage extends BitcoinProtocolMessage {
 
     protected Block _block;
+    protected ByteArray _blockBytes;
 
     public BlockMessage() {
         super(MessageType.BLOCK);
     }
 
     public Block getBlock() {
+        if ( (_block == null) && (_blockBytes != null) ) {
+            final BlockInflater blockInflater = new BlockInflater();
+            _block = blockInflater.fromBytes(_blockBytes);
+        }
+
         return _block;
     }
 
     public void setBlock(final Block block) {
         _block = block;
+        _blockBytes = null;
+    }
+
+    /**
+     * Sets the already-serialized Block as the message's payload, so that the Block is neither inflated nor deflated to be sent.
+     */
+    public void setBlockBytes(final ByteArray blockBytes) {
+        _block = null;
+        _blockBytes = blockBytes;
     }
 
     @Override
     protected ByteArray _getPayload() {
+        if (_blockBytes != null) {
+            return _blockBytes;
+        }
+
         final BlockDeflater blockDeflater = new BlockDeflater();
         return blockDeflater.toBytes(_block);
     }
@@ -4,26 +4,46 @@ import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessage;
 import com.softwareverde.bitcoin.server.message.type.MessageType;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionDeflater;
+import com.softwareverde.bitcoin.transaction.TransactionInflater;
 import com.softwareverde.constable.bytearray.ByteArray;
 
 public class TransactionMessage extends BitcoinProtocolMessage {
 
     protected Transaction _transaction;
+    protected ByteArray _transactionBytes;
 
     public TransactionMessage() {
         super(MessageType.TRANSACTION);
     }
 
     public Transaction getTransaction() {
+        if ( (_transaction == null) && (_transactionBytes != null) ) {
+            final TransactionInflater transactionInflater = new TransactionInflater();
+            _transaction = transactionInflater.fromBytes(_transactionBytes);
+        }
+
         return _transaction;
     }
 
     public void setTransaction(final Transaction transaction) {
         _transaction = transaction;
+        _transactionBytes = null;
+    }
+
+    /**
+     * Sets the already-serialized Transaction as the message's payload, so that the Transaction is neither inflated nor deflated to be sent.
+     */
+    public void setTransactionBytes(final ByteArray transactionBytes) {
+        _transaction = null;
+        _transactionBytes = transactionBytes;
     }
 
     @Override
     protected ByteArray _getPayload() {
+        if (_transactionBytes != null) {
+            return _transactionBytes;
+        }
+
         final TransactionDeflater transactionDeflater = new TransactionDeflater();
         return transactionDeflater.toBytes(_transaction);
     }
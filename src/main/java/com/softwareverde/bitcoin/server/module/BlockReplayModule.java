@@ -0,0 +1,279 @@
+package com.softwareverde.bitcoin.server.module;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.chain.time.MutableMedianBlockTime;
+import com.softwareverde.bitcoin.server.Configuration;
+import com.softwareverde.bitcoin.server.Environment;
+import com.softwareverde.bitcoin.server.database.BlockDatabaseManager;
+import com.softwareverde.bitcoin.server.database.BlockHeaderDatabaseManager;
+import com.softwareverde.bitcoin.server.database.Database;
+import com.softwareverde.bitcoin.server.database.blockstore.FlatFileBlockStore;
+import com.softwareverde.bitcoin.server.database.cache.LocalDatabaseManagerCache;
+import com.softwareverde.bitcoin.server.database.cache.MasterDatabaseManagerCache;
+import com.softwareverde.bitcoin.server.database.cache.utxo.NativeUnspentTransactionOutputCache;
+import com.softwareverde.bitcoin.server.module.node.BlockProcessor;
+import com.softwareverde.bitcoin.util.BitcoinUtil;
+import com.softwareverde.bitcoin.util.StringUtil;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabase;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.io.Logger;
+import com.softwareverde.network.time.MutableNetworkTime;
+import com.softwareverde.util.HexUtil;
+import com.softwareverde.util.IoUtil;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Replays a directory of serialized Blocks through the BlockProcessor against a fresh embedded database, without any networking.
+ *  Each file within the directory contains exactly one Block, either as raw bytes or as a hex string; files are processed in
+ *  lexicographical order of their names, so the first file must be the genesis Block and each subsequent file its successor
+ *  (e.g. name the files by their height, zero-padded).  The configuration file's database and server properties are used
+ *  (i.e. bitcoin.maxThreadCount, bitcoin.maxUtxoCacheByteCount, database.maxMemoryByteCount), except that the embedded
+ *  database is created within a new temporary data directory so that consecutive runs are comparable.
+ *  Once complete, the blocks/sec, transactions/sec, and the p50/p99 per-Block timing of each processing phase are logged.
+ */
+public class BlockReplayModule {
+    public static void execute(final String configurationFileName, final String blockDirectoryName) {
+        final BlockReplayModule blockReplayModule = new BlockReplayModule(configurationFileName, blockDirectoryName);
+        blockReplayModule.run();
+    }
+
+    protected static final Integer PROGRESS_LOG_INTERVAL = 1000;
+
+    protected final Configuration _configuration;
+    protected final Environment _environment;
+    protected final File[] _blockFiles;
+
+    protected Configuration _loadConfigurationFile(final String configurationFilename) {
+        final File configurationFile =  new File(configurationFilename);
+        if (! configurationFile.isFile()) {
+            Logger.error("Invalid configuration file.");
+            BitcoinUtil.exitFailure();
+        }
+
+        return new Configuration(configurationFile);
+    }
+
+    protected File[] _loadBlockFiles(final String blockDirectoryName) {
+        final File blockDirectory = new File(blockDirectoryName);
+        final File[] blockFiles = blockDirectory.listFiles();
+        if ( (blockFiles == null) || (blockFiles.length == 0) ) {
+            Logger.error("Invalid block directory: " + blockDirectoryName);
+            BitcoinUtil.exitFailure();
+        }
+
+        Arrays.sort(blockFiles);
+        return blockFiles;
+    }
+
+    protected static Boolean _isHexString(final byte[] bytes) {
+        final int byteCount = Math.min(bytes.length, 160); // The length of a hex-encoded BlockHeader...
+        for (int i = 0; i < byteCount; ++i) {
+            final char c = (char) bytes[i];
+            final boolean isHexCharacter = ( ((c >= '0') && (c <= '9')) || ((c >= 'a') && (c <= 'f')) || ((c >= 'A') && (c <= 'F')) );
+            if (! isHexCharacter) { return false; }
+        }
+        return true;
+    }
+
+    protected static Block _inflateBlock(final File blockFile) {
+        final byte[] fileContents = IoUtil.getFileContents(blockFile.getPath());
+        if (fileContents == null) { return null; }
+
+        final byte[] blockBytes;
+        if (_isHexString(fileContents)) {
+            blockBytes = HexUtil.hexStringToByteArray(StringUtil.bytesToString(fileContents).trim());
+        }
+        else {
+            blockBytes = fileContents;
+        }
+        if (blockBytes == null) { return null; }
+
+        final BlockInflater blockInflater = new BlockInflater();
+        return blockInflater.fromBytes(blockBytes);
+    }
+
+    /**
+     * Returns the nearest-rank percentile of the provided values; sortedValues must be sorted ascending and must not be empty.
+     */
+    protected static Double _getPercentile(final double[] sortedValues, final double percentile) {
+        final int index = ((int) Math.ceil(percentile * sortedValues.length)) - 1;
+        return sortedValues[Math.max(0, Math.min(index, (sortedValues.length - 1)))];
+    }
+
+    protected static void _logPhase(final String phaseName, final double[] values, final int valueCount) {
+        final double[] sortedValues = Arrays.copyOf(values, valueCount);
+        Arrays.sort(sortedValues);
+
+        double total = 0D;
+        for (final double value : sortedValues) {
+            total += value;
+        }
+
+        Logger.log(phaseName + ": total=" + String.format("%.2f", total) + "ms mean=" + String.format("%.3f", (total / valueCount)) + "ms p50=" + String.format("%.3f", _getPercentile(sortedValues, 0.50D)) + "ms p99=" + String.format("%.3f", _getPercentile(sortedValues, 0.99D)) + "ms max=" + String.format("%.3f", sortedValues[valueCount - 1]) + "ms");
+    }
+
+    protected BlockReplayModule(final String configurationFilename, final String blockDirectoryName) {
+        _configuration = _loadConfigurationFile(configurationFilename);
+        _blockFiles = _loadBlockFiles(blockDirectoryName);
+
+        final Configuration.ServerProperties serverProperties = _configuration.getServerProperties();
+        final Configuration.DatabaseProperties databaseProperties = _configuration.getDatabaseProperties();
+
+        if (! databaseProperties.useEmbeddedDatabase()) {
+            Logger.error("Block replay requires the embedded database (database.useEmbeddedDatabase=1).");
+            BitcoinUtil.exitFailure();
+        }
+
+        { // Use a new, empty, data directory so that the replay always begins from the genesis block...
+            try {
+                final File dataDirectory = Files.createTempDirectory("bitcoin-verde-replay").toFile();
+                databaseProperties.setDataDirectory(dataDirectory.getPath());
+                Logger.log("NOTICE: Replay data directory: " + dataDirectory.getPath());
+            }
+            catch (final IOException exception) {
+                Logger.log(exception);
+                BitcoinUtil.exitFailure();
+            }
+        }
+
+        final MysqlDatabase database = Database.newInstance(_configuration, null);
+        if (database == null) {
+            Logger.log("Error initializing database.");
+            BitcoinUtil.exitFailure();
+        }
+        Logger.log("[Database Online]");
+
+        { // Initialize the NativeUnspentTransactionOutputCache...
+            final Boolean nativeCacheIsEnabled = NativeUnspentTransactionOutputCache.isEnabled();
+            if (nativeCacheIsEnabled) {
+                NativeUnspentTransactionOutputCache.init();
+            }
+            else {
+                Logger.log("NOTICE: NativeUtxoCache not enabled.");
+            }
+        }
+
+        if (serverProperties.shouldUseBlockStore()) { // Replay into a new block store so that appending to the store is included within the timings...
+            try {
+                final File blockStoreDirectory = Files.createTempDirectory("bitcoin-verde-replay-blocks").toFile();
+                final FlatFileBlockStore blockStore = new FlatFileBlockStore(blockStoreDirectory.getPath());
+                if (blockStore.open()) {
+                    BlockDatabaseManager.initializeBlockStore(blockStore);
+                    Logger.log("NOTICE: Replay block store directory: " + blockStoreDirectory.getPath());
+                }
+            }
+            catch (final IOException exception) {
+                Logger.log(exception);
+                BitcoinUtil.exitFailure();
+            }
+        }
+
+        final Long maxUtxoCacheByteCount = serverProperties.getMaxUtxoCacheByteCount();
+        _environment = new Environment(database, new MasterDatabaseManagerCache(maxUtxoCacheByteCount));
+    }
+
+    public void run() {
+        final MysqlDatabase database = _environment.getDatabase();
+        final MasterDatabaseManagerCache masterDatabaseManagerCache = _environment.getMasterDatabaseManagerCache();
+        final MysqlDatabaseConnectionFactory databaseConnectionFactory = database.newConnectionFactory();
+
+        final Configuration.ServerProperties serverProperties = _configuration.getServerProperties();
+
+        final MutableMedianBlockTime medianBlockTime;
+        try (final MysqlDatabaseConnection databaseConnection = database.newConnection();
+                final LocalDatabaseManagerCache localDatabaseManagerCache = new LocalDatabaseManagerCache(masterDatabaseManagerCache)) {
+
+            BlockHeaderDatabaseManager.initializeBlockHeaderIndex(databaseConnection);
+            BlockHeaderDatabaseManager.initializeBestChainTracker(databaseConnection);
+
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, localDatabaseManagerCache);
+            medianBlockTime = blockHeaderDatabaseManager.initializeMedianBlockTime();
+        }
+        catch (final DatabaseException exception) {
+            Logger.log(exception);
+            BitcoinUtil.exitFailure();
+            return;
+        }
+
+        final BlockProcessor blockProcessor = new BlockProcessor(databaseConnectionFactory, masterDatabaseManagerCache, new MutableNetworkTime(), medianBlockTime, null);
+        blockProcessor.setMaxThreadCount(serverProperties.getMaxThreadCount());
+        blockProcessor.setTrustedBlockHeight(serverProperties.getTrustedBlockHeight());
+
+        Logger.log("[Replaying " + _blockFiles.length + " Blocks] maxThreadCount=" + serverProperties.getMaxThreadCount() + " maxUtxoCacheByteCount=" + serverProperties.getMaxUtxoCacheByteCount() + " trustedBlockHeight=" + serverProperties.getTrustedBlockHeight());
+
+        final double[] processBlockMilliseconds = new double[_blockFiles.length];
+        final double[] storeMilliseconds = new double[_blockFiles.length];
+        final double[] validationMilliseconds = new double[_blockFiles.length];
+        final double[] commitMilliseconds = new double[_blockFiles.length];
+        final double[] utxoCacheCommitMilliseconds = new double[_blockFiles.length];
+
+        int processedBlockCount = 0;
+        long processedTransactionCount = 0L;
+        double totalProcessBlockMilliseconds = 0D;
+
+        final NanoTimer processBlockTimer = new NanoTimer();
+        for (final File blockFile : _blockFiles) {
+            final Block block = _inflateBlock(blockFile);
+            if (block == null) {
+                Logger.error("Unable to inflate block: " + blockFile.getPath());
+                break;
+            }
+
+            processBlockTimer.start();
+            final Long blockHeight = blockProcessor.processBlock(block);
+            processBlockTimer.stop();
+
+            final BlockProcessor.ProcessBlockTimings processBlockTimings = blockProcessor.getLastProcessBlockTimings();
+            if ( (blockHeight == null) || (processBlockTimings == null) ) {
+                Logger.error("Block was not processed: " + block.getHash() + " (" + blockFile.getPath() + ")");
+                break;
+            }
+
+            final Double blockMilliseconds = processBlockTimer.getMillisecondsElapsed();
+            processBlockMilliseconds[processedBlockCount] = blockMilliseconds;
+            storeMilliseconds[processedBlockCount] = processBlockTimings.storeMilliseconds;
+            validationMilliseconds[processedBlockCount] = processBlockTimings.validationMilliseconds;
+            commitMilliseconds[processedBlockCount] = processBlockTimings.commitMilliseconds;
+            utxoCacheCommitMilliseconds[processedBlockCount] = processBlockTimings.utxoCacheCommitMilliseconds;
+
+            processedBlockCount += 1;
+            processedTransactionCount += block.getTransactions().getSize();
+            totalProcessBlockMilliseconds += blockMilliseconds;
+
+            if ((processedBlockCount % PROGRESS_LOG_INTERVAL) == 0) {
+                Logger.log("Replayed " + processedBlockCount + " of " + _blockFiles.length + " blocks. Height: " + blockHeight);
+            }
+        }
+
+        if (processedBlockCount > 0) {
+            final Double seconds = (totalProcessBlockMilliseconds / 1000D);
+            Logger.log("[Replay Complete]");
+            Logger.log("Blocks: " + StringUtil.formatNumberString((long) processedBlockCount) + " Transactions: " + StringUtil.formatNumberString(processedTransactionCount) + " Elapsed: " + String.format("%.2f", seconds) + "s");
+            Logger.log("Blocks/sec: " + String.format("%.2f", (processedBlockCount / seconds)) + " Transactions/sec: " + String.format("%.2f", (processedTransactionCount / seconds)));
+            _logPhase("ProcessBlock", processBlockMilliseconds, processedBlockCount);
+            _logPhase("Store", storeMilliseconds, processedBlockCount);
+            _logPhase("Validate", validationMilliseconds, processedBlockCount);
+            _logPhase("Commit", commitMilliseconds, processedBlockCount);
+            _logPhase("UtxoCacheCommit", utxoCacheCommitMilliseconds, processedBlockCount);
+        }
+        else {
+            Logger.error("No blocks were replayed.");
+        }
+
+        masterDatabaseManagerCache.close();
+
+        if (processedBlockCount != _blockFiles.length) {
+            BitcoinUtil.exitFailure();
+        }
+
+        System.exit(0);
+    }
+}
@@ -58,7 +58,7 @@ public class CacheWarmer {
                     for (final Row row : rows) {
                         final Long rowId = row.getLong("id");
                         final TransactionOutputId transactionOutputId = TransactionOutputId.wrap(row.getLong("transaction_output_id"));
-                        final Sha256Hash transactionHash = Sha256Hash.fromHexString(row.getString("transaction_hash"));
+                        final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("transaction_hash"));
                         final Integer transactionOutputIndex = row.getInteger("index");
 
                         final Long sortOrder = (maxUtxoCount - cachedCount);
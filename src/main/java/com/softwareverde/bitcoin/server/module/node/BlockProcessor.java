@@ -9,8 +9,10 @@ import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.chain.time.MutableMedianBlockTime;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.server.database.*;
+import com.softwareverde.bitcoin.server.database.cache.DisabledDatabaseManagerCache;
 import com.softwareverde.bitcoin.server.database.cache.LocalDatabaseManagerCache;
 import com.softwareverde.bitcoin.server.database.cache.MasterDatabaseManagerCache;
+import com.softwareverde.bitcoin.server.database.cache.utxo.UnspentTransactionOutputWriteBackCache;
 import com.softwareverde.bitcoin.server.database.pool.MysqlDatabaseConnectionPool;
 import com.softwareverde.bitcoin.server.module.node.handler.transaction.OrphanedTransactionsCache;
 import com.softwareverde.bitcoin.transaction.Transaction;
@@ -32,6 +34,23 @@ import com.softwareverde.util.timer.MilliTimer;
 import com.softwareverde.util.timer.NanoTimer;
 
 public class BlockProcessor {
+    /**
+     * The time spent within each phase of processing a single Block, in milliseconds.
+     *  Store includes storing the BlockHeader (when it was not already known) and the Block's transactions;
+     *  Commit is the database commit of the validated Block; UtxoCacheCommit is the commit of the local cache into the master cache,
+     *  including any flush of the UnspentTransactionOutputWriteBackCache.
+     */
+    public static class ProcessBlockTimings {
+        public Double storeMilliseconds = 0D;
+        public Double validationMilliseconds = 0D;
+        public Double commitMilliseconds = 0D;
+        public Double utxoCacheCommitMilliseconds = 0D;
+
+        public Double getTotalMilliseconds() {
+            return (storeMilliseconds + validationMilliseconds + commitMilliseconds + utxoCacheCommitMilliseconds);
+        }
+    }
+
     protected final Object _statisticsMutex = new Object();
     protected final RotatingQueue<Long> _blocksPerSecond = new RotatingQueue<Long>(100);
     protected final RotatingQueue<Integer> _transactionsPerBlock = new RotatingQueue<Integer>(100);
@@ -46,10 +65,14 @@ public class BlockProcessor {
 
     protected Integer _maxThreadCount = 4;
     protected Long _trustedBlockHeight = 0L;
+    protected Long _bulkLoadBlockHeight = 0L;
+    protected Boolean _deferredIndexesAreDropped = null; // NOTE: Null until read from the database...
 
     protected Integer _processedBlockCount = 0;
     protected final Long _startTime;
 
+    protected ProcessBlockTimings _lastProcessBlockTimings = null;
+
     public BlockProcessor(final MysqlDatabaseConnectionFactory databaseConnectionFactory, final MasterDatabaseManagerCache masterDatabaseManagerCache, final NetworkTime networkTime, final MutableMedianBlockTime medianBlockTime, final OrphanedTransactionsCache orphanedTransactionsCache) {
         _databaseConnectionFactory = databaseConnectionFactory;
         _masterDatabaseManagerCache = masterDatabaseManagerCache;
@@ -70,11 +93,46 @@ public class BlockProcessor {
         _trustedBlockHeight = trustedBlockHeight;
     }
 
+    /**
+     * Blocks below bulkLoadBlockHeight are stored without foreign-key checks and without maintaining the bulk-load's deferred indexes.
+     *  The deferred indexes are rebuilt once the first Block at (or above) bulkLoadBlockHeight is processed.
+     *  Since the deferred indexes are required to validate Transaction inputs, the height should not exceed the trusted Block height.
+     */
+    public void setBulkLoadBlockHeight(final Long bulkLoadBlockHeight) {
+        _bulkLoadBlockHeight = bulkLoadBlockHeight;
+    }
+
+    /**
+     * Drops or rebuilds the deferred indexes as required by the Block at blockHeight, and returns true if the Block should be bulk-loaded.
+     *  Altering the indexes implicitly commits, so this must not be called while within a database transaction.
+     */
+    protected Boolean _updateBulkLoadState(final Long blockHeight, final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final Boolean shouldBulkLoad = (blockHeight < _bulkLoadBlockHeight);
+        final BulkLoadDatabaseManager bulkLoadDatabaseManager = new BulkLoadDatabaseManager(databaseConnection);
+
+        if (_deferredIndexesAreDropped == null) {
+            _deferredIndexesAreDropped = bulkLoadDatabaseManager.hasDroppedIndexes();
+        }
+
+        if ( shouldBulkLoad && (! _deferredIndexesAreDropped) ) {
+            bulkLoadDatabaseManager.dropDeferredIndexes();
+            _deferredIndexesAreDropped = true;
+        }
+        else if ( (! shouldBulkLoad) && _deferredIndexesAreDropped ) {
+            bulkLoadDatabaseManager.rebuildDeferredIndexes();
+            _deferredIndexesAreDropped = false;
+        }
+
+        return shouldBulkLoad;
+    }
+
     protected Long _processBlock(final Block block, final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
         try (final LocalDatabaseManagerCache localDatabaseManagerCache = new LocalDatabaseManagerCache(_masterDatabaseManagerCache)) {
             final Sha256Hash blockHash = block.getHash();
             _processedBlockCount += 1;
 
+            final ProcessBlockTimings processBlockTimings = new ProcessBlockTimings();
+
             final BlockchainDatabaseManager blockchainDatabaseManager = new BlockchainDatabaseManager(databaseConnection, localDatabaseManagerCache);
             final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, localDatabaseManagerCache);
             final BlockDatabaseManager blockDatabaseManager = new BlockDatabaseManager(databaseConnection, localDatabaseManagerCache);
@@ -115,6 +173,7 @@ public class BlockProcessor {
                         if (blockId == null) {
                             Logger.log("Error storing BlockHeader: " + blockHash);
                             TransactionUtil.rollbackTransaction(databaseConnection);
+                            blockHeaderDatabaseManager.onBlockHeaderRolledBack();
                             return null;
                         }
 
@@ -123,21 +182,40 @@ public class BlockProcessor {
                         if (! blockHeaderIsValid) {
                             Logger.log("Invalid BlockHeader: " + blockHash);
                             TransactionUtil.rollbackTransaction(databaseConnection);
+                            blockHeaderDatabaseManager.onBlockHeaderRolledBack();
                             return null;
                         }
 
                         storeBlockHeaderTimer.stop();
                     }
                     TransactionUtil.commitTransaction(databaseConnection);
+                    blockHeaderDatabaseManager.onBlockHeaderCommitted(blockId);
+
+                    processBlockTimings.storeMilliseconds += storeBlockHeaderTimer.getMillisecondsElapsed();
                 }
             }
 
+            final Boolean shouldBulkLoad = _updateBulkLoadState(blockHeaderDatabaseManager.getBlockHeight(blockId), databaseConnection);
+
             final NanoTimer storeBlockTimer = new NanoTimer();
             final NanoTimer blockValidationTimer = new NanoTimer();
             TransactionUtil.startTransaction(databaseConnection);
             {
+                final BulkLoadDatabaseManager bulkLoadDatabaseManager = new BulkLoadDatabaseManager(databaseConnection);
+
                 storeBlockTimer.start();
-                final Boolean transactionsStoredSuccessfully = blockDatabaseManager.storeBlockTransactions(block); // Store the Block's transactions (the BlockHeader should have already been stored above)...
+                if (shouldBulkLoad) {
+                    bulkLoadDatabaseManager.disableConstraintChecks();
+                }
+                final Boolean transactionsStoredSuccessfully;
+                try {
+                    transactionsStoredSuccessfully = blockDatabaseManager.storeBlockTransactions(block); // Store the Block's transactions (the BlockHeader should have already been stored above)...
+                }
+                finally {
+                    if (shouldBulkLoad) {
+                        bulkLoadDatabaseManager.enableConstraintChecks(); // NOTE: Re-enabled before validation so that any cascading deletes are unaffected...
+                    }
+                }
                 storeBlockTimer.stop();
 
                 if (! transactionsStoredSuccessfully) {
@@ -172,7 +250,18 @@ public class BlockProcessor {
                     return null;
                 }
             }
+            final NanoTimer commitTimer = new NanoTimer();
+            commitTimer.start();
             TransactionUtil.commitTransaction(databaseConnection);
+            commitTimer.stop();
+
+            synchronized (BlockHeaderDatabaseManager.MUTEX) {
+                blockDatabaseManager.onBlockCommitted(blockId);
+            }
+
+            processBlockTimings.storeMilliseconds += storeBlockTimer.getMillisecondsElapsed();
+            processBlockTimings.validationMilliseconds = blockValidationTimer.getMillisecondsElapsed();
+            processBlockTimings.commitMilliseconds = commitTimer.getMillisecondsElapsed();
 
             final Long blockHeight = blockHeaderDatabaseManager.getBlockHeight(blockId);
 
@@ -291,16 +380,55 @@ public class BlockProcessor {
             _averageBlocksPerSecond.value = averageBlocksPerSecond; // ((_processedBlockCount.floatValue() / (now - _startTime)) * 1000.0F);
             _averageTransactionsPerSecond.value = averageTransactionsPerSecond;
 
+            final NanoTimer utxoCacheCommitTimer = new NanoTimer();
+            utxoCacheCommitTimer.start();
             _masterDatabaseManagerCache.commitLocalDatabaseManagerCache(localDatabaseManagerCache);
             _masterDatabaseManagerCache.commit();
 
+            final UnspentTransactionOutputWriteBackCache unspentTransactionOutputWriteBackCache = _masterDatabaseManagerCache.getUnspentTransactionOutputWriteBackCache();
+            if (unspentTransactionOutputWriteBackCache != null) {
+                unspentTransactionOutputWriteBackCache.setBlockProcessed(blockHeight);
+                if (unspentTransactionOutputWriteBackCache.shouldFlush()) {
+                    try {
+                        final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = new UnspentTransactionOutputDatabaseManager(databaseConnection);
+                        unspentTransactionOutputDatabaseManager.flushUnspentTransactionOutputs(unspentTransactionOutputWriteBackCache);
+                    }
+                    catch (final DatabaseException exception) { // NOTE: The Block has already been committed; the unflushed changes are retried after the next Block...
+                        Logger.log("NOTICE: Unable to flush UTXOs.");
+                        Logger.log(exception);
+                    }
+                }
+            }
+            utxoCacheCommitTimer.stop();
+
+            processBlockTimings.utxoCacheCommitMilliseconds = utxoCacheCommitTimer.getMillisecondsElapsed();
+            _lastProcessBlockTimings = processBlockTimings;
+
             return blockHeight;
         }
     }
 
     public Long processBlock(final Block block) {
+        _lastProcessBlockTimings = null;
+
         try (final MysqlDatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection()) {
-            final Long newBlockHeight = _processBlock(block, databaseConnection);
+            final Long newBlockHeight;
+            try {
+                newBlockHeight = _processBlock(block, databaseConnection);
+            }
+            catch (final Exception exception) {
+                Logger.log("ERROR VALIDATING BLOCK: " + block.getHash());
+                Logger.log(exception);
+
+                // The Block's database transaction may still be open, and may have staged changes to the BlockHeaderIndex...
+                TransactionUtil.rollbackTransaction(databaseConnection);
+                synchronized (BlockHeaderDatabaseManager.MUTEX) {
+                    final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, new DisabledDatabaseManagerCache());
+                    blockHeaderDatabaseManager.onBlockHeaderRolledBack();
+                }
+                return null;
+            }
+
             final Boolean blockWasValid = (newBlockHeight != null);
             if ((blockWasValid) && (_orphanedTransactionsCache != null)) {
                 for (final Transaction transaction : block.getTransactions()) {
@@ -318,6 +446,13 @@ public class BlockProcessor {
         return null;
     }
 
+    /**
+     * Returns the phase timings of the most recent call to processBlock, or null if that Block was invalid or already known.
+     */
+    public ProcessBlockTimings getLastProcessBlockTimings() {
+        return _lastProcessBlockTimings;
+    }
+
     public Container<Float> getAverageBlocksPerSecondContainer() {
         return _averageBlocksPerSecond;
     }
@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.chain.time.MutableMedianBlockTime;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.secp256k1.SignatureCache;
 import com.softwareverde.bitcoin.server.Configuration;
 import com.softwareverde.bitcoin.server.Environment;
 import com.softwareverde.bitcoin.server.State;
@@ -12,7 +13,10 @@ import com.softwareverde.bitcoin.server.database.*;
 import com.softwareverde.bitcoin.server.database.cache.LocalDatabaseManagerCache;
 import com.softwareverde.bitcoin.server.database.cache.MasterDatabaseManagerCache;
 import com.softwareverde.bitcoin.server.database.cache.ReadOnlyLocalDatabaseManagerCache;
+import com.softwareverde.bitcoin.server.database.blockstore.FlatFileBlockStore;
+import com.softwareverde.bitcoin.server.database.blockstore.PendingBlockStore;
 import com.softwareverde.bitcoin.server.database.cache.utxo.NativeUnspentTransactionOutputCache;
+import com.softwareverde.bitcoin.server.database.cache.utxo.UnspentTransactionOutputWriteBackCache;
 import com.softwareverde.bitcoin.server.database.pool.MysqlDatabaseConnectionPool;
 import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessage;
 import com.softwareverde.bitcoin.server.message.type.node.address.BitcoinNodeIpAddress;
@@ -34,6 +38,7 @@ import com.softwareverde.bitcoin.server.module.node.sync.*;
 import com.softwareverde.bitcoin.server.module.node.sync.block.BlockDownloader;
 import com.softwareverde.bitcoin.server.module.node.sync.transaction.TransactionDownloader;
 import com.softwareverde.bitcoin.server.module.node.sync.transaction.TransactionProcessor;
+import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionQueue;
 import com.softwareverde.bitcoin.server.node.BitcoinNode;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.util.BitcoinUtil;
@@ -90,6 +95,9 @@ public class NodeModule {
     protected final MutableNetworkTime _mutableNetworkTime = new MutableNetworkTime();
 
     protected final String _transactionBloomFilterFilename;
+    protected final String _pendingTransactionsFilename;
+    protected final PendingTransactionQueue _pendingTransactionQueue;
+    protected final FlatFileBlockStore _blockStore;
 
     protected final MutableList<MysqlDatabaseConnectionPool> _openDatabaseConnectionPools = new MutableList<MysqlDatabaseConnectionPool>();
 
@@ -215,6 +223,27 @@ public class NodeModule {
             TransactionDatabaseManager.saveBloomFilter(_transactionBloomFilterFilename);
         }
 
+        Logger.log("[Saving Pending Transactions]");
+        _pendingTransactionQueue.saveToFile(_pendingTransactionsFilename);
+
+        final UnspentTransactionOutputWriteBackCache unspentTransactionOutputWriteBackCache = _environment.getMasterDatabaseManagerCache().getUnspentTransactionOutputWriteBackCache();
+        if (unspentTransactionOutputWriteBackCache != null) {
+            Logger.log("[Flushing UTXOs]");
+            final MysqlDatabase database = _environment.getDatabase();
+            try (final MysqlDatabaseConnection databaseConnection = database.newConnection()) {
+                final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = new UnspentTransactionOutputDatabaseManager(databaseConnection);
+                unspentTransactionOutputDatabaseManager.flushUnspentTransactionOutputs(unspentTransactionOutputWriteBackCache);
+            }
+            catch (final DatabaseException exception) {
+                Logger.log(exception);
+            }
+        }
+
+        if (_blockStore != null) {
+            Logger.log("[Closing Block Store]");
+            _blockStore.close();
+        }
+
         Logger.log("[Shutting Down Thread Server]");
         _mainThreadPool.stop();
         _rpcThreadPool.stop();
@@ -294,8 +323,31 @@ public class NodeModule {
             }
         }
 
+        { // Initialize the FlatFileBlockStore...
+            FlatFileBlockStore blockStore = null;
+            if (serverProperties.shouldUseBlockStore()) {
+                blockStore = new FlatFileBlockStore(serverProperties.getBlockStoreDirectory());
+                if (! blockStore.open()) {
+                    Logger.log("NOTICE: Unable to open the block store; blocks will only be stored within the database.");
+                    blockStore = null;
+                }
+            }
+            _blockStore = blockStore;
+            BlockDatabaseManager.initializeBlockStore(blockStore);
+        }
+
+        { // Initialize the PendingBlockStore...
+            final PendingBlockStore pendingBlockStore = new PendingBlockStore(serverProperties.getPendingBlockDirectory());
+            if (! pendingBlockStore.open()) {
+                Logger.log("Error initializing pending block store.");
+                BitcoinUtil.exitFailure();
+            }
+            PendingBlockDatabaseManager.initializePendingBlockStore(pendingBlockStore);
+        }
+
         final Long maxUtxoCacheByteCount = serverProperties.getMaxUtxoCacheByteCount();
-        final MasterDatabaseManagerCache masterDatabaseManagerCache = new MasterDatabaseManagerCache(maxUtxoCacheByteCount);
+        final Long maxUtxoWriteBackByteCount = serverProperties.getMaxUtxoWriteBackByteCount();
+        final MasterDatabaseManagerCache masterDatabaseManagerCache = new MasterDatabaseManagerCache(maxUtxoCacheByteCount, maxUtxoWriteBackByteCount);
         final ReadOnlyLocalDatabaseManagerCache readOnlyDatabaseManagerCache = new ReadOnlyLocalDatabaseManagerCache(masterDatabaseManagerCache);
 
         _environment = new Environment(database, masterDatabaseManagerCache);
@@ -354,6 +406,16 @@ public class NodeModule {
             }
         };
 
+        { // Initialize the PendingTransactionQueue...
+            _pendingTransactionsFilename = (databaseProperties.getDataDirectory() + "/pending-transactions.dat");
+            _pendingTransactionQueue = new PendingTransactionQueue();
+
+            final Integer restoredTransactionCount = _pendingTransactionQueue.loadFromFile(_pendingTransactionsFilename);
+            if (restoredTransactionCount > 0) {
+                Logger.log("Restored " + restoredTransactionCount + " pending Transactions.");
+            }
+        }
+
         { // Initialize NodeInitializer...
             final Runnable newInventoryCallback = new Runnable() {
                 @Override
@@ -362,7 +424,7 @@ public class NodeModule {
                 }
             };
 
-            final TransactionInventoryMessageHandlerFactory transactionsAnnouncementCallbackFactory = new TransactionInventoryMessageHandlerFactory(databaseConnectionFactory, readOnlyDatabaseManagerCache, newInventoryCallback);
+            final TransactionInventoryMessageHandlerFactory transactionsAnnouncementCallbackFactory = new TransactionInventoryMessageHandlerFactory(databaseConnectionFactory, readOnlyDatabaseManagerCache, _pendingTransactionQueue, newInventoryCallback);
             final QueryBlocksHandler queryBlocksHandler = new QueryBlocksHandler(databaseConnectionFactory, readOnlyDatabaseManagerCache);
             final QueryBlockHeadersHandler queryBlockHeadersHandler = new QueryBlockHeadersHandler(databaseConnectionFactory, readOnlyDatabaseManagerCache);
             final RequestDataHandler requestDataHandler = new RequestDataHandler(databaseConnectionFactory, readOnlyDatabaseManagerCache);
@@ -385,11 +447,11 @@ public class NodeModule {
         }
 
         { // Initialize the TransactionDownloader...
-            _transactionDownloader = new TransactionDownloader(_bitcoinNodeManager, databaseConnectionFactory, readOnlyDatabaseManagerCache);
+            _transactionDownloader = new TransactionDownloader(_bitcoinNodeManager, databaseConnectionFactory, readOnlyDatabaseManagerCache, _pendingTransactionQueue);
         }
 
         { // Initialize the TransactionProcessor...
-            _transactionProcessor = new TransactionProcessor(databaseConnectionFactory, readOnlyDatabaseManagerCache, _mutableNetworkTime, medianBlockTime, _bitcoinNodeManager);
+            _transactionProcessor = new TransactionProcessor(databaseConnectionFactory, readOnlyDatabaseManagerCache, _mutableNetworkTime, medianBlockTime, _bitcoinNodeManager, _pendingTransactionQueue);
         }
 
         final BlockProcessor blockProcessor;
@@ -397,6 +459,55 @@ public class NodeModule {
             blockProcessor = new BlockProcessor(databaseConnectionFactory, masterDatabaseManagerCache, _mutableNetworkTime, medianBlockTime, orphanedTransactionsCache);
             blockProcessor.setMaxThreadCount(serverProperties.getMaxThreadCount());
             blockProcessor.setTrustedBlockHeight(serverProperties.getTrustedBlockHeight());
+
+            final Long trustedBlockHeight = serverProperties.getTrustedBlockHeight();
+            final Long bulkLoadBlockHeight = serverProperties.getBulkLoadBlockHeight();
+            if (bulkLoadBlockHeight > trustedBlockHeight) {
+                Logger.log("NOTICE: Bulk-load height limited to the trusted block height: " + trustedBlockHeight);
+            }
+            blockProcessor.setBulkLoadBlockHeight(Math.min(bulkLoadBlockHeight, trustedBlockHeight));
+        }
+
+        { // Rebuild any indexes deferred by a previous bulk-load that is no longer in progress...
+            try (final MysqlDatabaseConnection databaseConnection = databaseConnectionFactory.newConnection()) {
+                final BlockDatabaseManager blockDatabaseManager = new BlockDatabaseManager(databaseConnection, readOnlyDatabaseManagerCache);
+                final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, readOnlyDatabaseManagerCache);
+                final BulkLoadDatabaseManager bulkLoadDatabaseManager = new BulkLoadDatabaseManager(databaseConnection);
+
+                final BlockId headBlockId = blockDatabaseManager.getHeadBlockId();
+                final Long headBlockHeight = (headBlockId != null ? blockHeaderDatabaseManager.getBlockHeight(headBlockId) : 0L);
+                final Long bulkLoadBlockHeight = Math.min(serverProperties.getBulkLoadBlockHeight(), serverProperties.getTrustedBlockHeight());
+                if ( ((headBlockHeight + 1L) >= bulkLoadBlockHeight) && bulkLoadDatabaseManager.hasDroppedIndexes() ) {
+                    bulkLoadDatabaseManager.rebuildDeferredIndexes();
+                }
+            }
+            catch (final DatabaseException exception) {
+                Logger.log(exception);
+                BitcoinUtil.exitFailure();
+            }
+        }
+
+        { // Replay the UTXOs left unflushed by an unclean shutdown, and record whether new UTXOs will be buffered...
+            try (final MysqlDatabaseConnection databaseConnection = databaseConnectionFactory.newConnection()) {
+                final BlockDatabaseManager blockDatabaseManager = new BlockDatabaseManager(databaseConnection, readOnlyDatabaseManagerCache);
+                final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, readOnlyDatabaseManagerCache);
+                final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = new UnspentTransactionOutputDatabaseManager(databaseConnection);
+
+                unspentTransactionOutputDatabaseManager.replayUncommittedBlocks();
+
+                if (masterDatabaseManagerCache.getUnspentTransactionOutputWriteBackCache() != null) {
+                    final BlockId headBlockId = blockDatabaseManager.getHeadBlockId();
+                    final Long headBlockHeight = (headBlockId != null ? blockHeaderDatabaseManager.getBlockHeight(headBlockId) : 0L);
+                    unspentTransactionOutputDatabaseManager.setCommittedBlockHeight(headBlockHeight);
+                }
+                else {
+                    unspentTransactionOutputDatabaseManager.setCommittedBlockHeight(null);
+                }
+            }
+            catch (final DatabaseException exception) {
+                Logger.log(exception);
+                BitcoinUtil.exitFailure();
+            }
         }
 
         { // Initialize the BlockDownloader...
@@ -609,6 +720,7 @@ public class NodeModule {
                 final NodeHandler nodeHandler = new NodeHandler(_bitcoinNodeManager, _nodeInitializer);
                 final QueryAddressHandler queryAddressHandler = new QueryAddressHandler(databaseConnectionFactory, readOnlyDatabaseManagerCache);
                 final ThreadPoolInquisitor threadPoolInquisitor = new ThreadPoolInquisitor(_mainThreadPool);
+                final SignatureCacheInquisitor signatureCacheInquisitor = new SignatureCacheInquisitor(SignatureCache.getInstance());
                 final DataHandler dataHandler = new DataHandler(databaseConnectionFactory, readOnlyDatabaseManagerCache);
                 final MetadataHandler metadataHandler = new MetadataHandler(databaseConnectionFactory, readOnlyDatabaseManagerCache);
                 final QueryBlockchainHandler queryBlockchainHandler = new QueryBlockchainHandler(databaseConnectionFactory, readOnlyDatabaseManagerCache);
@@ -624,6 +736,7 @@ public class NodeModule {
                 rpcSocketServerHandler.setQueryAddressHandler(queryAddressHandler);
                 rpcSocketServerHandler.setThreadPoolInquisitor(threadPoolInquisitor);
                 rpcSocketServerHandler.setServiceInquisitor(serviceInquisitor);
+                rpcSocketServerHandler.setSignatureCacheInquisitor(signatureCacheInquisitor);
                 rpcSocketServerHandler.setDataHandler(dataHandler);
                 rpcSocketServerHandler.setMetadataHandler(metadataHandler);
                 rpcSocketServerHandler.setQueryBlockchainHandler(queryBlockchainHandler);
@@ -671,6 +784,18 @@ public class NodeModule {
 
         final Configuration.ServerProperties serverProperties = _configuration.getServerProperties();
 
+        { // Load the BlockHeaderIndex and the head of the best chain...
+            Logger.log("[Loading BlockHeader Index]");
+            final MysqlDatabase database = _environment.getDatabase();
+            try (final MysqlDatabaseConnection databaseConnection = database.newConnection()) {
+                BlockHeaderDatabaseManager.initializeBlockHeaderIndex(databaseConnection);
+                BlockHeaderDatabaseManager.initializeBestChainTracker(databaseConnection);
+            }
+            catch (final DatabaseException exception) {
+                Logger.log(exception);
+            }
+        }
+
         if (serverProperties.shouldUseTransactionBloomFilter()) {
             Logger.log("[Loading Tx Bloom Filter]");
             final MysqlDatabase database = _environment.getDatabase();
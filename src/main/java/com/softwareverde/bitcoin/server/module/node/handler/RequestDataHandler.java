@@ -14,6 +14,7 @@ import com.softwareverde.bitcoin.server.message.type.query.response.transaction.
 import com.softwareverde.bitcoin.server.node.BitcoinNode;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionId;
+import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.mutable.MutableList;
 import com.softwareverde.database.DatabaseException;
@@ -59,15 +60,21 @@ public class RequestDataHandler implements BitcoinNode.RequestDataCallback {
                             continue;
                         }
 
-                        final Block block = blockDatabaseManager.getBlock(blockId);
-                        if (block == null) {
-                            Logger.log("Error inflating Block: " + blockHash);
-                            notFoundDataHashes.add(inventoryItem);
-                            continue;
-                        }
-
                         final BlockMessage blockMessage = new BlockMessage();
-                        blockMessage.setBlock(block);
+                        final ByteArray blockBytes = blockDatabaseManager.getBlockBytes(blockId); // Serve the Block directly from the block store, if available...
+                        if (blockBytes != null) {
+                            blockMessage.setBlockBytes(blockBytes);
+                        }
+                        else {
+                            final Block block = blockDatabaseManager.getBlock(blockId);
+                            if (block == null) {
+                                Logger.log("Error inflating Block: " + blockHash);
+                                notFoundDataHashes.add(inventoryItem);
+                                continue;
+                            }
+
+                            blockMessage.setBlock(block);
+                        }
                         nodeConnection.queueMessage(blockMessage);
                         getBlockDataTimer.stop();
                         Logger.log("GetBlockData: " + blockHash + " "  + nodeConnection.toString() + " " + getBlockDataTimer.getMillisecondsElapsed() + "ms");
@@ -84,15 +91,21 @@ public class RequestDataHandler implements BitcoinNode.RequestDataCallback {
                             continue;
                         }
 
-                        final Transaction transaction = transactionDatabaseManager.getTransaction(transactionId);
-                        if (transaction == null) {
-                            Logger.log("Error inflating Transaction: " + transactionHash);
-                            notFoundDataHashes.add(inventoryItem);
-                            continue;
-                        }
-
                         final TransactionMessage transactionMessage = new TransactionMessage();
-                        transactionMessage.setTransaction(transaction);
+                        final ByteArray transactionBytes = transactionDatabaseManager.getTransactionBytes(transactionId); // Serve confirmed Transactions directly from the block store, if available...
+                        if (transactionBytes != null) {
+                            transactionMessage.setTransactionBytes(transactionBytes);
+                        }
+                        else {
+                            final Transaction transaction = transactionDatabaseManager.getTransaction(transactionId);
+                            if (transaction == null) {
+                                Logger.log("Error inflating Transaction: " + transactionHash);
+                                notFoundDataHashes.add(inventoryItem);
+                                continue;
+                            }
+
+                            transactionMessage.setTransaction(transaction);
+                        }
                         nodeConnection.queueMessage(transactionMessage);
 
                         getTransactionTimer.stop();
@@ -6,6 +6,7 @@ import com.softwareverde.bitcoin.server.database.TransactionDatabaseManager;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.bitcoin.server.module.node.manager.BitcoinNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionId;
+import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionQueue;
 import com.softwareverde.bitcoin.server.node.BitcoinNode;
 import com.softwareverde.bitcoin.transaction.TransactionId;
 import com.softwareverde.constable.list.List;
@@ -24,12 +25,14 @@ public class TransactionInventoryMessageHandler implements BitcoinNode.Transacti
     protected final BitcoinNode _bitcoinNode;
     protected final MysqlDatabaseConnectionFactory _databaseConnectionFactory;
     protected final DatabaseManagerCache _databaseManagerCache;
+    protected final PendingTransactionQueue _pendingTransactionQueue;
     protected final Runnable _newInventoryCallback;
 
-    public TransactionInventoryMessageHandler(final BitcoinNode bitcoinNode, final MysqlDatabaseConnectionFactory databaseConnectionFactory, final DatabaseManagerCache databaseManagerCache, final Runnable newInventoryCallback) {
+    public TransactionInventoryMessageHandler(final BitcoinNode bitcoinNode, final MysqlDatabaseConnectionFactory databaseConnectionFactory, final DatabaseManagerCache databaseManagerCache, final PendingTransactionQueue pendingTransactionQueue, final Runnable newInventoryCallback) {
         _bitcoinNode = bitcoinNode;
         _databaseConnectionFactory = databaseConnectionFactory;
         _databaseManagerCache = databaseManagerCache;
+        _pendingTransactionQueue = pendingTransactionQueue;
         _newInventoryCallback = newInventoryCallback;
     }
 
@@ -42,6 +45,8 @@ public class TransactionInventoryMessageHandler implements BitcoinNode.Transacti
             {
                 final ImmutableListBuilder<Sha256Hash> unseenTransactionHashesBuilder = new ImmutableListBuilder<Sha256Hash>(transactionHashes.getSize());
                 for (final Sha256Hash transactionHash : transactionHashes) {
+                    if (_pendingTransactionQueue.contains(transactionHash)) { continue; } // The Transaction has already been downloaded...
+
                     final TransactionId transactionId = transactionDatabaseManager.getTransactionId(transactionHash);
                     if (transactionId == null) {
                         unseenTransactionHashesBuilder.add(transactionHash);
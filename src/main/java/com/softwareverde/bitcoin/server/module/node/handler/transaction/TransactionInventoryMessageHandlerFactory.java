@@ -2,11 +2,12 @@ package com.softwareverde.bitcoin.server.module.node.handler.transaction;
 
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.bitcoin.server.module.node.manager.NodeInitializer;
+import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionQueue;
 import com.softwareverde.bitcoin.server.node.BitcoinNode;
 import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
 
 public class TransactionInventoryMessageHandlerFactory implements NodeInitializer.TransactionsAnnouncementCallbackFactory {
-    public static final TransactionInventoryMessageHandlerFactory IGNORE_NEW_TRANSACTIONS_HANDLER_FACTORY = new TransactionInventoryMessageHandlerFactory(null, null, null) {
+    public static final TransactionInventoryMessageHandlerFactory IGNORE_NEW_TRANSACTIONS_HANDLER_FACTORY = new TransactionInventoryMessageHandlerFactory(null, null, null, null) {
         @Override
         public BitcoinNode.TransactionInventoryMessageCallback createTransactionsAnnouncementCallback(final BitcoinNode bitcoinNode) {
             return TransactionInventoryMessageHandler.IGNORE_NEW_TRANSACTIONS_HANDLER;
@@ -15,16 +16,18 @@ public class TransactionInventoryMessageHandlerFactory implements NodeInitialize
 
     protected final MysqlDatabaseConnectionFactory _databaseConnectionFactory;
     protected final DatabaseManagerCache _databaseManagerCache;
+    protected final PendingTransactionQueue _pendingTransactionQueue;
     protected final Runnable _newInventoryCallback;
 
-    public TransactionInventoryMessageHandlerFactory(final MysqlDatabaseConnectionFactory databaseConnectionFactory, final DatabaseManagerCache databaseManagerCache, final Runnable newInventoryCallback) {
+    public TransactionInventoryMessageHandlerFactory(final MysqlDatabaseConnectionFactory databaseConnectionFactory, final DatabaseManagerCache databaseManagerCache, final PendingTransactionQueue pendingTransactionQueue, final Runnable newInventoryCallback) {
         _databaseConnectionFactory = databaseConnectionFactory;
         _databaseManagerCache = databaseManagerCache;
+        _pendingTransactionQueue = pendingTransactionQueue;
         _newInventoryCallback = newInventoryCallback;
     }
 
     @Override
     public BitcoinNode.TransactionInventoryMessageCallback createTransactionsAnnouncementCallback(final BitcoinNode bitcoinNode) {
-        return new TransactionInventoryMessageHandler(bitcoinNode, _databaseConnectionFactory, _databaseManagerCache, _newInventoryCallback);
+        return new TransactionInventoryMessageHandler(bitcoinNode, _databaseConnectionFactory, _databaseManagerCache, _pendingTransactionQueue, _newInventoryCallback);
     }
 }
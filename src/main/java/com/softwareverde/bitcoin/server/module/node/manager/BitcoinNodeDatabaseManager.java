@@ -242,7 +242,7 @@ public class BitcoinNodeDatabaseManager {
     public List<NodeId> filterNodesViaTransactionInventory(final List<NodeId> nodeIds, final Sha256Hash transactionHash, final FilterType filterType) throws DatabaseException {
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT node_transactions_inventory.node_id FROM node_transactions_inventory INNER JOIN pending_transactions ON pending_transactions.id = node_transactions_inventory.pending_transaction_id WHERE pending_transactions.hash = ? AND node_transactions_inventory.node_id IN (" + DatabaseUtil.createInClause(nodeIds) + ")")
-                .setParameter(transactionHash)
+                .setParameter(transactionHash.getBytes())
         );
 
         final HashSet<NodeId> filteredNodes = new HashSet<NodeId>(rows.size());
@@ -269,7 +269,7 @@ public class BitcoinNodeDatabaseManager {
     public List<NodeId> filterNodesViaBlockInventory(final List<NodeId> nodeIds, final Sha256Hash blockHash, final FilterType filterType) throws DatabaseException {
         final java.util.List<Row> rows = _databaseConnection.query(
             new Query("SELECT node_blocks_inventory.node_id FROM node_blocks_inventory INNER JOIN pending_blocks ON pending_blocks.id = node_blocks_inventory.pending_block_id WHERE pending_blocks.hash = ? AND node_blocks_inventory.node_id IN (" + DatabaseUtil.createInClause(nodeIds) + ")")
-                .setParameter(blockHash)
+                .setParameter(blockHash.getBytes())
         );
 
         final HashSet<NodeId> filteredNodes = new HashSet<NodeId>(rows.size());
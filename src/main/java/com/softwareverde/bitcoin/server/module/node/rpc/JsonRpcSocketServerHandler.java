@@ -66,6 +66,13 @@ public class JsonRpcSocketServerHandler implements JsonSocketServer.SocketConnec
         Map<String, String> getServiceStatuses();
     }
 
+    public interface SignatureCacheInquisitor {
+        Long getHitCount();
+        Long getMissCount();
+        Integer getItemCount();
+        Integer getMaxItemCount();
+    }
+
     public interface QueryBlockchainHandler {
         List<BlockchainMetadata> getBlockchainMetadata();
     }
@@ -128,6 +135,7 @@ public class JsonRpcSocketServerHandler implements JsonSocketServer.SocketConnec
     protected QueryAddressHandler _queryAddressHandler = null;
     protected ThreadPoolInquisitor _threadPoolInquisitor = null;
     protected ServiceInquisitor _serviceInquisitor = null;
+    protected SignatureCacheInquisitor _signatureCacheInquisitor = null;
     protected DataHandler _dataHandler = null;
     protected MetadataHandler _metadataHandler = null;
     protected QueryBlockchainHandler _queryBlockchainHandler = null;
@@ -432,6 +440,16 @@ public class JsonRpcSocketServerHandler implements JsonSocketServer.SocketConnec
             response.put("serverLoad", serverLoadJson);
         }
 
+        { // Signature Cache
+            final Json signatureCacheJson = new Json();
+            final SignatureCacheInquisitor signatureCacheInquisitor = _signatureCacheInquisitor;
+            signatureCacheJson.put("hitCount",      (signatureCacheInquisitor != null ? signatureCacheInquisitor.getHitCount() : null));
+            signatureCacheJson.put("missCount",     (signatureCacheInquisitor != null ? signatureCacheInquisitor.getMissCount() : null));
+            signatureCacheJson.put("itemCount",     (signatureCacheInquisitor != null ? signatureCacheInquisitor.getItemCount() : null));
+            signatureCacheJson.put("maxItemCount",  (signatureCacheInquisitor != null ? signatureCacheInquisitor.getMaxItemCount() : null));
+            response.put("signatureCache", signatureCacheJson);
+        }
+
         { // Service Statuses
             final Json servicesStatusJson = new Json();
             final ServiceInquisitor serviceInquisitor = _serviceInquisitor;
@@ -769,6 +787,10 @@ public class JsonRpcSocketServerHandler implements JsonSocketServer.SocketConnec
         _serviceInquisitor = serviceInquisitor;
     }
 
+    public void setSignatureCacheInquisitor(final SignatureCacheInquisitor signatureCacheInquisitor) {
+        _signatureCacheInquisitor = signatureCacheInquisitor;
+    }
+
     public void setDataHandler(final DataHandler dataHandler) {
         _dataHandler = dataHandler;
     }
@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.block.header.BlockHeader;
 import com.softwareverde.bitcoin.block.header.BlockHeaderWithTransactionCount;
 import com.softwareverde.bitcoin.block.validator.BlockHeaderValidator;
+import com.softwareverde.bitcoin.block.validator.difficulty.RecentBlockHeaders;
 import com.softwareverde.bitcoin.chain.time.MutableMedianBlockTime;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.server.database.BlockHeaderDatabaseManager;
@@ -13,6 +14,8 @@ import com.softwareverde.bitcoin.server.module.node.manager.BitcoinNodeManager;
 import com.softwareverde.concurrent.pool.ThreadPool;
 import com.softwareverde.concurrent.service.SleepyService;
 import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.constable.list.mutable.MutableList;
 import com.softwareverde.database.DatabaseException;
 import com.softwareverde.database.mysql.MysqlDatabaseConnection;
 import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
@@ -22,8 +25,13 @@ import com.softwareverde.util.Container;
 import com.softwareverde.util.Util;
 import com.softwareverde.util.timer.MilliTimer;
 
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class BlockHeaderDownloader extends SleepyService {
     public static final Long MAX_TIMEOUT_MS = 60000L;
+    protected static final Integer PROOF_OF_WORK_THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors());
 
     protected final MysqlDatabaseConnectionFactory _databaseConnectionFactory;
     protected final DatabaseManagerCache _databaseManagerCache;
@@ -34,6 +42,7 @@ public class BlockHeaderDownloader extends SleepyService {
     protected final MilliTimer _timer;
     protected final BitcoinNodeManager.DownloadBlockHeadersCallback _downloadBlockHeadersCallback;
     protected final Container<Float> _averageBlockHeadersPerSecond = new Container<Float>(0F);
+    protected final RecentBlockHeaders _recentBlockHeaders = new RecentBlockHeaders(); // Guarded by BlockHeaderDatabaseManager.MUTEX...
 
     protected final Object _headersDownloadedPin = new Object();
     protected final Object _genesisBlockPin = new Object();
@@ -124,6 +133,7 @@ public class BlockHeaderDownloader extends SleepyService {
             if (blockId == null) {
                 Logger.log("Error storing BlockHeader: " + blockHash);
                 TransactionUtil.rollbackTransaction(databaseConnection);
+                blockHeaderDatabaseManager.onBlockHeaderRolledBack();
                 return false;
             }
 
@@ -131,6 +141,7 @@ public class BlockHeaderDownloader extends SleepyService {
             if (! blockHeaderIsValid) {
                 Logger.log("Invalid BlockHeader: " + blockHash);
                 TransactionUtil.rollbackTransaction(databaseConnection);
+                blockHeaderDatabaseManager.onBlockHeaderRolledBack();
                 return false;
             }
 
@@ -138,11 +149,140 @@ public class BlockHeaderDownloader extends SleepyService {
             _blockHeight = Math.max(blockHeight, _blockHeight);
 
             TransactionUtil.commitTransaction(databaseConnection);
+            blockHeaderDatabaseManager.onBlockHeaderCommitted(blockId);
+        }
+
+        return true;
+    }
+
+    /**
+     * Hashes each BlockHeader exactly once and checks its proof-of-work, distributing the headers across the ThreadPool.
+     *  The current thread participates in the work, so the batch completes even if the ThreadPool is saturated.
+     *  Returns the (immutable, hash-cached) BlockHeaders preceding the first header with an invalid proof-of-work;
+     *  headers after an invalid header are excluded since they cannot connect to a valid chain.
+     */
+    protected List<BlockHeader> _checkProofOfWork(final List<? extends BlockHeader> blockHeaders) {
+        final int blockHeaderCount = blockHeaders.getSize();
+        final BlockHeader[] checkedBlockHeaders = new BlockHeader[blockHeaderCount];
+        final boolean[] proofOfWorkIsValid = new boolean[blockHeaderCount];
+
+        final AtomicInteger nextIndex = new AtomicInteger(0);
+        final CountDownLatch remainingBlockHeadersLatch = new CountDownLatch(blockHeaderCount);
+        final Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    final int index = nextIndex.getAndIncrement();
+                    if (index >= blockHeaderCount) { break; }
+
+                    final BlockHeader blockHeader = blockHeaders.get(index).asConst();
+                    checkedBlockHeaders[index] = blockHeader;
+                    proofOfWorkIsValid[index] = blockHeader.isValid();
+                    remainingBlockHeadersLatch.countDown();
+                }
+            }
+        };
+
+        final int helperThreadCount = Math.min((PROOF_OF_WORK_THREAD_COUNT - 1), (blockHeaderCount - 1));
+        for (int i = 0; i < helperThreadCount; ++i) {
+            _threadPool.execute(worker);
+        }
+        worker.run();
+
+        // NOTE: Only headers already claimed by a running helper are awaited; helpers still queued within the ThreadPool find no remaining work...
+        try { remainingBlockHeadersLatch.await(); }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return new MutableList<BlockHeader>(0);
+        }
+
+        final ImmutableListBuilder<BlockHeader> validBlockHeaders = new ImmutableListBuilder<BlockHeader>(blockHeaderCount);
+        for (int i = 0; i < blockHeaderCount; ++i) {
+            if (! proofOfWorkIsValid[i]) {
+                Logger.log("Invalid BlockHeader: " + checkedBlockHeaders[i].getHash());
+                break;
+            }
+            validBlockHeaders.add(checkedBlockHeaders[i]);
+        }
+        return validBlockHeaders.build();
+    }
+
+    /**
+     * Stores and validates a contiguous run of new BlockHeaders within a single database transaction.
+     *  Timestamps are validated against a MedianBlockTime that is rolled forward in memory as each header is accepted,
+     *  and difficulty calculations resolve recent ancestors from _recentBlockHeaders rather than the database.
+     *  If any header is invalid (or the headers cannot be inserted as a batch), the entire transaction is rolled back and false is returned.
+     */
+    protected Boolean _validateAndStoreBlockHeaders(final List<BlockHeader> blockHeaders, final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, _databaseManagerCache);
+        final BlockHeader firstBlockHeader = blockHeaders.get(0);
+
+        synchronized (BlockHeaderDatabaseManager.MUTEX) {
+            TransactionUtil.startTransaction(databaseConnection);
+
+            try {
+                final MutableMedianBlockTime medianBlockTime = blockHeaderDatabaseManager.initializeMedianBlockTime(firstBlockHeader.getPreviousBlockHash());
+                final BlockHeaderValidator blockHeaderValidator = new BlockHeaderValidator(databaseConnection, _databaseManagerCache, _nodeManager.getNetworkTime(), medianBlockTime, _recentBlockHeaders);
+
+                final List<BlockId> blockIds = blockHeaderDatabaseManager.insertBlockHeaders(blockHeaders);
+                if (blockIds == null) {
+                    TransactionUtil.rollbackTransaction(databaseConnection);
+                    _recentBlockHeaders.clear();
+                    blockHeaderDatabaseManager.onBlockHeaderRolledBack();
+                    return false;
+                }
+
+                Long blockHeight = null;
+                for (int i = 0; i < blockHeaders.getSize(); ++i) {
+                    final BlockHeader blockHeader = blockHeaders.get(i);
+                    final BlockId blockId = blockIds.get(i);
+                    blockHeight = blockHeaderDatabaseManager.getBlockHeight(blockId);
+
+                    _recentBlockHeaders.addBlockHeader(blockId, blockHeader);
+
+                    final Boolean blockHeaderIsValid = blockHeaderValidator.validateBlockHeader(blockHeader, blockHeight);
+                    if (! blockHeaderIsValid) {
+                        Logger.log("Invalid BlockHeader: " + blockHeader.getHash());
+                        TransactionUtil.rollbackTransaction(databaseConnection);
+                        _recentBlockHeaders.clear();
+                        blockHeaderDatabaseManager.onBlockHeaderRolledBack();
+                        return false;
+                    }
+
+                    medianBlockTime.addBlock(blockHeader);
+                }
+
+                TransactionUtil.commitTransaction(databaseConnection);
+                blockHeaderDatabaseManager.onBlockHeaderCommitted(blockIds.get(blockIds.getSize() - 1)); // Only the last BlockHeader may become the head...
+                _blockHeight = Math.max(blockHeight, _blockHeight);
+            }
+            catch (final DatabaseException exception) {
+                TransactionUtil.rollbackTransaction(databaseConnection);
+                _recentBlockHeaders.clear();
+                blockHeaderDatabaseManager.onBlockHeaderRolledBack();
+                throw exception;
+            }
         }
 
         return true;
     }
 
+    protected void _onBlockHeadersStored(final List<BlockHeader> blockHeaders) {
+        _threadPool.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (final BlockHeader blockHeader : blockHeaders) {
+                    _blockDownloadRequester.requestBlock(blockHeader);
+                }
+            }
+        });
+
+        _blockHeaderCount += blockHeaders.getSize();
+        _timer.stop();
+        final Long millisecondsElapsed = _timer.getMillisecondsElapsed();
+        _averageBlockHeadersPerSecond.value = ( (_blockHeaderCount.floatValue() / millisecondsElapsed) * 1000L );
+    }
+
     protected void _processBlockHeaders(final List<BlockHeaderWithTransactionCount> blockHeaders) {
         final MilliTimer storeHeadersTimer = new MilliTimer();
         storeHeadersTimer.start();
@@ -150,30 +290,56 @@ public class BlockHeaderDownloader extends SleepyService {
         final BlockHeader firstBlockHeader = blockHeaders.get(0);
         Logger.log("DOWNLOADED BLOCK HEADERS: "+ firstBlockHeader.getHash() + " + " + blockHeaders.getSize());
 
+        final List<BlockHeader> validBlockHeaders = _checkProofOfWork(blockHeaders);
+
         try (final MysqlDatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection()) {
-            for (final BlockHeader blockHeader : blockHeaders) {
-                final Sha256Hash blockHash = blockHeader.getHash();
-
-                final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, _databaseManagerCache);
-                final Boolean blockAlreadyExists = blockHeaderDatabaseManager.blockHeaderExists(blockHash);
-                if (! blockAlreadyExists) {
-                    final Boolean blockHeaderWasStored = _validateAndStoreBlockHeader(blockHeader, databaseConnection);
-                    if (! blockHeaderWasStored) { continue; }
-
-                    _threadPool.execute(new Runnable() {
-                        @Override
-                        public void run() {
-                            _blockDownloadRequester.requestBlock(blockHeader);
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, _databaseManagerCache);
+
+            final MutableList<BlockHeader> newBlockHeaders = new MutableList<BlockHeader>(validBlockHeaders.getSize());
+            {
+                final ImmutableListBuilder<Sha256Hash> blockHashes = new ImmutableListBuilder<Sha256Hash>(validBlockHeaders.getSize());
+                for (final BlockHeader blockHeader : validBlockHeaders) {
+                    blockHashes.add(blockHeader.getHash());
+                }
+
+                final Map<Sha256Hash, BlockId> existingBlockIds = blockHeaderDatabaseManager.getBlockHeaderIds(blockHashes.build());
+                for (final BlockHeader blockHeader : validBlockHeaders) {
+                    final Sha256Hash blockHash = blockHeader.getHash();
+                    if (existingBlockIds.containsKey(blockHash)) {
+                        if (newBlockHeaders.isEmpty()) {
+                            _lastBlockHash = blockHash;
                         }
-                    });
+                        continue;
+                    }
 
-                    _blockHeaderCount += 1L;
-                    _timer.stop();
-                    final Long millisecondsElapsed = _timer.getMillisecondsElapsed();
-                    _averageBlockHeadersPerSecond.value = ( (_blockHeaderCount.floatValue() / millisecondsElapsed) * 1000L );
+                    newBlockHeaders.add(blockHeader);
                 }
+            }
 
-                _lastBlockHash = blockHash;
+            if (! newBlockHeaders.isEmpty()) {
+                final Boolean blockHeadersWereStored = _validateAndStoreBlockHeaders(newBlockHeaders, databaseConnection);
+                if (blockHeadersWereStored) {
+                    _onBlockHeadersStored(newBlockHeaders);
+                    _lastBlockHash = newBlockHeaders.get(newBlockHeaders.getSize() - 1).getHash();
+                }
+                else {
+                    // Fall back to storing (and validating) each header individually so that the valid prefix of the batch is retained...
+                    for (final BlockHeader blockHeader : newBlockHeaders) {
+                        final Sha256Hash blockHash = blockHeader.getHash();
+
+                        final Boolean blockAlreadyExists = blockHeaderDatabaseManager.blockHeaderExists(blockHash);
+                        if (! blockAlreadyExists) {
+                            final Boolean blockHeaderWasStored = _validateAndStoreBlockHeader(blockHeader, databaseConnection);
+                            if (! blockHeaderWasStored) { continue; }
+
+                            final MutableList<BlockHeader> storedBlockHeaders = new MutableList<BlockHeader>(1);
+                            storedBlockHeaders.add(blockHeader);
+                            _onBlockHeadersStored(storedBlockHeaders);
+                        }
+
+                        _lastBlockHash = blockHash;
+                    }
+                }
             }
         }
         catch (final DatabaseException exception) {
@@ -17,6 +17,7 @@ import com.softwareverde.bitcoin.server.module.node.manager.BitcoinNodeManager;
 import com.softwareverde.bitcoin.server.module.node.sync.block.BlockDownloader;
 import com.softwareverde.bitcoin.server.module.node.sync.block.pending.PendingBlock;
 import com.softwareverde.bitcoin.server.module.node.sync.block.pending.PendingBlockId;
+import com.softwareverde.bitcoin.server.module.node.sync.block.pending.PendingBlockPrefetcher;
 import com.softwareverde.concurrent.pool.ThreadPool;
 import com.softwareverde.concurrent.service.SleepyService;
 import com.softwareverde.constable.bytearray.ByteArray;
@@ -33,6 +34,11 @@ public class BlockchainBuilder extends SleepyService {
         void onNewBlock(Long blockHeight, Block block);
     }
 
+    /**
+     * The number of descendant blocks loaded and inflated ahead of the block currently being processed.
+     */
+    public static final Integer PREFETCH_BLOCK_COUNT = 2;
+
     protected final ThreadPool _threadPool;
     protected final BitcoinNodeManager _bitcoinNodeManager;
     protected final MysqlDatabaseConnectionFactory _databaseConnectionFactory;
@@ -52,6 +58,13 @@ public class BlockchainBuilder extends SleepyService {
         final BlockInflater blockInflater = new BlockInflater();
         final Block block = blockInflater.fromBytes(blockData);
 
+        return _processPendingBlock(pendingBlock, block);
+    }
+
+    protected Boolean _processPendingBlock(final PendingBlock pendingBlock, final Block block) {
+        if (pendingBlock == null) { return false; } // NOTE: Can happen due to race condition...
+        if (pendingBlock.getData() == null) { return false; }
+
         if (block != null) {
             final Long processedBlockHeight = _blockProcessor.processBlock(block);
             final Boolean blockWasValid = (processedBlockHeight != null);
@@ -71,7 +84,7 @@ public class BlockchainBuilder extends SleepyService {
             return blockWasValid;
         }
         else {
-            Logger.log("NOTICE: Pending Block Corrupted: " + pendingBlock.getBlockHash() + " " + blockData);
+            Logger.log("NOTICE: Pending Block Corrupted: " + pendingBlock.getBlockHash() + " " + pendingBlock.getData());
             return false;
         }
     }
@@ -92,6 +105,10 @@ public class BlockchainBuilder extends SleepyService {
             final BlockDatabaseManager blockDatabaseManager = new BlockDatabaseManager(databaseConnection, _databaseCache);
             synchronized (BlockHeaderDatabaseManager.MUTEX) {
                 blockId = blockDatabaseManager.storeBlock(block);
+
+                final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, _databaseCache);
+                blockHeaderDatabaseManager.onBlockHeaderCommitted(blockId); // NOTE: The genesis Block is stored outside of a database transaction...
+                blockDatabaseManager.onBlockCommitted(blockId);
             }
         }
         else {
@@ -174,29 +191,47 @@ public class BlockchainBuilder extends SleepyService {
                 TransactionUtil.commitTransaction(databaseConnection);
 
                 // Process the any viable descendant blocks of the candidate block...
+                //  The descendants are loaded and inflated by the PendingBlockPrefetcher while the current block is being processed.
                 PendingBlock previousPendingBlock = candidatePendingBlock;
                 while (! thread.isInterrupted()) {
-                    final List<PendingBlockId> pendingBlockIds = pendingBlockDatabaseManager.getPendingBlockIdsWithPreviousBlockHash(previousPendingBlock.getBlockHash());
-                    if (pendingBlockIds.isEmpty()) { break; }
-
-                    for (final PendingBlockId pendingBlockId : pendingBlockIds) {
-                        final PendingBlock pendingBlock = pendingBlockDatabaseManager.getPendingBlock(pendingBlockId); // NOTE: In the case of a fork, this effectively arbitrarily selects one and relies on the next iteration to process the neglected branch.
+                    final PendingBlockPrefetcher pendingBlockPrefetcher = new PendingBlockPrefetcher(_databaseConnectionFactory, previousPendingBlock.getBlockHash(), PREFETCH_BLOCK_COUNT);
+                    pendingBlockPrefetcher.start();
+
+                    boolean processBlockFailed = false;
+                    try {
+                        while (! thread.isInterrupted()) {
+                            final PendingBlockPrefetcher.PrefetchedBlock prefetchedBlock = pendingBlockPrefetcher.getNextBlock();
+                            if (prefetchedBlock == null) { break; }
+
+                            final PendingBlockId pendingBlockId = prefetchedBlock.getPendingBlockId();
+                            final PendingBlock pendingBlock = prefetchedBlock.getPendingBlock(); // NOTE: In the case of a fork, this effectively arbitrarily selects one and relies on the next iteration to process the neglected branch.
+
+                            final Boolean processBlockWasSuccessful = _processPendingBlock(pendingBlock, prefetchedBlock.getBlock());
+                            if (! processBlockWasSuccessful) {
+                                TransactionUtil.startTransaction(databaseConnection);
+                                pendingBlockDatabaseManager.deletePendingBlock(pendingBlockId);
+                                TransactionUtil.commitTransaction(databaseConnection);
+                                Logger.log("Deleted failed pending block.");
+                                processBlockFailed = true;
+                                break;
+                            }
 
-                        final Boolean processBlockWasSuccessful = _processPendingBlock(pendingBlock);
-                        if (! processBlockWasSuccessful) {
                             TransactionUtil.startTransaction(databaseConnection);
                             pendingBlockDatabaseManager.deletePendingBlock(pendingBlockId);
                             TransactionUtil.commitTransaction(databaseConnection);
-                            Logger.log("Deleted failed pending block.");
-                            break;
-                        }
-
-                        TransactionUtil.startTransaction(databaseConnection);
-                        pendingBlockDatabaseManager.deletePendingBlock(pendingBlockId);
-                        TransactionUtil.commitTransaction(databaseConnection);
 
-                        previousPendingBlock = pendingBlock;
+                            previousPendingBlock = pendingBlock;
+                        }
                     }
+                    catch (final InterruptedException exception) {
+                        thread.interrupt(); // Do not consume the interrupted status...
+                    }
+                    finally {
+                        // NOTE: Any prefetched descendants of a failed block are discarded; they remain pending and are reconsidered by the next prefetcher...
+                        pendingBlockPrefetcher.stop();
+                    }
+
+                    if (! processBlockFailed) { break; } // The chain of available descendants has been exhausted...
                 }
             }
         }
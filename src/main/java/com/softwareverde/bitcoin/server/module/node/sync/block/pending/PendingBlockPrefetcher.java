@@ -0,0 +1,161 @@
+package com.softwareverde.bitcoin.server.module.node.sync.block.pending;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.server.database.PendingBlockDatabaseManager;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.io.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Loads and inflates the chain of PendingBlocks descending from a block on a background thread,
+ *  so that reading the block data and inflating the next blocks overlaps with processing the current block.
+ *  At most maxQueuedBlockCount blocks are held in memory; the loader waits until the consumer catches up.
+ *  When a PendingBlock has multiple children, the first is followed; the neglected branch is left for the next candidate selection.
+ */
+public class PendingBlockPrefetcher {
+    public static class PrefetchedBlock {
+        protected final PendingBlockId _pendingBlockId;
+        protected final PendingBlock _pendingBlock;
+        protected final Block _block;
+
+        protected PrefetchedBlock(final PendingBlockId pendingBlockId, final PendingBlock pendingBlock, final Block block) {
+            _pendingBlockId = pendingBlockId;
+            _pendingBlock = pendingBlock;
+            _block = block;
+        }
+
+        public PendingBlockId getPendingBlockId() { return _pendingBlockId; }
+
+        /**
+         * Returns the PendingBlock, or null if it was deleted before it could be loaded.
+         */
+        public PendingBlock getPendingBlock() { return _pendingBlock; }
+
+        /**
+         * Returns the inflated Block, or null if the PendingBlock has no data or its data is corrupted.
+         */
+        public Block getBlock() { return _block; }
+    }
+
+    protected static final PrefetchedBlock END_OF_CHAIN = new PrefetchedBlock(null, null, null);
+
+    protected final MysqlDatabaseConnectionFactory _databaseConnectionFactory;
+    protected final Sha256Hash _startingBlockHash;
+    protected final BlockingQueue<PrefetchedBlock> _prefetchedBlocks;
+    protected final Thread _thread;
+    protected volatile Boolean _hasReachedEndOfChain = false;
+
+    protected static Block _inflateBlock(final ByteArray blockData) {
+        if (blockData == null) { return null; }
+
+        final BlockInflater blockInflater = new BlockInflater();
+        final Block block = blockInflater.fromBytes(blockData);
+        if (block == null) { return null; }
+
+        { // Calculate the hashes while still on the prefetch thread...
+            block.getHash();
+            for (final Transaction transaction : block.getTransactions()) {
+                transaction.getHash();
+            }
+        }
+
+        return block;
+    }
+
+    protected void _run() {
+        final Thread thread = Thread.currentThread();
+
+        try (final MysqlDatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection()) {
+            final PendingBlockDatabaseManager pendingBlockDatabaseManager = new PendingBlockDatabaseManager(databaseConnection);
+
+            Sha256Hash previousBlockHash = _startingBlockHash;
+            while (! thread.isInterrupted()) {
+                final List<PendingBlockId> pendingBlockIds = pendingBlockDatabaseManager.getPendingBlockIdsWithPreviousBlockHash(previousBlockHash);
+                if (pendingBlockIds.isEmpty()) { break; }
+
+                final PendingBlockId pendingBlockId = pendingBlockIds.get(0);
+                final PendingBlock pendingBlock = pendingBlockDatabaseManager.getPendingBlock(pendingBlockId);
+                final Block block = ((pendingBlock != null) ? _inflateBlock(pendingBlock.getData()) : null);
+
+                _prefetchedBlocks.put(new PrefetchedBlock(pendingBlockId, pendingBlock, block));
+
+                if (block == null) { break; } // The consumer will fail to process this block, so its descendants will not be processed...
+                previousBlockHash = pendingBlock.getBlockHash();
+            }
+        }
+        catch (final DatabaseException exception) {
+            Logger.log(exception);
+        }
+        catch (final InterruptedException exception) {
+            return; // The consumer has stopped the prefetcher and will not read any further blocks...
+        }
+
+        try {
+            _prefetchedBlocks.put(END_OF_CHAIN);
+        }
+        catch (final InterruptedException exception) { }
+    }
+
+    public PendingBlockPrefetcher(final MysqlDatabaseConnectionFactory databaseConnectionFactory, final Sha256Hash startingBlockHash, final Integer maxQueuedBlockCount) {
+        _databaseConnectionFactory = databaseConnectionFactory;
+        _startingBlockHash = startingBlockHash;
+        _prefetchedBlocks = new ArrayBlockingQueue<PrefetchedBlock>(Math.max(1, maxQueuedBlockCount));
+
+        _thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                _run();
+            }
+        });
+        _thread.setName("PendingBlockPrefetcher");
+        _thread.setDaemon(true);
+    }
+
+    public void start() {
+        _thread.start();
+    }
+
+    /**
+     * Blocks until the next descendant block is available and returns it.
+     *  Returns null once the chain of available PendingBlocks has been exhausted.
+     */
+    public PrefetchedBlock getNextBlock() throws InterruptedException {
+        if (_hasReachedEndOfChain) { return null; }
+
+        final PrefetchedBlock prefetchedBlock = _prefetchedBlocks.take();
+        if (prefetchedBlock == END_OF_CHAIN) {
+            _hasReachedEndOfChain = true;
+            return null;
+        }
+
+        return prefetchedBlock;
+    }
+
+    /**
+     * Stops the loader thread and discards any blocks that have not been consumed.
+     *  Discarded blocks remain pending and are loaded again by a later prefetcher.
+     */
+    public void stop() {
+        _thread.interrupt();
+        _prefetchedBlocks.clear(); // Unblock the loader if it is waiting for room within the queue...
+
+        try {
+            _thread.join();
+        }
+        catch (final InterruptedException exception) {
+            final Thread currentThread = Thread.currentThread();
+            currentThread.interrupt(); // Do not consume the interrupted status...
+        }
+
+        _prefetchedBlocks.clear();
+    }
+}
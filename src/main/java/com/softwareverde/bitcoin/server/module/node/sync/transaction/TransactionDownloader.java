@@ -6,6 +6,7 @@ import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.bitcoin.server.module.node.manager.BitcoinNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.manager.BitcoinNodeManager;
 import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionId;
+import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionQueue;
 import com.softwareverde.bitcoin.server.node.BitcoinNode;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.concurrent.service.SleepyService;
@@ -36,13 +37,26 @@ public class TransactionDownloader extends SleepyService {
     protected final DatabaseManagerCache _databaseCache;
     protected final Map<Sha256Hash, MilliTimer> _currentTransactionDownloadSet = new ConcurrentHashMap<Sha256Hash, MilliTimer>();
     protected final BitcoinNodeManager.DownloadTransactionCallback _transactionDownloadedCallback;
+    protected final PendingTransactionQueue _pendingTransactionQueue;
 
     protected Runnable _newTransactionAvailableCallback = null;
 
     protected void _onTransactionDownloaded(final Transaction transaction, final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
         final PendingTransactionDatabaseManager pendingTransactionDatabaseManager = new PendingTransactionDatabaseManager(databaseConnection);
 
-        pendingTransactionDatabaseManager.storeTransaction(transaction);
+        final Sha256Hash transactionHash = transaction.getHash();
+        final Boolean transactionWasQueued = _pendingTransactionQueue.offer(transaction);
+        if (! transactionWasQueued) {
+            if (! _pendingTransactionQueue.contains(transactionHash)) {
+                Logger.log("NOTICE: Pending Transaction queue is full; dropping Transaction: " + transactionHash);
+            }
+        }
+
+        // The PendingTransaction's row (and its node inventory) is only used to schedule its download...
+        final PendingTransactionId pendingTransactionId = pendingTransactionDatabaseManager.getPendingTransactionId(transactionHash);
+        if (pendingTransactionId != null) {
+            pendingTransactionDatabaseManager.deletePendingTransaction(pendingTransactionId);
+        }
     }
 
     protected void _markPendingTransactionIdsAsFailed(final Set<Sha256Hash> pendingTransactionHashes) {
@@ -146,10 +160,11 @@ public class TransactionDownloader extends SleepyService {
     @Override
     protected void _onSleep() { }
 
-    public TransactionDownloader(final BitcoinNodeManager bitcoinNodeManager, final MysqlDatabaseConnectionFactory databaseConnectionFactory, final DatabaseManagerCache databaseCache) {
+    public TransactionDownloader(final BitcoinNodeManager bitcoinNodeManager, final MysqlDatabaseConnectionFactory databaseConnectionFactory, final DatabaseManagerCache databaseCache, final PendingTransactionQueue pendingTransactionQueue) {
         _bitcoinNodeManager = bitcoinNodeManager;
         _databaseConnectionFactory = databaseConnectionFactory;
         _databaseCache = databaseCache;
+        _pendingTransactionQueue = pendingTransactionQueue;
 
         _transactionDownloadedCallback = new BitcoinNodeManager.DownloadTransactionCallback() {
             @Override
@@ -11,10 +11,11 @@ import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.bitcoin.server.module.node.manager.BitcoinNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.manager.BitcoinNodeManager;
 import com.softwareverde.bitcoin.server.module.node.manager.FilterType;
-import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionId;
+import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionQueue;
 import com.softwareverde.bitcoin.server.node.BitcoinNode;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionId;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
 import com.softwareverde.bitcoin.transaction.validator.TransactionValidator;
 import com.softwareverde.concurrent.service.SleepyService;
 import com.softwareverde.constable.list.List;
@@ -32,6 +33,7 @@ import com.softwareverde.util.timer.MilliTimer;
 import com.softwareverde.util.type.time.SystemTime;
 
 import java.util.HashMap;
+import java.util.HashSet;
 
 public class TransactionProcessor extends SleepyService {
     public interface NewTransactionProcessedCallback {
@@ -39,17 +41,41 @@ public class TransactionProcessor extends SleepyService {
     }
 
     protected static final Long MIN_MILLISECONDS_BEFORE_ORPHAN_PURGE = 5000L;
+    protected static final Integer MAX_TRANSACTION_COUNT_PER_BATCH = 1024;
 
     protected final MysqlDatabaseConnectionFactory _databaseConnectionFactory;
     protected final DatabaseManagerCache _databaseCache;
     protected final BitcoinNodeManager _bitcoinNodeManager;
     protected final NetworkTime _networkTime;
     protected final MedianBlockTime _medianBlockTime;
+    protected final PendingTransactionQueue _pendingTransactionQueue;
 
     protected final SystemTime _systemTime;
     protected Long _lastOrphanPurgeTime;
     protected NewTransactionProcessedCallback _newTransactionProcessedCallback;
 
+    /**
+     * Returns the hashes of the Transactions spent by the transaction that are not yet known.
+     */
+    protected List<Sha256Hash> _getMissingPreviousTransactionHashes(final Transaction transaction, final TransactionDatabaseManager transactionDatabaseManager) throws DatabaseException {
+        final HashSet<Sha256Hash> missingTransactionHashes = new HashSet<Sha256Hash>();
+        for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+            final Sha256Hash previousTransactionHash = transactionInput.getPreviousOutputTransactionHash();
+            if (missingTransactionHashes.contains(previousTransactionHash)) { continue; }
+
+            final TransactionId previousTransactionId = transactionDatabaseManager.getTransactionId(previousTransactionHash);
+            if (previousTransactionId == null) {
+                missingTransactionHashes.add(previousTransactionHash);
+            }
+        }
+
+        final ImmutableListBuilder<Sha256Hash> listBuilder = new ImmutableListBuilder<Sha256Hash>(missingTransactionHashes.size());
+        for (final Sha256Hash missingTransactionHash : missingTransactionHashes) {
+            listBuilder.add(missingTransactionHash);
+        }
+        return listBuilder.build();
+    }
+
     @Override
     protected void _onStart() { }
 
@@ -66,6 +92,17 @@ public class TransactionProcessor extends SleepyService {
                 final MilliTimer purgeOrphanedTransactionsTimer = new MilliTimer();
                 purgeOrphanedTransactionsTimer.start();
                 pendingTransactionDatabaseManager.purgeExpiredOrphanedTransactions();
+
+                { // Release queued Transactions whose previous Transactions became known without being relayed (i.e. via a Block)...
+                    final TransactionDatabaseManager transactionDatabaseManager = new TransactionDatabaseManager(databaseConnection, _databaseCache);
+                    for (final Sha256Hash missingTransactionHash : _pendingTransactionQueue.getMissingTransactionHashes()) {
+                        final TransactionId transactionId = transactionDatabaseManager.getTransactionId(missingTransactionHash);
+                        if (transactionId != null) {
+                            _pendingTransactionQueue.onTransactionProcessed(missingTransactionHash);
+                        }
+                    }
+                }
+                _pendingTransactionQueue.purgeExpiredTransactions(PendingTransactionDatabaseManager.MAX_ORPHANED_TRANSACTION_AGE_IN_SECONDS);
                 purgeOrphanedTransactionsTimer.stop();
                 Logger.log("Purge Orphaned Transactions: " + purgeOrphanedTransactionsTimer.getMillisecondsElapsed() + "ms");
                 _lastOrphanPurgeTime = _systemTime.getCurrentTimeInMilliSeconds();
@@ -74,100 +111,121 @@ public class TransactionProcessor extends SleepyService {
             final TransactionDatabaseManager transactionDatabaseManager = new TransactionDatabaseManager(databaseConnection, _databaseCache);
 
             while (! thread.isInterrupted()) {
-                final List<PendingTransactionId> pendingTransactionIds = pendingTransactionDatabaseManager.selectCandidatePendingTransactionIds();
-                if (pendingTransactionIds.isEmpty()) { return false; }
+                final List<Transaction> pendingTransactions = _pendingTransactionQueue.poll(MAX_TRANSACTION_COUNT_PER_BATCH);
+                if (pendingTransactions.isEmpty()) { return false; }
 
-                final HashMap<Sha256Hash, PendingTransactionId> pendingTransactionIdMap = new HashMap<Sha256Hash, PendingTransactionId>(pendingTransactionIds.getSize());
-                final MutableList<Transaction> transactionsToStore = new MutableList<Transaction>(pendingTransactionIds.getSize());
-                for (final PendingTransactionId pendingTransactionId : pendingTransactionIds) {
-                    if (thread.isInterrupted()) { return false; }
+                // NOTE: If a DatabaseException interrupts the batch, the Transactions that have not been processed are returned to the queue...
+                final HashSet<Sha256Hash> processedTransactionHashes = new HashSet<Sha256Hash>(pendingTransactions.getSize());
 
-                    final Transaction transaction = pendingTransactionDatabaseManager.getPendingTransaction(pendingTransactionId);
-                    if (transaction == null) { continue; }
+                int invalidTransactionCount = 0;
+                int storedTransactionCount = 0;
+                final MutableList<Transaction> transactionsToStore = new MutableList<Transaction>(pendingTransactions.getSize());
+                final HashMap<NodeId, MutableList<Sha256Hash>> nodeUnseenTransactionHashes = new HashMap<NodeId, MutableList<Sha256Hash>>();
+                final MilliTimer storeTransactionsTimer = new MilliTimer();
+                try {
+                    for (final Transaction transaction : pendingTransactions) {
+                        if (thread.isInterrupted()) {
+                            _pendingTransactionQueue.offer(transaction); // Return the Transaction to the queue so that it may be persisted...
+                            processedTransactionHashes.add(transaction.getHash());
+                            continue;
+                        }
 
-                    final Boolean transactionCanBeStored = transactionDatabaseManager.previousOutputsExist(transaction);
-                    if (! transactionCanBeStored) {
-                        pendingTransactionDatabaseManager.updateTransactionDependencies(transaction);
-                        continue;
-                    }
+                        final Boolean transactionCanBeStored = transactionDatabaseManager.previousOutputsExist(transaction);
+                        if (! transactionCanBeStored) {
+                            final List<Sha256Hash> missingTransactionHashes = _getMissingPreviousTransactionHashes(transaction, transactionDatabaseManager);
+                            if (missingTransactionHashes.isEmpty()) { // The previous Transactions exist, but the spent outputs do not...
+                                invalidTransactionCount += 1;
+                                Logger.log("Invalid MemoryPool Transaction: " + transaction.getHash());
+                                processedTransactionHashes.add(transaction.getHash());
+                                continue;
+                            }
+
+                            _pendingTransactionQueue.waitForPreviousTransactions(transaction, missingTransactionHashes);
+                            processedTransactionHashes.add(transaction.getHash());
+                            continue;
+                        }
 
-                    pendingTransactionIdMap.put(transaction.getHash(), pendingTransactionId);
-                    transactionsToStore.add(transaction);
-                }
+                        transactionsToStore.add(transaction);
+                    }
 
-                final TransactionValidator transactionValidator = new TransactionValidator(databaseConnection, _databaseCache, _networkTime, _medianBlockTime);
-                transactionValidator.setLoggingEnabled(true);
+                    final TransactionValidator transactionValidator = new TransactionValidator(databaseConnection, _databaseCache, _networkTime, _medianBlockTime);
+                    transactionValidator.setLoggingEnabled(true);
 
-                final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, _databaseCache);
+                    final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, _databaseCache);
 
-                final BlockId blockId = blockHeaderDatabaseManager.getHeadBlockHeaderId();
-                final BlockchainSegmentId blockchainSegmentId = blockHeaderDatabaseManager.getBlockchainSegmentId(blockId);
-                final Long blockHeight = blockHeaderDatabaseManager.getBlockHeight(blockId);
+                    final BlockId blockId = blockHeaderDatabaseManager.getHeadBlockHeaderId();
+                    final BlockchainSegmentId blockchainSegmentId = blockHeaderDatabaseManager.getBlockchainSegmentId(blockId);
+                    final Long blockHeight = blockHeaderDatabaseManager.getBlockHeight(blockId);
 
-                final List<NodeId> connectedNodes;
-                {
-                    final List<BitcoinNode> nodes = _bitcoinNodeManager.getNodes();
-                    final ImmutableListBuilder<NodeId> nodeIdsBuilder = new ImmutableListBuilder<NodeId>(nodes.getSize());
-                    for (final BitcoinNode bitcoinNode : nodes) {
-                        nodeIdsBuilder.add(bitcoinNode.getId());
+                    final List<NodeId> connectedNodes;
+                    {
+                        final List<BitcoinNode> nodes = _bitcoinNodeManager.getNodes();
+                        final ImmutableListBuilder<NodeId> nodeIdsBuilder = new ImmutableListBuilder<NodeId>(nodes.getSize());
+                        for (final BitcoinNode bitcoinNode : nodes) {
+                            nodeIdsBuilder.add(bitcoinNode.getId());
+                        }
+                        connectedNodes = nodeIdsBuilder.build();
                     }
-                    connectedNodes = nodeIdsBuilder.build();
-                }
 
-                final HashMap<NodeId, MutableList<Sha256Hash>> nodeUnseenTransactionHashes = new HashMap<NodeId, MutableList<Sha256Hash>>();
+                    storeTransactionsTimer.start();
+                    for (final Transaction transaction : transactionsToStore) {
+                        if (thread.isInterrupted()) {
+                            _pendingTransactionQueue.offer(transaction); // Return the Transaction to the queue so that it may be persisted...
+                            processedTransactionHashes.add(transaction.getHash());
+                            continue;
+                        }
 
-                int invalidTransactionCount = 0;
-                final MilliTimer storeTransactionsTimer = new MilliTimer();
-                storeTransactionsTimer.start();
-                for (final Transaction transaction : transactionsToStore) {
-                    if (thread.isInterrupted()) { break; }
+                        final Sha256Hash transactionHash = transaction.getHash();
 
-                    final Sha256Hash transactionHash = transaction.getHash();
-                    final PendingTransactionId pendingTransactionId = pendingTransactionIdMap.get(transactionHash);
-                    if (pendingTransactionId == null) { continue; }
+                        TransactionUtil.startTransaction(databaseConnection);
 
-                    TransactionUtil.startTransaction(databaseConnection);
+                        final TransactionId transactionId = transactionDatabaseManager.storeTransaction(transaction);
+                        final Boolean transactionIsValid = transactionValidator.validateTransaction(blockchainSegmentId, blockHeight, transaction, true);
 
-                    final TransactionId transactionId = transactionDatabaseManager.storeTransaction(transaction);
-                    final Boolean transactionIsValid = transactionValidator.validateTransaction(blockchainSegmentId, blockHeight, transaction, true);
+                        if (! transactionIsValid) {
+                            TransactionUtil.rollbackTransaction(databaseConnection);
 
-                    if (! transactionIsValid) {
-                        TransactionUtil.rollbackTransaction(databaseConnection);
+                            invalidTransactionCount += 1;
+                            Logger.log("Invalid MemoryPool Transaction: " + transactionHash);
+                            processedTransactionHashes.add(transactionHash);
+                            continue;
+                        }
 
-                        TransactionUtil.startTransaction(databaseConnection);
-                        pendingTransactionDatabaseManager.deletePendingTransaction(pendingTransactionId);
+                        transactionDatabaseManager.addToUnconfirmedTransaction(transactionId);
                         TransactionUtil.commitTransaction(databaseConnection);
+                        processedTransactionHashes.add(transactionHash);
+                        storedTransactionCount += 1;
 
-                        invalidTransactionCount += 1;
-                        Logger.log("Invalid MemoryPool Transaction: " + transactionHash);
-                        continue;
-                    }
+                        _pendingTransactionQueue.onTransactionProcessed(transactionHash);
 
-                    transactionDatabaseManager.addToUnconfirmedTransaction(transactionId);
-                    TransactionUtil.commitTransaction(databaseConnection);
+                        final List<NodeId> nodesWithoutTransaction = nodeDatabaseManager.filterNodesViaTransactionInventory(connectedNodes, transactionHash, FilterType.KEEP_NODES_WITHOUT_INVENTORY);
+                        for (final NodeId nodeId : nodesWithoutTransaction) {
+                            if (! nodeUnseenTransactionHashes.containsKey(nodeId)) {
+                                nodeUnseenTransactionHashes.put(nodeId, new MutableList<Sha256Hash>());
+                            }
 
-                    final List<NodeId> nodesWithoutTransaction = nodeDatabaseManager.filterNodesViaTransactionInventory(connectedNodes, transactionHash, FilterType.KEEP_NODES_WITHOUT_INVENTORY);
-                    for (final NodeId nodeId : nodesWithoutTransaction) {
-                        if (! nodeUnseenTransactionHashes.containsKey(nodeId)) {
-                            nodeUnseenTransactionHashes.put(nodeId, new MutableList<Sha256Hash>());
+                            final MutableList<Sha256Hash> transactionHashes = nodeUnseenTransactionHashes.get(nodeId);
+                            transactionHashes.add(transactionHash);
                         }
 
-                        final MutableList<Sha256Hash> transactionHashes = nodeUnseenTransactionHashes.get(nodeId);
-                        transactionHashes.add(transactionHash);
+                        final NewTransactionProcessedCallback newTransactionProcessedCallback = _newTransactionProcessedCallback;
+                        if (newTransactionProcessedCallback != null) {
+                            newTransactionProcessedCallback.onNewTransaction(transaction);
+                        }
                     }
-
-                    TransactionUtil.startTransaction(databaseConnection);
-                    pendingTransactionDatabaseManager.deletePendingTransaction(pendingTransactionId);
-                    TransactionUtil.commitTransaction(databaseConnection);
-
-                    final NewTransactionProcessedCallback newTransactionProcessedCallback = _newTransactionProcessedCallback;
-                    if (newTransactionProcessedCallback != null) {
-                        newTransactionProcessedCallback.onNewTransaction(transaction);
+                }
+                catch (final DatabaseException exception) {
+                    for (final Transaction transaction : pendingTransactions) {
+                        if (processedTransactionHashes.contains(transaction.getHash())) { continue; }
+                        _pendingTransactionQueue.offer(transaction);
                     }
+
+                    TransactionUtil.rollbackTransaction(databaseConnection);
+                    throw exception;
                 }
                 storeTransactionsTimer.stop();
 
-                Logger.log("Committed " + (transactionsToStore.getSize() - invalidTransactionCount) + " transactions to the MemoryPool in " + storeTransactionsTimer.getMillisecondsElapsed() + "ms. (" + String.format("%.2f", (transactionsToStore.getSize() / storeTransactionsTimer.getMillisecondsElapsed().floatValue() * 1000F)) + "tps) (" + invalidTransactionCount + " invalid)");
+                Logger.log("Committed " + storedTransactionCount + " transactions to the MemoryPool in " + storeTransactionsTimer.getMillisecondsElapsed() + "ms. (" + String.format("%.2f", (transactionsToStore.getSize() / storeTransactionsTimer.getMillisecondsElapsed().floatValue() * 1000F)) + "tps) (" + invalidTransactionCount + " invalid) (" + _pendingTransactionQueue.getTransactionCount() + " pending)");
 
                 for (final NodeId nodeId : nodeUnseenTransactionHashes.keySet()) {
                     final BitcoinNode bitcoinNode = _bitcoinNodeManager.getNode(nodeId);
@@ -190,12 +248,13 @@ public class TransactionProcessor extends SleepyService {
     @Override
     protected void _onSleep() { }
 
-    public TransactionProcessor(final MysqlDatabaseConnectionFactory databaseConnectionFactory, final DatabaseManagerCache databaseCache, final NetworkTime networkTime, final MedianBlockTime medianBlockTime, final BitcoinNodeManager bitcoinNodeManager) {
+    public TransactionProcessor(final MysqlDatabaseConnectionFactory databaseConnectionFactory, final DatabaseManagerCache databaseCache, final NetworkTime networkTime, final MedianBlockTime medianBlockTime, final BitcoinNodeManager bitcoinNodeManager, final PendingTransactionQueue pendingTransactionQueue) {
         _databaseConnectionFactory = databaseConnectionFactory;
         _databaseCache = databaseCache;
         _networkTime = networkTime;
         _medianBlockTime = medianBlockTime;
         _bitcoinNodeManager = bitcoinNodeManager;
+        _pendingTransactionQueue = pendingTransactionQueue;
 
         _systemTime = new SystemTime();
         _lastOrphanPurgeTime = 0L;
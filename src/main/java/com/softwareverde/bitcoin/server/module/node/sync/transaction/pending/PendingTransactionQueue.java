@@ -0,0 +1,282 @@
+package com.softwareverde.bitcoin.server.module.node.sync.transaction.pending;
+
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionDeflater;
+import com.softwareverde.bitcoin.transaction.TransactionInflater;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayReader;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.io.Logger;
+import com.softwareverde.util.IoUtil;
+import com.softwareverde.util.bytearray.ByteArrayBuilder;
+import com.softwareverde.util.type.time.SystemTime;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds downloaded Transactions until the TransactionProcessor adds them to the MemoryPool.
+ *  Transactions are polled in the order they were received.  A polled Transaction whose previous Transactions are not yet known is returned
+ *  to the queue via waitForPreviousTransactions, indexed by the hashes of its missing previous Transactions, and is made available again once
+ *  each of those Transactions has been processed (see onTransactionProcessed).
+ *  The queue is bounded by the serialized size of its Transactions; when full, the oldest waiting Transactions are evicted first, and new
+ *  Transactions are rejected if no waiting Transactions remain.
+ */
+public class PendingTransactionQueue {
+    public static final Long DEFAULT_MAX_BYTE_COUNT = (64L * ByteUtil.Unit.MEGABYTES);
+
+    protected static class QueuedTransaction {
+        public final Transaction transaction;
+        public final Integer byteCount;
+        public final Long queuedTimestamp;
+        public final HashSet<Sha256Hash> missingTransactionHashes = new HashSet<Sha256Hash>();
+
+        public QueuedTransaction(final Transaction transaction, final Integer byteCount, final Long queuedTimestamp) {
+            this.transaction = transaction;
+            this.byteCount = byteCount;
+            this.queuedTimestamp = queuedTimestamp;
+        }
+    }
+
+    protected final SystemTime _systemTime = new SystemTime();
+    protected final Long _maxByteCount;
+
+    protected final LinkedHashMap<Sha256Hash, QueuedTransaction> _readyTransactions = new LinkedHashMap<Sha256Hash, QueuedTransaction>();
+    protected final LinkedHashMap<Sha256Hash, QueuedTransaction> _waitingTransactions = new LinkedHashMap<Sha256Hash, QueuedTransaction>();
+    protected final HashMap<Sha256Hash, HashSet<Sha256Hash>> _waitingTransactionHashesByMissingTransactionHash = new HashMap<Sha256Hash, HashSet<Sha256Hash>>();
+    protected Long _byteCount = 0L;
+
+    protected void _unindexWaitingTransaction(final Sha256Hash transactionHash, final QueuedTransaction queuedTransaction) {
+        for (final Sha256Hash missingTransactionHash : queuedTransaction.missingTransactionHashes) {
+            final HashSet<Sha256Hash> waitingTransactionHashes = _waitingTransactionHashesByMissingTransactionHash.get(missingTransactionHash);
+            if (waitingTransactionHashes == null) { continue; }
+
+            waitingTransactionHashes.remove(transactionHash);
+            if (waitingTransactionHashes.isEmpty()) {
+                _waitingTransactionHashesByMissingTransactionHash.remove(missingTransactionHash);
+            }
+        }
+    }
+
+    protected void _removeWaitingTransaction(final Sha256Hash transactionHash) {
+        final QueuedTransaction queuedTransaction = _waitingTransactions.remove(transactionHash);
+        if (queuedTransaction == null) { return; }
+
+        _unindexWaitingTransaction(transactionHash, queuedTransaction);
+        _byteCount -= queuedTransaction.byteCount;
+    }
+
+    /**
+     * Evicts the oldest waiting Transactions until byteCount additional bytes fit within the queue.
+     *  Returns false if the bytes still do not fit once no waiting Transactions remain.
+     */
+    protected Boolean _makeRoom(final Integer byteCount) {
+        while ((_byteCount + byteCount) > _maxByteCount) {
+            if (_waitingTransactions.isEmpty()) { return false; }
+
+            final Sha256Hash oldestTransactionHash = _waitingTransactions.keySet().iterator().next();
+            _removeWaitingTransaction(oldestTransactionHash);
+            Logger.log("NOTICE: Evicting orphaned pending Transaction: " + oldestTransactionHash);
+        }
+        return true;
+    }
+
+    public PendingTransactionQueue() {
+        this(DEFAULT_MAX_BYTE_COUNT);
+    }
+
+    public PendingTransactionQueue(final Long maxByteCount) {
+        _maxByteCount = maxByteCount;
+    }
+
+    /**
+     * Queues the Transaction for processing.
+     *  Returns false if the Transaction is already queued or if the queue is full.
+     */
+    public synchronized Boolean offer(final Transaction transaction) {
+        final Sha256Hash transactionHash = transaction.getHash().asConst();
+        if (_readyTransactions.containsKey(transactionHash) || _waitingTransactions.containsKey(transactionHash)) { return false; }
+
+        final TransactionDeflater transactionDeflater = new TransactionDeflater();
+        final Integer byteCount = transactionDeflater.getByteCount(transaction);
+        if (! _makeRoom(byteCount)) { return false; }
+
+        final QueuedTransaction queuedTransaction = new QueuedTransaction(transaction, byteCount, _systemTime.getCurrentTimeInSeconds());
+        _readyTransactions.put(transactionHash, queuedTransaction);
+        _byteCount += byteCount;
+        return true;
+    }
+
+    /**
+     * Removes and returns up to maxTransactionCount Transactions that are ready to be processed, oldest first.
+     */
+    public synchronized List<Transaction> poll(final Integer maxTransactionCount) {
+        final int transactionCount = Math.min(maxTransactionCount, _readyTransactions.size());
+        final ImmutableListBuilder<Transaction> transactions = new ImmutableListBuilder<Transaction>(transactionCount);
+
+        final Iterator<QueuedTransaction> iterator = _readyTransactions.values().iterator();
+        for (int i = 0; i < transactionCount; ++i) {
+            final QueuedTransaction queuedTransaction = iterator.next();
+            iterator.remove();
+
+            _byteCount -= queuedTransaction.byteCount;
+            transactions.add(queuedTransaction.transaction);
+        }
+
+        return transactions.build();
+    }
+
+    /**
+     * Returns the polled Transaction to the queue until each of its missingTransactionHashes has been processed.
+     *  Returns false if the Transaction could not be queued.
+     */
+    public synchronized Boolean waitForPreviousTransactions(final Transaction transaction, final List<Sha256Hash> missingTransactionHashes) {
+        final Sha256Hash transactionHash = transaction.getHash().asConst();
+        if (_readyTransactions.containsKey(transactionHash) || _waitingTransactions.containsKey(transactionHash)) { return false; }
+
+        final TransactionDeflater transactionDeflater = new TransactionDeflater();
+        final Integer byteCount = transactionDeflater.getByteCount(transaction);
+        if (! _makeRoom(byteCount)) { return false; }
+
+        final QueuedTransaction queuedTransaction = new QueuedTransaction(transaction, byteCount, _systemTime.getCurrentTimeInSeconds());
+        for (final Sha256Hash missingTransactionHash : missingTransactionHashes) {
+            final Sha256Hash constMissingTransactionHash = missingTransactionHash.asConst();
+            queuedTransaction.missingTransactionHashes.add(constMissingTransactionHash);
+
+            HashSet<Sha256Hash> waitingTransactionHashes = _waitingTransactionHashesByMissingTransactionHash.get(constMissingTransactionHash);
+            if (waitingTransactionHashes == null) {
+                waitingTransactionHashes = new HashSet<Sha256Hash>();
+                _waitingTransactionHashesByMissingTransactionHash.put(constMissingTransactionHash, waitingTransactionHashes);
+            }
+            waitingTransactionHashes.add(transactionHash);
+        }
+
+        if (queuedTransaction.missingTransactionHashes.isEmpty()) {
+            _readyTransactions.put(transactionHash, queuedTransaction);
+        }
+        else {
+            _waitingTransactions.put(transactionHash, queuedTransaction);
+        }
+        _byteCount += byteCount;
+        return true;
+    }
+
+    /**
+     * Releases the Transactions waiting on transactionHash; those with no remaining missing Transactions become ready to be processed.
+     *  Returns the number of Transactions that became ready.
+     */
+    public synchronized Integer onTransactionProcessed(final Sha256Hash transactionHash) {
+        final HashSet<Sha256Hash> waitingTransactionHashes = _waitingTransactionHashesByMissingTransactionHash.remove(transactionHash);
+        if (waitingTransactionHashes == null) { return 0; }
+
+        int readyTransactionCount = 0;
+        for (final Sha256Hash waitingTransactionHash : waitingTransactionHashes) {
+            final QueuedTransaction queuedTransaction = _waitingTransactions.get(waitingTransactionHash);
+            if (queuedTransaction == null) { continue; }
+
+            queuedTransaction.missingTransactionHashes.remove(transactionHash);
+            if (queuedTransaction.missingTransactionHashes.isEmpty()) {
+                _waitingTransactions.remove(waitingTransactionHash);
+                _readyTransactions.put(waitingTransactionHash, queuedTransaction);
+                readyTransactionCount += 1;
+            }
+        }
+        return readyTransactionCount;
+    }
+
+    /**
+     * Returns the hashes of the Transactions that waiting Transactions depend upon.
+     *  These Transactions may have become known without passing through the queue (i.e. via a Block), in which case the caller should
+     *  invoke onTransactionProcessed for each.
+     */
+    public synchronized List<Sha256Hash> getMissingTransactionHashes() {
+        final ImmutableListBuilder<Sha256Hash> missingTransactionHashes = new ImmutableListBuilder<Sha256Hash>(_waitingTransactionHashesByMissingTransactionHash.size());
+        for (final Sha256Hash missingTransactionHash : _waitingTransactionHashesByMissingTransactionHash.keySet()) {
+            missingTransactionHashes.add(missingTransactionHash);
+        }
+        return missingTransactionHashes.build();
+    }
+
+    /**
+     * Removes waiting Transactions that have been queued for longer than maxAgeInSeconds.
+     */
+    public synchronized void purgeExpiredTransactions(final Long maxAgeInSeconds) {
+        final Long minimumTimestamp = (_systemTime.getCurrentTimeInSeconds() - maxAgeInSeconds);
+
+        final MutableList<Sha256Hash> expiredTransactionHashes = new MutableList<Sha256Hash>();
+        for (final Map.Entry<Sha256Hash, QueuedTransaction> entry : _waitingTransactions.entrySet()) {
+            final QueuedTransaction queuedTransaction = entry.getValue();
+            if (queuedTransaction.queuedTimestamp >= minimumTimestamp) { break; } // NOTE: Waiting Transactions are ordered by the time they began waiting...
+
+            expiredTransactionHashes.add(entry.getKey());
+        }
+
+        for (final Sha256Hash transactionHash : expiredTransactionHashes) {
+            _removeWaitingTransaction(transactionHash);
+        }
+
+        if (! expiredTransactionHashes.isEmpty()) {
+            Logger.log("Purged " + expiredTransactionHashes.getSize() + " expired orphaned pending Transactions.");
+        }
+    }
+
+    public synchronized Boolean contains(final Sha256Hash transactionHash) {
+        return (_readyTransactions.containsKey(transactionHash) || _waitingTransactions.containsKey(transactionHash));
+    }
+
+    public synchronized Integer getTransactionCount() {
+        return (_readyTransactions.size() + _waitingTransactions.size());
+    }
+
+    public synchronized Long getByteCount() {
+        return _byteCount;
+    }
+
+    /**
+     * Writes the queued Transactions to filename so that they may be restored via loadFromFile.
+     *  Persistence is best-effort: the file is only written on shutdown, and Transactions still waiting on missing Transactions are restored as ready.
+     */
+    public synchronized void saveToFile(final String filename) {
+        final TransactionDeflater transactionDeflater = new TransactionDeflater();
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        for (final QueuedTransaction queuedTransaction : _readyTransactions.values()) {
+            byteArrayBuilder.appendBytes(transactionDeflater.toBytes(queuedTransaction.transaction));
+        }
+        for (final QueuedTransaction queuedTransaction : _waitingTransactions.values()) {
+            byteArrayBuilder.appendBytes(transactionDeflater.toBytes(queuedTransaction.transaction));
+        }
+
+        IoUtil.putFileContents(filename, byteArrayBuilder.build());
+    }
+
+    /**
+     * Queues the Transactions previously written via saveToFile.  Returns the number of Transactions queued.
+     */
+    public Integer loadFromFile(final String filename) {
+        final byte[] bytes = IoUtil.getFileContents(filename);
+        if (bytes == null) { return 0; }
+
+        final TransactionInflater transactionInflater = new TransactionInflater();
+        final ByteArrayReader byteArrayReader = new ByteArrayReader(bytes);
+
+        int transactionCount = 0;
+        while (byteArrayReader.hasBytes()) {
+            final Transaction transaction = transactionInflater.fromBytes(byteArrayReader);
+            if ( (transaction == null) || byteArrayReader.didOverflow() ) {
+                Logger.log("NOTICE: Unable to restore pending Transactions beyond: " + transactionCount);
+                break;
+            }
+
+            if (offer(transaction)) {
+                transactionCount += 1;
+            }
+        }
+        return transactionCount;
+    }
+}
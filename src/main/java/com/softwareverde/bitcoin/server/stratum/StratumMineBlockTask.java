@@ -8,6 +8,7 @@ import com.softwareverde.bitcoin.block.header.MutableBlockHeader;
 import com.softwareverde.bitcoin.block.header.difficulty.Difficulty;
 import com.softwareverde.bitcoin.block.header.difficulty.ImmutableDifficulty;
 import com.softwareverde.bitcoin.bytearray.FragmentedBytes;
+import com.softwareverde.bitcoin.hash.Sha256Util;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.merkleroot.MerkleRoot;
 import com.softwareverde.bitcoin.merkleroot.MutableMerkleRoot;
@@ -16,7 +17,6 @@ import com.softwareverde.bitcoin.transaction.MutableTransaction;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionDeflater;
 import com.softwareverde.bitcoin.transaction.TransactionInflater;
-import com.softwareverde.bitcoin.util.BitcoinUtil;
 import com.softwareverde.bitcoin.util.ByteUtil;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.bytearray.MutableByteArray;
@@ -61,7 +61,7 @@ public class StratumMineBlockTask {
                 byteArrayBuilder.clear();
             }
 
-            merkleRoot = BitcoinUtil.sha256(BitcoinUtil.sha256(concatenatedHashes));
+            merkleRoot = Sha256Util.doubleSha256(concatenatedHashes);
         }
 
         return MutableMerkleRoot.wrap(ByteUtil.reverseEndian(merkleRoot));
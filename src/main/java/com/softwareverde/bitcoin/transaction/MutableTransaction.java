@@ -19,8 +19,14 @@ public class MutableTransaction implements Transaction {
     protected final MutableList<TransactionOutput> _transactionOutputs = new MutableList<TransactionOutput>();
     protected LockTime _lockTime = new ImmutableLockTime();
 
+    protected Sha256Hash _cachedHash = null; // Set by TransactionInflater from the inflated bytes, or computed lazily; cleared on mutation.
     protected Integer _cachedHashCode = null;
 
+    protected void _invalidateCachedHash() {
+        _cachedHash = null;
+        _cachedHashCode = null;
+    }
+
     /**
      * NOTE: Math with Satoshis
      *  The maximum number of satoshis is 210,000,000,000,000, which is less than the value a Java Long can hold.
@@ -45,8 +51,13 @@ public class MutableTransaction implements Transaction {
 
     @Override
     public Sha256Hash getHash() {
+        final Sha256Hash cachedHash = _cachedHash;
+        if (cachedHash != null) { return cachedHash; }
+
         final TransactionHasher transactionHasher = new TransactionHasher();
-        return transactionHasher.hashTransaction(this);
+        final Sha256Hash hash = transactionHasher.hashTransaction(this).asConst();
+        _cachedHash = hash;
+        return hash;
     }
 
     @Override
@@ -54,7 +65,7 @@ public class MutableTransaction implements Transaction {
 
     public void setVersion(final Long version) {
         _version = version;
-        _cachedHashCode = null;
+        _invalidateCachedHash();
     }
 
     @Override
@@ -64,17 +75,17 @@ public class MutableTransaction implements Transaction {
 
     public void addTransactionInput(final TransactionInput transactionInput) {
         _transactionInputs.add(transactionInput.asConst());
-        _cachedHashCode = null;
+        _invalidateCachedHash();
     }
 
     public void clearTransactionInputs() {
         _transactionInputs.clear();
-        _cachedHashCode = null;
+        _invalidateCachedHash();
     }
 
     public void setTransactionInput(final Integer index, final TransactionInput transactionInput) {
         _transactionInputs.set(index, transactionInput.asConst());
-        _cachedHashCode = null;
+        _invalidateCachedHash();
     }
 
     @Override
@@ -84,17 +95,17 @@ public class MutableTransaction implements Transaction {
 
     public void addTransactionOutput(final TransactionOutput transactionOutput) {
         _transactionOutputs.add(transactionOutput.asConst());
-        _cachedHashCode = null;
+        _invalidateCachedHash();
     }
 
     public void clearTransactionOutputs() {
         _transactionOutputs.clear();
-        _cachedHashCode = null;
+        _invalidateCachedHash();
     }
 
     public void setTransactionOutput(final Integer index, final TransactionOutput transactionOutput) {
         _transactionOutputs.set(index, transactionOutput.asConst());
-        _cachedHashCode = null;
+        _invalidateCachedHash();
     }
 
     @Override
@@ -102,7 +113,7 @@ public class MutableTransaction implements Transaction {
 
     public void setLockTime(final LockTime lockTime) {
         _lockTime = lockTime;
-        _cachedHashCode = null;
+        _invalidateCachedHash();
     }
 
     @Override
@@ -132,8 +143,7 @@ public class MutableTransaction implements Transaction {
         final Integer cachedHashCode = _cachedHashCode;
         if (cachedHashCode != null) { return cachedHashCode; }
 
-        final TransactionHasher transactionHasher = new TransactionHasher();
-        final Integer hashCode = transactionHasher.hashTransaction(this).hashCode();
+        final Integer hashCode = this.getHash().hashCode();
         _cachedHashCode = hashCode;
         return hashCode;
     }
@@ -1,6 +1,7 @@
 package com.softwareverde.bitcoin.transaction;
 
 import com.softwareverde.bitcoin.bytearray.FragmentedBytes;
+import com.softwareverde.bitcoin.hash.DoubleSha256Stream;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
 import com.softwareverde.bitcoin.transaction.input.TransactionInputDeflater;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
@@ -65,6 +66,35 @@ public class TransactionDeflater {
         return MutableByteArray.wrap(_toBytes(transaction));
     }
 
+    /**
+     * Streams the serialized Transaction (as returned by toBytes) into doubleSha256Stream, without first collecting it into a byte[].
+     */
+    public void toDoubleSha256Stream(final Transaction transaction, final DoubleSha256Stream doubleSha256Stream) {
+        final byte[] versionBytes = new byte[4];
+        ByteUtil.setBytes(versionBytes, ByteUtil.integerToBytes(transaction.getVersion()));
+
+        final byte[] lockTimeBytes = new byte[4];
+        ByteUtil.setBytes(lockTimeBytes, transaction.getLockTime().getBytes().getBytes());
+
+        doubleSha256Stream.update(versionBytes, Endian.LITTLE);
+
+        final TransactionInputDeflater transactionInputDeflater = new TransactionInputDeflater();
+        final List<TransactionInput> transactionInputs = transaction.getTransactionInputs();
+        doubleSha256Stream.update(ByteUtil.variableLengthIntegerToBytes(transactionInputs.getSize()), Endian.BIG);
+        for (final TransactionInput transactionInput : transactionInputs) {
+            transactionInputDeflater.toDoubleSha256Stream(transactionInput, doubleSha256Stream);
+        }
+
+        final TransactionOutputDeflater transactionOutputDeflater = new TransactionOutputDeflater();
+        final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
+        doubleSha256Stream.update(ByteUtil.variableLengthIntegerToBytes(transactionOutputs.getSize()), Endian.BIG);
+        for (final TransactionOutput transactionOutput : transactionOutputs) {
+            transactionOutputDeflater.toDoubleSha256Stream(transactionOutput, doubleSha256Stream);
+        }
+
+        doubleSha256Stream.update(lockTimeBytes, Endian.LITTLE);
+    }
+
     public Integer getByteCount(final Transaction transaction) {
         final Integer versionByteCount = 4;
 
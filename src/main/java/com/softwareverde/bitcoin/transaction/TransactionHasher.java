@@ -1,16 +1,29 @@
 package com.softwareverde.bitcoin.transaction;
 
+import com.softwareverde.bitcoin.hash.DoubleSha256Stream;
+import com.softwareverde.bitcoin.hash.Sha256Util;
 import com.softwareverde.bitcoin.hash.sha256.MutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
-import com.softwareverde.bitcoin.util.BitcoinUtil;
-import com.softwareverde.bitcoin.util.ByteUtil;
-import com.softwareverde.util.bytearray.ByteArrayBuilder;
 
 public class TransactionHasher {
+    protected Sha256Hash _hashTransactionBytes(final byte[] transactionBytes) {
+        return MutableSha256Hash.wrap(Sha256Util.doubleSha256ReversedEndian(transactionBytes, 0, transactionBytes.length));
+    }
+
+    /**
+     * Returns the hash of the Transaction, which is hashed as it is serialized rather than first being deflated into a byte[].
+     */
     public Sha256Hash hashTransaction(final Transaction transaction) {
         final TransactionDeflater transactionDeflater = new TransactionDeflater();
-        final ByteArrayBuilder byteArrayBuilder = transactionDeflater.toByteArrayBuilder(transaction);
-        final byte[] doubleSha256 = BitcoinUtil.sha256(BitcoinUtil.sha256(byteArrayBuilder.build()));
-        return MutableSha256Hash.wrap(ByteUtil.reverseEndian(doubleSha256));
+        final DoubleSha256Stream doubleSha256Stream = new DoubleSha256Stream();
+        transactionDeflater.toDoubleSha256Stream(transaction, doubleSha256Stream);
+        return MutableSha256Hash.wrap(doubleSha256Stream.digestReversedEndian());
+    }
+
+    /**
+     * Returns the hash of an already-serialized Transaction, avoiding the cost of deflating it again.
+     */
+    public Sha256Hash hashTransaction(final byte[] transactionBytes) {
+        return _hashTransactionBytes(transactionBytes);
     }
 }
@@ -13,6 +13,8 @@ import com.softwareverde.util.bytearray.Endian;
 
 public class TransactionInflater {
     protected MutableTransaction _fromByteArrayReader(final ByteArrayReader byteArrayReader) {
+        final Integer startPosition = byteArrayReader.getPosition();
+
         final MutableTransaction transaction = new MutableTransaction();
         transaction._version = byteArrayReader.readLong(4, Endian.LITTLE);
 
@@ -41,6 +43,15 @@ public class TransactionInflater {
 
         if (byteArrayReader.didOverflow()) { return null; }
 
+        { // Hash the bytes that were just inflated, rather than re-deflating the Transaction the first time its hash is requested...
+            final Integer endPosition = byteArrayReader.getPosition();
+            byteArrayReader.setPosition(startPosition);
+            final byte[] transactionBytes = byteArrayReader.readBytes(endPosition - startPosition);
+
+            final TransactionHasher transactionHasher = new TransactionHasher();
+            transaction._cachedHash = transactionHasher.hashTransaction(transactionBytes).asConst();
+        }
+
         return transaction;
     }
 
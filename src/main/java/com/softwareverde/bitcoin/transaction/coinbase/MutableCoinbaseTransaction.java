@@ -24,6 +24,7 @@ public class MutableCoinbaseTransaction extends MutableTransaction implements Co
         final MutableTransactionInput transactionInput = new MutableTransactionInput(_transactionInputs.get(0));
         transactionInput.setUnlockingScript(unlockingScript.asConst());
         _transactionInputs.set(0, transactionInput);
+        _invalidateCachedHash();
     }
 
     @Override
@@ -1,6 +1,7 @@
 package com.softwareverde.bitcoin.transaction.input;
 
 import com.softwareverde.bitcoin.bytearray.FragmentedBytes;
+import com.softwareverde.bitcoin.hash.DoubleSha256Stream;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.transaction.locktime.SequenceNumber;
 import com.softwareverde.bitcoin.transaction.script.Script;
@@ -61,6 +62,26 @@ public class TransactionInputDeflater {
         return _toBytes(transactionInput);
     }
 
+    /**
+     * Streams the serialized TransactionInput (as returned by toBytes) into doubleSha256Stream.
+     */
+    public void toDoubleSha256Stream(final TransactionInput transactionInput, final DoubleSha256Stream doubleSha256Stream) {
+        final byte[] sequenceBytes = new byte[4];
+        final SequenceNumber sequenceNumber = transactionInput.getSequenceNumber();
+        ByteUtil.setBytes(sequenceBytes, ByteUtil.integerToBytes(sequenceNumber.getValue()));
+
+        final byte[] indexBytes = new byte[4];
+        ByteUtil.setBytes(indexBytes, ByteUtil.integerToBytes(transactionInput.getPreviousOutputIndex()));
+
+        final ByteArray unlockingScriptBytes = transactionInput.getUnlockingScript().getBytes();
+
+        doubleSha256Stream.update(transactionInput.getPreviousOutputTransactionHash(), Endian.LITTLE);
+        doubleSha256Stream.update(indexBytes, Endian.LITTLE);
+        doubleSha256Stream.update(ByteUtil.variableLengthIntegerToBytes(unlockingScriptBytes.getByteCount()), Endian.BIG);
+        doubleSha256Stream.update(unlockingScriptBytes, Endian.BIG);
+        doubleSha256Stream.update(sequenceBytes, Endian.LITTLE);
+    }
+
     public FragmentedBytes fragmentTransactionInput(final TransactionInput transactionInput) {
         final ByteArrayBuilder headBytesBuilder = new ByteArrayBuilder();
         final ByteArrayBuilder tailBytesBuilder = new ByteArrayBuilder();
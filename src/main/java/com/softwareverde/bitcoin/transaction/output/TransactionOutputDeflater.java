@@ -1,6 +1,7 @@
 package com.softwareverde.bitcoin.transaction.output;
 
 import com.softwareverde.bitcoin.address.Address;
+import com.softwareverde.bitcoin.hash.DoubleSha256Stream;
 import com.softwareverde.bitcoin.transaction.script.Script;
 import com.softwareverde.bitcoin.transaction.script.ScriptPatternMatcher;
 import com.softwareverde.bitcoin.transaction.script.ScriptType;
@@ -42,6 +43,20 @@ public class TransactionOutputDeflater {
         return (valueByteCount + scriptByteCount);
     }
 
+    /**
+     * Streams the serialized TransactionOutput (as returned by toBytes) into doubleSha256Stream.
+     */
+    public void toDoubleSha256Stream(final TransactionOutput transactionOutput, final DoubleSha256Stream doubleSha256Stream) {
+        final byte[] valueBytes = new byte[8];
+        ByteUtil.setBytes(valueBytes, ByteUtil.longToBytes(transactionOutput.getAmount()));
+
+        final ByteArray lockingScriptBytes = transactionOutput.getLockingScript().getBytes();
+
+        doubleSha256Stream.update(valueBytes, Endian.LITTLE);
+        doubleSha256Stream.update(ByteUtil.variableLengthIntegerToBytes(lockingScriptBytes.getByteCount()), Endian.BIG);
+        doubleSha256Stream.update(lockingScriptBytes, Endian.BIG);
+    }
+
     public ByteArray toBytes(final TransactionOutput transactionOutput) {
         return _toBytes(transactionOutput);
     }
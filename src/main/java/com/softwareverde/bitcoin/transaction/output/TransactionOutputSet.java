@@ -0,0 +1,149 @@
+package com.softwareverde.bitcoin.transaction.output;
+
+import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable view of the TransactionOutputs spent by a set of Transactions (i.e. a Block), keyed by TransactionOutputIdentifier.
+ *  The set is resolved once, before validation, so that fee accounting and script validation do not each query
+ *  the database for every TransactionInput.
+ *  TransactionOutputs that could not be resolved are absent from the set.
+ *
+ *  The set may also contain the confirmation (block height and the MedianBlockTime preceding the block) of the Transactions
+ *  being spent, so that relative lock-times (BIP68) may be validated without querying the block that mined each Transaction.
+ *
+ *  The set may also contain the number of times each Transaction being spent was mined on the validated chain, and the number
+ *  of times each TransactionOutput was already spent on the validated chain, so that double-spends may be detected without
+ *  querying the blocks that mined or spent each TransactionOutput.
+ */
+public class TransactionOutputSet {
+    public static class Builder {
+        protected final HashMap<TransactionOutputIdentifier, TransactionOutput> _transactionOutputs;
+        protected final HashMap<TransactionOutputIdentifier, TransactionOutputId> _transactionOutputIds;
+        protected final HashMap<Sha256Hash, Long> _confirmingBlockHeights = new HashMap<Sha256Hash, Long>();
+        protected final HashMap<Sha256Hash, MedianBlockTime> _confirmingMedianBlockTimes = new HashMap<Sha256Hash, MedianBlockTime>();
+        protected final HashMap<Sha256Hash, Integer> _minedCounts = new HashMap<Sha256Hash, Integer>();
+        protected final HashMap<TransactionOutputIdentifier, Integer> _spendCounts = new HashMap<TransactionOutputIdentifier, Integer>();
+
+        public Builder(final Integer itemCount) {
+            _transactionOutputs = new HashMap<TransactionOutputIdentifier, TransactionOutput>(itemCount);
+            _transactionOutputIds = new HashMap<TransactionOutputIdentifier, TransactionOutputId>(itemCount);
+        }
+
+        /**
+         * Adds the transactionOutput identified by transactionOutputIdentifier.
+         *  transactionOutputId may be null if the TransactionOutput has not been stored.
+         */
+        public void add(final TransactionOutputIdentifier transactionOutputIdentifier, final TransactionOutputId transactionOutputId, final TransactionOutput transactionOutput) {
+            _transactionOutputs.put(transactionOutputIdentifier, transactionOutput.asConst());
+            if (transactionOutputId != null) {
+                _transactionOutputIds.put(transactionOutputIdentifier, transactionOutputId);
+            }
+        }
+
+        /**
+         * Records that the Transaction identified by transactionHash was mined at blockHeight on the validated chain.
+         *  medianBlockTime is the MedianBlockTime of the blocks preceding (and excluding) the block that mined the Transaction.
+         */
+        public void setConfirmation(final Sha256Hash transactionHash, final Long blockHeight, final MedianBlockTime medianBlockTime) {
+            _confirmingBlockHeights.put(transactionHash, blockHeight);
+            _confirmingMedianBlockTimes.put(transactionHash, medianBlockTime.asConst());
+        }
+
+        /**
+         * Records the number of blocks on the validated chain (including the block being validated) that mined the Transaction identified by transactionHash.
+         */
+        public void setMinedCount(final Sha256Hash transactionHash, final Integer minedCount) {
+            _minedCounts.put(transactionHash, minedCount);
+        }
+
+        /**
+         * Records the number of blocks on the validated chain that spend the TransactionOutput identified by transactionOutputIdentifier.
+         *  Blocks at the height of the block being validated (including the block itself) are not counted.
+         */
+        public void setSpendCount(final TransactionOutputIdentifier transactionOutputIdentifier, final Integer spendCount) {
+            _spendCounts.put(transactionOutputIdentifier, spendCount);
+        }
+
+        public TransactionOutputSet build() {
+            return new TransactionOutputSet(
+                new HashMap<TransactionOutputIdentifier, TransactionOutput>(_transactionOutputs),
+                new HashMap<TransactionOutputIdentifier, TransactionOutputId>(_transactionOutputIds),
+                new HashMap<Sha256Hash, Long>(_confirmingBlockHeights),
+                new HashMap<Sha256Hash, MedianBlockTime>(_confirmingMedianBlockTimes),
+                new HashMap<Sha256Hash, Integer>(_minedCounts),
+                new HashMap<TransactionOutputIdentifier, Integer>(_spendCounts)
+            );
+        }
+    }
+
+    protected final Map<TransactionOutputIdentifier, TransactionOutput> _transactionOutputs;
+    protected final Map<TransactionOutputIdentifier, TransactionOutputId> _transactionOutputIds;
+    protected final Map<Sha256Hash, Long> _confirmingBlockHeights;
+    protected final Map<Sha256Hash, MedianBlockTime> _confirmingMedianBlockTimes;
+    protected final Map<Sha256Hash, Integer> _minedCounts;
+    protected final Map<TransactionOutputIdentifier, Integer> _spendCounts;
+
+    protected TransactionOutputSet(final Map<TransactionOutputIdentifier, TransactionOutput> transactionOutputs, final Map<TransactionOutputIdentifier, TransactionOutputId> transactionOutputIds, final Map<Sha256Hash, Long> confirmingBlockHeights, final Map<Sha256Hash, MedianBlockTime> confirmingMedianBlockTimes, final Map<Sha256Hash, Integer> minedCounts, final Map<TransactionOutputIdentifier, Integer> spendCounts) {
+        _transactionOutputs = transactionOutputs;
+        _transactionOutputIds = transactionOutputIds;
+        _confirmingBlockHeights = confirmingBlockHeights;
+        _confirmingMedianBlockTimes = confirmingMedianBlockTimes;
+        _minedCounts = minedCounts;
+        _spendCounts = spendCounts;
+    }
+
+    /**
+     * Returns the TransactionOutput identified by transactionOutputIdentifier, or null if it was not resolved.
+     */
+    public TransactionOutput getTransactionOutput(final TransactionOutputIdentifier transactionOutputIdentifier) {
+        return _transactionOutputs.get(transactionOutputIdentifier);
+    }
+
+    /**
+     * Returns the TransactionOutputId identified by transactionOutputIdentifier, or null if it was not resolved.
+     */
+    public TransactionOutputId getTransactionOutputId(final TransactionOutputIdentifier transactionOutputIdentifier) {
+        return _transactionOutputIds.get(transactionOutputIdentifier);
+    }
+
+    /**
+     * Returns the height of the block that mined the Transaction, or null if its confirmation was not resolved.
+     */
+    public Long getConfirmingBlockHeight(final Sha256Hash transactionHash) {
+        return _confirmingBlockHeights.get(transactionHash);
+    }
+
+    /**
+     * Returns the MedianBlockTime preceding the block that mined the Transaction, or null if its confirmation was not resolved.
+     */
+    public MedianBlockTime getConfirmingMedianBlockTime(final Sha256Hash transactionHash) {
+        return _confirmingMedianBlockTimes.get(transactionHash);
+    }
+
+    /**
+     * Returns the number of blocks on the validated chain that mined the Transaction, or null if its mined count was not resolved.
+     */
+    public Integer getMinedCount(final Sha256Hash transactionHash) {
+        return _minedCounts.get(transactionHash);
+    }
+
+    /**
+     * Returns the number of blocks on the validated chain that already spend the TransactionOutput, or null if its spend count was not resolved.
+     */
+    public Integer getSpendCount(final TransactionOutputIdentifier transactionOutputIdentifier) {
+        return _spendCounts.get(transactionOutputIdentifier);
+    }
+
+    public Boolean containsTransactionOutput(final TransactionOutputIdentifier transactionOutputIdentifier) {
+        return _transactionOutputs.containsKey(transactionOutputIdentifier);
+    }
+
+    public Integer getSize() {
+        return _transactionOutputs.size();
+    }
+}
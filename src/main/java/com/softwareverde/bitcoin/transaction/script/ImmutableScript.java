@@ -37,7 +37,15 @@ public class ImmutableScript implements Script, Const {
 
     @Override
     public Boolean isValid() {
-        _requireCachedOperations();
+        if (_cachedOperations == null) { // Avoid inflating the Operations if they have not already been requested...
+            final ScriptReader scriptReader = new ScriptReader(_bytes);
+            while (scriptReader.next()) {
+                if (scriptReader.getType() == Operation.Type.OP_INVALID) {
+                    return false;
+                }
+            }
+            return true;
+        }
 
         for (final Operation operation : _cachedOperations) {
             if (operation.getType() == Operation.Type.OP_INVALID) {
@@ -75,7 +83,15 @@ public class ImmutableScript implements Script, Const {
 
     @Override
     public Boolean containsNonPushOperations() {
-        _requireCachedOperations();
+        if (_cachedOperations == null) { // Avoid inflating the Operations if they have not already been requested...
+            final ScriptReader scriptReader = new ScriptReader(_bytes);
+            while (scriptReader.next()) {
+                if (! scriptReader.isPushOperation()) {
+                    return true;
+                }
+            }
+            return false;
+        }
 
         for (final Operation operation : _cachedOperations) {
             if (operation.getType() != PushOperation.TYPE) {
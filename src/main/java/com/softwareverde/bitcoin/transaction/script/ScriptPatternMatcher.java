@@ -48,69 +48,49 @@ public class ScriptPatternMatcher {
         PAY_TO_SCRIPT_HASH_PATTERN = listBuilder.build();
     }
 
-    protected Boolean _matchesPattern(final List<Opcode> pattern, final List<Operation> scriptOperations) {
+    /**
+     * Returns true if the script's Operations match the pattern's opcodes, and the push at pushIndex pushes one of the pushedByteCounts.
+     *  The script is read via a ScriptReader so that its Operations are not inflated.
+     */
+    protected Boolean _matchesPattern(final List<Opcode> pattern, final Script script, final int pushIndex, final int... pushedByteCounts) {
         final int opcodeCount = pattern.getSize();
-        final int operationCount = scriptOperations.getSize();
-
-        if (opcodeCount != operationCount) { return false; }
 
+        final ScriptReader scriptReader = new ScriptReader(script);
         for (int i = 0; i < opcodeCount; ++i) {
-            final Opcode opcode = pattern.get(i);
-            final Operation operation = scriptOperations.get(i);
+            if (! scriptReader.next()) { return false; }
 
-            final boolean isMatch = (opcode.matchesByte(operation.getOpcodeByte()));
+            final Opcode opcode = pattern.get(i);
+            final boolean isMatch = (opcode.matchesByte(scriptReader.getOpcodeByte()));
             if (! isMatch) { return false; }
+
+            if (i == pushIndex) {
+                if (! scriptReader.isPushOperation()) { return false; }
+
+                final int pushedByteCount = scriptReader.getPushedByteCount();
+                boolean isExpectedByteCount = false;
+                for (final int expectedByteCount : pushedByteCounts) {
+                    if (pushedByteCount == expectedByteCount) {
+                        isExpectedByteCount = true;
+                        break;
+                    }
+                }
+                if (! isExpectedByteCount) { return false; }
+            }
         }
 
-        return true;
+        return (! scriptReader.hasNext());
     }
 
     protected Boolean _matchesPayToPublicKeyFormat(final Script lockingScript) {
-        final List<Operation> scriptOperations = lockingScript.getOperations();
-        final boolean matchesPattern = _matchesPattern(PAY_TO_PUBLIC_KEY_PATTERN, scriptOperations);
-        if (! matchesPattern) { return false; }
-
-        final Operation pushOperation = scriptOperations.get(0);
-        if (pushOperation instanceof PushOperation) {
-            final int pushedByteCount = ((PushOperation) pushOperation).getValue().getByteCount();
-
-            final Boolean isPublicKeyLength = (pushedByteCount == 65);
-            final Boolean isCompressedPublicKeyLength = (pushedByteCount == 33);
-            if ( (! isPublicKeyLength) && (! isCompressedPublicKeyLength) ) { return false; }
-        }
-        else { return false; }
-
-        return true;
+        return _matchesPattern(PAY_TO_PUBLIC_KEY_PATTERN, lockingScript, 0, 65, 33);
     }
 
     protected Boolean _matchesPayToPublicKeyHashFormat(final Script lockingScript) {
-        final List<Operation> scriptOperations = lockingScript.getOperations();
-        final boolean matchesPattern = _matchesPattern(PAY_TO_PUBLIC_KEY_HASH_PATTERN, scriptOperations);
-        if (! matchesPattern) { return false; }
-
-        final Operation pushOperation = scriptOperations.get(2);
-        if (pushOperation instanceof PushOperation) {
-            final int pushedByteCount = ((PushOperation) pushOperation).getValue().getByteCount();
-            if (pushedByteCount != 20) { return false; }
-        }
-        else { return false; }
-
-        return true;
+        return _matchesPattern(PAY_TO_PUBLIC_KEY_HASH_PATTERN, lockingScript, 2, 20);
     }
 
     protected Boolean _matchesPayToScriptHashFormat(final Script lockingScript) {
-        final List<Operation> scriptOperations = lockingScript.getOperations();
-        final boolean matchesPattern = _matchesPattern(PAY_TO_SCRIPT_HASH_PATTERN, scriptOperations);
-        if (! matchesPattern) { return false; }
-
-        final Operation pushOperation = scriptOperations.get(1);
-        if (pushOperation instanceof PushOperation) {
-            final int pushedByteCount = ((PushOperation) pushOperation).getValue().getByteCount();
-            if (pushedByteCount != 20) { return false; }
-        }
-        else { return false; }
-
-        return true;
+        return _matchesPattern(PAY_TO_SCRIPT_HASH_PATTERN, lockingScript, 1, 20);
     }
 
     protected PublicKey _extractPublicKeyFromPayToPublicKey(final Script lockingScript) {
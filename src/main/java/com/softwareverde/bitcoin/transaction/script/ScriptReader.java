@@ -0,0 +1,214 @@
+package com.softwareverde.bitcoin.transaction.script;
+
+import com.softwareverde.bitcoin.server.Constants;
+import com.softwareverde.bitcoin.transaction.script.opcode.Opcode;
+import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
+import com.softwareverde.bitcoin.transaction.script.opcode.PushOperation;
+import com.softwareverde.bitcoin.transaction.script.stack.Value;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.util.StringUtil;
+
+/**
+ * A forward-only cursor over the Operations of a serialized Script.
+ *  Unlike ScriptInflater, no Operation objects are created and push payloads are not copied; they are exposed
+ *  as a position within the original bytes.  Operation boundaries and types are identical to those produced by
+ *  ScriptInflater::getOperationList, including malformed pushes being read as a single-byte OP_INVALID Operation.
+ *  ScriptReader is not thread-safe.
+ */
+public class ScriptReader {
+    protected static final Operation.Type[] OPERATION_TYPES = new Operation.Type[256];
+    protected static final Opcode[] PUSH_OPCODES = new Opcode[256];
+    static {
+        for (int i = 0; i < 256; ++i) {
+            final byte opcodeByte = (byte) i;
+            final Operation.Type type = Operation.Type.getType(opcodeByte);
+            OPERATION_TYPES[i] = type;
+            PUSH_OPCODES[i] = ((type == PushOperation.TYPE) ? PushOperation.TYPE.getSubtype(opcodeByte) : null);
+        }
+    }
+
+    protected final ByteArray _bytes;
+    protected final int _byteCount;
+    protected int _position = 0;
+
+    protected byte _opcodeByte;
+    protected Operation.Type _type = null;
+    protected Opcode _pushOpcode = null;
+    protected int _pushDataPosition = 0;
+    protected int _pushDataByteCount = 0;
+
+    /**
+     * Reads a little-endian unsigned integer of byteCount bytes at _position, or returns -1 if the script ends first.
+     */
+    protected long _readLength(final int byteCount) {
+        if ((_position + byteCount) > _byteCount) { return -1L; }
+
+        long value = 0L;
+        for (int i = 0; i < byteCount; ++i) {
+            value |= ((_bytes.getByte(_position + i) & 0xFFL) << (8 * i));
+        }
+        _position += byteCount;
+        return value;
+    }
+
+    /**
+     * Reads the push payload bounds for the current push Operation.
+     *  Returns false if the push is malformed, in which case it is treated as OP_INVALID by the caller.
+     */
+    protected Boolean _readPushData() {
+        final long byteCount;
+        switch (_pushOpcode) {
+            case PUSH_DATA: {
+                byteCount = ByteUtil.byteToInteger(_opcodeByte);
+            } break;
+
+            case PUSH_DATA_BYTE: {
+                byteCount = _readLength(1);
+            } break;
+
+            case PUSH_DATA_SHORT: {
+                byteCount = _readLength(2);
+            } break;
+
+            case PUSH_DATA_INTEGER: {
+                byteCount = _readLength(4);
+            } break;
+
+            default: { // The pushed value is derived from the opcode itself...
+                _pushDataPosition = _position;
+                _pushDataByteCount = 0;
+                return true;
+            }
+        }
+
+        if ( (byteCount < 0L) || (byteCount > PushOperation.VALUE_MAX_BYTE_COUNT) ) { return false; }
+        if ((_position + byteCount) > _byteCount) { return false; }
+
+        _pushDataPosition = _position;
+        _pushDataByteCount = (int) byteCount;
+        _position += _pushDataByteCount;
+        return true;
+    }
+
+    protected Boolean _hasSerializedPushData() {
+        switch (_pushOpcode) {
+            case PUSH_DATA:
+            case PUSH_DATA_BYTE:
+            case PUSH_DATA_SHORT:
+            case PUSH_DATA_INTEGER: {
+                return true;
+            }
+
+            default: { return false; }
+        }
+    }
+
+    public ScriptReader(final ByteArray bytes) {
+        _bytes = bytes; // ByteArray.asConst() is not needed since the reader does not outlive its use...
+        _byteCount = bytes.getByteCount();
+    }
+
+    public ScriptReader(final Script script) {
+        this(script.getBytes());
+    }
+
+    public Boolean hasNext() {
+        return (_position < _byteCount);
+    }
+
+    /**
+     * Advances the cursor to the next Operation.  Returns false if the end of the Script has been reached.
+     */
+    public Boolean next() {
+        if (_position >= _byteCount) {
+            _type = null;
+            _pushOpcode = null;
+            return false;
+        }
+
+        final int operationPosition = _position;
+        _opcodeByte = _bytes.getByte(_position);
+        _position += 1;
+
+        _type = OPERATION_TYPES[ByteUtil.byteToInteger(_opcodeByte)];
+        _pushOpcode = PUSH_OPCODES[ByteUtil.byteToInteger(_opcodeByte)];
+        _pushDataPosition = 0;
+        _pushDataByteCount = 0;
+
+        if (_pushOpcode != null) {
+            final Boolean isValidPush = _readPushData();
+            if (! isValidPush) { // Matches OperationInflater: a malformed push is read as a single invalid opcode...
+                _position = (operationPosition + 1);
+                _type = Operation.Type.OP_INVALID;
+                _pushOpcode = null;
+            }
+        }
+
+        return true;
+    }
+
+    public byte getOpcodeByte() {
+        return _opcodeByte;
+    }
+
+    public Operation.Type getType() {
+        return _type;
+    }
+
+    public Boolean isPushOperation() {
+        return (_pushOpcode != null);
+    }
+
+    /**
+     * Returns the number of bytes the current push Operation places onto the stack, or null if it is not a push Operation.
+     *  Equivalent to PushOperation::getValue().getByteCount(), without creating the Value.
+     */
+    public Integer getPushedByteCount() {
+        if (_pushOpcode == null) { return null; }
+
+        switch (_pushOpcode) {
+            case PUSH_ZERO: { return 0; }
+            case PUSH_NEGATIVE_ONE:
+            case PUSH_VALUE: { return 1; }
+            case PUSH_VERSION: { return StringUtil.stringToBytes(Constants.USER_AGENT).length; }
+            default: { return _pushDataByteCount; }
+        }
+    }
+
+    /**
+     * Returns true if the current push Operation's serialized payload is equal to bytes.  The payload is not copied.
+     */
+    public Boolean pushDataEquals(final byte[] bytes) {
+        if (_pushOpcode == null) { return false; }
+        if (! _hasSerializedPushData()) { return false; }
+        if (bytes.length != _pushDataByteCount) { return false; }
+
+        for (int i = 0; i < _pushDataByteCount; ++i) {
+            if (_bytes.getByte(_pushDataPosition + i) != bytes[i]) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Materializes the Value pushed by the current Operation, identically to PushOperation::getValue.
+     *  Returns null if the current Operation is not a push Operation.
+     */
+    public Value getPushedValue() {
+        if (_pushOpcode == null) { return null; }
+
+        switch (_pushOpcode) {
+            case PUSH_NEGATIVE_ONE: { return Value.fromInteger(-1L); }
+            case PUSH_ZERO: { return Value.fromInteger(0L); }
+            case PUSH_VALUE: { return Value.fromInteger((long) (ByteUtil.byteToInteger(_opcodeByte) - Opcode.PUSH_VALUE.getMinValue() + 1)); }
+            case PUSH_VERSION: { return Value.fromBytes(StringUtil.stringToBytes(Constants.USER_AGENT)); }
+            default: {
+                final byte[] bytes = new byte[_pushDataByteCount];
+                for (int i = 0; i < _pushDataByteCount; ++i) {
+                    bytes[i] = _bytes.getByte(_pushDataPosition + i);
+                }
+                return Value.fromBytes(bytes);
+            }
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.softwareverde.bitcoin.transaction.script.opcode;
 import com.softwareverde.bitcoin.bip.Buip55;
 import com.softwareverde.bitcoin.bip.HF20171113;
 import com.softwareverde.bitcoin.bip.HF20181115;
-import com.softwareverde.bitcoin.secp256k1.Secp256k1;
+import com.softwareverde.bitcoin.hash.Sha256Util;
+import com.softwareverde.bitcoin.secp256k1.SignatureBatch;
+import com.softwareverde.bitcoin.secp256k1.SignatureCache;
 import com.softwareverde.bitcoin.secp256k1.key.PublicKey;
 import com.softwareverde.bitcoin.secp256k1.signature.Signature;
 import com.softwareverde.bitcoin.transaction.Transaction;
@@ -45,7 +47,15 @@ public class CryptographicOperation extends SubTypedOperation {
         super(value, TYPE, opcode);
     }
 
-    protected static Boolean checkSignature(final Context context, final PublicKey publicKey, final ScriptSignature scriptSignature, final List<ByteArray> bytesToExcludeFromScript) {
+    protected static Boolean verifySignature(final Signature signature, final PublicKey publicKey, final byte[] message) {
+        final SignatureCache signatureCache = SignatureCache.getInstance();
+        return signatureCache.verifySignature(signature, publicKey, message);
+    }
+
+    /**
+     * Returns the bytes signed by the scriptSignature, or null if its HashType is not permitted at the Context's block height.
+     */
+    protected static byte[] getBytesForSigning(final Context context, final ScriptSignature scriptSignature, final List<ByteArray> bytesToExcludeFromScript) {
         final Transaction transaction = context.getTransaction();
         final Integer transactionInputIndexBeingSigned = context.getTransactionInputIndex();
         final TransactionOutput transactionOutputBeingSpent = context.getTransactionOutput();
@@ -57,18 +67,25 @@ public class CryptographicOperation extends SubTypedOperation {
         final Long blockHeight = context.getBlockHeight();
         if (Buip55.isEnabled(blockHeight)) {
             if (! hashType.isBitcoinCashType()) {
-                return false;
+                return null;
             }
         }
 
         final TransactionSigner transactionSigner = new TransactionSigner();
-        final SignatureContext signatureContext = new SignatureContext(transaction, hashType, blockHeight);
+        final SignatureContext signatureContext = new SignatureContext(transaction, hashType, blockHeight, context.getPrecomputedSignatureData());
         signatureContext.setInputIndexBeingSigned(transactionInputIndexBeingSigned);
         signatureContext.setShouldSignInputScript(transactionInputIndexBeingSigned, true, transactionOutputBeingSpent);
         signatureContext.setLastCodeSeparatorIndex(transactionInputIndexBeingSigned, codeSeparatorIndex);
         signatureContext.setCurrentScript(currentScript);
         signatureContext.setBytesToExcludeFromScript(bytesToExcludeFromScript);
-        return transactionSigner.isSignatureValid(signatureContext, publicKey, scriptSignature);
+        return transactionSigner.getBytesForSigning(signatureContext);
+    }
+
+    protected static Boolean checkSignature(final Context context, final PublicKey publicKey, final ScriptSignature scriptSignature, final List<ByteArray> bytesToExcludeFromScript) {
+        final byte[] bytesForSigning = getBytesForSigning(context, scriptSignature, bytesToExcludeFromScript);
+        if (bytesForSigning == null) { return false; }
+
+        return verifySignature(scriptSignature.getSignature(), publicKey, bytesForSigning);
     }
 
     protected static Boolean validateStrictSignatureEncoding(final ScriptSignature scriptSignature) {
@@ -91,7 +108,11 @@ public class CryptographicOperation extends SubTypedOperation {
         return true;
     }
 
-    protected Boolean _executeCheckSignature(final Stack stack, final Context context) {
+    /**
+     * Executes OP_CHECKSIG/OP_CHECKSIGVERIFY.
+     *  If signatureBatch is provided, the signature's verification is deferred to the signatureBatch and the signature is assumed to be valid.
+     */
+    protected Boolean _executeCheckSignature(final Stack stack, final Context context, final SignatureBatch signatureBatch) {
         final Value publicKeyValue = stack.pop();
         final Value signatureValue = stack.pop();
 
@@ -115,15 +136,22 @@ public class CryptographicOperation extends SubTypedOperation {
                 if (! meetsStrictEncodingStandard) { return false; }
             }
 
-            if (scriptSignature != null) {
-                final PublicKey publicKey = publicKeyValue.asPublicKey();
-                signatureIsValid = checkSignature(context, publicKey, scriptSignature, bytesToRemoveFromScript);
-            }
-            else {
+            final PublicKey publicKey = publicKeyValue.asPublicKey();
+            if (scriptSignature == null) {
                 // NOTE: An invalid scriptSignature is permitted, and just simply fails...
                 //  Example Transaction: 9FB65B7304AAA77AC9580823C2C06B259CC42591E5CCE66D76A81B6F51CC5C28
                 signatureIsValid = false;
             }
+            else if ( (signatureBatch != null) && (publicKey != null) ) {
+                final byte[] bytesForSigning = getBytesForSigning(context, scriptSignature, bytesToRemoveFromScript);
+                if (bytesForSigning != null) {
+                    signatureBatch.add(scriptSignature.getSignature(), publicKey, bytesForSigning);
+                }
+                signatureIsValid = (bytesForSigning != null);
+            }
+            else {
+                signatureIsValid = checkSignature(context, publicKey, scriptSignature, bytesToRemoveFromScript);
+            }
         }
 
         if (_opcode == Opcode.CHECK_SIGNATURE_THEN_VERIFY) {
@@ -273,7 +301,7 @@ public class CryptographicOperation extends SubTypedOperation {
             final PublicKey publicKey = publicKeyValue.asPublicKey();
             if (publicKey == null) { return false; } // The PublicKey must be a valid for OP_CHECKDATASIG...
 
-            signatureIsValid = Secp256k1.verifySignature(scriptSignature.getSignature(), publicKey, messageHash);
+            signatureIsValid = verifySignature(scriptSignature.getSignature(), publicKey, messageHash);
         }
         else {
             signatureIsValid = false;
@@ -328,7 +356,7 @@ public class CryptographicOperation extends SubTypedOperation {
 
             case DOUBLE_SHA_256: {
                 final Value input = stack.pop();
-                final byte[] bytes = BitcoinUtil.sha256(BitcoinUtil.sha256(input.getBytes()));
+                final byte[] bytes = Sha256Util.doubleSha256(input.getBytes());
                 stack.push(Value.fromBytes(bytes));
 
                 return (! stack.didOverflow());
@@ -342,7 +370,7 @@ public class CryptographicOperation extends SubTypedOperation {
 
             case CHECK_SIGNATURE:
             case CHECK_SIGNATURE_THEN_VERIFY:{
-                return _executeCheckSignature(stack, context);
+                return _executeCheckSignature(stack, context, null);
             }
 
             case CHECK_MULTISIGNATURE:
@@ -360,4 +388,19 @@ public class CryptographicOperation extends SubTypedOperation {
             default: { return false; }
         }
     }
+
+    /**
+     * Executes this OP_CHECKSIG exactly as CryptographicOperation::applyTo, except that its signature is added to the signatureBatch
+     *  instead of being verified, and is assumed to be valid.
+     *  Deferring is only sound when the script's result is determined by this Operation's result (e.g. the final OP_CHECKSIG of a P2PKH
+     *  script), since an invalid signature would then fail the script regardless; the signatureBatch must be verified before the script's
+     *  result is relied upon.  Operations other than OP_CHECKSIG are applied normally.
+     */
+    public Boolean applyDeferredTo(final Stack stack, final ControlState controlState, final MutableContext context, final SignatureBatch signatureBatch) {
+        if (_opcode != Opcode.CHECK_SIGNATURE) {
+            return this.applyTo(stack, controlState, context);
+        }
+
+        return _executeCheckSignature(stack, context, signatureBatch);
+    }
 }
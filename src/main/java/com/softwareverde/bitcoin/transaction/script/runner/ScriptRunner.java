@@ -3,18 +3,25 @@ package com.softwareverde.bitcoin.transaction.script.runner;
 import com.softwareverde.bitcoin.bip.Bip16;
 import com.softwareverde.bitcoin.bip.HF20181115;
 import com.softwareverde.bitcoin.bip.HF20181115SV;
+import com.softwareverde.bitcoin.secp256k1.SignatureBatch;
+import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.script.ImmutableScript;
 import com.softwareverde.bitcoin.transaction.script.Script;
 import com.softwareverde.bitcoin.transaction.script.ScriptType;
 import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.bitcoin.transaction.script.opcode.CryptographicOperation;
 import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
+import com.softwareverde.bitcoin.transaction.script.opcode.PushOperation;
 import com.softwareverde.bitcoin.transaction.script.runner.context.Context;
 import com.softwareverde.bitcoin.transaction.script.runner.context.MutableContext;
 import com.softwareverde.bitcoin.transaction.script.stack.Stack;
 import com.softwareverde.bitcoin.transaction.script.stack.Value;
 import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
+import com.softwareverde.bitcoin.util.BitcoinUtil;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.io.Logger;
+import com.softwareverde.util.ByteUtil;
+import com.softwareverde.util.Util;
 
 /**
  * NOTE: It seems that all values within Bitcoin Core scripts are stored as little-endian.
@@ -24,7 +31,46 @@ import com.softwareverde.io.Logger;
  * NOTE: All Operation Math and Values appear to be injected into the script as 4-byte integers.
  */
 public class ScriptRunner {
-    public Boolean runScript(final LockingScript lockingScript, final UnlockingScript unlockingScript, final Context context) {
+    protected static Boolean _executeOperations(final List<Operation> operations, final Stack stack, final ControlState controlState, final MutableContext mutableContext) {
+        for (final Operation operation : operations) {
+            mutableContext.incrementCurrentScriptIndex();
+
+            final Boolean shouldExecute = operation.shouldExecute(stack, controlState, mutableContext);
+            if (! shouldExecute) { continue; }
+
+            final Boolean wasSuccessful = operation.applyTo(stack, controlState, mutableContext);
+            if (! wasSuccessful) { return false; }
+        }
+
+        return true;
+    }
+
+    protected static byte[] _hash160(final Value value) {
+        return BitcoinUtil.ripemd160(BitcoinUtil.sha256(value.getBytes()));
+    }
+
+    /**
+     * Returns true if the final stack of a (possibly P2SH) script execution results in a successful validation.
+     *  This check mirrors the end of ScriptRunner::_runScript.
+     */
+    protected static Boolean _isFinalStackValid(final Stack stack, final ControlState controlState, final Long blockHeight) {
+        if (stack.isEmpty()) { return false; }
+        final Value topStackValue = stack.pop();
+        if (! topStackValue.asBoolean()) { return false; }
+
+        if (controlState.isInCodeBlock()) { return false; } // All CodeBlocks must be closed before the end of the script...
+
+        if ( (HF20181115.isEnabled(blockHeight)) && (! HF20181115SV.isEnabled(blockHeight)) ) {
+            if (! stack.isEmpty()) { return false; } // Dirty stacks are considered invalid after HF20181115 in order to reduce malleability...
+        }
+
+        return true;
+    }
+
+    protected Boolean _differentialVerificationIsEnabled = false;
+    protected SignatureBatch _signatureBatch = null;
+
+    protected Boolean _runScript(final LockingScript lockingScript, final ScriptType lockingScriptType, final UnlockingScript unlockingScript, final Context context) {
         final MutableContext mutableContext = new MutableContext(context);
 
         final ControlState controlState = new ControlState();
@@ -44,15 +90,8 @@ public class ScriptRunner {
                 }
 
                 mutableContext.setCurrentScript(unlockingScript);
-                for (final Operation operation : unlockingScriptOperations) {
-                    mutableContext.incrementCurrentScriptIndex();
-
-                    final Boolean shouldExecute = operation.shouldExecute(traditionalStack, controlState, mutableContext);
-                    if (! shouldExecute) { continue; }
-
-                    final Boolean wasSuccessful = operation.applyTo(traditionalStack, controlState, mutableContext);
-                    if (! wasSuccessful) { return false; }
-                }
+                final Boolean unlockingScriptWasSuccessful = _executeOperations(unlockingScriptOperations, traditionalStack, controlState, mutableContext);
+                if (! unlockingScriptWasSuccessful) { return false; }
 
                 payToScriptHashStack = new Stack(traditionalStack);
 
@@ -60,15 +99,8 @@ public class ScriptRunner {
                 if (lockingScriptOperations == null) { return false; }
 
                 mutableContext.setCurrentScript(lockingScript);
-                for (final Operation operation : lockingScriptOperations) {
-                    mutableContext.incrementCurrentScriptIndex();
-
-                    final Boolean shouldExecute = operation.shouldExecute(traditionalStack, controlState, mutableContext);
-                    if (! shouldExecute) { continue; }
-
-                    final Boolean wasSuccessful = operation.applyTo(traditionalStack, controlState, mutableContext);
-                    if (! wasSuccessful) { return false; }
-                }
+                final Boolean lockingScriptWasSuccessful = _executeOperations(lockingScriptOperations, traditionalStack, controlState, mutableContext);
+                if (! lockingScriptWasSuccessful) { return false; }
             }
             catch (final Exception exception) {
                 Logger.log(exception);
@@ -85,7 +117,7 @@ public class ScriptRunner {
         final Boolean shouldRunPayToScriptHashScript;
         { // Pay-To-Script-Hash Validation
             final Boolean payToScriptHashValidationRulesAreEnabled = Bip16.isEnabled(mutableContext.getBlockHeight());
-            final Boolean scriptIsPayToScriptHash = (lockingScript.getScriptType() == ScriptType.PAY_TO_SCRIPT_HASH);
+            final Boolean scriptIsPayToScriptHash = (lockingScriptType == ScriptType.PAY_TO_SCRIPT_HASH);
 
             shouldRunPayToScriptHashScript = ((payToScriptHashValidationRulesAreEnabled) && (scriptIsPayToScriptHash));
             if (shouldRunPayToScriptHashScript) {
@@ -101,15 +133,8 @@ public class ScriptRunner {
                     final List<Operation> redeemScriptOperations = redeemScript.getOperations();
                     if (redeemScriptOperations == null) { return false; }
 
-                    for (final Operation operation : redeemScriptOperations) {
-                        mutableContext.incrementCurrentScriptIndex();
-
-                        final Boolean shouldExecute = operation.shouldExecute(payToScriptHashStack, controlState, mutableContext);
-                        if (! shouldExecute) { continue; }
-                        
-                        final Boolean wasSuccessful = operation.applyTo(payToScriptHashStack, controlState, mutableContext);
-                        if (! wasSuccessful) { return false; }
-                    }
+                    final Boolean redeemScriptWasSuccessful = _executeOperations(redeemScriptOperations, payToScriptHashStack, controlState, mutableContext);
+                    if (! redeemScriptWasSuccessful) { return false; }
                 }
                 catch (final Exception exception) {
                     Logger.log(exception);
@@ -133,4 +158,151 @@ public class ScriptRunner {
 
         return true;
     }
+
+    /**
+     * Executes the push-only unlockingScript onto a new Stack, exactly as the interpreter would.
+     *  Returns null if the unlockingScript is invalid.
+     */
+    protected static Stack _executeUnlockingScript(final UnlockingScript unlockingScript, final ControlState controlState, final MutableContext mutableContext) {
+        final List<Operation> unlockingScriptOperations = unlockingScript.getOperations();
+        if (unlockingScriptOperations == null) { return null; }
+
+        final Stack stack = new Stack();
+        mutableContext.setCurrentScript(unlockingScript);
+        final Boolean wasSuccessful = _executeOperations(unlockingScriptOperations, stack, controlState, mutableContext);
+        if (! wasSuccessful) { return null; }
+
+        return stack;
+    }
+
+    /**
+     * Verifies a P2PKH output without interpreting its lockingScript.
+     *  OP_DUP OP_HASH160 <hash> OP_EQUALVERIFY is replaced with a direct comparison against the top of the stack,
+     *  and only the OP_CHECKSIG Operation is executed, so signature-encoding rules are shared with the interpreter.
+     *  If a SignatureBatch has been set, the signature's verification is deferred to the SignatureBatch.
+     */
+    protected Boolean _runPayToPublicKeyHashScript(final LockingScript lockingScript, final UnlockingScript unlockingScript, final MutableContext mutableContext) {
+        final List<Operation> lockingScriptOperations = lockingScript.getOperations();
+        final PushOperation publicKeyHashOperation = (PushOperation) lockingScriptOperations.get(2);
+        final Operation checkSignatureOperation = lockingScriptOperations.get(4);
+
+        final ControlState controlState = new ControlState();
+        final Stack stack = _executeUnlockingScript(unlockingScript, controlState, mutableContext);
+        if (stack == null) { return false; }
+
+        if (stack.getSize() < 2) { return false; } // OP_CHECKSIG requires both the PublicKey and the Signature...
+
+        final Value publicKeyValue = stack.peak();
+        final byte[] publicKeyHash = _hash160(publicKeyValue);
+        if (! ByteUtil.areEqual(publicKeyHash, publicKeyHashOperation.getValue().getBytes())) { return false; }
+
+        mutableContext.setCurrentScript(lockingScript);
+        final Boolean wasSuccessful;
+        if ( (_signatureBatch != null) && (! _differentialVerificationIsEnabled) && (checkSignatureOperation instanceof CryptographicOperation) ) {
+            // NOTE: The script's result is the OP_CHECKSIG's result, so its verification may be deferred to the SignatureBatch...
+            wasSuccessful = ((CryptographicOperation) checkSignatureOperation).applyDeferredTo(stack, controlState, mutableContext, _signatureBatch);
+        }
+        else {
+            wasSuccessful = checkSignatureOperation.applyTo(stack, controlState, mutableContext);
+        }
+        if (! wasSuccessful) { return false; }
+
+        return _isFinalStackValid(stack, controlState, mutableContext.getBlockHeight());
+    }
+
+    /**
+     * Verifies a P2SH output (i.e. a P2SH multisig) without interpreting its lockingScript.
+     *  The redeemScript's hash is compared directly, and the redeemScript is then executed against the unlockingScript's
+     *  remaining stack; since the lockingScript cannot modify the stack, the interpreter's duplicate stack is unnecessary.
+     */
+    protected Boolean _runPayToScriptHashScript(final LockingScript lockingScript, final UnlockingScript unlockingScript, final MutableContext mutableContext) {
+        final List<Operation> lockingScriptOperations = lockingScript.getOperations();
+        final PushOperation scriptHashOperation = (PushOperation) lockingScriptOperations.get(1);
+
+        final ControlState controlState = new ControlState();
+        final Stack stack = _executeUnlockingScript(unlockingScript, controlState, mutableContext);
+        if (stack == null) { return false; }
+
+        if (stack.isEmpty()) { return false; }
+
+        final Value redeemScriptValue = stack.pop();
+        final byte[] redeemScriptHash = _hash160(redeemScriptValue);
+        if (! ByteUtil.areEqual(redeemScriptHash, scriptHashOperation.getValue().getBytes())) { return false; }
+
+        final Script redeemScript = new ImmutableScript(redeemScriptValue);
+        final List<Operation> redeemScriptOperations = redeemScript.getOperations();
+        if (redeemScriptOperations == null) { return false; }
+
+        mutableContext.setCurrentScript(redeemScript);
+        final Boolean wasSuccessful = _executeOperations(redeemScriptOperations, stack, controlState, mutableContext);
+        if (! wasSuccessful) { return false; }
+
+        return _isFinalStackValid(stack, controlState, mutableContext.getBlockHeight());
+    }
+
+    /**
+     * Attempts to verify the script pair via a path specialized for its (standard) template.
+     *  Returns null if the scripts do not qualify, in which case the generic interpreter must be used.
+     *  Only push-only unlockingScripts qualify, since any other operation may alter the ControlState or the stack arbitrarily.
+     */
+    protected Boolean _runStandardScript(final LockingScript lockingScript, final ScriptType lockingScriptType, final UnlockingScript unlockingScript, final Context context) {
+        final Boolean isPayToPublicKeyHash = (lockingScriptType == ScriptType.PAY_TO_PUBLIC_KEY_HASH);
+        final Boolean isPayToScriptHash = ( (lockingScriptType == ScriptType.PAY_TO_SCRIPT_HASH) && (Bip16.isEnabled(context.getBlockHeight())) );
+        if ( (! isPayToPublicKeyHash) && (! isPayToScriptHash) ) { return null; }
+
+        final List<Operation> unlockingScriptOperations = unlockingScript.getOperations();
+        if (unlockingScriptOperations == null) { return false; }
+        if (unlockingScript.containsNonPushOperations()) { return null; }
+
+        final MutableContext mutableContext = new MutableContext(context);
+        try {
+            if (isPayToPublicKeyHash) {
+                return _runPayToPublicKeyHashScript(lockingScript, unlockingScript, mutableContext);
+            }
+            else {
+                return _runPayToScriptHashScript(lockingScript, unlockingScript, mutableContext);
+            }
+        }
+        catch (final Exception exception) {
+            Logger.log(exception);
+            return false;
+        }
+    }
+
+    /**
+     * When enabled, every script that qualifies for a template-specialized path is also run through the generic interpreter.
+     *  If the results disagree, the discrepancy is logged and the interpreter's result is used.
+     */
+    public void setDifferentialVerificationEnabled(final Boolean differentialVerificationIsEnabled) {
+        _differentialVerificationIsEnabled = differentialVerificationIsEnabled;
+    }
+
+    /**
+     * When set, the signature of each P2PKH script verified via its specialized path is added to the signatureBatch instead of being
+     *  verified, and is assumed to be valid; a successful result is then provisional until the signatureBatch is verified.
+     *  Signatures are not deferred while differential verification is enabled.
+     */
+    public void setSignatureBatch(final SignatureBatch signatureBatch) {
+        _signatureBatch = signatureBatch;
+    }
+
+    public Boolean runScript(final LockingScript lockingScript, final UnlockingScript unlockingScript, final Context context) {
+        final ScriptType lockingScriptType = lockingScript.getScriptType();
+
+        final Boolean standardScriptResult = _runStandardScript(lockingScript, lockingScriptType, unlockingScript, context);
+        if (standardScriptResult == null) {
+            return _runScript(lockingScript, lockingScriptType, unlockingScript, context);
+        }
+
+        if (_differentialVerificationIsEnabled) {
+            final Boolean interpretedResult = _runScript(lockingScript, lockingScriptType, unlockingScript, context);
+            if (! Util.areEqual(standardScriptResult, interpretedResult)) {
+                final Transaction transaction = context.getTransaction();
+                Logger.log("NOTICE: Script verification mismatch for " + lockingScriptType + ": specialized=" + standardScriptResult + " interpreted=" + interpretedResult + " (Transaction " + (transaction != null ? transaction.getHash() : null) + ":" + context.getTransactionInputIndex() + ")");
+                return interpretedResult;
+            }
+        }
+
+        return standardScriptResult;
+    }
 }
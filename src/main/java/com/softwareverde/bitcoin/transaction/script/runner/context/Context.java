@@ -4,6 +4,7 @@ import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
 import com.softwareverde.bitcoin.transaction.script.Script;
+import com.softwareverde.bitcoin.transaction.signer.PrecomputedSignatureData;
 import com.softwareverde.constable.Constable;
 import com.softwareverde.json.Jsonable;
 
@@ -17,6 +18,11 @@ public interface Context extends Constable<ImmutableContext>, Jsonable {
      */
     Transaction getTransaction();
 
+    /**
+     * Returns the signature-hash values shared by all inputs of the Transaction being validated.
+     */
+    PrecomputedSignatureData getPrecomputedSignatureData();
+
     Integer getTransactionInputIndex();
 
     /**
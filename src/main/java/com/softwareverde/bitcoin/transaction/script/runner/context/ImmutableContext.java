@@ -4,12 +4,14 @@ import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
 import com.softwareverde.bitcoin.transaction.script.Script;
+import com.softwareverde.bitcoin.transaction.signer.PrecomputedSignatureData;
 import com.softwareverde.constable.Const;
 import com.softwareverde.json.Json;
 
 public class ImmutableContext implements Context, Const {
     protected Long _blockHeight;
     protected Transaction _transaction;
+    protected PrecomputedSignatureData _precomputedSignatureData;
 
     protected Integer _transactionInputIndex;
     protected TransactionInput _transactionInput;
@@ -22,6 +24,7 @@ public class ImmutableContext implements Context, Const {
     public ImmutableContext(final Context context) {
         _blockHeight = context.getBlockHeight();
         _transaction = context.getTransaction().asConst();
+        _precomputedSignatureData = context.getPrecomputedSignatureData();
         _transactionInputIndex = context.getTransactionInputIndex();
         _transactionInput = context.getTransactionInput().asConst();
         _transactionOutput = context.getTransactionOutput().asConst();
@@ -52,6 +55,11 @@ public class ImmutableContext implements Context, Const {
         return _transaction;
     }
 
+    @Override
+    public PrecomputedSignatureData getPrecomputedSignatureData() {
+        return _precomputedSignatureData;
+    }
+
     @Override
     public Integer getTransactionInputIndex() {
         return _transactionInputIndex;
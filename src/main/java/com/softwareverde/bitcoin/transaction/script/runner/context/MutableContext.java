@@ -5,12 +5,14 @@ import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
 import com.softwareverde.bitcoin.transaction.script.Script;
+import com.softwareverde.bitcoin.transaction.signer.PrecomputedSignatureData;
 import com.softwareverde.constable.Const;
 import com.softwareverde.json.Json;
 
 public class MutableContext implements Context, Const {
     protected Long _blockHeight;
     protected Transaction _transaction;
+    protected PrecomputedSignatureData _precomputedSignatureData;
 
     protected Integer _transactionInputIndex;
     protected TransactionInput _transactionInput;
@@ -25,6 +27,7 @@ public class MutableContext implements Context, Const {
     public MutableContext(final Context context) {
         _blockHeight = context.getBlockHeight();
         _transaction = ConstUtil.asConstOrNull(context.getTransaction());
+        _precomputedSignatureData = context.getPrecomputedSignatureData();
         _transactionInputIndex = context.getTransactionInputIndex();
         _transactionInput = ConstUtil.asConstOrNull(context.getTransactionInput());
         _transactionOutput = ConstUtil.asConstOrNull(context.getTransactionOutput());
@@ -41,9 +44,11 @@ public class MutableContext implements Context, Const {
 
     /**
      * Sets the Transaction currently being validated.
+     *  The Transaction's shared signature-hash values are reset and computed lazily by the first input that requires them.
      */
     public void setTransaction(final Transaction transaction) {
         _transaction = transaction;
+        _precomputedSignatureData = ( (transaction != null) ? new PrecomputedSignatureData(transaction) : null );
     }
 
     public void setTransactionInputIndex(final Integer transactionInputIndex) {
@@ -92,6 +97,11 @@ public class MutableContext implements Context, Const {
         return _transaction;
     }
 
+    @Override
+    public PrecomputedSignatureData getPrecomputedSignatureData() {
+        return _precomputedSignatureData;
+    }
+
     @Override
     public Integer getTransactionInputIndex() {
         return _transactionInputIndex;
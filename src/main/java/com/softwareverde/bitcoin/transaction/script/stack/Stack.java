@@ -1,23 +1,36 @@
 package com.softwareverde.bitcoin.transaction.script.stack;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
 public class Stack {
     public static final Value OVERFLOW_VALUE = Value.fromInteger(0L);
+    protected static final int INITIAL_CAPACITY = 16;
 
-    protected final List<Value> _values = new LinkedList<Value>();
+    // NOTE: The top of the stack is the last element; peaks and pops are therefore constant-time.
+    protected Value[] _values;
+    protected int _size = 0;
     protected Boolean _didOverflow = false;
 
     protected Stack _altStack = null;
 
     protected Value _peak(final Integer index) {
-        if ( (index < 0) || (index >= _values.size()) ) {
+        if ( (index < 0) || (index >= _size) ) {
             _didOverflow = true;
             return OVERFLOW_VALUE;
         }
 
-        return _values.get(_values.size() - index - 1);
+        return _values[_size - index - 1];
+    }
+
+    protected Value _remove(final int arrayIndex) {
+        final Value value = _values[arrayIndex];
+        final int shiftCount = (_size - arrayIndex - 1);
+        if (shiftCount > 0) {
+            System.arraycopy(_values, (arrayIndex + 1), _values, arrayIndex, shiftCount);
+        }
+        _size -= 1;
+        _values[_size] = null;
+        return value;
     }
 
     protected void _initAltStack() {
@@ -26,10 +39,13 @@ public class Stack {
         }
     }
 
-    public Stack() { }
+    public Stack() {
+        _values = new Value[INITIAL_CAPACITY];
+    }
 
     public Stack(final Stack stack) {
-        _values.addAll(stack._values);
+        _values = Arrays.copyOf(stack._values, Math.max(INITIAL_CAPACITY, stack._size));
+        _size = stack._size;
         _didOverflow = stack._didOverflow;
         _altStack = stack._altStack;
     }
@@ -40,7 +56,11 @@ public class Stack {
             return;
         }
 
-        _values.add(value);
+        if (_size == _values.length) {
+            _values = Arrays.copyOf(_values, (_values.length * 2));
+        }
+        _values[_size] = value;
+        _size += 1;
     }
 
     public void pushToAltStack(final Value value) {
@@ -67,12 +87,15 @@ public class Stack {
     }
 
     public Value pop() {
-        if (_values.isEmpty()) {
+        if (_size == 0) {
             _didOverflow = true;
             return OVERFLOW_VALUE;
         }
 
-        return _values.remove(_values.size() - 1);
+        _size -= 1;
+        final Value value = _values[_size];
+        _values[_size] = null;
+        return value;
     }
 
     public Value popFromAltStack() {
@@ -81,12 +104,12 @@ public class Stack {
     }
 
     public Value pop(final Integer index) {
-        if (index >= _values.size()) {
+        if ( (index < 0) || (index >= _size) ) {
             _didOverflow = true;
             return OVERFLOW_VALUE;
         }
 
-        return _values.remove(_values.size() - index - 1);
+        return _remove(_size - index - 1);
     }
 
     public Value popFromAltStack(final Integer index) {
@@ -95,7 +118,7 @@ public class Stack {
     }
 
     public Boolean isEmpty() {
-        return _values.isEmpty();
+        return (_size == 0);
     }
 
     public Boolean altStackIsEmpty() {
@@ -104,7 +127,7 @@ public class Stack {
     }
 
     public Integer getSize() {
-        return _values.size();
+        return _size;
     }
 
     public Integer getAltStackSize() {
@@ -123,7 +146,7 @@ public class Stack {
     public String toString() {
         final StringBuilder stringBuilder = new StringBuilder();
 
-        for (int i = 0; i < _values.size(); ++i) {
+        for (int i = 0; i < _size; ++i) {
             final Value value = _peak(i);
             stringBuilder.append(value.toString());
             stringBuilder.append("\n");
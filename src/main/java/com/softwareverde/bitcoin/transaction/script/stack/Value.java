@@ -44,14 +44,36 @@ public class Value extends ImmutableByteArray implements Const {
         return bytes;
     }
 
+    // NOTE: Values are immutable, so the small integers produced by push-number opcodes, arithmetic, and comparisons are shared
+    //  instead of re-encoded and re-allocated for every operation.
+    protected static final long MIN_CACHED_INTEGER = -1L;
+    protected static final long MAX_CACHED_INTEGER = 255L;
+    protected static final Value[] CACHED_INTEGERS;
+    static {
+        CACHED_INTEGERS = new Value[(int) (MAX_CACHED_INTEGER - MIN_CACHED_INTEGER + 1L)];
+        for (long value = MIN_CACHED_INTEGER; value <= MAX_CACHED_INTEGER; ++value) {
+            CACHED_INTEGERS[(int) (value - MIN_CACHED_INTEGER)] = new Value(_longToBytes(value));
+        }
+    }
+
+    public static final Value ZERO = CACHED_INTEGERS[(int) (0L - MIN_CACHED_INTEGER)];
+    public static final Value ONE = CACHED_INTEGERS[(int) (1L - MIN_CACHED_INTEGER)];
+
+    public static final Value FALSE = ZERO;
+    public static final Value TRUE = ONE;
+
     public static Value fromInteger(final Long longValue) {
+        final long value = longValue;
+        if ( (value >= MIN_CACHED_INTEGER) && (value <= MAX_CACHED_INTEGER) ) {
+            return CACHED_INTEGERS[(int) (value - MIN_CACHED_INTEGER)];
+        }
+
         final byte[] bytes = _longToBytes(longValue);
         return new Value(bytes);
     }
 
     public static Value fromBoolean(final Boolean booleanValue) {
-        final byte[] bytes = _longToBytes(booleanValue ? 1L : 0L);
-        return new Value(bytes);
+        return (booleanValue ? TRUE : FALSE);
     }
 
     public static Value fromBytes(final byte[] bytes) {
@@ -59,13 +81,35 @@ public class Value extends ImmutableByteArray implements Const {
         return new Value(bytes);
     }
 
+    /**
+     * Decodes up to 8 little-endian MPI bytes without allocating; equivalent to _asLong for those lengths.
+     */
+    protected static long _decodeLong(final byte[] bytes) {
+        if (bytes.length == 0) { return 0L; }
+
+        long value = 0L;
+        for (int i = 0; i < bytes.length; ++i) {
+            value |= ((bytes[i] & 0xFFL) << (8 * i));
+        }
+
+        final int signBitIndex = ((8 * bytes.length) - 1);
+        final boolean isNegative = (((value >>> signBitIndex) & 0x01L) == 0x01L);
+        value &= ~(1L << signBitIndex);
+
+        return (isNegative ? -value : value);
+    }
+
     protected static boolean _isNegativeNumber(final byte[] bytes) {
         final byte mostSignificantByte = bytes[0];
         return ( (mostSignificantByte & ((byte) 0x80)) != ((byte) 0x00) );
     }
 
+    protected final boolean _hasNumericValue;
+    protected final long _numericValue; // Only set when _hasNumericValue is true...
+
     protected Integer _asInteger() {
         if (_bytes.length == 0) { return 0; }
+        if ( _hasNumericValue && (_bytes.length <= 4) ) { return (int) _numericValue; }
 
         final byte[] bigEndianBytes = ByteUtil.reverseEndian(_bytes);
 
@@ -81,6 +125,7 @@ public class Value extends ImmutableByteArray implements Const {
 
     protected Long _asLong() {
         if (_bytes.length == 0) { return 0L; }
+        if (_hasNumericValue) { return _numericValue; }
 
         final byte[] bigEndianBytes = ByteUtil.reverseEndian(_bytes);
 
@@ -104,8 +149,21 @@ public class Value extends ImmutableByteArray implements Const {
         return false;
     }
 
+    protected Boolean _isMinimallyEncoded() {
+        if (_bytes.length == 0) { return true; }
+
+        final byte mostSignificantByte = _bytes[_bytes.length - 1];
+        if ((mostSignificantByte & 0x7F) != 0x00) { return true; }
+
+        // The most significant byte is only padding (or negative zero); it is only required if the next byte's high bit would otherwise be the sign...
+        return ( (_bytes.length > 1) && ((_bytes[_bytes.length - 2] & 0x80) != 0x00) );
+    }
+
     protected Value(final byte[] bytes) {
         super(bytes);
+
+        _hasNumericValue = (bytes.length <= 8);
+        _numericValue = (_hasNumericValue ? _decodeLong(bytes) : 0L);
     }
 
     /**
@@ -125,12 +183,16 @@ public class Value extends ImmutableByteArray implements Const {
     }
 
     public Boolean isMinimallyEncodedInteger() {
+        if (_bytes.length <= 4) { return _isMinimallyEncoded(); }
+
         final Integer asInteger = _asInteger();
         final byte[] minimallyEncodedBytes = _longToBytes(asInteger.longValue());
         return ByteUtil.areEqual(minimallyEncodedBytes, _bytes);
     }
 
     public Boolean isMinimallyEncodedLong() {
+        if (_bytes.length <= 4) { return _isMinimallyEncoded(); }
+
         final Long asLong = _asLong();
         final byte[] minimallyEncodedBytes = _longToBytes(asLong);
         return ByteUtil.areEqual(minimallyEncodedBytes, _bytes);
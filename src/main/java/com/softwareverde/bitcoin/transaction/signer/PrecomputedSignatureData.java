@@ -0,0 +1,103 @@
+package com.softwareverde.bitcoin.transaction.signer;
+
+import com.softwareverde.bitcoin.hash.DoubleSha256Stream;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.util.bytearray.Endian;
+
+/**
+ * Caches the Transaction-wide hashes used by the Bitcoin Cash (BIP143-style) signature-hash algorithm.
+ *  hashPrevouts, hashSequence, and hashOutputs only depend upon the Transaction, not upon the input being signed,
+ *  so they are computed at most once per Transaction rather than once per input.
+ *  Each value is computed lazily; concurrent first-access may compute a value twice, but the result is identical.
+ *  The Transaction must not be modified after this object is created.
+ */
+public class PrecomputedSignatureData {
+    protected static void _serializeTransactionOutput(final TransactionOutput transactionOutput, final DoubleSha256Stream doubleSha256Stream) {
+        final LockingScript lockingScript = transactionOutput.getLockingScript();
+
+        doubleSha256Stream.update(ByteUtil.longToBytes(transactionOutput.getAmount()), Endian.LITTLE);
+        doubleSha256Stream.update(ByteUtil.variableLengthIntegerToBytes(lockingScript.getByteCount()));
+        doubleSha256Stream.update(lockingScript.getBytes());
+    }
+
+    protected final Transaction _transaction;
+
+    protected volatile byte[] _previousOutputsHash = null;
+    protected volatile byte[] _sequenceNumbersHash = null;
+    protected volatile byte[] _transactionOutputsHash = null;
+
+    public PrecomputedSignatureData(final Transaction transaction) {
+        _transaction = transaction;
+    }
+
+    public Transaction getTransaction() {
+        return _transaction;
+    }
+
+    /**
+     * Returns the double-sha256 of every TransactionInput's PreviousTransactionOutput (hashPrevouts).
+     */
+    public byte[] getPreviousOutputsHash() {
+        final byte[] cachedValue = _previousOutputsHash;
+        if (cachedValue != null) { return cachedValue; }
+
+        final DoubleSha256Stream doubleSha256Stream = new DoubleSha256Stream();
+        for (final TransactionInput transactionInput : _transaction.getTransactionInputs()) {
+            doubleSha256Stream.update(transactionInput.getPreviousOutputTransactionHash(), Endian.LITTLE);
+            doubleSha256Stream.update(ByteUtil.integerToBytes(transactionInput.getPreviousOutputIndex()), Endian.LITTLE);
+        }
+
+        final byte[] hash = doubleSha256Stream.digest();
+        _previousOutputsHash = hash;
+        return hash;
+    }
+
+    /**
+     * Returns the double-sha256 of every TransactionInput's SequenceNumber (hashSequence).
+     */
+    public byte[] getSequenceNumbersHash() {
+        final byte[] cachedValue = _sequenceNumbersHash;
+        if (cachedValue != null) { return cachedValue; }
+
+        final DoubleSha256Stream doubleSha256Stream = new DoubleSha256Stream();
+        for (final TransactionInput transactionInput : _transaction.getTransactionInputs()) {
+            doubleSha256Stream.update(transactionInput.getSequenceNumber().getBytes(), Endian.LITTLE);
+        }
+
+        final byte[] hash = doubleSha256Stream.digest();
+        _sequenceNumbersHash = hash;
+        return hash;
+    }
+
+    /**
+     * Returns the double-sha256 of every TransactionOutput (hashOutputs).
+     */
+    public byte[] getTransactionOutputsHash() {
+        final byte[] cachedValue = _transactionOutputsHash;
+        if (cachedValue != null) { return cachedValue; }
+
+        final DoubleSha256Stream doubleSha256Stream = new DoubleSha256Stream();
+        for (final TransactionOutput transactionOutput : _transaction.getTransactionOutputs()) {
+            _serializeTransactionOutput(transactionOutput, doubleSha256Stream);
+        }
+
+        final byte[] hash = doubleSha256Stream.digest();
+        _transactionOutputsHash = hash;
+        return hash;
+    }
+
+    /**
+     * Returns the double-sha256 of the single TransactionOutput at outputIndex, as used by SIGHASH_SINGLE.
+     *  This value is specific to the input being signed and is therefore not cached.
+     */
+    public byte[] getTransactionOutputHash(final Integer outputIndex) {
+        final TransactionOutput transactionOutput = _transaction.getTransactionOutputs().get(outputIndex);
+        final DoubleSha256Stream doubleSha256Stream = new DoubleSha256Stream();
+        _serializeTransactionOutput(transactionOutput, doubleSha256Stream);
+        return doubleSha256Stream.digest();
+    }
+}
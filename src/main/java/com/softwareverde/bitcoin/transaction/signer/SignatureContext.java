@@ -16,6 +16,7 @@ public class SignatureContext {
     private final Transaction _transaction;
     private final HashType _hashType;
     private final Long _blockHeight;
+    private final PrecomputedSignatureData _precomputedSignatureData;
 
     private final MutableList<Boolean> _inputScriptsToSign = new MutableList<Boolean>(); // Determines if the script is left intact or replaced with an empty script...
     private final MutableList<TransactionOutput> _previousTransactionOutputsBeingSpent = new MutableList<TransactionOutput>();
@@ -26,9 +27,18 @@ public class SignatureContext {
     private List<ByteArray> _bytesToExcludeFromScript = new MutableList<ByteArray>();
 
     public SignatureContext(final Transaction transaction, final HashType hashType, final Long blockHeight) {
+        this(transaction, hashType, blockHeight, null);
+    }
+
+    /**
+     * Creates a SignatureContext that reuses the Transaction-wide signature hashes within precomputedSignatureData.
+     *  The precomputedSignatureData must have been created for the same Transaction; if null, the hashes are computed on demand.
+     */
+    public SignatureContext(final Transaction transaction, final HashType hashType, final Long blockHeight, final PrecomputedSignatureData precomputedSignatureData) {
         _transaction = transaction;
         _hashType = hashType;
         _blockHeight = blockHeight;
+        _precomputedSignatureData = precomputedSignatureData;
 
         final List<TransactionInput> transactionInputs = transaction.getTransactionInputs();
         for (int i = 0; i < transactionInputs.getSize(); ++i) {
@@ -64,6 +74,10 @@ public class SignatureContext {
         return _transaction;
     }
 
+    public PrecomputedSignatureData getPrecomputedSignatureData() {
+        return _precomputedSignatureData;
+    }
+
     public HashType getHashType() {
         return _hashType;
     }
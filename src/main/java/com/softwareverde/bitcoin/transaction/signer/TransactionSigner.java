@@ -1,5 +1,7 @@
 package com.softwareverde.bitcoin.transaction.signer;
 
+import com.softwareverde.bitcoin.hash.DoubleSha256Stream;
+import com.softwareverde.bitcoin.hash.Sha256Util;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.secp256k1.Secp256k1;
 import com.softwareverde.bitcoin.secp256k1.key.PrivateKey;
@@ -23,7 +25,6 @@ import com.softwareverde.bitcoin.transaction.script.signature.ScriptSignature;
 import com.softwareverde.bitcoin.transaction.script.signature.hashtype.HashType;
 import com.softwareverde.bitcoin.transaction.script.signature.hashtype.Mode;
 import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
-import com.softwareverde.bitcoin.util.BitcoinUtil;
 import com.softwareverde.bitcoin.util.ByteUtil;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.list.List;
@@ -162,7 +163,7 @@ public class TransactionSigner {
         final ByteArrayBuilder byteArrayBuilder = transactionDeflater.toByteArrayBuilder(mutableTransaction);
         byteArrayBuilder.appendBytes(ByteUtil.integerToBytes(ByteUtil.byteToInteger(hashType.toByte())), Endian.LITTLE);
         final byte[] bytes = byteArrayBuilder.build();
-        return BitcoinUtil.sha256(BitcoinUtil.sha256(bytes));
+        return Sha256Util.doubleSha256(bytes);
     }
 
     protected byte[] _getBitcoinCashBytesForSigning(final SignatureContext signatureContext) {
@@ -172,50 +173,41 @@ public class TransactionSigner {
         final List<TransactionInput> transactionInputs = transaction.getTransactionInputs();
         final HashType hashType = signatureContext.getHashType();
 
-        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        final PrecomputedSignatureData precomputedSignatureData;
+        { // NOTE: The Transaction-wide hashes are shared between inputs when the SignatureContext provides them...
+            final PrecomputedSignatureData contextPrecomputedSignatureData = signatureContext.getPrecomputedSignatureData();
+            precomputedSignatureData = ( (contextPrecomputedSignatureData != null) ? contextPrecomputedSignatureData : new PrecomputedSignatureData(transaction) );
+        }
+
+        final DoubleSha256Stream doubleSha256Stream = new DoubleSha256Stream(); // NOTE: The preimage is hashed as it is serialized...
 
         { // 1. Serialize this Transaction's version...
-            byteArrayBuilder.appendBytes(ByteUtil.integerToBytes(transaction.getVersion()), Endian.LITTLE);
+            doubleSha256Stream.update(ByteUtil.integerToBytes(transaction.getVersion()), Endian.LITTLE);
         }
 
         { // 2. Serialize this Transaction's PreviousTransactionOutputs...
             if (hashType.shouldSignOtherInputs()) {
-                final ByteArrayBuilder serializedTransactionInput = new ByteArrayBuilder();
-                for (final TransactionInput transactionInput : transactionInputs) {
-                    serializedTransactionInput.appendBytes(transactionInput.getPreviousOutputTransactionHash(), Endian.LITTLE);
-                    serializedTransactionInput.appendBytes(ByteUtil.integerToBytes(transactionInput.getPreviousOutputIndex()), Endian.LITTLE);
-                }
-
-                final byte[] bytes = BitcoinUtil.sha256(BitcoinUtil.sha256(serializedTransactionInput.build()));
-                byteArrayBuilder.appendBytes(bytes);
+                doubleSha256Stream.update(precomputedSignatureData.getPreviousOutputsHash());
             }
             else {
-                byteArrayBuilder.appendBytes(Sha256Hash.EMPTY_HASH);
+                doubleSha256Stream.update(Sha256Hash.EMPTY_HASH);
             }
         }
 
         { // 3. Serialize this Transaction's Inputs' SequenceNumbers...
             if ( (! hashType.shouldSignOtherInputs()) || (hashType.getMode() == Mode.SIGNATURE_HASH_NONE) || (hashType.getMode() == Mode.SIGNATURE_HASH_SINGLE) ) {
-                byteArrayBuilder.appendBytes(Sha256Hash.EMPTY_HASH);
+                doubleSha256Stream.update(Sha256Hash.EMPTY_HASH);
             }
             else {
-                final ByteArrayBuilder serializedSequenceNumbers = new ByteArrayBuilder();
-                for (final TransactionInput transactionInput : transactionInputs) {
-                    serializedSequenceNumbers.appendBytes(transactionInput.getSequenceNumber().getBytes(), Endian.LITTLE);
-                }
-                final byte[] bytes = BitcoinUtil.sha256(BitcoinUtil.sha256(serializedSequenceNumbers.build()));
-                byteArrayBuilder.appendBytes(bytes);
+                doubleSha256Stream.update(precomputedSignatureData.getSequenceNumbersHash());
             }
         }
 
         { // 4. Serialize the TransactionInput's PreviousTransactionOutput...
             final TransactionInput transactionInput = transactionInputs.get(inputIndex);
 
-            final ByteArrayBuilder serializedTransactionOutputBeingSpent = new ByteArrayBuilder();
-            serializedTransactionOutputBeingSpent.appendBytes(transactionInput.getPreviousOutputTransactionHash(), Endian.LITTLE);
-            serializedTransactionOutputBeingSpent.appendBytes(ByteUtil.integerToBytes(transactionInput.getPreviousOutputIndex()), Endian.LITTLE);
-
-            byteArrayBuilder.appendBytes(serializedTransactionOutputBeingSpent.build());
+            doubleSha256Stream.update(transactionInput.getPreviousOutputTransactionHash(), Endian.LITTLE);
+            doubleSha256Stream.update(ByteUtil.integerToBytes(transactionInput.getPreviousOutputIndex()), Endian.LITTLE);
         }
 
         { // 5. Serialize the script...
@@ -236,18 +228,18 @@ public class TransactionSigner {
                 scriptForSigning = mutableScript;
             }
 
-            byteArrayBuilder.appendBytes(ByteUtil.variableLengthIntegerToBytes(scriptForSigning.getByteCount()));
-            byteArrayBuilder.appendBytes(scriptForSigning.getBytes());
+            doubleSha256Stream.update(ByteUtil.variableLengthIntegerToBytes(scriptForSigning.getByteCount()));
+            doubleSha256Stream.update(scriptForSigning.getBytes());
         }
 
         { // 6. Serialize the amount of the spent TransactionOutput...
             final TransactionOutput transactionOutput = signatureContext.getTransactionOutputBeingSpent(inputIndex);
-            byteArrayBuilder.appendBytes(ByteUtil.longToBytes(transactionOutput.getAmount()), Endian.LITTLE);
+            doubleSha256Stream.update(ByteUtil.longToBytes(transactionOutput.getAmount()), Endian.LITTLE);
         }
 
         { // 7. Serialize the SequenceNumber for this TransactionInput...
             final TransactionInput transactionInput = transactionInputs.get(inputIndex);
-            byteArrayBuilder.appendBytes(transactionInput.getSequenceNumber().getBytes(), Endian.LITTLE);
+            doubleSha256Stream.update(transactionInput.getSequenceNumber().getBytes(), Endian.LITTLE);
         }
 
         { // 8. Serialize this Transaction's TransactionOutputs...
@@ -255,44 +247,23 @@ public class TransactionSigner {
 
             if (hashType.getMode() == Mode.SIGNATURE_HASH_SINGLE) {
                 if (inputIndex >= transactionOutputs.getSize()) {
-                    byteArrayBuilder.appendBytes(Sha256Hash.EMPTY_HASH); // NOTE: This is different behavior than Bitcoin for this error case...
+                    doubleSha256Stream.update(Sha256Hash.EMPTY_HASH); // NOTE: This is different behavior than Bitcoin for this error case...
                 }
                 else {
-                    final TransactionOutput transactionOutput = transactionOutputs.get(inputIndex);
-                    final LockingScript transactionOutputScript = transactionOutput.getLockingScript();
-
-                    final ByteArrayBuilder serializedTransactionOutput = new ByteArrayBuilder();
-
-                    serializedTransactionOutput.appendBytes(ByteUtil.longToBytes(transactionOutput.getAmount()), Endian.LITTLE);
-                    serializedTransactionOutput.appendBytes(ByteUtil.variableLengthIntegerToBytes(transactionOutputScript.getByteCount()));
-                    serializedTransactionOutput.appendBytes(transactionOutputScript.getBytes());
-
-                    final byte[] bytes = BitcoinUtil.sha256(BitcoinUtil.sha256(serializedTransactionOutput.build()));
-                    byteArrayBuilder.appendBytes(bytes);
+                    doubleSha256Stream.update(precomputedSignatureData.getTransactionOutputHash(inputIndex));
                 }
             }
             else if (hashType.getMode() == Mode.SIGNATURE_HASH_NONE) {
-                byteArrayBuilder.appendBytes(Sha256Hash.EMPTY_HASH);
+                doubleSha256Stream.update(Sha256Hash.EMPTY_HASH);
             }
             else {
-                final ByteArrayBuilder serializedTransactionOutput = new ByteArrayBuilder();
-
-                for (final TransactionOutput transactionOutput : transactionOutputs) {
-                    final LockingScript transactionOutputScript = transactionOutput.getLockingScript();
-
-                    serializedTransactionOutput.appendBytes(ByteUtil.longToBytes(transactionOutput.getAmount()), Endian.LITTLE);
-                    serializedTransactionOutput.appendBytes(ByteUtil.variableLengthIntegerToBytes(transactionOutputScript.getByteCount()));
-                    serializedTransactionOutput.appendBytes(transactionOutputScript.getBytes());
-                }
-
-                final byte[] bytes = BitcoinUtil.sha256(BitcoinUtil.sha256(serializedTransactionOutput.build()));
-                byteArrayBuilder.appendBytes(bytes);
+                doubleSha256Stream.update(precomputedSignatureData.getTransactionOutputsHash());
             }
         }
 
         { // 9. Serialize this Transaction's LockTime...
             final LockTime lockTime = transaction.getLockTime();
-            byteArrayBuilder.appendBytes(lockTime.getBytes(), Endian.LITTLE);
+            doubleSha256Stream.update(lockTime.getBytes(), Endian.LITTLE);
         }
 
         { // 10. Serialize this Transaction's HashType...
@@ -300,10 +271,17 @@ public class TransactionSigner {
             final byte hashTypeByte = hashType.toByte();
             final byte[] hashTypeWithForkId = ByteUtil.integerToBytes(FORK_ID << 8);
             hashTypeWithForkId[3] |= hashTypeByte;
-            byteArrayBuilder.appendBytes(hashTypeWithForkId, Endian.LITTLE);
+            doubleSha256Stream.update(hashTypeWithForkId, Endian.LITTLE);
         }
 
-        return BitcoinUtil.sha256(BitcoinUtil.sha256(byteArrayBuilder.build()));
+        return doubleSha256Stream.digest();
+    }
+
+    /**
+     * Returns the signature-hash (the double-sha256 of the serialized bytes) that is signed for the provided signatureContext.
+     */
+    public byte[] getBytesForSigning(final SignatureContext signatureContext) {
+        return _getBytesForSigning(signatureContext);
     }
 
     public boolean isSignatureValid(final SignatureContext signatureContext, final PublicKey publicKey, final ScriptSignature scriptSignature) {
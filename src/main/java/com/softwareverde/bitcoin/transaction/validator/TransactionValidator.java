@@ -8,6 +8,7 @@ import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.secp256k1.SignatureBatch;
 import com.softwareverde.bitcoin.server.database.*;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.bitcoin.transaction.Transaction;
@@ -23,6 +24,7 @@ import com.softwareverde.bitcoin.transaction.locktime.SequenceNumberType;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutputDeflater;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutputId;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutputSet;
 import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
 import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
 import com.softwareverde.bitcoin.transaction.script.runner.ScriptRunner;
@@ -52,6 +54,26 @@ public class TransactionValidator {
     protected final MedianBlockTime _medianBlockTime;
 
     protected Boolean _shouldLogInvalidTransactions = true;
+    protected TransactionOutputSet _transactionOutputSet = null;
+    protected SignatureBatch _signatureBatch = null;
+
+    protected TransactionOutputId _findTransactionOutputId(final TransactionOutputIdentifier transactionOutputIdentifier) throws DatabaseException {
+        if (_transactionOutputSet != null) {
+            final TransactionOutputId transactionOutputId = _transactionOutputSet.getTransactionOutputId(transactionOutputIdentifier);
+            if (transactionOutputId != null) { return transactionOutputId; }
+        }
+
+        return _transactionOutputDatabaseManager.findTransactionOutput(transactionOutputIdentifier);
+    }
+
+    protected TransactionOutput _getTransactionOutput(final TransactionOutputIdentifier transactionOutputIdentifier, final TransactionOutputId transactionOutputId) throws DatabaseException {
+        if (_transactionOutputSet != null) {
+            final TransactionOutput transactionOutput = _transactionOutputSet.getTransactionOutput(transactionOutputIdentifier);
+            if (transactionOutput != null) { return transactionOutput; }
+        }
+
+        return _transactionOutputDatabaseManager.getTransactionOutput(transactionOutputId);
+    }
 
     protected void _logInvalidTransaction(final Transaction transaction, final Context context) {
         if (! _shouldLogInvalidTransactions) { return; }
@@ -128,31 +150,48 @@ public class TransactionValidator {
 
             final SequenceNumber sequenceNumber = transactionInput.getSequenceNumber();
             if (! sequenceNumber.isDisabled()) {
+                final Sha256Hash previousOutputTransactionHash = transactionInput.getPreviousOutputTransactionHash();
+                final Boolean isSecondsElapsed = (sequenceNumber.getType() == SequenceNumberType.SECONDS_ELAPSED);
+
+                Long blockHeightContainingOutputBeingSpent = null;
+                MedianBlockTime medianBlockTimeOfOutputBeingSpent = null;
+                if (_transactionOutputSet != null) { // Use the confirmation resolved before validation, if available...
+                    blockHeightContainingOutputBeingSpent = _transactionOutputSet.getConfirmingBlockHeight(previousOutputTransactionHash);
+                    medianBlockTimeOfOutputBeingSpent = _transactionOutputSet.getConfirmingMedianBlockTime(previousOutputTransactionHash);
+                }
 
-                final BlockId blockIdContainingOutputBeingSpent;
-                {
-                    final TransactionId previousOutputTransactionId = _transactionDatabaseManager.getTransactionId(transactionInput.getPreviousOutputTransactionHash());
-                    if (previousOutputTransactionId == null) { return false; }
-
-                    BlockId parentBlockId = null;
-                    // final BlockchainSegmentId blockchainSegmentId = _blockDatabaseManager.getBlockchainSegmentId(blockId);
-                    final List<BlockId> previousTransactionBlockIds = _transactionDatabaseManager.getBlockIds(previousOutputTransactionId);
-                    for (final BlockId previousTransactionBlockId : previousTransactionBlockIds) {
-                        final Boolean isConnected = _blockHeaderDatabaseManager.isBlockConnectedToChain(previousTransactionBlockId, blockchainSegmentId, BlockRelationship.ANCESTOR);
-                        if (isConnected) {
-                            parentBlockId = previousTransactionBlockId;
-                            break;
+                if ( (blockHeightContainingOutputBeingSpent == null) || (medianBlockTimeOfOutputBeingSpent == null) ) {
+                    final BlockId blockIdContainingOutputBeingSpent;
+                    {
+                        final TransactionId previousOutputTransactionId = _transactionDatabaseManager.getTransactionId(previousOutputTransactionHash);
+                        if (previousOutputTransactionId == null) { return false; }
+
+                        BlockId parentBlockId = null;
+                        // final BlockchainSegmentId blockchainSegmentId = _blockDatabaseManager.getBlockchainSegmentId(blockId);
+                        final List<BlockId> previousTransactionBlockIds = _transactionDatabaseManager.getBlockIds(previousOutputTransactionId);
+                        for (final BlockId previousTransactionBlockId : previousTransactionBlockIds) {
+                            final Boolean isConnected = _blockHeaderDatabaseManager.isBlockConnectedToChain(previousTransactionBlockId, blockchainSegmentId, BlockRelationship.ANCESTOR);
+                            if (isConnected) {
+                                parentBlockId = previousTransactionBlockId;
+                                break;
+                            }
                         }
+                        if (parentBlockId == null) { return false; }
+
+                        blockIdContainingOutputBeingSpent = parentBlockId;
                     }
-                    if (parentBlockId == null) { return false; }
 
-                    blockIdContainingOutputBeingSpent = parentBlockId;
+                    if (isSecondsElapsed) {
+                        medianBlockTimeOfOutputBeingSpent = _blockHeaderDatabaseManager.calculateMedianBlockTime(blockIdContainingOutputBeingSpent);
+                    }
+                    else {
+                        blockHeightContainingOutputBeingSpent = _blockHeaderDatabaseManager.getBlockHeight(blockIdContainingOutputBeingSpent);
+                    }
                 }
 
-                if (sequenceNumber.getType() == SequenceNumberType.SECONDS_ELAPSED) {
+                if (isSecondsElapsed) {
                     final Long requiredSecondsElapsed = sequenceNumber.asSecondsElapsed();
 
-                    final MedianBlockTime medianBlockTimeOfOutputBeingSpent = _blockHeaderDatabaseManager.calculateMedianBlockTime(blockIdContainingOutputBeingSpent);
                     final Long secondsElapsed = (_medianBlockTime.getCurrentTimeInSeconds() - medianBlockTimeOfOutputBeingSpent.getCurrentTimeInSeconds());
 
                     final Boolean sequenceNumberIsValid = (secondsElapsed >= requiredSecondsElapsed);
@@ -164,7 +203,6 @@ public class TransactionValidator {
                     }
                 }
                 else {
-                    final Long blockHeightContainingOutputBeingSpent = _blockHeaderDatabaseManager.getBlockHeight(blockIdContainingOutputBeingSpent);
                     final Long blockCount = (blockHeight - blockHeightContainingOutputBeingSpent);
                     final Long requiredBlockCount = sequenceNumber.asBlockCount();
 
@@ -237,6 +275,24 @@ public class TransactionValidator {
         return minedCount;
     }
 
+    /**
+     * Returns the mined count resolved by the TransactionOutputSet, or null if it must be queried.
+     *  The TransactionOutputSet does not account for the memory pool, so it is not consulted when validating for the memory pool.
+     */
+    protected Integer _getPrefetchedMinedCount(final Sha256Hash transactionHash, final Boolean includeMemoryPool) {
+        if ( (_transactionOutputSet == null) || (includeMemoryPool) ) { return null; }
+        return _transactionOutputSet.getMinedCount(transactionHash);
+    }
+
+    /**
+     * Returns the spend count resolved by the TransactionOutputSet, or null if it must be queried.
+     *  The TransactionOutputSet does not account for the memory pool, so it is not consulted when validating for the memory pool.
+     */
+    protected Integer _getPrefetchedSpendCount(final TransactionOutputIdentifier transactionOutputIdentifier, final Boolean includeMemoryPool) {
+        if ( (_transactionOutputSet == null) || (includeMemoryPool) ) { return null; }
+        return _transactionOutputSet.getSpendCount(transactionOutputIdentifier);
+    }
+
     public TransactionValidator(final MysqlDatabaseConnection databaseConnection, final DatabaseManagerCache databaseManagerCache, final NetworkTime networkTime, final MedianBlockTime medianBlockTime) {
         _blockchainDatabaseManager = new BlockchainDatabaseManager(databaseConnection, databaseManagerCache);
         _blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, databaseManagerCache);
@@ -251,6 +307,22 @@ public class TransactionValidator {
         _shouldLogInvalidTransactions = shouldLogInvalidTransactions;
     }
 
+    /**
+     * Sets the pre-resolved TransactionOutputs consulted before the database when looking up the outputs being spent.
+     *  TransactionOutputs absent from the set are still loaded from the database.
+     */
+    public void setTransactionOutputSet(final TransactionOutputSet transactionOutputSet) {
+        _transactionOutputSet = transactionOutputSet;
+    }
+
+    /**
+     * When set, the signatures of P2PKH inputs are added to the signatureBatch instead of being verified (see ScriptRunner::setSignatureBatch).
+     *  A Transaction that passes validation is then only valid once the signatureBatch has also been verified.
+     */
+    public void setSignatureBatch(final SignatureBatch signatureBatch) {
+        _signatureBatch = signatureBatch;
+    }
+
     protected void _logTransactionOutputNotFound(final Sha256Hash transactionHash, final TransactionInput transactionInput, final String extraMessage) {
         Logger.log("Transaction " + transactionHash + " references non-existent output: " + transactionInput.getPreviousOutputTransactionHash() + ":" + transactionInput.getPreviousOutputIndex() + " (" + extraMessage + ")");
     }
@@ -259,6 +331,7 @@ public class TransactionValidator {
         final Sha256Hash transactionHash = transaction.getHash();
 
         final ScriptRunner scriptRunner = new ScriptRunner();
+        scriptRunner.setSignatureBatch(_signatureBatch);
 
         final MutableContext context = new MutableContext();
         context.setBlockHeight(blockHeight);
@@ -337,8 +410,13 @@ public class TransactionValidator {
                 final TransactionInput transactionInput = transactionInputs.get(i);
 
                 final Sha256Hash transactionOutputBeingSpentTransactionHash = transactionInput.getPreviousOutputTransactionHash();
-                final TransactionId transactionOutputBeingSpentTransactionId = _transactionDatabaseManager.getTransactionId(transactionOutputBeingSpentTransactionHash);
-                if (transactionOutputBeingSpentTransactionId == null) {
+                final TransactionOutputIdentifier transactionOutputIdentifierBeingSpent = TransactionOutputIdentifier.fromTransactionInput(transactionInput);
+
+                // NOTE: When validating a Block, the mined and spent counts are resolved in bulk by the TransactionOutputSet;
+                //  the TransactionId of the Transaction being spent is then only needed if its mined count was not resolved...
+                final Integer prefetchedMinedCount = _getPrefetchedMinedCount(transactionOutputBeingSpentTransactionHash, validateForMemoryPool);
+                final TransactionId transactionOutputBeingSpentTransactionId = (prefetchedMinedCount != null ? null : _transactionDatabaseManager.getTransactionId(transactionOutputBeingSpentTransactionHash));
+                if ( (prefetchedMinedCount == null) && (transactionOutputBeingSpentTransactionId == null) ) {
                     if (_shouldLogInvalidTransactions) {
                         _logTransactionOutputNotFound(transactionHash, transactionInput, "TransactionId not found.");
                     }
@@ -348,7 +426,8 @@ public class TransactionValidator {
                 { // Enforcing Coinbase Maturity... (If the input is a coinbase then the coinbase must be at least 100 blocks old.)
                     final Boolean transactionOutputBeingSpentIsCoinbaseTransaction = (Util.areEqual(Sha256Hash.EMPTY_HASH, transactionInput.getPreviousOutputTransactionHash()));
                     if (transactionOutputBeingSpentIsCoinbaseTransaction) {
-                        final BlockId transactionOutputBeingSpentBlockId = _transactionDatabaseManager.getBlockId(blockchainSegmentId, transactionOutputBeingSpentTransactionId);
+                        final TransactionId coinbaseTransactionId = (transactionOutputBeingSpentTransactionId != null ? transactionOutputBeingSpentTransactionId : _transactionDatabaseManager.getTransactionId(transactionOutputBeingSpentTransactionHash));
+                        final BlockId transactionOutputBeingSpentBlockId = _transactionDatabaseManager.getBlockId(blockchainSegmentId, coinbaseTransactionId);
                         final Long blockHeightOfTransactionOutputBeingSpent = _blockHeaderDatabaseManager.getBlockHeight(transactionOutputBeingSpentBlockId);
                         final Long coinbaseMaturity = (blockHeight - blockHeightOfTransactionOutputBeingSpent);
                         if (coinbaseMaturity <= COINBASE_MATURITY) {
@@ -360,7 +439,7 @@ public class TransactionValidator {
                     }
                 }
 
-                final TransactionOutputId transactionOutputIdBeingSpent = _transactionOutputDatabaseManager.findTransactionOutput(TransactionOutputIdentifier.fromTransactionInput(transactionInput));
+                final TransactionOutputId transactionOutputIdBeingSpent = _findTransactionOutputId(transactionOutputIdentifierBeingSpent);
                 if (transactionOutputIdBeingSpent == null) {
                     if (_shouldLogInvalidTransactions) {
                         _logTransactionOutputNotFound(transactionHash, transactionInput, "TransactionOutputId not found.");
@@ -368,7 +447,7 @@ public class TransactionValidator {
                     return false;
                 }
 
-                final Integer outputBeingSpentMinedCount = _getOutputMinedCount(blockchainSegmentId, transactionOutputBeingSpentTransactionId, validateForMemoryPool);
+                final Integer outputBeingSpentMinedCount = (prefetchedMinedCount != null ? prefetchedMinedCount : _getOutputMinedCount(blockchainSegmentId, transactionOutputBeingSpentTransactionId, validateForMemoryPool));
 
                 { // Validate the UTXO has been mined on this blockchain...
                     if (outputBeingSpentMinedCount == 0) {
@@ -379,7 +458,8 @@ public class TransactionValidator {
                     }
                 }
 
-                final Integer outputBeingSpentSpendCount = _getOutputSpendCount(blockchainSegmentId, transactionOutputIdBeingSpent, blockHeight, validateForMemoryPool);
+                final Integer prefetchedSpendCount = _getPrefetchedSpendCount(transactionOutputIdentifierBeingSpent, validateForMemoryPool);
+                final Integer outputBeingSpentSpendCount = (prefetchedSpendCount != null ? prefetchedSpendCount : _getOutputSpendCount(blockchainSegmentId, transactionOutputIdBeingSpent, blockHeight, validateForMemoryPool));
 
                 { // Validate TransactionOutput hasn't already been spent...
                     // TODO: The logic currently implemented would allow for duplicate transactions to be spent (which is partially against BIP30 and is definitely counter to how the reference client handles it).  What consensus considers "correct" is that the first duplicate becomes unspendable.
@@ -391,7 +471,7 @@ public class TransactionValidator {
                     }
                 }
 
-                final TransactionOutput transactionOutputBeingSpent = _transactionOutputDatabaseManager.getTransactionOutput(transactionOutputIdBeingSpent);
+                final TransactionOutput transactionOutputBeingSpent = _getTransactionOutput(transactionOutputIdentifierBeingSpent, transactionOutputIdBeingSpent);
 
                 totalInputValue += transactionOutputBeingSpent.getAmount();
 
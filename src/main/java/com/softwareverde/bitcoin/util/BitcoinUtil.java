@@ -1,5 +1,6 @@
 package com.softwareverde.bitcoin.util;
 
+import com.softwareverde.bitcoin.hash.Sha256Util;
 import com.softwareverde.bitcoin.hash.sha256.MutableSha256Hash;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.constable.bytearray.ByteArray;
@@ -28,13 +29,7 @@ public class BitcoinUtil {
     }
 
     public static byte[] sha256(final byte[] data) {
-        try {
-            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
-            return messageDigest.digest(data);
-        }
-        catch (final NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
+        return Sha256Util.sha256(data);
     }
 
     public static byte[] ripemd160(final byte[] data) {
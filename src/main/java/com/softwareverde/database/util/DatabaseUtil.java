@@ -1,8 +1,10 @@
 package com.softwareverde.database.util;
 
+import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
 import com.softwareverde.database.Row;
+import com.softwareverde.util.HexUtil;
 import com.softwareverde.util.Util;
 
 import java.util.Collection;
@@ -56,6 +58,27 @@ public class DatabaseUtil {
         return _createInClause(list, keyMap);
     }
 
+    /**
+     * Creates a concatenated string of hexadecimal literals for use within SQL "in" clauses against BINARY columns.
+     *  e.g. SELECT id FROM blocks WHERE hash IN (?)
+     *  NOTE: The order of the rows returned are NOT guaranteed to be in the same order as the provided list.
+     */
+    public static String createBinaryInClause(final List<? extends ByteArray> list) {
+        if (list.isEmpty()) { return "NULL"; }
+
+        final StringBuilder stringBuilder = new StringBuilder();
+
+        String prefix = "";
+        for (final ByteArray item : list) {
+            stringBuilder.append(prefix);
+            stringBuilder.append("0x");
+            stringBuilder.append(HexUtil.toHexString(item.getBytes()));
+            prefix = ",";
+        }
+
+        return stringBuilder.toString();
+    }
+
     public static <T, V> List<V> sortMappedRows(final java.util.List<Row> rows, final List<T> rowOrder, final Map<T, V> keyMap) {
         final Integer itemCount = rows.size();
         if (! Util.areEqual(itemCount, rowOrder.getSize())) { return null; }
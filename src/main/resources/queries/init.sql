@@ -1,7 +1,7 @@
 CREATE TABLE pending_blocks (
     id INT UNSIGNED NOT NULL AUTO_INCREMENT,
-    hash CHAR(64) NOT NULL,
-    previous_block_hash CHAR(64) NULL,
+    hash BINARY(32) NOT NULL,
+    previous_block_hash BINARY(32) NULL,
     timestamp BIGINT UNSIGNED NOT NULL,
     last_download_attempt_timestamp BIGINT UNSIGNED NULL,
     failed_download_count INT UNSIGNED NOT NULL DEFAULT 0,
@@ -16,7 +16,7 @@ CREATE TABLE pending_blocks (
 CREATE TABLE pending_block_data (
     id INT UNSIGNED NOT NULL AUTO_INCREMENT,
     pending_block_id INT UNSIGNED NOT NULL,
-    data LONGBLOB NOT NULL,
+    byte_count INT UNSIGNED NOT NULL,
     PRIMARY KEY (id),
     UNIQUE KEY pending_block_data_uq (pending_block_id),
     FOREIGN KEY pending_block_data_fk (pending_block_id) REFERENCES pending_blocks (id) ON DELETE CASCADE
@@ -24,7 +24,7 @@ CREATE TABLE pending_block_data (
 
 CREATE TABLE pending_transactions (
     id INT UNSIGNED NOT NULL AUTO_INCREMENT,
-    hash CHAR(64) NOT NULL,
+    hash BINARY(32) NOT NULL,
     timestamp BIGINT UNSIGNED NOT NULL,
     last_download_attempt_timestamp BIGINT UNSIGNED NULL,
     failed_download_count INT UNSIGNED NOT NULL DEFAULT 0,
@@ -35,24 +35,6 @@ CREATE TABLE pending_transactions (
     INDEX pending_transactions_ix2 (failed_download_count) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
 
-CREATE TABLE pending_transaction_data (
-    id INT UNSIGNED NOT NULL AUTO_INCREMENT,
-    pending_transaction_id INT UNSIGNED NOT NULL,
-    data LONGBLOB NOT NULL,
-    PRIMARY KEY (id),
-    UNIQUE KEY pending_transaction_data_uq (pending_transaction_id),
-    FOREIGN KEY pending_transaction_data_fk (pending_transaction_id) REFERENCES pending_transactions (id) ON DELETE CASCADE
-) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
-
-CREATE TABLE pending_transactions_dependent_transactions (
-    id INT UNSIGNED NOT NULL AUTO_INCREMENT,
-    pending_transaction_id INT UNSIGNED NOT NULL,
-    hash CHAR(64) NOT NULL,
-    PRIMARY KEY (id),
-    UNIQUE KEY pending_transaction_prevout_uq (pending_transaction_id, hash),
-    FOREIGN KEY pending_transaction_prevout_fk (pending_transaction_id) REFERENCES pending_transactions (id) ON DELETE CASCADE
-) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
-
 CREATE TABLE addresses (
     id INT UNSIGNED NOT NULL AUTO_INCREMENT,
     address VARCHAR(255) BINARY NOT NULL,
@@ -62,17 +44,19 @@ CREATE TABLE addresses (
 
 CREATE TABLE blocks (
     id INT UNSIGNED NOT NULL AUTO_INCREMENT,
-    hash CHAR(64) NOT NULL,
+    hash BINARY(32) NOT NULL,
     previous_block_id INT UNSIGNED,
     block_height INT UNSIGNED NOT NULL,
     blockchain_segment_id INT UNSIGNED,
-    merkle_root CHAR(64) NOT NULL,
+    merkle_root BINARY(32) NOT NULL,
     version INT UNSIGNED NOT NULL DEFAULT '1',
     timestamp BIGINT UNSIGNED NOT NULL,
     difficulty CHAR(8) NOT NULL,
     nonce INT UNSIGNED NOT NULL,
-    chain_work CHAR(64) NOT NULL,
+    chain_work BINARY(32) NOT NULL,
     byte_count INT UNSIGNED,
+    block_file_index INT UNSIGNED NULL,
+    block_file_byte_offset INT UNSIGNED NULL,
     PRIMARY KEY (id),
     UNIQUE KEY block_hash_uq (hash),
     UNIQUE KEY block_hash_uq2 (blockchain_segment_id, block_height),
@@ -95,7 +79,7 @@ ALTER TABLE blocks ADD CONSTRAINT blocks_blockchain_segments_fk FOREIGN KEY (blo
 
 CREATE TABLE transactions (
     id INT UNSIGNED NOT NULL AUTO_INCREMENT,
-    hash CHAR(64) NOT NULL,
+    hash BINARY(32) NOT NULL,
     version INT UNSIGNED NOT NULL,
     lock_time BIGINT UNSIGNED NOT NULL,
     PRIMARY KEY (id),
@@ -107,6 +91,8 @@ CREATE TABLE block_transactions (
     block_id INT UNSIGNED NOT NULL,
     transaction_id INT UNSIGNED NOT NULL,
     sort_order INT UNSIGNED NOT NULL,
+    byte_offset INT UNSIGNED NULL,
+    byte_count INT UNSIGNED NULL,
     PRIMARY KEY (id),
     UNIQUE KEY block_transactions_uq (block_id, transaction_id),
     FOREIGN KEY block_transactions_fk (block_id) REFERENCES blocks (id),
@@ -135,13 +121,22 @@ CREATE TABLE transaction_outputs (
 CREATE TABLE unspent_transaction_outputs (
     id INT UNSIGNED NOT NULL AUTO_INCREMENT,
     transaction_output_id INT UNSIGNED NOT NULL,
-    transaction_hash CHAR(64) NOT NULL,
+    transaction_hash BINARY(32) NOT NULL,
     `index` INT UNSIGNED NOT NULL,
     PRIMARY KEY (id),
     FOREIGN KEY unspent_transaction_output_id_fk (transaction_output_id) REFERENCES transaction_outputs (id) ON DELETE CASCADE,
     INDEX transaction_outputs_spent_tx_id_ix (transaction_hash, `index`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
 
+CREATE TABLE committed_unspent_transaction_outputs (
+    id INT UNSIGNED NOT NULL,
+    block_height INT UNSIGNED NULL,
+    timestamp BIGINT UNSIGNED NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
+
+INSERT INTO committed_unspent_transaction_outputs (id, block_height, timestamp) VALUES (1, NULL, UNIX_TIMESTAMP());
+
 CREATE TABLE transaction_inputs (
     id INT UNSIGNED NOT NULL AUTO_INCREMENT,
     transaction_id INT UNSIGNED NOT NULL,
@@ -243,4 +238,4 @@ CREATE TABLE node_transactions_inventory (
     FOREIGN KEY node_transactions_tx_fk (pending_transaction_id) REFERENCES pending_transactions (id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
 
-INSERT INTO metadata (version, timestamp) VALUES (1, UNIX_TIMESTAMP());
+INSERT INTO metadata (version, timestamp) VALUES (7, UNIX_TIMESTAMP());
@@ -0,0 +1,75 @@
+package com.softwareverde.bitcoin.block;
+
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.transaction.MutableTransaction;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.input.MutableTransactionInput;
+import com.softwareverde.bitcoin.transaction.output.MutableTransactionOutput;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransactionDependencyGraphTests {
+    protected static Transaction _createTransaction(final Long amount, final Sha256Hash... previousTransactionHashes) {
+        final MutableTransaction transaction = new MutableTransaction();
+        for (final Sha256Hash previousTransactionHash : previousTransactionHashes) {
+            final MutableTransactionInput transactionInput = new MutableTransactionInput();
+            transactionInput.setPreviousOutputTransactionHash(previousTransactionHash);
+            transactionInput.setPreviousOutputIndex(0);
+            transaction.addTransactionInput(transactionInput);
+        }
+
+        final MutableTransactionOutput transactionOutput = new MutableTransactionOutput();
+        transactionOutput.setAmount(amount);
+        transactionOutput.setIndex(0);
+        transaction.addTransactionOutput(transactionOutput);
+
+        return transaction.asConst();
+    }
+
+    @Test
+    public void should_order_chained_transactions_after_their_parents_and_group_components() {
+        // Setup
+        final Sha256Hash externalHashA = Sha256Hash.fromHexString("0000000000000000000000000000000000000000000000000000000000000001");
+        final Sha256Hash externalHashB = Sha256Hash.fromHexString("0000000000000000000000000000000000000000000000000000000000000002");
+
+        final Transaction independentTransaction = _createTransaction(1L, externalHashA);
+        final Transaction parentTransaction = _createTransaction(2L, externalHashB);
+        final Transaction childTransaction = _createTransaction(3L, parentTransaction.getHash());
+        final Transaction grandchildTransaction = _createTransaction(4L, childTransaction.getHash(), parentTransaction.getHash());
+
+        // NOTE: The descendants are listed before their parents, as is permitted by canonical (lexicographic) transaction ordering...
+        final ImmutableListBuilder<Transaction> listBuilder = new ImmutableListBuilder<Transaction>(4);
+        listBuilder.add(grandchildTransaction);
+        listBuilder.add(independentTransaction);
+        listBuilder.add(childTransaction);
+        listBuilder.add(parentTransaction);
+        final List<Transaction> transactions = listBuilder.build();
+
+        // Action
+        final TransactionDependencyGraph transactionDependencyGraph = new TransactionDependencyGraph(transactions);
+        final List<Transaction> topologicalOrder = transactionDependencyGraph.getTopologicalOrder();
+        final List<List<Transaction>> components = transactionDependencyGraph.getComponents();
+
+        // Assert
+        Assert.assertEquals(2, transactionDependencyGraph.getComponentCount().intValue());
+        Assert.assertEquals(2, transactionDependencyGraph.getParentIndices(0).getSize()); // The grandchild spends both the child and the parent...
+        Assert.assertFalse(transactionDependencyGraph.hasInBlockParents(1));
+        Assert.assertEquals(transactionDependencyGraph.getComponentId(0), transactionDependencyGraph.getComponentId(3));
+
+        Assert.assertEquals(4, topologicalOrder.getSize());
+        Assert.assertEquals(independentTransaction.getHash(), topologicalOrder.get(0).getHash());
+        Assert.assertEquals(parentTransaction.getHash(), topologicalOrder.get(1).getHash());
+        Assert.assertEquals(childTransaction.getHash(), topologicalOrder.get(2).getHash());
+        Assert.assertEquals(grandchildTransaction.getHash(), topologicalOrder.get(3).getHash());
+
+        Assert.assertEquals(2, components.getSize());
+        final List<Transaction> largestComponent = components.get(0);
+        Assert.assertEquals(3, largestComponent.getSize());
+        Assert.assertEquals(parentTransaction.getHash(), largestComponent.get(0).getHash());
+        Assert.assertEquals(childTransaction.getHash(), largestComponent.get(1).getHash());
+        Assert.assertEquals(grandchildTransaction.getHash(), largestComponent.get(2).getHash());
+        Assert.assertEquals(independentTransaction.getHash(), components.get(1).get(0).getHash());
+    }
+}
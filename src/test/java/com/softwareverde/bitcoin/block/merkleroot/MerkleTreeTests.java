@@ -432,4 +432,99 @@ public class MerkleTreeTests {
 
         // Assert
     }
+
+    @Test
+    public void flat_merkle_tree_should_match_the_reference_implementation() {
+        for (final int itemCount : new int[]{ 1, 2, 3, 13, 26, 1025, 20001 }) { // 20001 items exceeds the parallel hashing threshold...
+            // Setup
+            final MutableList<Item> items = new MutableList<Item>(itemCount);
+            final FlatMerkleTree<Item> merkleTree = new FlatMerkleTree<Item>();
+            for (int i = 0; i < itemCount; ++i) {
+                final Item item = new Item(i);
+                items.add(item);
+                merkleTree.addItem(item);
+            }
+            final MerkleRoot expectedMerkleRoot = referenceImplementation(items);
+
+            // Action
+            final MerkleRoot merkleRoot = merkleTree.getMerkleRoot();
+            final MerkleRoot listMerkleRoot = new FlatMerkleTree<Item>(items).getMerkleRoot();
+
+            // Assert
+            TestUtil.assertEqual(expectedMerkleRoot.getBytes(), merkleRoot.getBytes());
+            TestUtil.assertEqual(expectedMerkleRoot.getBytes(), listMerkleRoot.getBytes());
+        }
+    }
+
+    @Test
+    public void flat_merkle_tree_should_recalculate_the_merkle_root_after_replacing_an_item() {
+        // Setup
+        final MutableList<Item> items = new MutableList<Item>(13);
+        final FlatMerkleTree<Item> merkleTree = new FlatMerkleTree<Item>();
+        for (int i = 0; i < 13; ++i) {
+            final Item item = new Item(i);
+            items.add(item);
+            merkleTree.addItem(item);
+        }
+        merkleTree.getMerkleRoot(); // Calculates the tree before the replacement so that only the item's path is rehashed...
+
+        items.set(12, new Item(-1));
+        final MerkleRoot expectedMerkleRoot = referenceImplementation(items);
+
+        // Action
+        merkleTree.replaceItem(12, new Item(-1));
+        final MerkleRoot merkleRoot = merkleTree.getMerkleRoot();
+
+        // Assert
+        TestUtil.assertEqual(expectedMerkleRoot.getBytes(), merkleRoot.getBytes());
+        Assert.assertEquals(items, merkleTree.getItems());
+    }
+
+    @Test
+    public void flat_merkle_tree_should_create_the_same_coinbase_partial_tree_as_the_merkle_tree_node() {
+        for (final int itemCount : new int[]{ 1, 2, 4, 13, 26 }) {
+            // Setup
+            final MerkleTreeNode<Item> merkleTreeNode = new MerkleTreeNode<Item>();
+            final FlatMerkleTree<Item> flatMerkleTree = new FlatMerkleTree<Item>();
+            for (int i = 0; i < itemCount; ++i) {
+                merkleTreeNode.addItem(new Item(i));
+                flatMerkleTree.addItem(new Item(i));
+            }
+
+            // Action
+            final List<Sha256Hash> partialMerkleTree = flatMerkleTree.getPartialTree(0);
+
+            // Assert
+            Assert.assertEquals(merkleTreeNode.getPartialTree(0), partialMerkleTree);
+        }
+    }
+
+    @Test
+    public void flat_merkle_tree_should_create_a_partial_tree_that_reproduces_the_merkle_root_for_any_item() {
+        // Setup
+        final int itemCount = 13;
+        final FlatMerkleTree<Item> merkleTree = new FlatMerkleTree<Item>();
+        for (int i = 0; i < itemCount; ++i) {
+            merkleTree.addItem(new Item(i));
+        }
+        final MerkleRoot expectedMerkleRoot = merkleTree.getMerkleRoot();
+
+        for (int index = 0; index < itemCount; ++index) {
+            // Action
+            final List<Sha256Hash> partialMerkleTree = merkleTree.getPartialTree(index);
+
+            byte[] hash = new Item(index).getHash().getBytes();
+            int nodeIndex = index;
+            for (final Sha256Hash siblingHash : partialMerkleTree) {
+                final boolean nodeIsLeftChild = ((nodeIndex % 2) == 0);
+                final byte[] leftBytes = ByteUtil.reverseEndian(nodeIsLeftChild ? hash : siblingHash.getBytes());
+                final byte[] rightBytes = ByteUtil.reverseEndian(nodeIsLeftChild ? siblingHash.getBytes() : hash);
+                hash = ByteUtil.reverseEndian(hashTwice(leftBytes, rightBytes));
+                nodeIndex /= 2;
+            }
+
+            // Assert
+            TestUtil.assertEqual(expectedMerkleRoot.getBytes(), hash);
+        }
+    }
 }
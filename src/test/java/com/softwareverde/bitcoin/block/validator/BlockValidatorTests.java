@@ -301,7 +301,7 @@ public class BlockValidatorTests extends IntegrationTest {
         //  however, it should exist only within a separate chain...
         final java.util.List<Row> rows = databaseConnection.query(
             new Query("SELECT transaction_outputs.id FROM transaction_outputs INNER JOIN transactions ON transactions.id = transaction_outputs.transaction_id WHERE transactions.hash = ? AND transaction_outputs.`index` = ?")
-                .setParameter("BF4E5A9FCF623A9CEE2E534B1498B761CC9447238BDFB8B70C17E347511A1E1D")
+                .setParameter(HexUtil.hexStringToByteArray("BF4E5A9FCF623A9CEE2E534B1498B761CC9447238BDFB8B70C17E347511A1E1D"))
                 .setParameter("0")
         );
         Assert.assertTrue(rows.size() > 0);
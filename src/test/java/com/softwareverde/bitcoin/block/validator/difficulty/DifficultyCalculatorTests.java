@@ -103,7 +103,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                     .setParameter(blockHeight)
-                    .setParameter(blockHeader.getHash())
+                    .setParameter(blockHeader.getHash().getBytes())
             );
 
             returnedBlockHeaders[i] = blockHeader;
@@ -131,8 +131,8 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             // Hack the genesis block so that its hash looks like the tested-block's previousBlockHash...
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET hash = ? WHERE hash = ?")
-                    .setParameter(block477790.getHash())
-                    .setParameter(BlockHeader.GENESIS_BLOCK_HASH)
+                    .setParameter(block477790.getHash().getBytes())
+                    .setParameter(BlockHeader.GENESIS_BLOCK_HASH.getBytes())
             );
         }
 
@@ -140,7 +140,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
         databaseConnection.executeSql(
             new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                 .setParameter(477790L)
-                .setParameter(block477790.getHash())
+                .setParameter(block477790.getHash().getBytes())
         );
 
         final BlockHeader block477791 = blockHeaderInflater.fromBytes(HexUtil.hexStringToByteArray("1200002062519C1B5E518CFE5AC6F719917C486F71EFF9DD69273F0000000000000000000DB7A2E7D38EB9E457CE42820D90594C5222B872C5911C5E8703210CCF367761D3C77959DC5D0118332D5368"));
@@ -148,7 +148,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
         databaseConnection.executeSql(
             new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                 .setParameter(477791L)
-                .setParameter(block477791.getHash())
+                .setParameter(block477791.getHash().getBytes())
         );
 
         final BlockHeader block477792 = blockHeaderInflater.fromBytes(HexUtil.hexStringToByteArray("02000020B8795AD86442CE6D8289718D7DE413E738759B7173030E0100000000000000002F4BB70CD68CAA575DE605E93A4837EC068EA8BC85A8445BADEE5A9214AEE3289AC8795935470118C4A6D809"));
@@ -156,7 +156,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
         databaseConnection.executeSql(
             new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                 .setParameter(477792L)
-                .setParameter(block477792.getHash())
+                .setParameter(block477792.getHash().getBytes())
         );
 
         final BlockHeader block477793 = blockHeaderInflater.fromBytes(HexUtil.hexStringToByteArray("0200002006324720303E3CEFD16BA1368B835B447691308677BA160000000000000000004B7D6BAD05C31A947E5B49F5594FC992D741EC32C951DF4969E6FDBB00FEDCF5A2C9795935470118421225CE"));
@@ -164,7 +164,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
         databaseConnection.executeSql(
             new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                 .setParameter(477793L)
-                .setParameter(block477793.getHash())
+                .setParameter(block477793.getHash().getBytes())
         );
 
         {
@@ -174,8 +174,8 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             // Hack the block so that its hash looks like the block479790's previousBlockHash...
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET hash = ? WHERE hash = ?")
-                    .setParameter("0000000000000000045A0372DFB07E71CFEE86C282800660AB73EA66BE3F8545")
-                    .setParameter("000000000000000000735904147ECF02E80B5F092B08961ECCD68A6A02EDF409")
+                    .setParameter(HexUtil.hexStringToByteArray("0000000000000000045A0372DFB07E71CFEE86C282800660AB73EA66BE3F8545"))
+                    .setParameter(HexUtil.hexStringToByteArray("000000000000000000735904147ECF02E80B5F092B08961ECCD68A6A02EDF409"))
             );
         }
 
@@ -228,7 +228,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                     .setParameter(blockHeight)
-                    .setParameter(blockHeader.getHash())
+                    .setParameter(blockHeader.getHash().getBytes())
             );
 
             returnedBlockHeaders[i] = blockHeader;
@@ -309,7 +309,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
         synchronized (BlockHeaderDatabaseManager.MUTEX) {
             final BlockId blockId = blockHeaderDatabaseManager.storeBlockHeader(blockHeader);
         }
-        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(478577L).setParameter(blockHeader.getHash()));
+        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(478577L).setParameter(blockHeader.getHash().getBytes()));
 
         // Action
         final Difficulty difficulty = difficultyCalculator.calculateRequiredDifficulty(blockHeader);
@@ -341,7 +341,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
         synchronized (BlockHeaderDatabaseManager.MUTEX) {
             final BlockId blockId = blockHeaderDatabaseManager.storeBlockHeader(blockHeader);
         }
-        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(478573L).setParameter(blockHeader.getHash()));
+        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(478573L).setParameter(blockHeader.getHash().getBytes()));
 
         // Action
         final Difficulty difficulty = difficultyCalculator.calculateRequiredDifficulty(blockHeader);
@@ -374,7 +374,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             final BlockId blockId = blockHeaderDatabaseManager.storeBlockHeader(blockHeader);
         }
 
-        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(479808L).setParameter(blockHeader.getHash()));
+        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(479808L).setParameter(blockHeader.getHash().getBytes()));
 
         // Action
         final Difficulty difficulty = difficultyCalculator.calculateRequiredDifficulty(blockHeader);
@@ -403,8 +403,8 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             // Hack the genesis block so that its hash looks like the tested-block's previousBlockHash...
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET hash = ? WHERE hash = ?")
-                    .setParameter("00000000000000000435BC5750DAF2D9840D6CC670CC539D67B565B3F175EF40")
-                    .setParameter(BlockHeader.GENESIS_BLOCK_HASH)
+                    .setParameter(HexUtil.hexStringToByteArray("00000000000000000435BC5750DAF2D9840D6CC670CC539D67B565B3F175EF40"))
+                    .setParameter(BlockHeader.GENESIS_BLOCK_HASH.getBytes())
             );
         }
 
@@ -433,15 +433,15 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             if (blockHeight == 503884L) {
                 databaseConnection.executeSql(
                     new Query("UPDATE blocks SET chain_work = ? WHERE hash = ?")
-                        .setParameter("0000000000000000000000000000000000000000007C9252468D6FC7AA51E743")
-                        .setParameter(blockHeader.getHash())
+                        .setParameter(HexUtil.hexStringToByteArray("0000000000000000000000000000000000000000007C9252468D6FC7AA51E743"))
+                        .setParameter(blockHeader.getHash().getBytes())
                 );
             }
 
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                     .setParameter(blockHeight)
-                    .setParameter(blockHeader.getHash())
+                    .setParameter(blockHeader.getHash().getBytes())
             );
 
             blockHeight += 1L;
@@ -456,8 +456,8 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             // Hack the block so that its hash looks like the next block's previousBlockHash...
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET hash = ? WHERE hash = ?")
-                    .setParameter("0000000000000000004AB6CD0EC46F050566B7CA9E556CA6825039078E5CC4D3")
-                    .setParameter("000000000000000007C927A6A203FB2CCCA31D3AFA56EA54429576925CE07995")
+                    .setParameter(HexUtil.hexStringToByteArray("0000000000000000004AB6CD0EC46F050566B7CA9E556CA6825039078E5CC4D3"))
+                    .setParameter(HexUtil.hexStringToByteArray("000000000000000007C927A6A203FB2CCCA31D3AFA56EA54429576925CE07995"))
             );
         }
 
@@ -483,15 +483,15 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             if (blockHeight == 504028L) {
                 databaseConnection.executeSql(
                     new Query("UPDATE blocks SET chain_work = ? WHERE hash = ?")
-                        .setParameter("0000000000000000000000000000000000000000007CADC3650A2DDD4BB91FD3")
-                        .setParameter(blockHeader.getHash())
+                        .setParameter(HexUtil.hexStringToByteArray("0000000000000000000000000000000000000000007CADC3650A2DDD4BB91FD3"))
+                        .setParameter(blockHeader.getHash().getBytes())
                 );
             }
 
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                     .setParameter(blockHeight)
-                    .setParameter(blockHeader.getHash())
+                    .setParameter(blockHeader.getHash().getBytes())
             );
 
             blockHeight += 1L;
@@ -507,7 +507,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             final BlockId blockId = blockHeaderDatabaseManager.storeBlockHeader(blockHeader);
         }
 
-        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(504032L).setParameter(blockHeader.getHash()));
+        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(504032L).setParameter(blockHeader.getHash().getBytes()));
 
         // Action
         final Difficulty difficulty = difficultyCalculator.calculateRequiredDifficulty(blockHeader);
@@ -555,8 +555,8 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             // Hack the genesis block so that its hash looks like the tested-block's previousBlockHash...
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET hash = ? WHERE hash = ?")
-                    .setParameter(block503884.getPreviousBlockHash())
-                    .setParameter(BlockHeader.GENESIS_BLOCK_HASH)
+                    .setParameter(block503884.getPreviousBlockHash().getBytes())
+                    .setParameter(BlockHeader.GENESIS_BLOCK_HASH.getBytes())
             );
         }
 
@@ -570,15 +570,15 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             if (blockHeight == 503884L) {
                 databaseConnection.executeSql(
                     new Query("UPDATE blocks SET chain_work = ? WHERE hash = ?")
-                        .setParameter("0000000000000000000000000000000000000000007C9252468D6FC7AA51E743")
-                        .setParameter(blockHeader.getHash())
+                        .setParameter(HexUtil.hexStringToByteArray("0000000000000000000000000000000000000000007C9252468D6FC7AA51E743"))
+                        .setParameter(blockHeader.getHash().getBytes())
                 );
             }
 
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                     .setParameter(blockHeight)
-                    .setParameter(blockHeader.getHash())
+                    .setParameter(blockHeader.getHash().getBytes())
             );
 
             blockHeight += 1L;
@@ -609,8 +609,8 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             // Hack the block so that its hash looks like the block503884's previousBlockHash...
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET hash = ? WHERE hash = ?")
-                    .setParameter(block504028.getPreviousBlockHash())
-                    .setParameter(block503890.getHash())
+                    .setParameter(block504028.getPreviousBlockHash().getBytes())
+                    .setParameter(block503890.getHash().getBytes())
             );
         }
 
@@ -623,15 +623,15 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             if (blockHeight == 504028L) {
                 databaseConnection.executeSql(
                     new Query("UPDATE blocks SET chain_work = ? WHERE hash = ?")
-                        .setParameter("0000000000000000000000000000000000000000007CADC3650A2DDD4BB91FD3")
-                        .setParameter(blockHeader.getHash())
+                        .setParameter(HexUtil.hexStringToByteArray("0000000000000000000000000000000000000000007CADC3650A2DDD4BB91FD3"))
+                        .setParameter(blockHeader.getHash().getBytes())
                 );
             }
 
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                     .setParameter(blockHeight)
-                    .setParameter(blockHeader.getHash())
+                    .setParameter(blockHeader.getHash().getBytes())
             );
 
             blockHeight += 1L;
@@ -647,7 +647,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             final BlockId blockId = blockHeaderDatabaseManager.storeBlockHeader(blockHeader);
         }
 
-        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(504033L).setParameter(blockHeader.getHash()));
+        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(504033L).setParameter(blockHeader.getHash().getBytes()));
 
         // Action
         final Difficulty difficulty = difficultyCalculator.calculateRequiredDifficulty(blockHeader);
@@ -688,8 +688,8 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             // Hack the genesis block so that its hash looks like the tested-block's previousBlockHash...
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET hash = ? WHERE hash = ?")
-                    .setParameter(block504940.getPreviousBlockHash())
-                    .setParameter(BlockHeader.GENESIS_BLOCK_HASH)
+                    .setParameter(block504940.getPreviousBlockHash().getBytes())
+                    .setParameter(BlockHeader.GENESIS_BLOCK_HASH.getBytes())
             );
         }
 
@@ -702,15 +702,15 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             if (blockHeight == 504940L) {
                 databaseConnection.executeSql(
                     new Query("UPDATE blocks SET chain_work = ? WHERE hash = ?")
-                        .setParameter("0000000000000000000000000000000000000000007D3EACCB1F141B6BA962F8")
-                        .setParameter(blockHeader.getHash())
+                        .setParameter(HexUtil.hexStringToByteArray("0000000000000000000000000000000000000000007D3EACCB1F141B6BA962F8"))
+                        .setParameter(blockHeader.getHash().getBytes())
                 );
             }
 
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                     .setParameter(blockHeight)
-                    .setParameter(blockHeader.getHash())
+                    .setParameter(blockHeader.getHash().getBytes())
             );
 
             blockHeight += 1L;
@@ -736,8 +736,8 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             // Hack the block so that its hash looks like the block505085's previousBlockHash...
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET hash = ? WHERE hash = ?")
-                    .setParameter(block505085.getPreviousBlockHash())
-                    .setParameter(block504946.getHash())
+                    .setParameter(block505085.getPreviousBlockHash().getBytes())
+                    .setParameter(block504946.getHash().getBytes())
             );
         }
 
@@ -750,15 +750,15 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             if (blockHeight == 505085L) {
                 databaseConnection.executeSql(
                     new Query("UPDATE blocks SET chain_work = ? WHERE hash = ?")
-                        .setParameter("0000000000000000000000000000000000000000007D54E1FD313DB21DF0DE08")
-                        .setParameter(blockHeader.getHash())
+                        .setParameter(HexUtil.hexStringToByteArray("0000000000000000000000000000000000000000007D54E1FD313DB21DF0DE08"))
+                        .setParameter(blockHeader.getHash().getBytes())
                 );
             }
 
             databaseConnection.executeSql(
                 new Query("UPDATE blocks SET block_height = ? WHERE hash = ?")
                     .setParameter(blockHeight)
-                    .setParameter(blockHeader.getHash())
+                    .setParameter(blockHeader.getHash().getBytes())
             );
 
             blockHeight += 1L;
@@ -774,7 +774,7 @@ public class DifficultyCalculatorTests extends IntegrationTest {
             final BlockId blockId = blockHeaderDatabaseManager.storeBlockHeader(blockHeader);
         }
 
-        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(505090L).setParameter(blockHeader.getHash()));
+        databaseConnection.executeSql(new Query("UPDATE blocks SET block_height = ? WHERE hash = ?").setParameter(505090L).setParameter(blockHeader.getHash().getBytes()));
 
         // Action
         final Difficulty difficulty = difficultyCalculator.calculateRequiredDifficulty(blockHeader);
@@ -817,10 +817,10 @@ public class DifficultyCalculatorTests extends IntegrationTest {
         }
         databaseConnection.executeSql(
             new Query("UPDATE blocks SET hash = ?, block_height = ?, chain_work = ? WHERE hash = ?")
-                .setParameter("00000000000000000054658037E3307ADEDCE4C9B3893EA9194519151BB2FBB5")
+                .setParameter(HexUtil.hexStringToByteArray("00000000000000000054658037E3307ADEDCE4C9B3893EA9194519151BB2FBB5"))
                 .setParameter(547056L)
-                .setParameter("000000000000000000000000000000000000000000C06C4B44874C9B9A130D94")
-                .setParameter(BlockHeader.GENESIS_BLOCK_HASH)
+                .setParameter(HexUtil.hexStringToByteArray("000000000000000000000000000000000000000000C06C4B44874C9B9A130D94"))
+                .setParameter(BlockHeader.GENESIS_BLOCK_HASH.getBytes())
         );
 
         synchronized (BlockHeaderDatabaseManager.MUTEX) {
@@ -832,10 +832,10 @@ public class DifficultyCalculatorTests extends IntegrationTest {
         }
         databaseConnection.executeSql(
             new Query("UPDATE blocks SET hash = ?, block_height = ?, chain_work = ? WHERE hash = ?")
-                .setParameter("000000000000000001043BACDCB59CED6726FCFDD199F20F2D22EDDB02C3BBDE")
+                .setParameter(HexUtil.hexStringToByteArray("000000000000000001043BACDCB59CED6726FCFDD199F20F2D22EDDB02C3BBDE"))
                 .setParameter(547200L)
-                .setParameter("000000000000000000000000000000000000000000C0B356BB448CE8066B2F93")
-                .setParameter("0000000000000000004129906FC0D6496A4194CD97251260FCF7F202A494DB92")
+                .setParameter(HexUtil.hexStringToByteArray("000000000000000000000000000000000000000000C0B356BB448CE8066B2F93"))
+                .setParameter(HexUtil.hexStringToByteArray("0000000000000000004129906FC0D6496A4194CD97251260FCF7F202A494DB92"))
         );
 
         synchronized (BlockHeaderDatabaseManager.MUTEX) {
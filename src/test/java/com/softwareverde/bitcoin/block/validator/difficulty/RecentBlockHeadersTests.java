@@ -0,0 +1,57 @@
+package com.softwareverde.bitcoin.block.validator.difficulty;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.block.header.MutableBlockHeader;
+import com.softwareverde.bitcoin.block.header.difficulty.Difficulty;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RecentBlockHeadersTests {
+    protected static BlockHeader _createBlockHeader(final Long nonce) {
+        final MutableBlockHeader blockHeader = new MutableBlockHeader();
+        blockHeader.setTimestamp(1231006505L);
+        blockHeader.setDifficulty(Difficulty.BASE_DIFFICULTY);
+        blockHeader.setNonce(nonce);
+        return blockHeader.asConst();
+    }
+
+    @Test
+    public void should_evict_the_oldest_block_headers_once_full() {
+        // Setup
+        final RecentBlockHeaders recentBlockHeaders = new RecentBlockHeaders(3);
+        final BlockHeader[] blockHeaders = new BlockHeader[5];
+        for (int i = 0; i < blockHeaders.length; ++i) {
+            blockHeaders[i] = _createBlockHeader((long) i);
+        }
+
+        // Action
+        for (int i = 0; i < blockHeaders.length; ++i) {
+            recentBlockHeaders.addBlockHeader(BlockId.wrap((long) (i + 1)), blockHeaders[i]);
+        }
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(3), recentBlockHeaders.getBlockHeaderCount());
+
+        Assert.assertNull(recentBlockHeaders.getBlockHeader(BlockId.wrap(1L)));
+        Assert.assertNull(recentBlockHeaders.getBlockId(blockHeaders[1].getHash()));
+
+        Assert.assertEquals(blockHeaders[2], recentBlockHeaders.getBlockHeader(BlockId.wrap(3L)));
+        Assert.assertEquals(BlockId.wrap(5L), recentBlockHeaders.getBlockId(blockHeaders[4].getHash()));
+    }
+
+    @Test
+    public void should_forget_all_block_headers_when_cleared() {
+        // Setup
+        final RecentBlockHeaders recentBlockHeaders = new RecentBlockHeaders();
+        final BlockHeader blockHeader = _createBlockHeader(1L);
+        recentBlockHeaders.addBlockHeader(BlockId.wrap(1L), blockHeader);
+
+        // Action
+        recentBlockHeaders.clear();
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(0), recentBlockHeaders.getBlockHeaderCount());
+        Assert.assertNull(recentBlockHeaders.getBlockId(blockHeader.getHash()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.softwareverde.bitcoin.chain.index;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.header.difficulty.work.ChainWork;
+import com.softwareverde.bitcoin.block.header.difficulty.work.MutableChainWork;
+import com.softwareverde.bitcoin.hash.sha256.MutableSha256Hash;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BestChainTrackerTests {
+    protected static ChainWork _createChainWork(final Integer work) {
+        final MutableChainWork chainWork = new MutableChainWork();
+        chainWork.set(31, (byte) (work & 0xFF));
+        chainWork.set(0, (byte) ((work >> 8) & 0xFF)); // Places the high byte at the most-significant position...
+        return chainWork;
+    }
+
+    protected static Sha256Hash _createBlockHash(final Integer value) {
+        final MutableSha256Hash blockHash = new MutableSha256Hash();
+        blockHash.set(31, (byte) (value & 0xFF));
+        return blockHash;
+    }
+
+    @Test
+    public void should_only_advance_the_head_when_chain_work_is_greater() {
+        // Setup
+        final BestChainTracker bestChainTracker = new BestChainTracker();
+
+        // Action
+        bestChainTracker.onBlockHeaderConnected(BlockId.wrap(1L), _createBlockHash(1), _createChainWork(0x00FF));
+        bestChainTracker.onBlockHeaderConnected(BlockId.wrap(2L), _createBlockHash(2), _createChainWork(0x0100)); // Compared unsigned and big-endian...
+        bestChainTracker.onBlockHeaderConnected(BlockId.wrap(3L), _createBlockHash(3), _createChainWork(0x0100)); // Equal work retains the first-seen tip...
+        bestChainTracker.onBlockHeaderConnected(BlockId.wrap(4L), _createBlockHash(4), _createChainWork(0x00FE));
+
+        // Assert
+        Assert.assertEquals(BlockId.wrap(2L), bestChainTracker.getHeadBlockHeaderId());
+        Assert.assertEquals(_createBlockHash(2), bestChainTracker.getHeadBlockHeaderHash());
+        Assert.assertNull(bestChainTracker.getHeadBlockId());
+    }
+
+    @Test
+    public void should_replace_or_clear_the_head_when_set() {
+        // Setup
+        final BestChainTracker bestChainTracker = new BestChainTracker();
+        bestChainTracker.onBlockConnected(BlockId.wrap(2L), _createBlockHash(2), _createChainWork(2));
+
+        // Action
+        bestChainTracker.setHeadBlock(BlockId.wrap(1L), _createBlockHash(1), _createChainWork(1));
+        final BlockId headBlockId = bestChainTracker.getHeadBlockId();
+        bestChainTracker.setHeadBlock(null, null, null);
+
+        // Assert
+        Assert.assertEquals(BlockId.wrap(1L), headBlockId);
+        Assert.assertNull(bestChainTracker.getHeadBlockId());
+        Assert.assertNull(bestChainTracker.getHeadBlockHash());
+    }
+}
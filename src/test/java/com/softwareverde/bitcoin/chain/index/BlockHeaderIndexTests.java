@@ -0,0 +1,117 @@
+package com.softwareverde.bitcoin.chain.index;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.header.difficulty.work.ChainWork;
+import com.softwareverde.bitcoin.block.header.difficulty.work.MutableChainWork;
+import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
+import com.softwareverde.bitcoin.server.database.BlockRelationship;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockHeaderIndexTests {
+    protected static ChainWork _createChainWork(final Long blockHeight) {
+        final MutableChainWork chainWork = new MutableChainWork();
+        chainWork.set(31, (byte) (blockHeight & 0xFF));
+        chainWork.set(30, (byte) ((blockHeight >> 8) & 0xFF));
+        return chainWork;
+    }
+
+    @Test
+    public void should_find_ancestors_at_any_height() {
+        // Setup
+        final BlockHeaderIndex blockHeaderIndex = new BlockHeaderIndex();
+        final int blockCount = 5000; // Exceeds the initial capacity...
+        for (int i = 1; i <= blockCount; ++i) {
+            final Long blockHeight = (long) (i - 1);
+            final BlockId previousBlockId = (i > 1 ? BlockId.wrap((long) (i - 1)) : null);
+            final Boolean wasAdded = blockHeaderIndex.addBlockHeader(BlockId.wrap((long) i), previousBlockId, blockHeight, (1231006505L + i), _createChainWork(blockHeight));
+            Assert.assertTrue(wasAdded);
+        }
+        final BlockId tipBlockId = BlockId.wrap((long) blockCount);
+
+        // Action
+        // Assert
+        Assert.assertEquals(Integer.valueOf(blockCount), blockHeaderIndex.getBlockCount());
+        Assert.assertEquals(Long.valueOf(blockCount - 1), blockHeaderIndex.getBlockHeight(tipBlockId));
+        Assert.assertEquals(Long.valueOf(1231006505L + blockCount), blockHeaderIndex.getBlockTimestamp(tipBlockId));
+        Assert.assertEquals(_createChainWork((long) (blockCount - 1)), blockHeaderIndex.getChainWork(tipBlockId));
+        Assert.assertEquals(BlockId.wrap((long) (blockCount - 1)), blockHeaderIndex.getPreviousBlockId(tipBlockId));
+        Assert.assertNull(blockHeaderIndex.getPreviousBlockId(BlockId.wrap(1L)));
+
+        for (long blockHeight = 0L; blockHeight < blockCount; ++blockHeight) {
+            Assert.assertEquals(BlockId.wrap(blockHeight + 1L), blockHeaderIndex.getAncestorBlockId(tipBlockId, blockHeight));
+        }
+        Assert.assertNull(blockHeaderIndex.getAncestorBlockId(tipBlockId, (long) blockCount));
+        Assert.assertNull(blockHeaderIndex.getBlockHeight(BlockId.wrap((long) (blockCount + 1))));
+    }
+
+    @Test
+    public void should_calculate_median_block_time_of_the_preceding_blocks() {
+        // Setup
+        final BlockHeaderIndex blockHeaderIndex = new BlockHeaderIndex();
+        final long[] timestamps = new long[] { 100L, 300L, 200L, 500L, 400L, 700L, 600L, 900L, 800L, 1100L, 1000L, 50L };
+        for (int i = 0; i < timestamps.length; ++i) {
+            final BlockId previousBlockId = (i > 0 ? BlockId.wrap((long) i) : null);
+            blockHeaderIndex.addBlockHeader(BlockId.wrap((long) (i + 1)), previousBlockId, (long) i, timestamps[i], _createChainWork((long) i));
+        }
+
+        // Action
+        final MedianBlockTime incompleteMedianBlockTime = blockHeaderIndex.getMedianBlockTime(BlockId.wrap(10L));
+        final MedianBlockTime medianBlockTime = blockHeaderIndex.getMedianBlockTime(BlockId.wrap(11L));
+        final MedianBlockTime nextMedianBlockTime = blockHeaderIndex.getMedianBlockTime(BlockId.wrap(12L));
+
+        // Assert
+        Assert.assertEquals(MedianBlockTime.GENESIS_BLOCK_TIMESTAMP, incompleteMedianBlockTime.getCurrentTimeInMilliSeconds()); // Matches MutableMedianBlockTime...
+        Assert.assertEquals(Long.valueOf(600L), medianBlockTime.getCurrentTimeInSeconds());
+        Assert.assertEquals(Long.valueOf(600L), nextMedianBlockTime.getCurrentTimeInSeconds()); // The oldest timestamp (100) is replaced with 50...
+    }
+
+    @Test
+    public void should_resolve_chain_membership_across_split_segments() {
+        // Setup
+        //
+        //           1 (A)
+        //           |
+        //           2 (B)
+        //           |
+        //      +----+----+
+        //      |         |
+        //      3 (C)     5 (C')
+        //      |
+        //      4 (D)
+        //
+        final BlockHeaderIndex blockHeaderIndex = new BlockHeaderIndex();
+        final BlockchainSegmentId rootSegmentId = BlockchainSegmentId.wrap(1L);
+        final BlockchainSegmentId splitSegmentId = BlockchainSegmentId.wrap(2L);
+        final BlockchainSegmentId forkSegmentId = BlockchainSegmentId.wrap(3L);
+
+        for (long i = 1L; i <= 4L; ++i) {
+            blockHeaderIndex.addBlockHeader(BlockId.wrap(i), BlockId.wrap(i - 1L), (i - 1L), i, _createChainWork(i - 1L));
+            blockHeaderIndex.appendToBlockchainSegment(rootSegmentId, BlockId.wrap(i));
+        }
+
+        // Action
+        blockHeaderIndex.addBlockHeader(BlockId.wrap(5L), BlockId.wrap(2L), 2L, 5L, _createChainWork(2L));
+        blockHeaderIndex.splitBlockchainSegment(rootSegmentId, splitSegmentId, 2L);
+        blockHeaderIndex.appendToBlockchainSegment(forkSegmentId, BlockId.wrap(5L));
+
+        // Assert
+        Assert.assertEquals(BlockId.wrap(2L), blockHeaderIndex.getBlockchainSegmentTipBlockId(rootSegmentId));
+        Assert.assertEquals(BlockId.wrap(4L), blockHeaderIndex.getBlockchainSegmentTipBlockId(splitSegmentId));
+        Assert.assertEquals(BlockId.wrap(5L), blockHeaderIndex.getBlockchainSegmentTipBlockId(forkSegmentId));
+
+        Assert.assertTrue(blockHeaderIndex.areBlockchainSegmentsConnected(rootSegmentId, forkSegmentId, BlockRelationship.ANCESTOR));
+        Assert.assertTrue(blockHeaderIndex.areBlockchainSegmentsConnected(splitSegmentId, rootSegmentId, BlockRelationship.DESCENDANT));
+        Assert.assertFalse(blockHeaderIndex.areBlockchainSegmentsConnected(splitSegmentId, forkSegmentId, BlockRelationship.ANY));
+
+        Assert.assertTrue(blockHeaderIndex.isBlockConnectedToChain(BlockId.wrap(2L), forkSegmentId, BlockRelationship.ANCESTOR));
+        Assert.assertFalse(blockHeaderIndex.isBlockConnectedToChain(BlockId.wrap(3L), forkSegmentId, BlockRelationship.ANY));
+        Assert.assertTrue(blockHeaderIndex.isBlockConnectedToChain(BlockId.wrap(4L), rootSegmentId, BlockRelationship.DESCENDANT));
+        Assert.assertFalse(blockHeaderIndex.isBlockConnectedToChain(BlockId.wrap(4L), rootSegmentId, BlockRelationship.ANCESTOR));
+
+        Assert.assertEquals(BlockId.wrap(5L), blockHeaderIndex.getBlockIdAtHeight(forkSegmentId, 2L));
+        Assert.assertEquals(BlockId.wrap(3L), blockHeaderIndex.getBlockIdAtHeight(splitSegmentId, 2L));
+        Assert.assertNull(blockHeaderIndex.getBlockIdAtHeight(rootSegmentId, 2L)); // Resides within a descendant segment...
+    }
+}
@@ -0,0 +1,49 @@
+package com.softwareverde.bitcoin.hash;
+
+import com.softwareverde.bitcoin.test.util.TestUtil;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.util.ByteUtil;
+import com.softwareverde.util.HexUtil;
+import com.softwareverde.util.StringUtil;
+import com.softwareverde.util.bytearray.Endian;
+import org.junit.Test;
+
+public class Sha256UtilTests {
+    @Test
+    public void should_double_hash_a_range_of_bytes_into_the_output_buffer() {
+        // Setup
+        final byte[] expectedHash = HexUtil.hexStringToByteArray("9595C9DF90075148EB06860365DF33584B75BFF782A510C6CD4883A419833D50");
+        final byte[] paddedBytes = StringUtil.stringToBytes("__hello__");
+        final byte[] output = new byte[Sha256Util.HASH_BYTE_COUNT + 2];
+
+        // Action
+        final byte[] hash = Sha256Util.doubleSha256(StringUtil.stringToBytes("hello"));
+        Sha256Util.doubleSha256(paddedBytes, 2, 5, output, 1);
+
+        // Assert
+        TestUtil.assertEqual(expectedHash, hash);
+        TestUtil.assertEqual(expectedHash, ByteUtil.copyBytes(output, 1, Sha256Util.HASH_BYTE_COUNT));
+    }
+
+    @Test
+    public void should_stream_the_same_hash_as_a_single_buffer() {
+        // Setup
+        final byte[] expectedHash = Sha256Util.doubleSha256(HexUtil.hexStringToByteArray("0102030405060708090A0B0C"));
+        final DoubleSha256Stream doubleSha256Stream = new DoubleSha256Stream();
+
+        // Action
+        doubleSha256Stream.update((byte) 0x01);
+        doubleSha256Stream.update(HexUtil.hexStringToByteArray("0302"), Endian.LITTLE);
+        doubleSha256Stream.update(MutableByteArray.wrap(HexUtil.hexStringToByteArray("040506")));
+        doubleSha256Stream.update(MutableByteArray.wrap(HexUtil.hexStringToByteArray("090807")), Endian.LITTLE);
+        doubleSha256Stream.update(HexUtil.hexStringToByteArray("0A0B0C"));
+        final byte[] hash = doubleSha256Stream.digest();
+
+        doubleSha256Stream.update(HexUtil.hexStringToByteArray("0102030405060708090A0B0C"));
+        final byte[] reusedStreamHash = doubleSha256Stream.digest();
+
+        // Assert
+        TestUtil.assertEqual(expectedHash, hash);
+        TestUtil.assertEqual(expectedHash, reusedStreamHash);
+    }
+}
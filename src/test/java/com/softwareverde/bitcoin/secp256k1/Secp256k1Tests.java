@@ -6,10 +6,14 @@ import com.softwareverde.bitcoin.secp256k1.key.PublicKey;
 import com.softwareverde.bitcoin.secp256k1.signature.Signature;
 import com.softwareverde.bitcoin.test.util.TestUtil;
 import com.softwareverde.bitcoin.util.BitcoinUtil;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
 import com.softwareverde.util.StringUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+
 public class Secp256k1Tests {
     @Test
     public void should_create_and_verify_signature_bouncy_castle() {
@@ -71,4 +75,75 @@ public class Secp256k1Tests {
         // Assert
         Assert.assertTrue(signatureIsValid);
     }
+
+    @Test
+    public void should_verify_batch_of_signatures_and_identify_invalid_signature() {
+        // Setup
+        final int signatureCount = 16;
+        final int invalidSignatureIndex = 7;
+
+        final ImmutableListBuilder<Signature> signatures = new ImmutableListBuilder<Signature>(signatureCount);
+        final ImmutableListBuilder<PublicKey> publicKeys = new ImmutableListBuilder<PublicKey>(signatureCount);
+        final ImmutableListBuilder<byte[]> messages = new ImmutableListBuilder<byte[]>(signatureCount);
+        for (int i = 0; i < signatureCount; ++i) {
+            final PrivateKey privateKey = PrivateKey.createNewKey();
+            final byte[] message = BitcoinUtil.sha256(StringUtil.stringToBytes("I am a little teapot." + i));
+            final Signature signature = Secp256k1.sign(privateKey.getBytes(), message);
+
+            signatures.add(signature);
+            publicKeys.add((i % 2 == 0) ? privateKey.getPublicKey() : privateKey.getPublicKey().compress());
+            messages.add((i == invalidSignatureIndex) ? BitcoinUtil.sha256(message) : message);
+        }
+
+        // Action
+        final List<Boolean> results = Secp256k1.verifySignatures(signatures.build(), publicKeys.build(), messages.build());
+
+        // Assert
+        Assert.assertEquals(signatureCount, results.getSize());
+        for (int i = 0; i < signatureCount; ++i) {
+            Assert.assertEquals((i != invalidSignatureIndex), results.get(i));
+        }
+    }
+
+    @Test
+    public void should_verify_batch_of_signatures_via_native_batch() {
+        // Setup
+        final int signatureCount = 16;
+        final int invalidSignatureIndex = 9;
+        final int malformedPublicKeyIndex = 12;
+
+        final ByteBuffer recordBuffer = ByteBuffer.allocateDirect(NativeSecp256k1.getBatchRecordBufferByteCount(signatureCount));
+        final ByteBuffer resultBuffer = ByteBuffer.allocateDirect(NativeSecp256k1.getBatchResultBufferByteCount(signatureCount));
+        for (int i = 0; i < signatureCount; ++i) {
+            final PrivateKey privateKey = PrivateKey.createNewKey();
+            final byte[] message = BitcoinUtil.sha256(StringUtil.stringToBytes("I am a little teapot." + i));
+            final Signature signature = Secp256k1.sign(privateKey.getBytes(), message);
+            final PublicKey publicKey = ((i % 2 == 0) ? privateKey.getPublicKey() : privateKey.getPublicKey().compress());
+
+            final byte[] recordMessage = ((i == invalidSignatureIndex) ? BitcoinUtil.sha256(message) : message);
+            final byte[] recordPublicKey = ((i == malformedPublicKeyIndex) ? new byte[0] : publicKey.getBytes());
+            NativeSecp256k1.putBatchRecord(recordBuffer, i, recordMessage, signature.getR().getBytes(), signature.getS().getBytes(), recordPublicKey);
+        }
+
+        // Action
+        final int validSignatureCount = NativeSecp256k1.verifyBatch(recordBuffer, resultBuffer, signatureCount);
+
+        // Assert
+        Assert.assertTrue(NativeSecp256k1.isBatchEnabled());
+        Assert.assertEquals((signatureCount - 2), validSignatureCount);
+        for (int i = 0; i < signatureCount; ++i) {
+            final boolean isExpectedToBeValid = ( (i != invalidSignatureIndex) && (i != malformedPublicKeyIndex) );
+            Assert.assertEquals(isExpectedToBeValid, NativeSecp256k1.isBatchRecordValid(resultBuffer, i));
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void should_reject_non_direct_batch_buffers() {
+        // Setup
+        final ByteBuffer recordBuffer = ByteBuffer.allocate(NativeSecp256k1.getBatchRecordBufferByteCount(1));
+        final ByteBuffer resultBuffer = ByteBuffer.allocate(NativeSecp256k1.getBatchResultBufferByteCount(1));
+
+        // Action
+        NativeSecp256k1.verifyBatch(recordBuffer, resultBuffer, 1);
+    }
 }
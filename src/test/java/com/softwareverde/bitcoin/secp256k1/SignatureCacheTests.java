@@ -0,0 +1,110 @@
+package com.softwareverde.bitcoin.secp256k1;
+
+import com.softwareverde.bitcoin.secp256k1.key.PrivateKey;
+import com.softwareverde.bitcoin.secp256k1.key.PublicKey;
+import com.softwareverde.bitcoin.secp256k1.signature.Signature;
+import com.softwareverde.bitcoin.util.BitcoinUtil;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.util.StringUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SignatureCacheTests {
+    @Test
+    public void should_return_cached_result_for_previously_verified_signature() {
+        // Setup
+        final SignatureCache signatureCache = new SignatureCache(16);
+        final PrivateKey privateKey = PrivateKey.createNewKey();
+        final PublicKey publicKey = privateKey.getPublicKey();
+        final byte[] message = BitcoinUtil.sha256(StringUtil.stringToBytes("I am a little teapot."));
+        final Signature signature = Secp256k1.sign(privateKey.getBytes(), message);
+
+        // Action
+        final Boolean firstResult = signatureCache.verifySignature(signature, publicKey, message);
+        final Boolean secondResult = signatureCache.verifySignature(signature, publicKey, message);
+
+        // Assert
+        Assert.assertTrue(firstResult);
+        Assert.assertTrue(secondResult);
+        Assert.assertEquals(Long.valueOf(1L), signatureCache.getMissCount());
+        Assert.assertEquals(Long.valueOf(1L), signatureCache.getHitCount());
+        Assert.assertEquals(Integer.valueOf(1), signatureCache.getItemCount());
+    }
+
+    @Test
+    public void should_not_cache_invalid_signatures() {
+        // Setup
+        final SignatureCache signatureCache = new SignatureCache(16);
+        final PrivateKey privateKey = PrivateKey.createNewKey();
+        final PublicKey otherPublicKey = PrivateKey.createNewKey().getPublicKey();
+        final byte[] message = BitcoinUtil.sha256(StringUtil.stringToBytes("I am a little teapot."));
+        final Signature signature = Secp256k1.sign(privateKey.getBytes(), message);
+
+        // Action
+        final Boolean firstResult = signatureCache.verifySignature(signature, otherPublicKey, message);
+        final Boolean secondResult = signatureCache.verifySignature(signature, otherPublicKey, message);
+
+        // Assert
+        Assert.assertFalse(firstResult);
+        Assert.assertFalse(secondResult);
+        Assert.assertEquals(Long.valueOf(0L), signatureCache.getHitCount());
+        Assert.assertEquals(Integer.valueOf(0), signatureCache.getItemCount());
+    }
+
+    @Test
+    public void should_evict_oldest_signature_when_full() {
+        // Setup
+        final SignatureCache signatureCache = new SignatureCache(2);
+        final PrivateKey privateKey = PrivateKey.createNewKey();
+        final PublicKey publicKey = privateKey.getPublicKey();
+
+        final byte[][] messages = new byte[3][];
+        final Signature[] signatures = new Signature[3];
+        for (int i = 0; i < messages.length; ++i) {
+            messages[i] = BitcoinUtil.sha256(StringUtil.stringToBytes("I am a little teapot." + i));
+            signatures[i] = Secp256k1.sign(privateKey.getBytes(), messages[i]);
+        }
+
+        // Action
+        for (int i = 0; i < messages.length; ++i) {
+            signatureCache.verifySignature(signatures[i], publicKey, messages[i]);
+        }
+        signatureCache.verifySignature(signatures[0], publicKey, messages[0]);
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(2), signatureCache.getItemCount());
+        Assert.assertEquals(Long.valueOf(0L), signatureCache.getHitCount());
+        Assert.assertEquals(Long.valueOf(4L), signatureCache.getMissCount());
+    }
+
+    @Test
+    public void should_verify_a_batch_and_cache_only_its_valid_signatures() {
+        // Setup
+        final SignatureCache signatureCache = new SignatureCache(16);
+        final PrivateKey privateKey = PrivateKey.createNewKey();
+        final PublicKey publicKey = privateKey.getPublicKey();
+        final PublicKey otherPublicKey = PrivateKey.createNewKey().getPublicKey();
+        final byte[] message = BitcoinUtil.sha256(StringUtil.stringToBytes("I am a little teapot."));
+        final Signature signature = Secp256k1.sign(privateKey.getBytes(), message);
+
+        final ImmutableListBuilder<SignatureCache.Triplet> triplets = new ImmutableListBuilder<SignatureCache.Triplet>(2);
+        triplets.add(new SignatureCache.Triplet(signature, publicKey, message));
+        triplets.add(new SignatureCache.Triplet(signature, otherPublicKey, message));
+
+        // Action
+        final List<Boolean> batchResults = signatureCache.verifySignatures(triplets.build());
+        final Boolean validSignatureResult = signatureCache.verifySignature(signature, publicKey, message);
+        final Boolean invalidSignatureResult = signatureCache.verifySignature(signature, otherPublicKey, message);
+
+        // Assert
+        Assert.assertEquals(2, batchResults.getSize());
+        Assert.assertTrue(batchResults.get(0));
+        Assert.assertFalse(batchResults.get(1));
+        Assert.assertTrue(validSignatureResult);
+        Assert.assertFalse(invalidSignatureResult);
+        Assert.assertEquals(Long.valueOf(1L), signatureCache.getHitCount());
+        Assert.assertEquals(Long.valueOf(3L), signatureCache.getMissCount());
+        Assert.assertEquals(Integer.valueOf(1), signatureCache.getItemCount());
+    }
+}
@@ -65,7 +65,7 @@ public class BlockDatabaseManagerPerformanceTests extends IntegrationTest {
 
             final BatchedInsertQuery batchedInsertQuery = new BatchedInsertQuery("INSERT INTO transactions (hash, version, lock_time) VALUES (?, ?, ?)");
             for (final Sha256Hash transactionHash : transactionHashes.keySet()) {
-                batchedInsertQuery.setParameter(transactionHash);
+                batchedInsertQuery.setParameter(transactionHash.getBytes());
                 batchedInsertQuery.setParameter(Transaction.VERSION);
                 batchedInsertQuery.setParameter(LockTime.MIN_TIMESTAMP.getValue());
 
@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.block.BlockInflater;
 import com.softwareverde.bitcoin.block.MutableBlock;
 import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.chain.index.BlockHeaderIndex;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.test.BlockData;
@@ -15,6 +16,7 @@ import com.softwareverde.bitcoin.transaction.TransactionInflater;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.database.Query;
 import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.util.TransactionUtil;
 import com.softwareverde.util.HexUtil;
 import com.softwareverde.util.IoUtil;
 import org.junit.Assert;
@@ -406,8 +408,8 @@ public class BlockDatabaseManagerTests extends IntegrationTest {
         // Hack the genesis block so that its hash looks like the tested-block's previousBlockHash...
         databaseConnection.executeSql(
             new Query("UPDATE blocks SET hash = ? WHERE hash = ?")
-                .setParameter(block.getPreviousBlockHash())
-                .setParameter(BlockHeader.GENESIS_BLOCK_HASH)
+                .setParameter(block.getPreviousBlockHash().getBytes())
+                .setParameter(BlockHeader.GENESIS_BLOCK_HASH.getBytes())
         );
 
         final BlockId blockId;
@@ -519,4 +521,54 @@ public class BlockDatabaseManagerTests extends IntegrationTest {
         Assert.assertEquals(expectedBlockId1, blockId1);
         Assert.assertEquals(expectedBlockId2, blockId2);
     }
+
+    @Test
+    public void should_only_index_block_headers_once_committed() throws Exception {
+        // Setup
+        final MysqlDatabaseConnection databaseConnection = _database.newConnection();
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = new BlockHeaderDatabaseManager(databaseConnection, _databaseManagerCache);
+        final BlockInflater blockInflater = new BlockInflater();
+
+        final Block genesisBlock = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.GENESIS_BLOCK));
+        final Block block1 = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.BLOCK_1));
+        final Block block2 = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.BLOCK_2));
+
+        synchronized (BlockHeaderDatabaseManager.MUTEX) {
+            blockHeaderDatabaseManager.storeBlockHeader(genesisBlock);
+        }
+        BlockHeaderDatabaseManager.initializeBlockHeaderIndex(databaseConnection);
+
+        try {
+            final BlockHeaderIndex blockHeaderIndex = BlockHeaderDatabaseManager.BLOCK_HEADER_INDEX;
+
+            // Action
+            final BlockId blockId1;
+            final Boolean wasIndexedBeforeCommit;
+            synchronized (BlockHeaderDatabaseManager.MUTEX) {
+                TransactionUtil.startTransaction(databaseConnection);
+                blockId1 = blockHeaderDatabaseManager.storeBlockHeader(block1);
+                wasIndexedBeforeCommit = blockHeaderIndex.containsBlock(blockId1);
+                TransactionUtil.commitTransaction(databaseConnection);
+                blockHeaderDatabaseManager.onBlockHeaderCommitted(blockId1);
+            }
+
+            final BlockId blockId2;
+            synchronized (BlockHeaderDatabaseManager.MUTEX) {
+                TransactionUtil.startTransaction(databaseConnection);
+                blockId2 = blockHeaderDatabaseManager.storeBlockHeader(block2);
+                TransactionUtil.rollbackTransaction(databaseConnection);
+                blockHeaderDatabaseManager.onBlockHeaderRolledBack();
+            }
+
+            // Assert
+            Assert.assertFalse(wasIndexedBeforeCommit);
+            Assert.assertTrue(blockHeaderIndex.containsBlock(blockId1));
+            Assert.assertEquals(Long.valueOf(1L), blockHeaderIndex.getBlockHeight(blockId1));
+            Assert.assertFalse(blockHeaderIndex.containsBlock(blockId2));
+            Assert.assertEquals(Integer.valueOf(2), blockHeaderIndex.getBlockCount());
+        }
+        finally {
+            BlockHeaderDatabaseManager.BLOCK_HEADER_INDEX = null;
+        }
+    }
 }
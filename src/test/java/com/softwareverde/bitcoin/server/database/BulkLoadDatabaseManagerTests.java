@@ -0,0 +1,67 @@
+package com.softwareverde.bitcoin.server.database;
+
+import com.softwareverde.bitcoin.test.IntegrationTest;
+import com.softwareverde.database.Query;
+import com.softwareverde.database.Row;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BulkLoadDatabaseManagerTests extends IntegrationTest {
+
+    @Before
+    public void setup() {
+        _resetDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        _resetDatabase();
+    }
+
+    @Test
+    public void should_drop_and_rebuild_deferred_indexes_when_repeated() throws Exception {
+        // Setup
+        try (final MysqlDatabaseConnection databaseConnection = _database.newConnection()) {
+            final BulkLoadDatabaseManager bulkLoadDatabaseManager = new BulkLoadDatabaseManager(databaseConnection);
+            Assert.assertFalse(bulkLoadDatabaseManager.hasDroppedIndexes());
+
+            // Action
+            bulkLoadDatabaseManager.dropDeferredIndexes();
+            bulkLoadDatabaseManager.dropDeferredIndexes(); // Simulates resuming an interrupted bulk-load...
+            final Boolean indexesWereDropped = bulkLoadDatabaseManager.hasDroppedIndexes();
+
+            bulkLoadDatabaseManager.rebuildDeferredIndexes();
+            bulkLoadDatabaseManager.rebuildDeferredIndexes(); // Simulates resuming an interrupted rebuild...
+            final Boolean indexesWereRebuilt = (! bulkLoadDatabaseManager.hasDroppedIndexes());
+
+            // Assert
+            Assert.assertTrue(indexesWereDropped);
+            Assert.assertTrue(indexesWereRebuilt);
+        }
+    }
+
+    @Test
+    public void should_null_references_to_outputs_deleted_during_the_bulk_load() throws Exception {
+        // Setup
+        try (final MysqlDatabaseConnection databaseConnection = _database.newConnection()) {
+            final BulkLoadDatabaseManager bulkLoadDatabaseManager = new BulkLoadDatabaseManager(databaseConnection);
+            bulkLoadDatabaseManager.dropDeferredIndexes();
+
+            final Long transactionId = databaseConnection.executeSql(new Query("INSERT INTO transactions (hash, version, lock_time) VALUES (?, 1, 0)").setParameter(new byte[32]));
+            final Long transactionOutputId = databaseConnection.executeSql(new Query("INSERT INTO transaction_outputs (transaction_id, `index`, amount) VALUES (?, 0, 0)").setParameter(transactionId));
+            databaseConnection.executeSql(new Query("INSERT INTO transaction_inputs (transaction_id, previous_transaction_output_id, sequence_number) VALUES (?, ?, 0)").setParameter(transactionId).setParameter(transactionOutputId));
+            databaseConnection.executeSql(new Query("DELETE FROM transaction_outputs WHERE id = ?").setParameter(transactionOutputId)); // Not cascaded while the constraint is dropped...
+
+            // Action
+            bulkLoadDatabaseManager.rebuildDeferredIndexes();
+
+            // Assert
+            final java.util.List<Row> rows = databaseConnection.query(new Query("SELECT previous_transaction_output_id FROM transaction_inputs WHERE transaction_id = ?").setParameter(transactionId));
+            Assert.assertEquals(1, rows.size());
+            Assert.assertNull(rows.get(0).getLong("previous_transaction_output_id"));
+        }
+    }
+}
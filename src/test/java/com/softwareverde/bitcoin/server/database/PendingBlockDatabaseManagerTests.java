@@ -34,13 +34,13 @@ public class PendingBlockDatabaseManagerTests extends IntegrationTest {
         try (final MysqlDatabaseConnection databaseConnection = _database.newConnection()) {
             databaseConnection.executeSql(
                 new Query("INSERT INTO blocks (hash, block_height, merkle_root, timestamp, difficulty, nonce, chain_work) VALUES (?, ?, ?, ?, ?, ?, ?)")
-                    .setParameter(blockHash)
+                    .setParameter(blockHash.getBytes())
                     .setParameter(blockHeight)
-                    .setParameter(MerkleRoot.EMPTY_HASH)
+                    .setParameter(MerkleRoot.EMPTY_HASH.getBytes())
                     .setParameter(0L)
                     .setParameter(Difficulty.BASE_DIFFICULTY.encode())
                     .setParameter(0L)
-                    .setParameter(Sha256Hash.EMPTY_HASH)
+                    .setParameter(Sha256Hash.EMPTY_HASH.getBytes())
             );
         }
     }
@@ -51,7 +51,7 @@ public class PendingBlockDatabaseManagerTests extends IntegrationTest {
         try (final MysqlDatabaseConnection databaseConnection = _database.newConnection()) {
             databaseConnection.executeSql(
                 new Query("INSERT INTO pending_blocks (hash, timestamp, priority) VALUES (?, ?, ?)")
-                    .setParameter(blockHash)
+                    .setParameter(blockHash.getBytes())
                     .setParameter(systemTime.getCurrentTimeInSeconds())
                     .setParameter(blockHeight)
             );
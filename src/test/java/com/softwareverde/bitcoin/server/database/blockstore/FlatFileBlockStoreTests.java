@@ -0,0 +1,160 @@
+package com.softwareverde.bitcoin.server.database.blockstore;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockDeflater;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.test.BlockData;
+import com.softwareverde.bitcoin.test.util.TestUtil;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionDeflater;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.util.HexUtil;
+import com.softwareverde.util.IoUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class FlatFileBlockStoreTests {
+    protected static String _createTemporaryDirectory() throws Exception {
+        final File directory = Files.createTempDirectory("block-store-test").toFile();
+        directory.deleteOnExit();
+        return directory.getPath();
+    }
+
+    @Test
+    public void should_read_stored_blocks_and_transactions_from_their_locations() throws Exception {
+        // Setup
+        final BlockInflater blockInflater = new BlockInflater();
+        final BlockDeflater blockDeflater = new BlockDeflater();
+        final TransactionDeflater transactionDeflater = new TransactionDeflater();
+
+        final Block genesisBlock = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.GENESIS_BLOCK));
+        final Block block = blockInflater.fromBytes(HexUtil.hexStringToByteArray(IoUtil.getResource("/blocks/00000000000000000051CFB8C9B8191EC4EF14F8F44F3E2290D67A8A0A29DD05")));
+
+        final FlatFileBlockStore blockStore = new FlatFileBlockStore(_createTemporaryDirectory(), 1024L); // The second Block does not fit within the first segment...
+        Assert.assertTrue(blockStore.open());
+
+        // Action
+        final FlatFileBlockStore.StoredBlock storedGenesisBlock = blockStore.storeBlock(genesisBlock);
+        final FlatFileBlockStore.StoredBlock storedBlock = blockStore.storeBlock(block);
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(0), storedGenesisBlock.blockLocation.getFileIndex());
+        Assert.assertEquals(Long.valueOf(0L), storedGenesisBlock.blockLocation.getByteOffset());
+        Assert.assertEquals(Integer.valueOf(1), storedBlock.blockLocation.getFileIndex());
+        Assert.assertEquals(Long.valueOf(0L), storedBlock.blockLocation.getByteOffset());
+
+        TestUtil.assertEqual(blockDeflater.toBytes(genesisBlock).getBytes(), blockStore.readBytes(storedGenesisBlock.blockLocation).getBytes());
+        TestUtil.assertEqual(blockDeflater.toBytes(block).getBytes(), blockStore.readBytes(storedBlock.blockLocation).getBytes());
+
+        final List<Transaction> transactions = block.getTransactions();
+        Assert.assertEquals(transactions.getSize(), storedBlock.transactionLocations.getSize());
+        for (int i = 0; i < transactions.getSize(); ++i) {
+            final Transaction transaction = transactions.get(i);
+            final BlockFileLocation transactionLocation = storedBlock.transactionLocations.get(i);
+            TestUtil.assertEqual(transactionDeflater.toBytes(transaction).getBytes(), blockStore.readBytes(transactionLocation).getBytes());
+        }
+
+        blockStore.close();
+    }
+
+    @Test
+    public void should_append_to_the_last_segment_after_being_reopened() throws Exception {
+        // Setup
+        final BlockInflater blockInflater = new BlockInflater();
+        final BlockDeflater blockDeflater = new BlockDeflater();
+
+        final Block genesisBlock = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.GENESIS_BLOCK));
+        final Block block01 = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.BLOCK_1));
+
+        final String directory = _createTemporaryDirectory();
+        final BlockFileLocation genesisBlockLocation;
+        {
+            final FlatFileBlockStore blockStore = new FlatFileBlockStore(directory);
+            Assert.assertTrue(blockStore.open());
+            genesisBlockLocation = blockStore.storeBlock(genesisBlock).blockLocation;
+            blockStore.close();
+        }
+
+        final FlatFileBlockStore blockStore = new FlatFileBlockStore(directory);
+        Assert.assertTrue(blockStore.open());
+
+        // Action
+        final BlockFileLocation block01Location = blockStore.storeBlock(block01).blockLocation;
+
+        // Assert
+        Assert.assertEquals(genesisBlockLocation.getFileIndex(), block01Location.getFileIndex());
+        Assert.assertEquals(Long.valueOf(genesisBlockLocation.getByteCount().longValue()), block01Location.getByteOffset());
+
+        TestUtil.assertEqual(blockDeflater.toBytes(genesisBlock).getBytes(), blockStore.readBytes(genesisBlockLocation).getBytes());
+        TestUtil.assertEqual(blockDeflater.toBytes(block01).getBytes(), blockStore.readBytes(block01Location).getBytes());
+
+        blockStore.close();
+    }
+
+    @Test
+    public void should_read_blocks_that_span_mapped_windows() throws Exception {
+        // Setup
+        final BlockInflater blockInflater = new BlockInflater();
+        final BlockDeflater blockDeflater = new BlockDeflater();
+
+        final Block genesisBlock = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.GENESIS_BLOCK));
+        final Block block01 = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.BLOCK_1));
+        final Block block02 = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.BLOCK_2));
+
+        final FlatFileBlockStore blockStore = new FlatFileBlockStore(_createTemporaryDirectory(), FlatFileBlockStore.DEFAULT_MAX_SEGMENT_BYTE_COUNT, 512L); // The third Block (at bytes 500 through 715) spans the first two windows...
+        Assert.assertTrue(blockStore.open());
+
+        // Action
+        final BlockFileLocation genesisBlockLocation = blockStore.storeBlock(genesisBlock).blockLocation;
+        final ByteArray genesisBlockBytes = blockStore.readBytes(genesisBlockLocation); // Maps the partial first window...
+        final BlockFileLocation block01Location = blockStore.storeBlock(block01).blockLocation; // Extends beyond the partial mapping of the first window...
+        final BlockFileLocation block02Location = blockStore.storeBlock(block02).blockLocation;
+
+        // Assert
+        TestUtil.assertEqual(blockDeflater.toBytes(genesisBlock).getBytes(), genesisBlockBytes.getBytes());
+        TestUtil.assertEqual(blockDeflater.toBytes(block01).getBytes(), blockStore.readBytes(block01Location).getBytes());
+        TestUtil.assertEqual(blockDeflater.toBytes(block02).getBytes(), blockStore.readBytes(block02Location).getBytes());
+
+        blockStore.close();
+    }
+
+    @Test
+    public void should_release_the_least_recently_read_mapped_windows() throws Exception {
+        // Setup
+        final BlockInflater blockInflater = new BlockInflater();
+        final BlockDeflater blockDeflater = new BlockDeflater();
+
+        final Block genesisBlock = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.GENESIS_BLOCK));
+        final Block block01 = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.BLOCK_1));
+        final Block block02 = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.BLOCK_2));
+
+        final FlatFileBlockStore blockStore = new FlatFileBlockStore(_createTemporaryDirectory(), FlatFileBlockStore.DEFAULT_MAX_SEGMENT_BYTE_COUNT, 128L, 2); // Each Block spans multiple windows...
+        Assert.assertTrue(blockStore.open());
+
+        final BlockFileLocation genesisBlockLocation = blockStore.storeBlock(genesisBlock).blockLocation;
+        final BlockFileLocation block01Location = blockStore.storeBlock(block01).blockLocation;
+        final BlockFileLocation block02Location = blockStore.storeBlock(block02).blockLocation;
+
+        // Action
+        final ByteArray genesisBlockBytes = blockStore.readBytes(genesisBlockLocation);
+        final ByteArray block01Bytes = blockStore.readBytes(block01Location);
+        final ByteArray block02Bytes = blockStore.readBytes(block02Location);
+        final ByteArray rereadGenesisBlockBytes = blockStore.readBytes(genesisBlockLocation); // Remaps the released windows...
+
+        // Assert
+        TestUtil.assertEqual(blockDeflater.toBytes(genesisBlock).getBytes(), genesisBlockBytes.getBytes());
+        TestUtil.assertEqual(blockDeflater.toBytes(block01).getBytes(), block01Bytes.getBytes());
+        TestUtil.assertEqual(blockDeflater.toBytes(block02).getBytes(), block02Bytes.getBytes());
+        TestUtil.assertEqual(blockDeflater.toBytes(genesisBlock).getBytes(), rereadGenesisBlockBytes.getBytes());
+
+        Assert.assertEquals(2, blockStore._mappedWindows.size());
+        Assert.assertTrue(blockStore._mappedWindows.containsKey(new FlatFileBlockStore.MappedWindowKey(genesisBlockLocation.getFileIndex(), 1L))); // The genesis Block (285 bytes) spans windows 0 through 2...
+        Assert.assertTrue(blockStore._mappedWindows.containsKey(new FlatFileBlockStore.MappedWindowKey(genesisBlockLocation.getFileIndex(), 2L)));
+
+        blockStore.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.softwareverde.bitcoin.server.database.blockstore;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockDeflater;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.test.BlockData;
+import com.softwareverde.bitcoin.test.util.TestUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.util.HexUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class PendingBlockStoreTests {
+    protected static String _createTemporaryDirectory() throws Exception {
+        final File directory = Files.createTempDirectory("pending-block-store-test").toFile();
+        directory.deleteOnExit();
+        return directory.getPath();
+    }
+
+    @Test
+    public void should_read_spooled_block_until_it_is_removed() throws Exception {
+        // Setup
+        final BlockInflater blockInflater = new BlockInflater();
+        final BlockDeflater blockDeflater = new BlockDeflater();
+
+        final Block block = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.BLOCK_1));
+        final Sha256Hash blockHash = block.getHash();
+        final ByteArray blockData = blockDeflater.toBytes(block);
+
+        final PendingBlockStore pendingBlockStore = new PendingBlockStore(_createTemporaryDirectory());
+        Assert.assertTrue(pendingBlockStore.open());
+        Assert.assertFalse(pendingBlockStore.hasBlockData(blockHash));
+
+        // Action
+        final Boolean wasStored = pendingBlockStore.storeBlockData(blockHash, blockData);
+        final ByteArray spooledBlockData = pendingBlockStore.getBlockData(blockHash);
+        pendingBlockStore.removeBlockData(blockHash);
+
+        // Assert
+        Assert.assertTrue(wasStored);
+        TestUtil.assertEqual(blockData.getBytes(), spooledBlockData.getBytes());
+        Assert.assertFalse(pendingBlockStore.hasBlockData(blockHash));
+        Assert.assertNull(pendingBlockStore.getBlockData(blockHash));
+    }
+
+    @Test
+    public void should_discard_incomplete_blocks_when_opened() throws Exception {
+        // Setup
+        final String directory = _createTemporaryDirectory();
+        final File incompleteFile = new File(directory, (BlockData.MainChain.BLOCK_1.substring(0, 64) + "-1.tmp"));
+        Assert.assertTrue(incompleteFile.createNewFile());
+
+        final PendingBlockStore pendingBlockStore = new PendingBlockStore(directory);
+
+        // Action
+        final Boolean wasOpened = pendingBlockStore.open();
+
+        // Assert
+        Assert.assertTrue(wasOpened);
+        Assert.assertFalse(incompleteFile.exists());
+    }
+}
@@ -0,0 +1,57 @@
+package com.softwareverde.bitcoin.server.database.cache.utxo;
+
+import com.softwareverde.bitcoin.hash.sha256.MutableSha256Hash;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutputId;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.util.BitcoinUtil;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UnspentTransactionOutputWriteBackCacheTests {
+
+    protected Sha256Hash sha256(final Long value) {
+        return MutableSha256Hash.wrap(BitcoinUtil.sha256(ByteUtil.longToBytes(value)));
+    }
+
+    @Test
+    public void should_not_flush_outputs_created_and_spent_before_the_flush() {
+        // Setup
+        final UnspentTransactionOutputWriteBackCache masterCache = new UnspentTransactionOutputWriteBackCache(1024L * 1024L);
+
+        final UnspentTransactionOutputWriteBackCache firstBlockCache = new UnspentTransactionOutputWriteBackCache(0L);
+        firstBlockCache.setMasterCache(masterCache);
+        firstBlockCache.addUnspentTransactionOutput(sha256(0L), 0, TransactionOutputId.wrap(1L));
+        firstBlockCache.addUnspentTransactionOutput(sha256(0L), 1, TransactionOutputId.wrap(2L));
+        masterCache.commit(firstBlockCache);
+        masterCache.setBlockProcessed(1L);
+
+        final UnspentTransactionOutputWriteBackCache secondBlockCache = new UnspentTransactionOutputWriteBackCache(0L);
+        secondBlockCache.setMasterCache(masterCache);
+
+        // Action
+        secondBlockCache.spendTransactionOutput(new TransactionOutputIdentifier(sha256(0L), 0), TransactionOutputId.wrap(1L)); // Spends an unflushed output...
+        secondBlockCache.spendTransactionOutput(new TransactionOutputIdentifier(sha256(1L), 0), TransactionOutputId.wrap(3L)); // Spends a flushed output...
+        final TransactionOutputId stagedSpentTransactionOutputId = secondBlockCache.getUnspentTransactionOutputId(sha256(0L), 0);
+        final TransactionOutputId masterTransactionOutputIdBeforeCommit = masterCache.getUnspentTransactionOutputId(sha256(0L), 0);
+
+        masterCache.commit(secondBlockCache);
+        masterCache.setBlockProcessed(2L);
+
+        final UnspentTransactionOutputWriteBackCache.UnflushedChanges unflushedChanges = masterCache.takeUnflushedChanges();
+
+        // Assert
+        Assert.assertNull(stagedSpentTransactionOutputId);
+        Assert.assertEquals(TransactionOutputId.wrap(1L), masterTransactionOutputIdBeforeCommit);
+
+        Assert.assertEquals(1, unflushedChanges.unspentTransactionOutputs.size());
+        Assert.assertEquals(TransactionOutputId.wrap(2L), unflushedChanges.unspentTransactionOutputs.get(new TransactionOutputIdentifier(sha256(0L), 1)));
+
+        Assert.assertEquals(1, unflushedChanges.spentTransactionOutputIds.size());
+        Assert.assertTrue(unflushedChanges.spentTransactionOutputIds.contains(TransactionOutputId.wrap(3L)));
+
+        Assert.assertEquals(Long.valueOf(2L), unflushedChanges.blockHeight);
+        Assert.assertEquals(Long.valueOf(0L), masterCache.getByteCount());
+    }
+}
@@ -8,6 +8,7 @@ import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.server.database.BlockDatabaseManager;
 import com.softwareverde.bitcoin.server.database.BlockHeaderDatabaseManager;
 import com.softwareverde.bitcoin.server.database.PendingBlockDatabaseManager;
+import com.softwareverde.bitcoin.server.database.blockstore.PendingBlockStore;
 import com.softwareverde.bitcoin.server.database.cache.DatabaseManagerCache;
 import com.softwareverde.bitcoin.server.database.cache.MasterDatabaseManagerCache;
 import com.softwareverde.bitcoin.server.database.cache.ReadOnlyLocalDatabaseManagerCache;
@@ -29,6 +30,9 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
+
 public class BlockchainBuilderTests extends IntegrationTest {
     static class FakeBlockDownloadRequester extends BlockDownloadRequester {
         @Override
@@ -42,8 +46,15 @@ public class BlockchainBuilderTests extends IntegrationTest {
     }
 
     @Before
-    public void setup() {
+    public void setup() throws Exception {
         _resetDatabase();
+
+        final File pendingBlockDirectory = Files.createTempDirectory("pending-blocks-test").toFile();
+        pendingBlockDirectory.deleteOnExit();
+
+        final PendingBlockStore pendingBlockStore = new PendingBlockStore(pendingBlockDirectory.getPath());
+        Assert.assertTrue(pendingBlockStore.open());
+        PendingBlockDatabaseManager.initializePendingBlockStore(pendingBlockStore);
     }
 
     @Test
@@ -0,0 +1,109 @@
+package com.softwareverde.bitcoin.server.module.node.sync.transaction.pending;
+
+import com.softwareverde.bitcoin.address.AddressInflater;
+import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
+import com.softwareverde.bitcoin.secp256k1.key.PrivateKey;
+import com.softwareverde.bitcoin.transaction.MutableTransaction;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionDeflater;
+import com.softwareverde.bitcoin.transaction.input.MutableTransactionInput;
+import com.softwareverde.bitcoin.transaction.locktime.LockTime;
+import com.softwareverde.bitcoin.transaction.locktime.SequenceNumber;
+import com.softwareverde.bitcoin.transaction.output.MutableTransactionOutput;
+import com.softwareverde.bitcoin.transaction.script.ScriptBuilder;
+import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PendingTransactionQueueTests {
+    protected Transaction _createTransaction(final Sha256Hash previousTransactionHash) {
+        final AddressInflater addressInflater = new AddressInflater();
+        final MutableTransaction transaction = new MutableTransaction();
+        transaction.setVersion(Transaction.VERSION);
+        transaction.setLockTime(LockTime.MIN_TIMESTAMP);
+        {
+            final MutableTransactionInput transactionInput = new MutableTransactionInput();
+            transactionInput.setPreviousOutputTransactionHash(previousTransactionHash);
+            transactionInput.setPreviousOutputIndex(0);
+            transactionInput.setSequenceNumber(SequenceNumber.MAX_SEQUENCE_NUMBER);
+            transactionInput.setUnlockingScript(UnlockingScript.EMPTY_SCRIPT);
+            transaction.addTransactionInput(transactionInput);
+        }
+        {
+            final MutableTransactionOutput transactionOutput = new MutableTransactionOutput();
+            transactionOutput.setAmount(50L * Transaction.SATOSHIS_PER_BITCOIN);
+            transactionOutput.setIndex(0);
+            transactionOutput.setLockingScript(ScriptBuilder.payToAddress(addressInflater.fromPrivateKey(PrivateKey.createNewKey())));
+            transaction.addTransactionOutput(transactionOutput);
+        }
+        return transaction;
+    }
+
+    protected List<Sha256Hash> _asList(final Sha256Hash transactionHash) {
+        final MutableList<Sha256Hash> transactionHashes = new MutableList<Sha256Hash>(1);
+        transactionHashes.add(transactionHash);
+        return transactionHashes;
+    }
+
+    @Test
+    public void should_release_waiting_transaction_once_its_previous_transaction_is_processed() {
+        // Setup
+        final Transaction parentTransaction = _createTransaction(Sha256Hash.EMPTY_HASH);
+        final Transaction childTransaction = _createTransaction(parentTransaction.getHash());
+
+        final PendingTransactionQueue pendingTransactionQueue = new PendingTransactionQueue();
+        Assert.assertTrue(pendingTransactionQueue.offer(childTransaction));
+        Assert.assertTrue(pendingTransactionQueue.offer(parentTransaction));
+        Assert.assertFalse(pendingTransactionQueue.offer(parentTransaction));
+
+        final List<Transaction> polledTransactions = pendingTransactionQueue.poll(10);
+        Assert.assertEquals(2, polledTransactions.getSize());
+        Assert.assertEquals(childTransaction.getHash(), polledTransactions.get(0).getHash());
+        Assert.assertEquals(parentTransaction.getHash(), polledTransactions.get(1).getHash());
+
+        Assert.assertTrue(pendingTransactionQueue.waitForPreviousTransactions(childTransaction, _asList(parentTransaction.getHash())));
+        Assert.assertTrue(pendingTransactionQueue.poll(10).isEmpty());
+
+        // Action
+        final Integer readyTransactionCount = pendingTransactionQueue.onTransactionProcessed(parentTransaction.getHash());
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(1), readyTransactionCount);
+
+        final List<Transaction> releasedTransactions = pendingTransactionQueue.poll(10);
+        Assert.assertEquals(1, releasedTransactions.getSize());
+        Assert.assertEquals(childTransaction.getHash(), releasedTransactions.get(0).getHash());
+        Assert.assertEquals(Long.valueOf(0L), pendingTransactionQueue.getByteCount());
+    }
+
+    @Test
+    public void should_evict_waiting_transactions_before_rejecting_new_transactions_when_full() {
+        // Setup
+        final TransactionDeflater transactionDeflater = new TransactionDeflater();
+
+        final Transaction orphanedTransaction = _createTransaction(Sha256Hash.EMPTY_HASH);
+        final Transaction transaction0 = _createTransaction(Sha256Hash.EMPTY_HASH);
+        final Transaction transaction1 = _createTransaction(Sha256Hash.EMPTY_HASH);
+        final Transaction transaction2 = _createTransaction(Sha256Hash.EMPTY_HASH);
+
+        final Integer transactionByteCount = transactionDeflater.getByteCount(transaction0);
+        final PendingTransactionQueue pendingTransactionQueue = new PendingTransactionQueue(2L * transactionByteCount);
+
+        Assert.assertTrue(pendingTransactionQueue.waitForPreviousTransactions(orphanedTransaction, _asList(Sha256Hash.EMPTY_HASH)));
+        Assert.assertTrue(pendingTransactionQueue.offer(transaction0));
+
+        // Action
+        final Boolean transaction1WasQueued = pendingTransactionQueue.offer(transaction1);
+        final Boolean transaction2WasQueued = pendingTransactionQueue.offer(transaction2);
+
+        // Assert
+        Assert.assertTrue(transaction1WasQueued);
+        Assert.assertFalse(transaction2WasQueued);
+
+        Assert.assertFalse(pendingTransactionQueue.contains(orphanedTransaction.getHash()));
+        Assert.assertTrue(pendingTransactionQueue.getMissingTransactionHashes().isEmpty());
+        Assert.assertEquals(Integer.valueOf(2), pendingTransactionQueue.getTransactionCount());
+    }
+}
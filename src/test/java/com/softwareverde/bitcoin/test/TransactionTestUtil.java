@@ -97,13 +97,13 @@ public class TransactionTestUtil {
             if (transactionOutputId != null) { continue; }
 
             final TransactionId transactionId;
-            final java.util.List<Row> transactionRows = databaseConnection.query(new Query("SELECT id FROM transactions WHERE hash = ?").setParameter(previousOutputTransactionHash));
+            final java.util.List<Row> transactionRows = databaseConnection.query(new Query("SELECT id FROM transactions WHERE hash = ?").setParameter(previousOutputTransactionHash.getBytes()));
             if (transactionRows.isEmpty()) {
                 Logger.log("TEST: NOTE: Mutating genesis block; adding fake transaction with hash: " + previousOutputTransactionHash);
 
                 transactionId = TransactionId.wrap(databaseConnection.executeSql(
                     new Query("INSERT INTO transactions (hash, version, lock_time) VALUES (?, ?, ?)")
-                        .setParameter(previousOutputTransactionHash)
+                        .setParameter(previousOutputTransactionHash.getBytes())
                         .setParameter(Transaction.VERSION)
                         .setParameter(LockTime.MIN_TIMESTAMP.getValue())
                 ));
@@ -4,6 +4,7 @@ import com.softwareverde.bitcoin.block.Block;
 import com.softwareverde.bitcoin.block.BlockInflater;
 import com.softwareverde.bitcoin.hash.sha256.Sha256Hash;
 import com.softwareverde.bitcoin.test.util.TestUtil;
+import com.softwareverde.bitcoin.transaction.locktime.ImmutableLockTime;
 import com.softwareverde.util.HexUtil;
 import com.softwareverde.util.IoUtil;
 import org.junit.Assert;
@@ -70,4 +71,43 @@ public class TransactionTests {
         Assert.assertEquals(expectedOutputCount, transaction.getTransactionOutputs().getSize());
         Assert.assertEquals(transactionHash, expectedTransactionHash);
     }
+
+    @Test
+    public void should_recalculate_the_inflated_transaction_hash_after_modification() {
+        // Setup
+        final TransactionInflater transactionInflater = new TransactionInflater();
+        final TransactionHasher transactionHasher = new TransactionHasher();
+        final MutableTransaction transaction = transactionInflater.fromBytes(HexUtil.hexStringToByteArray("01000000010000000000000000000000000000000000000000000000000000000000000000FFFFFFFF0704FFFF001D0134FFFFFFFF0100F2052A0100000043410411DB93E1DCDB8A016B49840F8C53BC1EB68A382E97B1482ECAD7B148A6909A5CB2E0EADDFB84CCF9744464F82E160BFA9B8B64F9D4C03F999B8643F656B412A3AC00000000"));
+        final Sha256Hash inflatedTransactionHash = transaction.getHash();
+
+        // Action
+        transaction.setLockTime(new ImmutableLockTime(1L));
+        final Sha256Hash modifiedTransactionHash = transaction.getHash();
+
+        // Assert
+        Assert.assertEquals(Sha256Hash.fromHexString("0437CD7F8525CEED2324359C2D0BA26006D92D856A9C20FA0241106EE5A597C9"), inflatedTransactionHash);
+        Assert.assertNotEquals(inflatedTransactionHash, modifiedTransactionHash);
+        Assert.assertEquals(transactionHasher.hashTransaction(transaction), modifiedTransactionHash);
+    }
+
+    @Test
+    public void should_stream_the_same_hash_as_the_deflated_transaction() {
+        // Setup
+        final BlockInflater blockInflater = new BlockInflater();
+        final TransactionDeflater transactionDeflater = new TransactionDeflater();
+        final TransactionHasher transactionHasher = new TransactionHasher();
+        final Block block = blockInflater.fromBytes(HexUtil.hexStringToByteArray(IoUtil.getResource("/blocks/00000000AFE94C578B4DC327AA64E1203283C5FD5F152CE886341766298CF523")));
+
+        for (final Transaction transaction : block.getTransactions()) {
+            final Sha256Hash expectedTransactionHash = transactionHasher.hashTransaction(transactionDeflater.toBytes(transaction).getBytes());
+
+            // Action
+            final Sha256Hash transactionHash = transactionHasher.hashTransaction(transaction);
+
+            // Assert
+            Assert.assertEquals(expectedTransactionHash, transactionHash);
+        }
+
+        Assert.assertEquals(Sha256Hash.fromHexString("3A5769FB2126D870ADED5FCACED3BC49FA9768436101895931ADB5246E41E957"), transactionHasher.hashTransaction(block.getTransactions().get(1)));
+    }
 }
@@ -0,0 +1,63 @@
+package com.softwareverde.bitcoin.transaction.script;
+
+import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
+import com.softwareverde.bitcoin.transaction.script.opcode.PushOperation;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.util.HexUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScriptReaderTests {
+    protected static void _assertMatchesScriptInflater(final String scriptHexString) {
+        final ByteArray bytes = MutableByteArray.wrap(HexUtil.hexStringToByteArray(scriptHexString));
+
+        final ScriptInflater scriptInflater = new ScriptInflater();
+        final List<Operation> operations = scriptInflater.getOperationList(bytes);
+
+        final ScriptReader scriptReader = new ScriptReader(bytes);
+        for (final Operation operation : operations) {
+            Assert.assertTrue(scriptReader.next());
+            Assert.assertEquals(operation.getOpcodeByte(), scriptReader.getOpcodeByte());
+            Assert.assertEquals(operation.getType(), scriptReader.getType());
+
+            if (operation instanceof PushOperation) {
+                final PushOperation pushOperation = (PushOperation) operation;
+                Assert.assertTrue(scriptReader.isPushOperation());
+                Assert.assertEquals(pushOperation.getValue(), scriptReader.getPushedValue());
+                Assert.assertEquals(Integer.valueOf(pushOperation.getValue().getByteCount()), scriptReader.getPushedByteCount());
+            }
+            else {
+                Assert.assertFalse(scriptReader.isPushOperation());
+            }
+        }
+        Assert.assertFalse(scriptReader.next());
+    }
+
+    @Test
+    public void should_read_the_same_operations_as_the_script_inflater() {
+        _assertMatchesScriptInflater("76A914F6A9D96485D1D45D28E38662F617BA39A6B151BB88AC"); // P2PKH
+        _assertMatchesScriptInflater("A914F6A9D96485D1D45D28E38662F617BA39A6B151BB87"); // P2SH
+        _assertMatchesScriptInflater("004F515F60"); // Literal pushes: 0, -1, 1, 15, 16
+        _assertMatchesScriptInflater("4C03AABBCC4D0200DDEE4E01000000FF"); // PUSHDATA1, PUSHDATA2, PUSHDATA4
+        _assertMatchesScriptInflater("0503FFFF001D"); // Truncated push; read as OP_INVALID followed by the remaining bytes...
+        _assertMatchesScriptInflater("4D0903" + "00"); // PUSHDATA2 exceeding the maximum Value size...
+        _assertMatchesScriptInflater("");
+    }
+
+    @Test
+    public void should_compare_push_data_without_copying() {
+        // Setup
+        final ScriptReader scriptReader = new ScriptReader(MutableByteArray.wrap(HexUtil.hexStringToByteArray("76A914F6A9D96485D1D45D28E38662F617BA39A6B151BB88AC")));
+
+        // Action
+        scriptReader.next();
+        scriptReader.next();
+        scriptReader.next();
+
+        // Assert
+        Assert.assertTrue(scriptReader.pushDataEquals(HexUtil.hexStringToByteArray("F6A9D96485D1D45D28E38662F617BA39A6B151BB")));
+        Assert.assertFalse(scriptReader.pushDataEquals(HexUtil.hexStringToByteArray("F6A9D96485D1D45D28E38662F617BA39A6B151BC")));
+    }
+}
@@ -1,19 +1,169 @@
 package com.softwareverde.bitcoin.transaction.script.runner;
 
+import com.softwareverde.bitcoin.hash.sha256.MutableSha256Hash;
+import com.softwareverde.bitcoin.secp256k1.Secp256k1;
+import com.softwareverde.bitcoin.secp256k1.key.PrivateKey;
+import com.softwareverde.bitcoin.secp256k1.key.PublicKey;
+import com.softwareverde.bitcoin.secp256k1.signature.Signature;
+import com.softwareverde.bitcoin.transaction.MutableTransaction;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionDeflater;
 import com.softwareverde.bitcoin.transaction.TransactionInflater;
+import com.softwareverde.bitcoin.transaction.input.MutableTransactionInput;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.locktime.ImmutableLockTime;
+import com.softwareverde.bitcoin.transaction.locktime.ImmutableSequenceNumber;
+import com.softwareverde.bitcoin.transaction.output.MutableTransactionOutput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.script.Script;
+import com.softwareverde.bitcoin.transaction.script.ScriptType;
+import com.softwareverde.bitcoin.transaction.script.locking.ImmutableLockingScript;
 import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.bitcoin.transaction.script.opcode.Opcode;
 import com.softwareverde.bitcoin.transaction.script.runner.context.MutableContext;
+import com.softwareverde.bitcoin.transaction.script.signature.hashtype.HashType;
+import com.softwareverde.bitcoin.transaction.script.signature.hashtype.Mode;
+import com.softwareverde.bitcoin.transaction.script.unlocking.ImmutableUnlockingScript;
 import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
+import com.softwareverde.bitcoin.transaction.signer.SignatureContext;
+import com.softwareverde.bitcoin.transaction.signer.TransactionSigner;
+import com.softwareverde.bitcoin.util.BitcoinUtil;
+import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.util.HexUtil;
+import com.softwareverde.util.bytearray.ByteArrayBuilder;
+import com.softwareverde.util.bytearray.Endian;
 import org.junit.Assert;
 import org.junit.Test;
 
 public class ScriptRunnerTests {
+    protected static final Long MULTISIG_BLOCK_HEIGHT = 600000L;
+    protected static final HashType MULTISIG_HASH_TYPE = new HashType(Mode.SIGNATURE_HASH_ALL, true, true);
+
+    protected static void _appendPushOperation(final ByteArrayBuilder byteArrayBuilder, final byte[] value) {
+        if (value.length <= Opcode.PUSH_DATA.getMaxValue()) {
+            byteArrayBuilder.appendByte((byte) value.length);
+        }
+        else {
+            byteArrayBuilder.appendByte(Opcode.PUSH_DATA_BYTE.getValue());
+            byteArrayBuilder.appendByte((byte) value.length);
+        }
+        byteArrayBuilder.appendBytes(value, Endian.BIG);
+    }
+
+    protected static PrivateKey[] _createMultisigPrivateKeys() {
+        return new PrivateKey[] {
+            PrivateKey.fromHexString("9A7A1AB5A7CB6C1E1A0F3C1E50F3A9C8C02A3F2FB5A5D31B5D21B8B0D9C14E01"),
+            PrivateKey.fromHexString("4F3EDF983AC636A65A842CE7C78D9AA706D3B113BCE9C46F30D7D21715B23B1D"),
+            PrivateKey.fromHexString("C28A9F80738F770D527803A566CF6FC3EDF6CEA586C4FC4A5223A5AD797E1AC3")
+        };
+    }
+
+    /**
+     * Creates an m-of-n multisig script: OP_m <PublicKey>... OP_n OP_CHECKMULTISIG
+     */
+    protected static LockingScript _createMultisigScript(final Integer requiredSignatureCount, final PrivateKey[] privateKeys) {
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        byteArrayBuilder.appendByte((byte) (Opcode.PUSH_VALUE.getValue() + requiredSignatureCount - 1));
+        for (final PrivateKey privateKey : privateKeys) {
+            final PublicKey publicKey = privateKey.getPublicKey();
+            _appendPushOperation(byteArrayBuilder, publicKey.getBytes());
+        }
+        byteArrayBuilder.appendByte((byte) (Opcode.PUSH_VALUE.getValue() + privateKeys.length - 1));
+        byteArrayBuilder.appendByte(Opcode.CHECK_MULTISIGNATURE.getValue());
+        return new ImmutableLockingScript(MutableByteArray.wrap(byteArrayBuilder.build()));
+    }
+
+    /**
+     * Creates a P2SH script: OP_HASH160 <RedeemScriptHash> OP_EQUAL
+     */
+    protected static LockingScript _createPayToScriptHashScript(final Script redeemScript) {
+        final byte[] redeemScriptHash = BitcoinUtil.ripemd160(BitcoinUtil.sha256(redeemScript.getBytes().getBytes()));
+
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        byteArrayBuilder.appendByte(Opcode.SHA_256_THEN_RIPEMD_160.getValue());
+        _appendPushOperation(byteArrayBuilder, redeemScriptHash);
+        byteArrayBuilder.appendByte(Opcode.IS_EQUAL.getValue());
+        return new ImmutableLockingScript(MutableByteArray.wrap(byteArrayBuilder.build()));
+    }
+
+    /**
+     * Creates an unlockingScript for a multisig script: [<Dummy>] <Signature>... [<RedeemScript>]
+     *  The dummy value is omitted if dummyOpcode is null, and the redeemScript is omitted if it is null.
+     */
+    protected static UnlockingScript _createMultisigUnlockingScript(final Opcode dummyOpcode, final byte[][] signatures, final Script redeemScript) {
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        if (dummyOpcode != null) {
+            byteArrayBuilder.appendByte(dummyOpcode.getValue());
+        }
+        for (final byte[] signature : signatures) {
+            _appendPushOperation(byteArrayBuilder, signature);
+        }
+        if (redeemScript != null) {
+            _appendPushOperation(byteArrayBuilder, redeemScript.getBytes().getBytes());
+        }
+        return new ImmutableUnlockingScript(MutableByteArray.wrap(byteArrayBuilder.build()));
+    }
+
+    protected static Transaction _createTransactionSpending(final TransactionOutput transactionOutputBeingSpent) {
+        final MutableTransaction transaction = new MutableTransaction();
+        transaction.setVersion(1L);
+
+        final MutableTransactionInput transactionInput = new MutableTransactionInput();
+        transactionInput.setPreviousOutputTransactionHash(MutableSha256Hash.wrap(HexUtil.hexStringToByteArray("3B6B7EF9BDA5DB1A8AF7B8C7E1F2A4D3C5B6A7980F1E2D3C4B5A69788796A5B4")));
+        transactionInput.setPreviousOutputIndex(transactionOutputBeingSpent.getIndex());
+        transactionInput.setSequenceNumber(new ImmutableSequenceNumber(0xFFFFFFFFL));
+        transactionInput.setUnlockingScript(UnlockingScript.EMPTY_SCRIPT);
+        transaction.addTransactionInput(transactionInput);
+
+        final MutableTransactionOutput transactionOutput = new MutableTransactionOutput();
+        transactionOutput.setIndex(0);
+        transactionOutput.setAmount(transactionOutputBeingSpent.getAmount() - 1000L);
+        transactionOutput.setLockingScript(new ImmutableLockingScript(MutableByteArray.wrap(HexUtil.hexStringToByteArray("76A9148280B37DF378DB99F66F85C95A783A76AC7A6D5988AC"))));
+        transaction.addTransactionOutput(transactionOutput);
+
+        transaction.setLockTime(new ImmutableLockTime(0L));
+        return transaction;
+    }
+
+    protected static MutableTransactionOutput _createTransactionOutput(final LockingScript lockingScript) {
+        final MutableTransactionOutput transactionOutput = new MutableTransactionOutput();
+        transactionOutput.setIndex(0);
+        transactionOutput.setAmount(100000L);
+        transactionOutput.setLockingScript(lockingScript);
+        return transactionOutput;
+    }
+
+    protected static MutableContext _createContext(final Transaction transaction, final TransactionOutput transactionOutputBeingSpent) {
+        final MutableContext context = new MutableContext();
+        context.setTransaction(transaction);
+        context.setTransactionInputIndex(0);
+        context.setTransactionInput(transaction.getTransactionInputs().get(0));
+        context.setTransactionOutputBeingSpent(transactionOutputBeingSpent);
+        context.setBlockHeight(MULTISIG_BLOCK_HEIGHT);
+        return context;
+    }
+
+    /**
+     * Signs the context's TransactionInput with privateKey, where signedScript is the script containing the OP_CHECKMULTISIG
+     *  (i.e. the lockingScript of a bare multisig, or the redeemScript of a P2SH multisig).
+     *  Returns the signature as it is pushed by the unlockingScript (i.e. DER-encoded, followed by the HashType).
+     */
+    protected static byte[] _signMultisigInput(final MutableContext context, final Script signedScript, final PrivateKey privateKey) {
+        final TransactionSigner transactionSigner = new TransactionSigner();
+        final SignatureContext signatureContext = new SignatureContext(context.getTransaction(), MULTISIG_HASH_TYPE, context.getBlockHeight());
+        signatureContext.setInputIndexBeingSigned(context.getTransactionInputIndex());
+        signatureContext.setShouldSignInputScript(context.getTransactionInputIndex(), true, context.getTransactionOutput());
+        signatureContext.setCurrentScript(signedScript);
+
+        final Signature signature = Secp256k1.sign(privateKey.getBytes(), transactionSigner.getBytesForSigning(signatureContext));
+
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        byteArrayBuilder.appendBytes(signature.encodeAsDer());
+        byteArrayBuilder.appendByte(MULTISIG_HASH_TYPE.toByte());
+        return byteArrayBuilder.build();
+    }
+
     @Test
     public void should_execute_checksig_transaction() {
         // Setup
@@ -122,4 +272,158 @@ public class ScriptRunnerTests {
             Assert.assertTrue(inputIsUnlocked);
         }
     }
+
+    @Test
+    public void should_verify_pay_to_public_key_hash_identically_to_the_interpreter() {
+        // Setup
+        final TransactionInflater transactionInflater = new TransactionInflater();
+        final ScriptRunner scriptRunner = new ScriptRunner();
+        scriptRunner.setDifferentialVerificationEnabled(true);
+
+        final Transaction transactionBeingSpent = transactionInflater.fromBytes(HexUtil.hexStringToByteArray(
+            "01000000015AEFC06AF14A9216350A1F549971E0C8381D69B00B492CA20663CAEB5F191825010000006B4830450220210947BCC472D558BED1A36A573BC3C5E11914BE685E868639A46B330AE1879B022100964512E526759EE915A3178F43520CF53D2C38E18A229062EEAB8E2D544A91990121021B36AF5FEDC577DFBF74D75060B20305F1D9127A3C7A7373EF91BF684F6A0491FFFFFFFF0246FBBB84000000001976A914F6A9D96485D1D45D28E38662F617BA39A6B151BB88AC00093D00000000001976A914D948D7A14685B7B5B528034137AA4C590F84F62988AC00000000"
+        ));
+        final Transaction transaction = transactionInflater.fromBytes(HexUtil.hexStringToByteArray(
+            "0100000001BF9705FAE2004CC9072D7C6D73BC8F38A0A7C67DACEED5FC42E0D20AC8D898C0000000006B483045022100CB0093D91F09644065AC05424DE3DE709C90A9BC963945EE149EAA1CF7B13DA802200EFE508E68A5E2F9C3CBD851B66EB597803ACCDC2F45F07BFD5488DA476727FE0121039500311F6688A8C16A570853AC22230F4B1E0A551D8846550FE4AE56F9799E80FFFFFFFF0200E1F505000000001976A914C23E891A29D290DDB454EBF3456EEAEC56412AB988AC36F3C57E000000001976A914DB89750F929FBD94A8018767A49EF6FC6AC7E46888AC00000000"
+        ));
+
+        final TransactionInput transactionInput = transaction.getTransactionInputs().get(0);
+        final TransactionOutput transactionOutputBeingSpent = transactionBeingSpent.getTransactionOutputs().get(0);
+        final TransactionOutput unrelatedTransactionOutput = transactionBeingSpent.getTransactionOutputs().get(1); // Locked to a different PublicKey hash...
+
+        final MutableContext context = new MutableContext();
+        context.setTransaction(transaction);
+        context.setTransactionInputIndex(0);
+        context.setTransactionInput(transactionInput);
+        context.setTransactionOutputBeingSpent(transactionOutputBeingSpent);
+        context.setBlockHeight(0L);
+
+        final UnlockingScript unlockingScript = transactionInput.getUnlockingScript();
+        Assert.assertEquals(ScriptType.PAY_TO_PUBLIC_KEY_HASH, transactionOutputBeingSpent.getLockingScript().getScriptType());
+
+        // Action
+        final Boolean inputIsUnlocked = scriptRunner.runScript(transactionOutputBeingSpent.getLockingScript(), unlockingScript, context);
+        final Boolean specializedResult = scriptRunner._runStandardScript(transactionOutputBeingSpent.getLockingScript(), ScriptType.PAY_TO_PUBLIC_KEY_HASH, unlockingScript, context);
+        final Boolean unrelatedOutputIsUnlocked = scriptRunner.runScript(unrelatedTransactionOutput.getLockingScript(), unlockingScript, context);
+        final Boolean unrelatedOutputSpecializedResult = scriptRunner._runStandardScript(unrelatedTransactionOutput.getLockingScript(), ScriptType.PAY_TO_PUBLIC_KEY_HASH, unlockingScript, context);
+
+        // Assert
+        Assert.assertTrue(inputIsUnlocked);
+        Assert.assertTrue(specializedResult);
+        Assert.assertFalse(unrelatedOutputIsUnlocked);
+        Assert.assertFalse(unrelatedOutputSpecializedResult);
+    }
+
+    @Test
+    public void should_verify_bare_multisig_identically_to_the_interpreter() {
+        // Setup
+        final ScriptRunner scriptRunner = new ScriptRunner();
+        scriptRunner.setDifferentialVerificationEnabled(true);
+
+        final PrivateKey[] privateKeys = _createMultisigPrivateKeys();
+        final LockingScript lockingScript = _createMultisigScript(2, privateKeys);
+        final TransactionOutput transactionOutputBeingSpent = _createTransactionOutput(lockingScript);
+        final Transaction transaction = _createTransactionSpending(transactionOutputBeingSpent);
+        final MutableContext context = _createContext(transaction, transactionOutputBeingSpent);
+
+        final byte[] signature0 = _signMultisigInput(context, lockingScript, privateKeys[0]);
+        final byte[] signature2 = _signMultisigInput(context, lockingScript, privateKeys[2]);
+
+        final UnlockingScript validUnlockingScript = _createMultisigUnlockingScript(Opcode.PUSH_ZERO, new byte[][] { signature0, signature2 }, null);
+        final UnlockingScript wrongOrderUnlockingScript = _createMultisigUnlockingScript(Opcode.PUSH_ZERO, new byte[][] { signature2, signature0 }, null);
+        final UnlockingScript missingDummyUnlockingScript = _createMultisigUnlockingScript(null, new byte[][] { signature0, signature2 }, null);
+        final UnlockingScript nonNullDummyUnlockingScript = _createMultisigUnlockingScript(Opcode.PUSH_NEGATIVE_ONE, new byte[][] { signature0, signature2 }, null);
+
+        final ScriptType scriptType = lockingScript.getScriptType();
+        Assert.assertNotEquals(ScriptType.PAY_TO_PUBLIC_KEY_HASH, scriptType);
+        Assert.assertNotEquals(ScriptType.PAY_TO_SCRIPT_HASH, scriptType);
+
+        // Action
+        final Boolean validSpecializedResult = scriptRunner._runStandardScript(lockingScript, scriptType, validUnlockingScript, context);
+        final Boolean validResult = scriptRunner.runScript(lockingScript, validUnlockingScript, context);
+        final Boolean validInterpretedResult = scriptRunner._runScript(lockingScript, scriptType, validUnlockingScript, context);
+
+        final Boolean wrongOrderResult = scriptRunner.runScript(lockingScript, wrongOrderUnlockingScript, context);
+        final Boolean wrongOrderInterpretedResult = scriptRunner._runScript(lockingScript, scriptType, wrongOrderUnlockingScript, context);
+
+        final Boolean missingDummyResult = scriptRunner.runScript(lockingScript, missingDummyUnlockingScript, context);
+        final Boolean missingDummyInterpretedResult = scriptRunner._runScript(lockingScript, scriptType, missingDummyUnlockingScript, context);
+
+        final Boolean nonNullDummyResult = scriptRunner.runScript(lockingScript, nonNullDummyUnlockingScript, context);
+        final Boolean nonNullDummyInterpretedResult = scriptRunner._runScript(lockingScript, scriptType, nonNullDummyUnlockingScript, context);
+
+        // Assert
+        Assert.assertNull(validSpecializedResult); // Bare multisig is not template-specialized, so it must always fall back to the interpreter...
+
+        Assert.assertTrue(validInterpretedResult);
+        Assert.assertEquals(validInterpretedResult, validResult);
+
+        Assert.assertFalse(wrongOrderInterpretedResult); // Signatures must appear in the same order as their PublicKeys...
+        Assert.assertEquals(wrongOrderInterpretedResult, wrongOrderResult);
+
+        Assert.assertFalse(missingDummyInterpretedResult); // OP_CHECKMULTISIG pops one more value than it consumes...
+        Assert.assertEquals(missingDummyInterpretedResult, missingDummyResult);
+
+        Assert.assertEquals(nonNullDummyInterpretedResult, nonNullDummyResult); // NOTE: NULLDUMMY is not enforced by the interpreter; only agreement is required...
+    }
+
+    @Test
+    public void should_verify_pay_to_script_hash_multisig_identically_to_the_interpreter() {
+        // Setup
+        final ScriptRunner scriptRunner = new ScriptRunner();
+        scriptRunner.setDifferentialVerificationEnabled(true);
+
+        final PrivateKey[] privateKeys = _createMultisigPrivateKeys();
+        final LockingScript redeemScript = _createMultisigScript(2, privateKeys);
+        final LockingScript lockingScript = _createPayToScriptHashScript(redeemScript);
+        final LockingScript otherLockingScript = _createPayToScriptHashScript(_createMultisigScript(1, privateKeys)); // Locked to the hash of a different redeemScript...
+
+        final TransactionOutput transactionOutputBeingSpent = _createTransactionOutput(lockingScript);
+        final TransactionOutput otherTransactionOutputBeingSpent = _createTransactionOutput(otherLockingScript);
+        final Transaction transaction = _createTransactionSpending(transactionOutputBeingSpent);
+        final MutableContext context = _createContext(transaction, transactionOutputBeingSpent);
+        final MutableContext otherContext = _createContext(transaction, otherTransactionOutputBeingSpent);
+
+        final byte[] signature0 = _signMultisigInput(context, redeemScript, privateKeys[0]);
+        final byte[] signature2 = _signMultisigInput(context, redeemScript, privateKeys[2]);
+
+        final UnlockingScript validUnlockingScript = _createMultisigUnlockingScript(Opcode.PUSH_ZERO, new byte[][] { signature0, signature2 }, redeemScript);
+        final UnlockingScript wrongOrderUnlockingScript = _createMultisigUnlockingScript(Opcode.PUSH_ZERO, new byte[][] { signature2, signature0 }, redeemScript);
+        final UnlockingScript missingDummyUnlockingScript = _createMultisigUnlockingScript(null, new byte[][] { signature0, signature2 }, redeemScript);
+        final UnlockingScript nonNullDummyUnlockingScript = _createMultisigUnlockingScript(Opcode.PUSH_NEGATIVE_ONE, new byte[][] { signature0, signature2 }, redeemScript);
+
+        Assert.assertEquals(ScriptType.PAY_TO_SCRIPT_HASH, lockingScript.getScriptType());
+        Assert.assertEquals(ScriptType.PAY_TO_SCRIPT_HASH, otherLockingScript.getScriptType());
+
+        // Action
+        final Boolean validSpecializedResult = scriptRunner._runStandardScript(lockingScript, ScriptType.PAY_TO_SCRIPT_HASH, validUnlockingScript, context);
+        final Boolean validInterpretedResult = scriptRunner._runScript(lockingScript, ScriptType.PAY_TO_SCRIPT_HASH, validUnlockingScript, context);
+
+        final Boolean wrongOrderSpecializedResult = scriptRunner._runStandardScript(lockingScript, ScriptType.PAY_TO_SCRIPT_HASH, wrongOrderUnlockingScript, context);
+        final Boolean wrongOrderInterpretedResult = scriptRunner._runScript(lockingScript, ScriptType.PAY_TO_SCRIPT_HASH, wrongOrderUnlockingScript, context);
+
+        final Boolean missingDummySpecializedResult = scriptRunner._runStandardScript(lockingScript, ScriptType.PAY_TO_SCRIPT_HASH, missingDummyUnlockingScript, context);
+        final Boolean missingDummyInterpretedResult = scriptRunner._runScript(lockingScript, ScriptType.PAY_TO_SCRIPT_HASH, missingDummyUnlockingScript, context);
+
+        final Boolean nonNullDummySpecializedResult = scriptRunner._runStandardScript(lockingScript, ScriptType.PAY_TO_SCRIPT_HASH, nonNullDummyUnlockingScript, context);
+        final Boolean nonNullDummyInterpretedResult = scriptRunner._runScript(lockingScript, ScriptType.PAY_TO_SCRIPT_HASH, nonNullDummyUnlockingScript, context);
+
+        final Boolean wrongRedeemScriptSpecializedResult = scriptRunner._runStandardScript(otherLockingScript, ScriptType.PAY_TO_SCRIPT_HASH, validUnlockingScript, otherContext);
+        final Boolean wrongRedeemScriptInterpretedResult = scriptRunner._runScript(otherLockingScript, ScriptType.PAY_TO_SCRIPT_HASH, validUnlockingScript, otherContext);
+
+        // Assert
+        Assert.assertTrue(validInterpretedResult);
+        Assert.assertEquals(validInterpretedResult, validSpecializedResult);
+
+        Assert.assertFalse(wrongOrderInterpretedResult); // Signatures must appear in the same order as their PublicKeys...
+        Assert.assertEquals(wrongOrderInterpretedResult, wrongOrderSpecializedResult);
+
+        Assert.assertFalse(missingDummyInterpretedResult); // OP_CHECKMULTISIG pops one more value than it consumes...
+        Assert.assertEquals(missingDummyInterpretedResult, missingDummySpecializedResult);
+
+        Assert.assertEquals(nonNullDummyInterpretedResult, nonNullDummySpecializedResult); // NOTE: NULLDUMMY is not enforced by the interpreter; only agreement is required...
+
+        Assert.assertFalse(wrongRedeemScriptInterpretedResult);
+        Assert.assertEquals(wrongRedeemScriptInterpretedResult, wrongRedeemScriptSpecializedResult);
+    }
 }
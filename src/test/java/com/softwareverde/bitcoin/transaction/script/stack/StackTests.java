@@ -0,0 +1,60 @@
+package com.softwareverde.bitcoin.transaction.script.stack;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StackTests {
+    @Test
+    public void should_peak_and_pop_from_the_top_of_the_stack() {
+        // Setup
+        final Stack stack = new Stack();
+        for (long i = 0L; i < 100L; ++i) { // Exceeds the initial capacity...
+            stack.push(Value.fromInteger(i));
+        }
+
+        // Action
+        final Value peakedValue = stack.peak(2);
+        final Value poppedValue = stack.pop(2);
+        final Value topValue = stack.pop();
+
+        // Assert
+        Assert.assertEquals(Long.valueOf(97L), peakedValue.asLong());
+        Assert.assertEquals(Long.valueOf(97L), poppedValue.asLong());
+        Assert.assertEquals(Long.valueOf(99L), topValue.asLong());
+        Assert.assertEquals(Long.valueOf(98L), stack.peak().asLong());
+        Assert.assertEquals(Long.valueOf(96L), stack.peak(1).asLong());
+        Assert.assertEquals(Integer.valueOf(97), stack.getSize());
+        Assert.assertFalse(stack.didOverflow());
+    }
+
+    @Test
+    public void should_not_share_values_with_a_copied_stack() {
+        // Setup
+        final Stack stack = new Stack();
+        stack.push(Value.fromInteger(1L));
+        stack.push(Value.fromInteger(2L));
+
+        // Action
+        final Stack copiedStack = new Stack(stack);
+        copiedStack.pop();
+        copiedStack.push(Value.fromInteger(3L));
+
+        // Assert
+        Assert.assertEquals(Long.valueOf(2L), stack.peak().asLong());
+        Assert.assertEquals(Long.valueOf(3L), copiedStack.peak().asLong());
+        Assert.assertEquals(Integer.valueOf(2), copiedStack.getSize());
+    }
+
+    @Test
+    public void should_overflow_when_popping_an_empty_stack() {
+        // Setup
+        final Stack stack = new Stack();
+
+        // Action
+        final Value value = stack.pop();
+
+        // Assert
+        Assert.assertSame(Stack.OVERFLOW_VALUE, value);
+        Assert.assertTrue(stack.didOverflow());
+    }
+}
@@ -279,4 +279,34 @@ public class ValueTests {
             Assert.assertEquals(value, Value.fromBytes(bytes).asLong().longValue());
         }
     }
+
+    @Test
+    public void should_share_small_integer_and_boolean_values() {
+        // Setup
+        // Action
+        final Value one = Value.fromInteger(1L);
+        final Value negativeOne = Value.fromInteger(-1L);
+        final Value largeValue = Value.fromInteger(0xFF00L);
+
+        // Assert
+        Assert.assertSame(Value.TRUE, one);
+        Assert.assertSame(Value.fromBoolean(true), one);
+        Assert.assertSame(Value.fromBoolean(false), Value.fromInteger(0L));
+        Assert.assertSame(negativeOne, Value.fromInteger(-1L));
+        Assert.assertEquals(Integer.valueOf(0), Value.FALSE.getByteCount());
+        TestUtil.assertEqual(HexUtil.hexStringToByteArray("81"), negativeOne.getBytes());
+        TestUtil.assertEqual(HexUtil.hexStringToByteArray("00FF00"), largeValue.getBytes());
+        Assert.assertEquals(Long.valueOf(0xFF00L), largeValue.asLong());
+    }
+
+    @Test
+    public void should_detect_minimally_encoded_integers() {
+        Assert.assertTrue(Value.fromBytes(new byte[0]).isMinimallyEncodedInteger());
+        Assert.assertTrue(Value.fromBytes(HexUtil.hexStringToByteArray("8000")).isMinimallyEncodedInteger());
+        Assert.assertTrue(Value.fromBytes(HexUtil.hexStringToByteArray("00FF80")).isMinimallyEncodedInteger());
+        Assert.assertFalse(Value.fromBytes(HexUtil.hexStringToByteArray("00")).isMinimallyEncodedInteger());
+        Assert.assertFalse(Value.fromBytes(HexUtil.hexStringToByteArray("80")).isMinimallyEncodedInteger());
+        Assert.assertFalse(Value.fromBytes(HexUtil.hexStringToByteArray("0100")).isMinimallyEncodedInteger());
+        Assert.assertFalse(Value.fromBytes(HexUtil.hexStringToByteArray("010080")).isMinimallyEncodedLong());
+    }
 }
@@ -8,6 +8,7 @@ import com.softwareverde.bitcoin.transaction.TransactionInflater;
 import com.softwareverde.bitcoin.transaction.input.MutableTransactionInput;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
 import com.softwareverde.bitcoin.transaction.locktime.ImmutableLockTime;
+import com.softwareverde.bitcoin.transaction.locktime.ImmutableSequenceNumber;
 import com.softwareverde.bitcoin.transaction.locktime.LockTime;
 import com.softwareverde.bitcoin.transaction.locktime.SequenceNumber;
 import com.softwareverde.bitcoin.transaction.output.MutableTransactionOutput;
@@ -102,4 +103,118 @@ public class TransactionSignerTests {
             Assert.assertTrue(inputIsUnlocked);
         }
     }
+
+    /**
+     * Creates the unsigned transaction of BIP143's "Native P2WPKH" example: two inputs (with distinct sequence numbers), two outputs,
+     *  and a LockTime of 17.  The outputs being spent are returned via transactionOutputsBeingSpent.
+     */
+    protected static Transaction _createBip143Transaction(final TransactionOutput[] transactionOutputsBeingSpent) {
+        final MutableTransaction transaction = new MutableTransaction();
+        transaction.setVersion(1L);
+
+        final String[] previousTransactionHashes = new String[] { "9F96ADE4B41D5433F4EDA31E1738EC2B36F6E7D1420D94A6AF99801A88F7F7FF", "8AC60EB9575DB5B2D987E29F301B5B819EA83A5C6579D282D189CC04B8E151EF" };
+        final Long[] sequenceNumbers = new Long[] { 0xFFFFFFEEL, 0xFFFFFFFFL };
+        final String[] lockingScriptsBeingSpent = new String[] { "2103C9F4836B9A4F77FC0D81F7BCB01B7F1B35916864B9476C241CE9FC198BD25432AC", "76A9141D0F172A0ECB48AEE1BE1F2687D2963AE33F71A188AC" };
+        final Long[] amountsBeingSpent = new Long[] { 625000000L, 600000000L };
+        for (int i = 0; i < previousTransactionHashes.length; ++i) {
+            final MutableTransactionInput transactionInput = new MutableTransactionInput();
+            transactionInput.setPreviousOutputTransactionHash(MutableSha256Hash.wrap(HexUtil.hexStringToByteArray(previousTransactionHashes[i])));
+            transactionInput.setPreviousOutputIndex(i);
+            transactionInput.setSequenceNumber(new ImmutableSequenceNumber(sequenceNumbers[i]));
+            transactionInput.setUnlockingScript(UnlockingScript.EMPTY_SCRIPT);
+            transaction.addTransactionInput(transactionInput);
+
+            final MutableTransactionOutput transactionOutputBeingSpent = new MutableTransactionOutput();
+            transactionOutputBeingSpent.setIndex(i);
+            transactionOutputBeingSpent.setAmount(amountsBeingSpent[i]);
+            transactionOutputBeingSpent.setLockingScript(new ImmutableLockingScript(MutableByteArray.wrap(HexUtil.hexStringToByteArray(lockingScriptsBeingSpent[i]))));
+            transactionOutputsBeingSpent[i] = transactionOutputBeingSpent;
+        }
+
+        final String[] outputLockingScripts = new String[] { "76A9148280B37DF378DB99F66F85C95A783A76AC7A6D5988AC", "76A9143BDE42DBEE7E4DBE6A21B2D50CE2F0167FAA815988AC" };
+        final Long[] outputAmounts = new Long[] { 112340000L, 223450000L };
+        for (int i = 0; i < outputLockingScripts.length; ++i) {
+            final MutableTransactionOutput transactionOutput = new MutableTransactionOutput();
+            transactionOutput.setLockingScript(new ImmutableLockingScript(MutableByteArray.wrap(HexUtil.hexStringToByteArray(outputLockingScripts[i]))));
+            transactionOutput.setAmount(outputAmounts[i]);
+            transactionOutput.setIndex(i);
+            transaction.addTransactionOutput(transactionOutput);
+        }
+
+        transaction.setLockTime(new ImmutableLockTime(17L));
+        return transaction;
+    }
+
+    @Test
+    public void should_create_bip143_hash_for_signing() {
+        // Example taken from BIP143's "Native P2WPKH" test vector; the Bitcoin Cash algorithm is BIP143 without the fork-id flag.
+
+        // Setup
+        final String expectedHashToSign = "C37AF31116D1B27CAF68AAE9E3AC82F1477929014D5B917657D0EB49478CB670";
+
+        final TransactionOutput[] transactionOutputsBeingSpent = new TransactionOutput[2];
+        final Transaction transaction = _createBip143Transaction(transactionOutputsBeingSpent);
+
+        final TransactionSigner transactionSigner = new TransactionSigner();
+        final SignatureContext signatureContext = new SignatureContext(transaction, new HashType(Mode.SIGNATURE_HASH_ALL, true, false), Long.MAX_VALUE);
+        signatureContext.setInputIndexBeingSigned(1);
+        signatureContext.setShouldSignInputScript(1, true, transactionOutputsBeingSpent[1]);
+
+        // Action
+        final byte[] bytesForSigning = transactionSigner._getBitcoinCashBytesForSigning(signatureContext);
+
+        // Assert
+        TestUtil.assertEqual(HexUtil.hexStringToByteArray(expectedHashToSign), bytesForSigning);
+    }
+
+    @Test
+    public void should_create_bitcoin_cash_hash_for_signing_for_each_hash_type_with_and_without_precomputed_signature_data() {
+        // Setup
+        final TransactionOutput[] transactionOutputsBeingSpent = new TransactionOutput[2];
+        final Transaction transaction = _createBip143Transaction(transactionOutputsBeingSpent);
+
+        final HashType[] hashTypes = new HashType[] {
+            new HashType(Mode.SIGNATURE_HASH_ALL, true, true),
+            new HashType(Mode.SIGNATURE_HASH_NONE, true, true),
+            new HashType(Mode.SIGNATURE_HASH_SINGLE, true, true),
+            new HashType(Mode.SIGNATURE_HASH_ALL, false, true),
+            new HashType(Mode.SIGNATURE_HASH_NONE, false, true),
+            new HashType(Mode.SIGNATURE_HASH_SINGLE, false, true)
+        };
+
+        // Expected hashes for each hashType, by input index (i.e. ALL|FORKID, NONE|FORKID, SINGLE|FORKID, and then each with ANYONECANPAY)...
+        final String[][] expectedHashesToSign = new String[][] {
+            { "46FD23B09D712E49BE52432FE242D2524564B62252B8ABE1F7F60252EC4E4E23", "467F411D178762DB122A6ACED76370A1C8324355BF0796502BF82EEAEDA86A35" },
+            { "2AE2F27AB73859DDAFD3D6E3011C8C777A70025FDD9E573AEF71A4A8F3558D65", "C0876AA9DFD131AC207BE062E389741416A87A5D1B28E4857C178990454DD498" },
+            { "027CA45606409D7A2A7DCEDBB0AAC61065C7D05D426F8EE40DD943FB8D1F9CC8", "ABB61BA86E14313425D25846ED3A30904DE1F081E013D80C385E165C2AF1E020" },
+            { "315E35D475993C66EFC0C8C9808F2FCDC9ABD47321F55E8C0CE8C836C7617E64", "A5890CE40DC95A89717AE6FA3C9D60BCF9372539058C7E9A0CD8FF7909723326" },
+            { "B5E4EF098B797EEF1DE5D04AAEEAC32BAFA2BB64E17D6CAEADAD9A0E2D715599", "E58EBFD50F957A45C5F68439E55C6AE6054A3310FF2A116EFA07D2BDA2527BD3" },
+            { "53F27D336B5311939344B54D41DC1D79FED7D0B833D8D74D289B5E2B27B968E2", "4E303851715B6EE36582740F43CC288C969E88AFC641F14E3E8E68D32C406C1B" }
+        };
+
+        final TransactionSigner transactionSigner = new TransactionSigner();
+        final PrecomputedSignatureData precomputedSignatureData = new PrecomputedSignatureData(transaction);
+
+        for (int i = 0; i < hashTypes.length; ++i) {
+            final HashType hashType = hashTypes[i];
+            for (int inputIndex = 0; inputIndex < transactionOutputsBeingSpent.length; ++inputIndex) {
+                final SignatureContext signatureContext = new SignatureContext(transaction, hashType, Long.MAX_VALUE);
+                signatureContext.setInputIndexBeingSigned(inputIndex);
+                signatureContext.setShouldSignInputScript(inputIndex, true, transactionOutputsBeingSpent[inputIndex]);
+
+                final SignatureContext precomputedSignatureContext = new SignatureContext(transaction, hashType, Long.MAX_VALUE, precomputedSignatureData);
+                precomputedSignatureContext.setInputIndexBeingSigned(inputIndex);
+                precomputedSignatureContext.setShouldSignInputScript(inputIndex, true, transactionOutputsBeingSpent[inputIndex]);
+
+                // Action
+                final byte[] bytesForSigning = transactionSigner._getBytesForSigning(signatureContext);
+                final byte[] precomputedBytesForSigning = transactionSigner._getBytesForSigning(precomputedSignatureContext);
+
+                // Assert
+                final byte[] expectedBytesForSigning = HexUtil.hexStringToByteArray(expectedHashesToSign[i][inputIndex]);
+                TestUtil.assertEqual(expectedBytesForSigning, bytesForSigning);
+                TestUtil.assertEqual(expectedBytesForSigning, precomputedBytesForSigning);
+            }
+        }
+    }
 }